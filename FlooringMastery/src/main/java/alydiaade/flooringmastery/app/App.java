@@ -1,19 +1,23 @@
 package alydiaade.flooringmastery.app;
 
 import alydiaade.flooringmastery.controller.FlooringController;
-import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
 /**
- * This class is utilised to run the app.
+ * This class is utilised to run the app. The context is closed when the user
+ * exits, or by the shutdown hook if the app is stopped, so the beans' destroy
+ * methods save their state.
  * @author lydiaadejumo
  */
 
 public class App {
     
     public static void main(String[] args) {
-        ApplicationContext ctx = new ClassPathXmlApplicationContext("applicationContext.xml");
-        FlooringController controller = ctx.getBean("controller", FlooringController.class);
-        controller.run();
+        try (ConfigurableApplicationContext ctx = new ClassPathXmlApplicationContext("applicationContext.xml")) {
+            ctx.registerShutdownHook();
+            FlooringController controller = ctx.getBean("controller", FlooringController.class);
+            controller.run();
+        }
     }
 }
@@ -0,0 +1,380 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is an asynchronous appender for the audit log. Callers put their entries
+ * on a bounded ring buffer, claiming a slot with a compare-and-set rather than a
+ * lock, and a single background thread drains the buffer into one long-lived
+ * buffered writer. Entries are written in the order their slots were claimed,
+ * so the entries of one caller stay in the order they were made.
+ *
+ * When the buffer is full an entry is handled by the overflow policy. BLOCK
+ * waits for a free slot, DROP discards the entry and counts it, and SPILL
+ * appends it to a spill file next to the audit log. Once an entry has been
+ * spilled, later entries are spilled too until the background thread has
+ * copied the spill file into the audit log, which keeps them in order.
+ * @author lydiaadejumo
+ */
+public class AsyncAuditWriter {
+
+    /**
+     * The default number of entries the ring buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The default time between flushes of the audit log.
+     */
+    public static final long DEFAULT_FLUSH_MILLIS = 100;
+
+    /**
+     * What happens to an entry when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP, SPILL
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final File auditFile;
+    private final File spillFile;
+    private final OverflowPolicy overflowPolicy;
+    private final long flushNanos;
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong flushRequested = new AtomicLong();
+    private final AtomicLong droppedEntries = new AtomicLong();
+    private final AtomicLong spilledEntries = new AtomicLong();
+    private final Object spillLock = new Object();
+    private final Object flushMonitor = new Object();
+    private BufferedWriter out;
+    private volatile AuditLogRotation rotation;
+    private final Thread drainThread;
+    private BufferedWriter spillWriter;
+    private volatile boolean spilling;
+    private volatile boolean drainWaiting;
+    private volatile boolean closing;
+    private volatile long flushCompleted;
+
+    /**
+     * The writer constructor, which opens the audit log and starts the drain
+     * thread. Entries left in a spill file by a crash are copied in first.
+     * @param auditFile - the audit log file
+     * @param capacity - the number of entries the buffer holds, rounded up to a power of two
+     * @param overflowPolicy - what happens to an entry when the buffer is full
+     * @param flushMillis - the most time an entry waits in the writer's buffer
+     * before it is flushed, 0 flushes after every drained batch
+     * @throws IOException - if the audit log cannot be opened
+     */
+    public AsyncAuditWriter(File auditFile, int capacity, OverflowPolicy overflowPolicy, long flushMillis)
+            throws IOException {
+        this.auditFile = auditFile;
+        this.spillFile = new File(auditFile.getPath() + ".spill");
+        this.overflowPolicy = overflowPolicy;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushMillis));
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.out = new BufferedWriter(new FileWriter(auditFile, true));
+        if (spillFile.exists()) {
+            copySpillFile();
+        }
+        drainThread = new Thread(this::runDrain, "audit-drain-" + auditFile.getName());
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * Puts an entry on the buffer without waiting for it to be written.
+     * @param entry - the audit entry, without a line separator
+     * @return false if the entry was dropped because the buffer was full
+     * @throws OrderPersistenceException - if the writer has been closed
+     */
+    public boolean offer(String entry) throws OrderPersistenceException {
+        if (closing) {
+            throw new OrderPersistenceException("Could not persist audit information, the audit log is closed.");
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && spilling && spillIfSpilling(entry)) {
+            return true;
+        }
+        while (!tryClaim(entry)) {
+            switch (overflowPolicy) {
+                case DROP:
+                    droppedEntries.incrementAndGet();
+                    return false;
+                case SPILL:
+                    synchronized (spillLock) {
+                        spill(entry);
+                    }
+                    return true;
+                default:
+                    LockSupport.unpark(drainThread);
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                    if (closing) {
+                        throw new OrderPersistenceException("Could not persist audit information, "
+                                + "the audit log is closed.");
+                    }
+            }
+        }
+        if (drainWaiting) {
+            LockSupport.unpark(drainThread);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every entry put on the buffer before this call has been
+     * written and flushed to the audit log, e.g. before the log is read.
+     */
+    public void flush() {
+        long request = flushRequested.incrementAndGet();
+        LockSupport.unpark(drainThread);
+        synchronized (flushMonitor) {
+            while (flushCompleted < request && drainThread.isAlive()) {
+                try {
+                    flushMonitor.wait(IDLE_PARK_NANOS / 1_000_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every entry still on the buffer, then stops the drain thread and
+     * closes the audit log. This is called once nothing else is making entries,
+     * e.g. when the app is closing.
+     */
+    public void close() {
+        closing = true;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sets the rotation of the audit log, which the drain thread then checks
+     * before each entry.
+     * @param rotation - the rotation of the audit log
+     */
+    public void setRotation(AuditLogRotation rotation) {
+        this.rotation = rotation;
+    }
+
+    /**
+     * Gets the number of entries dropped because the buffer was full.
+     * @return the number of dropped entries
+     */
+    public long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    /**
+     * Gets the number of entries spilled because the buffer was full.
+     * @return the number of spilled entries
+     */
+    public long getSpilledEntries() {
+        return spilledEntries.get();
+    }
+
+    /**
+     * Claims the next slot and publishes the entry in it, as long as the
+     * buffer has room.
+     * @param entry - the audit entry
+     * @return false if the buffer is full
+     */
+    private boolean tryClaim(String entry) {
+        while (true) {
+            long claim = tail.get();
+            if (claim - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(claim, claim + 1)) {
+                //The drain thread waits on an empty slot until it is published
+                slots.set((int) (claim & mask), entry);
+                return true;
+            }
+        }
+    }
+
+    private boolean spillIfSpilling(String entry) {
+        synchronized (spillLock) {
+            if (!spilling) {
+                return false;
+            }
+            spill(entry);
+            return true;
+        }
+    }
+
+    /**
+     * Appends an entry to the spill file, while the caller holds the spill lock.
+     * @param entry - the audit entry
+     */
+    private void spill(String entry) {
+        try {
+            if (spillWriter == null) {
+                spillWriter = new BufferedWriter(new FileWriter(spillFile, true));
+            }
+            spillWriter.write(entry);
+            spillWriter.newLine();
+            spillWriter.flush();
+            spilling = true;
+            spilledEntries.incrementAndGet();
+        } catch (IOException e) {
+            droppedEntries.incrementAndGet();
+            Logger.getLogger(AsyncAuditWriter.class.getName()).log(Level.SEVERE,
+                    "Could not spill an audit entry, it has been dropped.", e);
+        }
+    }
+
+    private void runDrain() {
+        long lastFlush = System.nanoTime();
+        boolean unflushed = false;
+        while (true) {
+            long flushTarget = flushRequested.get();
+            long tailTarget = tail.get();
+            int drained = drainRing();
+            boolean ringEmpty = head.get() == tail.get();
+            if (ringEmpty && spilling) {
+                drainSpill();
+                drained++;
+            }
+            unflushed |= drained > 0;
+            boolean finished = closing && ringEmpty && !spilling;
+            boolean flushWanted = flushTarget > flushCompleted && head.get() >= tailTarget && !spilling;
+            long now = System.nanoTime();
+            if (unflushed && (flushWanted || finished || now - lastFlush >= flushNanos)) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    Logger.getLogger(AsyncAuditWriter.class.getName()).log(Level.SEVERE,
+                            "Could not flush the audit log " + auditFile.getName(), e);
+                }
+                unflushed = false;
+                lastFlush = now;
+            }
+            if (flushWanted) {
+                synchronized (flushMonitor) {
+                    flushCompleted = flushTarget;
+                    flushMonitor.notifyAll();
+                }
+            }
+            if (finished) {
+                break;
+            }
+            if (drained == 0) {
+                drainWaiting = true;
+                if (head.get() == tail.get() && !closing && flushRequested.get() == flushCompleted) {
+                    LockSupport.parkNanos(unflushed ? Math.min(flushNanos, IDLE_PARK_NANOS) : IDLE_PARK_NANOS);
+                } else {
+                    //A claimed slot hasn't been published yet
+                    Thread.onSpinWait();
+                }
+                drainWaiting = false;
+            }
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            Logger.getLogger(AsyncAuditWriter.class.getName()).log(Level.SEVERE,
+                    "Could not close the audit log " + auditFile.getName(), e);
+        }
+        synchronized (flushMonitor) {
+            flushCompleted = Long.MAX_VALUE;
+            flushMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Writes every published entry from the buffer to the audit log, stopping
+     * at the first slot that has been claimed but not yet published.
+     * @return the number of entries written
+     */
+    private int drainRing() {
+        long next = head.get();
+        int drained = 0;
+        while (next < tail.get()) {
+            int slot = (int) (next & mask);
+            String entry = slots.get(slot);
+            if (entry == null) {
+                break;
+            }
+            slots.set(slot, null);
+            writeEntry(entry);
+            next++;
+            head.set(next);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Copies the spilled entries into the audit log once the buffer is empty,
+     * so they follow every entry that was on the buffer before them.
+     */
+    private void drainSpill() {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter != null) {
+                    spillWriter.close();
+                    spillWriter = null;
+                }
+                copySpillFile();
+            } catch (IOException e) {
+                Logger.getLogger(AsyncAuditWriter.class.getName()).log(Level.SEVERE,
+                        "Could not copy the spilled audit entries, they are kept in " + spillFile.getName(), e);
+            }
+            spilling = false;
+        }
+    }
+
+    private void copySpillFile() throws IOException {
+        try (BufferedReader in = new BufferedReader(new FileReader(spillFile))) {
+            String entry;
+            while ((entry = in.readLine()) != null) {
+                writeEntry(entry);
+            }
+        }
+        out.flush();
+        spillFile.delete();
+    }
+
+    private void writeEntry(String entry) {
+        AuditLogRotation currentRotation = rotation;
+        try {
+            if (currentRotation != null && currentRotation.isDue()) {
+                out.close();
+                currentRotation.rotate();
+                out = new BufferedWriter(new FileWriter(auditFile, true));
+            }
+            out.write(entry);
+            out.newLine();
+            if (currentRotation != null) {
+                currentRotation.written(entry);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(AsyncAuditWriter.class.getName()).log(Level.SEVERE,
+                    "Could not write to the audit log " + auditFile.getName(), e);
+        }
+    }
+}
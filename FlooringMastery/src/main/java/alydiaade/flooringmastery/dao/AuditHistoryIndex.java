@@ -0,0 +1,441 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is the audit history index, which records the byte offset of every
+ * audit entry by the order numbers it mentions and by the date it was made, so
+ * the history of an order is read with a seek per entry rather than a scan of
+ * the whole audit log. Only the part of the log written since the last lookup
+ * is read to bring the index up to date, and the index is saved to the index
+ * file as it grows so it only has to be built once.
+ *
+ * Rotated segments of the audit log are indexed too. When the active log is
+ * rotated, its entries are dropped and the new segment is indexed in its place.
+ *
+ * The index file is in the form FILE,FileName,IndexedLength,FileKey,
+ * ORDER,OrderNumber,Offset,FileName and DATE,yyyy-MM-dd,Offset,FileName.
+ * @author lydiaadejumo
+ */
+public class AuditHistoryIndex {
+
+    private static final String DELIMITER = ",";
+    private static final String ORDER_TAG = "ORDER NUMBER: ";
+    private static final String ORDERS_TAG = "ORDER NUMBERS: ";
+    private static final String DATE_TAG = " --> ";
+    private static final int READ_CHUNK = 256;
+
+    private final File auditFile;
+    private final File indexFile;
+    private final Map<Integer, List<Location>> byOrder = new HashMap<>();
+    private final NavigableMap<LocalDate, List<Location>> byDate = new TreeMap<>();
+    private final Map<String, Long> indexedLengths = new HashMap<>();
+    private final Map<String, String> indexedKeys = new HashMap<>();
+    private final Comparator<Location> logOrder;
+
+    /**
+     * The index constructor, which loads the index file if there is one.
+     * @param auditFile - the active audit log
+     * @param indexFile - the file the index is saved to
+     */
+    public AuditHistoryIndex(File auditFile, File indexFile) {
+        this.auditFile = auditFile;
+        this.indexFile = indexFile;
+        //Segments are numbered with a fixed width, and the active log is always the newest
+        this.logOrder = Comparator.comparing((Location location) -> location.fileName.equals(auditFile.getName()))
+                .thenComparing((location) -> location.fileName)
+                .thenComparingLong((location) -> location.offset);
+        load();
+    }
+
+    /**
+     * Gets every audit entry mentioning an order number, oldest first.
+     * @param orderNum - the order number
+     * @return the audit entries for the order
+     * @throws IOException - if the audit log cannot be read
+     */
+    public synchronized List<String> findByOrder(int orderNum) throws IOException {
+        refresh();
+        return readEntries(byOrder.getOrDefault(orderNum, new ArrayList<>()));
+    }
+
+    /**
+     * Gets every audit entry made between two dates, oldest first.
+     * @param fromDate - the first date, included
+     * @param toDate - the last date, included
+     * @return the audit entries made in the range
+     * @throws IOException - if the audit log cannot be read
+     */
+    public synchronized List<String> findBetween(LocalDate fromDate, LocalDate toDate) throws IOException {
+        refresh();
+        List<Location> locations = new ArrayList<>();
+        if (!toDate.isBefore(fromDate)) {
+            for (List<Location> eachDate : byDate.subMap(fromDate, true, toDate, true).values()) {
+                locations.addAll(eachDate);
+            }
+        }
+        return readEntries(locations);
+    }
+
+    /**
+     * Indexes whatever has been written to the audit log and its segments since
+     * they were last indexed.
+     */
+    public synchronized void refresh() {
+        Map<String, File> logFiles = new LinkedHashMap<>();
+        for (File segment : AuditLogRotation.listSegments(auditFile)) {
+            logFiles.put(segment.getName(), segment);
+        }
+        logFiles.put(auditFile.getName(), auditFile);
+        boolean dropped = indexedLengths.keySet().removeIf((fileName) -> !logFiles.containsKey(fileName));
+        indexedKeys.keySet().retainAll(indexedLengths.keySet());
+        Map<String, List<String>> newLines = new LinkedHashMap<>();
+        for (File logFile : logFiles.values()) {
+            long indexedLength = indexedLengths.getOrDefault(logFile.getName(), 0L);
+            long length = logFile.length();
+            if (length < indexedLength || (indexedLength > 0
+                    && !fileKeyOf(logFile).equals(indexedKeys.get(logFile.getName())))) {
+                //The log has been rotated or replaced since it was indexed
+                dropFile(logFile.getName());
+                dropped = true;
+                indexedLength = 0;
+            }
+            if (length > indexedLength) {
+                indexTail(logFile, indexedLength, newLines);
+            }
+        }
+        if (dropped) {
+            removeMissingFiles();
+            save();
+        } else if (!newLines.isEmpty()) {
+            append(newLines);
+        }
+    }
+
+    /**
+     * Gets the number of order numbers in the index
+     * @return the number of indexed order numbers
+     */
+    public synchronized int size() {
+        return byOrder.size();
+    }
+
+    /**
+     * Reads the audit log from where it was last indexed, recording every
+     * complete entry. An entry still being written is left for the next time.
+     * @param logFile - the audit log or segment
+     * @param start - the offset indexed up to
+     * @param newLines - collects the index file lines for the new entries
+     */
+    private void indexTail(File logFile, long start, Map<String, List<String>> newLines) {
+        String fileName = logFile.getName();
+        List<String> fileLines = new ArrayList<>();
+        long indexedLength = start;
+        try (FileInputStream fileIn = new FileInputStream(logFile)) {
+            fileIn.getChannel().position(start);
+            InputStream in = new BufferedInputStream(fileIn);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = start;
+            long lineStart = start;
+            int next;
+            while ((next = in.read()) != -1) {
+                position++;
+                if (next == '\n') {
+                    indexLine(line.toString(StandardCharsets.UTF_8.name()).trim(), lineStart, fileName, fileLines);
+                    line.reset();
+                    lineStart = position;
+                    indexedLength = position;
+                } else {
+                    line.write(next);
+                }
+            }
+        } catch (IOException e) {
+            Logger.getLogger(AuditHistoryIndex.class.getName()).log(Level.WARNING,
+                    "Could not index the audit log " + fileName, e);
+        }
+        indexedLengths.put(fileName, indexedLength);
+        indexedKeys.put(fileName, fileKeyOf(logFile));
+        fileLines.add("FILE" + DELIMITER + fileName + DELIMITER + indexedLength + DELIMITER + fileKeyOf(logFile));
+        newLines.put(fileName, fileLines);
+    }
+
+    /**
+     * Records a single audit entry under its date and every order number it
+     * mentions. A batch entry mentions each order number in its range.
+     * @param auditLine - the audit entry
+     * @param offset - the byte offset of the entry in the log
+     * @param fileName - the audit log or segment name
+     * @param fileLines - collects the index file lines for the entry
+     */
+    private void indexLine(String auditLine, long offset, String fileName, List<String> fileLines) {
+        int dateEnd = auditLine.indexOf(DATE_TAG);
+        if (dateEnd < 0) {
+            return;
+        }
+        try {
+            LocalDate entryDate = LocalDate.parse(auditLine.substring(0, dateEnd));
+            int firstNum;
+            int lastNum;
+            int ordersStart = auditLine.indexOf(ORDERS_TAG);
+            int orderStart = auditLine.indexOf(ORDER_TAG);
+            if (ordersStart >= 0) {
+                String[] range = auditLine.substring(ordersStart + ORDERS_TAG.length(),
+                        auditLine.indexOf(',', ordersStart)).split(" TO ");
+                firstNum = Integer.parseInt(range[0].trim());
+                lastNum = Integer.parseInt(range[1].trim());
+            } else if (orderStart >= 0) {
+                firstNum = Integer.parseInt(auditLine.substring(orderStart + ORDER_TAG.length(),
+                        auditLine.indexOf(',', orderStart)).trim());
+                lastNum = firstNum;
+            } else {
+                firstNum = 0;
+                lastNum = -1;
+            }
+            Location location = new Location(fileName, offset);
+            byDate.computeIfAbsent(entryDate, (date) -> new ArrayList<>()).add(location);
+            fileLines.add("DATE" + DELIMITER + entryDate + DELIMITER + offset + DELIMITER + fileName);
+            for (int orderNum = firstNum; orderNum <= lastNum; orderNum++) {
+                byOrder.computeIfAbsent(orderNum, (num) -> new ArrayList<>()).add(location);
+                fileLines.add("ORDER" + DELIMITER + orderNum + DELIMITER + offset + DELIMITER + fileName);
+            }
+        } catch (RuntimeException e) {
+            Logger.getLogger(AuditHistoryIndex.class.getName()).log(Level.WARNING,
+                    "Skipping an unreadable audit entry in " + fileName, e);
+        }
+    }
+
+    /**
+     * Reads the audit entries at the locations, sorted into the order they
+     * were written.
+     * @param locations - the entries to read
+     * @return the audit entries
+     * @throws IOException - if the audit log cannot be read
+     */
+    private List<String> readEntries(Collection<Location> locations) throws IOException {
+        List<Location> sorted = new ArrayList<>(locations);
+        sorted.sort(logOrder);
+        List<String> auditLines = new ArrayList<>(sorted.size());
+        File folder = auditFile.getAbsoluteFile().getParentFile();
+        FileChannel channel = null;
+        String openFile = null;
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK);
+        try {
+            for (Location location : sorted) {
+                if (!location.fileName.equals(openFile)) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    channel = FileChannel.open(new File(folder, location.fileName).toPath(), StandardOpenOption.READ);
+                    openFile = location.fileName;
+                }
+                auditLines.add(readLineAt(channel, location.offset, chunk));
+            }
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return auditLines;
+    }
+
+    private static String readLineAt(FileChannel channel, long offset, ByteBuffer chunk) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = offset;
+        while (true) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = chunk.array();
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    line.write(bytes, 0, i);
+                    return line.toString(StandardCharsets.UTF_8.name()).trim();
+                }
+            }
+            line.write(bytes, 0, read);
+            position += read;
+        }
+        return line.toString(StandardCharsets.UTF_8.name()).trim();
+    }
+
+    /**
+     * Gets what identifies a log file apart from its name, so a new active log
+     * is not mistaken for the one that was rotated away.
+     * @param logFile - the audit log or segment
+     * @return the file key, or the creation time where there are no file keys
+     */
+    private static String fileKeyOf(File logFile) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(logFile.toPath(), BasicFileAttributes.class);
+            Object fileKey = attributes.fileKey();
+            String key = fileKey != null ? fileKey.toString() : String.valueOf(attributes.creationTime().toMillis());
+            return key.replace(DELIMITER, ";");
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private void dropFile(String fileName) {
+        indexedLengths.remove(fileName);
+        indexedKeys.remove(fileName);
+        byOrder.values().forEach((eachOrder) -> eachOrder.removeIf((location) -> location.fileName.equals(fileName)));
+        byOrder.values().removeIf(List::isEmpty);
+        byDate.values().forEach((eachDate) -> eachDate.removeIf((location) -> location.fileName.equals(fileName)));
+        byDate.values().removeIf(List::isEmpty);
+    }
+
+    private void removeMissingFiles() {
+        byOrder.values().forEach((eachOrder) -> eachOrder.removeIf((location) ->
+                !indexedLengths.containsKey(location.fileName)));
+        byOrder.values().removeIf(List::isEmpty);
+        byDate.values().forEach((eachDate) -> eachDate.removeIf((location) ->
+                !indexedLengths.containsKey(location.fileName)));
+        byDate.values().removeIf(List::isEmpty);
+    }
+
+    /**
+     * Loads the saved index file, if there is one. Entries past the length a
+     * file was indexed up to are dropped, as they were saved by an update that
+     * didn't finish.
+     */
+    private void load() {
+        Scanner sc;
+        try {
+            sc = new Scanner(new BufferedReader(new FileReader(indexFile)));
+        } catch (FileNotFoundException e) {
+            return;
+        }
+        Map<String, List<String[]>> savedEntries = new HashMap<>();
+        while (sc.hasNextLine()) {
+            String[] indexDetails = sc.nextLine().split(DELIMITER);
+            try {
+                if (indexDetails[0].equals("FILE")) {
+                    indexedLengths.put(indexDetails[1], Long.parseLong(indexDetails[2]));
+                    indexedKeys.put(indexDetails[1], indexDetails[3]);
+                } else if (indexDetails[0].equals("ORDER") || indexDetails[0].equals("DATE")) {
+                    Long.parseLong(indexDetails[2]);
+                    savedEntries.computeIfAbsent(indexDetails[3], (fileName) -> new ArrayList<>()).add(indexDetails);
+                }
+            } catch (RuntimeException e) {
+                //A damaged index can't be trusted, so everything is indexed again
+                indexedLengths.clear();
+                indexedKeys.clear();
+                savedEntries.clear();
+                break;
+            }
+        }
+        sc.close();
+        for (Map.Entry<String, List<String[]>> eachFile : savedEntries.entrySet()) {
+            long indexedLength = indexedLengths.getOrDefault(eachFile.getKey(), 0L);
+            for (String[] indexDetails : eachFile.getValue()) {
+                Location location = new Location(eachFile.getKey(), Long.parseLong(indexDetails[2]));
+                if (location.offset >= indexedLength) {
+                    continue;
+                }
+                if (indexDetails[0].equals("ORDER")) {
+                    byOrder.computeIfAbsent(Integer.parseInt(indexDetails[1]), (num) -> new ArrayList<>()).add(location);
+                } else {
+                    byDate.computeIfAbsent(LocalDate.parse(indexDetails[1]), (date) -> new ArrayList<>()).add(location);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the lines for newly indexed entries to the index file, each
+     * file's entries before the length they were indexed up to.
+     * @param newLines - the index file lines for each audit log
+     */
+    private void append(Map<String, List<String>> newLines) {
+        makeIndexFolder();
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(indexFile, true)))) {
+            for (List<String> fileLines : newLines.values()) {
+                fileLines.forEach(out::println);
+            }
+        } catch (IOException e) {
+            Logger.getLogger(AuditHistoryIndex.class.getName()).log(Level.WARNING,
+                    "Could not update the audit index, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    /**
+     * Writes the whole index to the index file, replacing what was there.
+     */
+    private void save() {
+        makeIndexFolder();
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(indexFile, false)))) {
+            for (Map.Entry<Integer, List<Location>> eachOrder : byOrder.entrySet()) {
+                for (Location location : eachOrder.getValue()) {
+                    out.println("ORDER" + DELIMITER + eachOrder.getKey() + DELIMITER + location.offset
+                            + DELIMITER + location.fileName);
+                }
+            }
+            for (Map.Entry<LocalDate, List<Location>> eachDate : byDate.entrySet()) {
+                for (Location location : eachDate.getValue()) {
+                    out.println("DATE" + DELIMITER + eachDate.getKey() + DELIMITER + location.offset
+                            + DELIMITER + location.fileName);
+                }
+            }
+            for (Map.Entry<String, Long> eachFile : indexedLengths.entrySet()) {
+                out.println("FILE" + DELIMITER + eachFile.getKey() + DELIMITER + eachFile.getValue()
+                        + DELIMITER + indexedKeys.get(eachFile.getKey()));
+            }
+        } catch (IOException e) {
+            Logger.getLogger(AuditHistoryIndex.class.getName()).log(Level.WARNING,
+                    "Could not save the audit index, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    private void makeIndexFolder() {
+        File indexFolder = indexFile.getAbsoluteFile().getParentFile();
+        if (indexFolder != null) {
+            indexFolder.mkdirs();
+        }
+    }
+
+    /**
+     * The location of one audit entry, being the log file holding it and its
+     * byte offset in that file.
+     */
+    private static final class Location {
+        private final String fileName;
+        private final long offset;
+
+        private Location(String fileName, long offset) {
+            this.fileName = fileName;
+            this.offset = offset;
+        }
+    }
+}
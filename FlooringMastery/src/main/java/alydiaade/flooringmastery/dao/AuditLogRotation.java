@@ -0,0 +1,247 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This rotates the audit log into numbered segments, so the active log only
+ * holds recent entries. The active log is rotated once it reaches a size, or
+ * on the first entry of a new day, and is renamed to the next segment, e.g.
+ * Audit_Log.txt becomes Audit_Log_000003.txt. The last CURRENT TOTAL ORDERS
+ * entry is carried over as the first line of the new active log, so the order
+ * count can always be recovered from the end of the active log.
+ *
+ * Every rotation takes the write side of the rotation lock, whichever writer
+ * it comes from, so a reader holding the read side sees the same active log
+ * from start to end.
+ * @author lydiaadejumo
+ */
+public class AuditLogRotation {
+
+    /**
+     * The start of the audit entry holding the current total of orders.
+     */
+    public static final String TOTAL_MARKER = "CURRENT TOTAL ORDERS";
+
+    private static final int READ_CHUNK = 8192;
+
+    private final File activeFile;
+    private final long maxSegmentBytes;
+    private final boolean rotateDaily;
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private long activeBytes;
+    private LocalDate activeDate;
+    private String lastTotalEntry;
+
+    /**
+     * The rotation constructor.
+     * @param activeFile - the active audit log
+     * @param maxSegmentBytes - the size the active log is rotated at, 0 for no size limit
+     * @param rotateDaily - true to rotate the active log on the first entry of each day
+     */
+    public AuditLogRotation(String activeFile, long maxSegmentBytes, boolean rotateDaily) {
+        this.activeFile = new File(activeFile);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.rotateDaily = rotateDaily;
+        this.activeBytes = this.activeFile.length();
+        this.activeDate = this.activeFile.exists() ? dateOf(this.activeFile.lastModified()) : LocalDate.now();
+        try {
+            this.lastTotalEntry = findLastLine(this.activeFile, TOTAL_MARKER);
+        } catch (IOException e) {
+            this.lastTotalEntry = null;
+        }
+    }
+
+    /**
+     * Gets the active audit log
+     * @return the active log file
+     */
+    public File getActiveFile() {
+        return activeFile;
+    }
+
+    /**
+     * Gets the rotation lock. Readers of the active log hold its read lock so
+     * the log isn't rotated under them, and a writer which has to close and
+     * reopen its file around a rotation holds its write lock.
+     * @return the rotation lock
+     */
+    public ReadWriteLock getLock() {
+        return rotationLock;
+    }
+
+    /**
+     * Checks if the active log should be rotated before the next entry.
+     * @return true if the active log is full or from an earlier day
+     */
+    public synchronized boolean isDue() {
+        if (activeBytes == 0) {
+            return false;
+        }
+        return (maxSegmentBytes > 0 && activeBytes >= maxSegmentBytes)
+                || (rotateDaily && activeDate.isBefore(LocalDate.now()));
+    }
+
+    /**
+     * Records an entry that has just been written to the active log.
+     * @param entry - the audit entry, without a line separator
+     */
+    public synchronized void written(String entry) {
+        activeBytes += entry.getBytes().length + System.lineSeparator().length();
+        activeDate = LocalDate.now();
+        if (entry.startsWith(TOTAL_MARKER)) {
+            lastTotalEntry = entry;
+        }
+    }
+
+    /**
+     * Renames the active log to the next segment and starts a new active log
+     * holding the last total entry. Whatever writes to the active log has to
+     * be closed first. It waits for readers holding the read lock.
+     * @return the new segment
+     * @throws IOException - if the active log cannot be renamed
+     */
+    public File rotate() throws IOException {
+        rotationLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                List<File> segments = listSegments(activeFile);
+                int nextSegment = segments.isEmpty() ? 1
+                        : segmentNumberOf(activeFile, segments.get(segments.size() - 1)) + 1;
+                File segment = new File(activeFile.getAbsoluteFile().getParentFile(),
+                        String.format("%s_%06d%s", baseName(activeFile), nextSegment, extension(activeFile)));
+                Files.move(activeFile.toPath(), segment.toPath());
+                activeBytes = 0;
+                activeDate = LocalDate.now();
+                if (lastTotalEntry != null) {
+                    try (PrintWriter out = new PrintWriter(new FileWriter(activeFile, true))) {
+                        out.println(lastTotalEntry);
+                    }
+                    activeBytes = activeFile.length();
+                }
+                return segment;
+            }
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lists the rotated segments of an audit log, oldest first.
+     * @param activeFile - the active audit log
+     * @return the segments
+     */
+    public static List<File> listSegments(File activeFile) {
+        String prefix = baseName(activeFile) + "_";
+        String suffix = extension(activeFile);
+        File folder = activeFile.getAbsoluteFile().getParentFile();
+        File[] segments = folder == null ? null : folder.listFiles((dir, name) -> name.startsWith(prefix)
+                && name.endsWith(suffix) && name.length() > prefix.length() + suffix.length()
+                && name.substring(prefix.length(), name.length() - suffix.length()).chars().allMatch(Character::isDigit));
+        if (segments == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(segments, (first, second) -> Integer.compare(segmentNumberOf(activeFile, first),
+                segmentNumberOf(activeFile, second)));
+        return new ArrayList<>(Arrays.asList(segments));
+    }
+
+    /**
+     * Finds the last line of a file starting with the prefix, reading the file
+     * backwards from the end a chunk at a time, so only the lines after the
+     * match are read.
+     * @param file - the file to search
+     * @param prefix - the start of the line
+     * @return the last matching line, or null if no line matches
+     * @throws IOException - if the file cannot be read
+     */
+    public static String findLastLine(File file, String prefix) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long position = in.length();
+            byte[] partialLine = new byte[0];
+            byte[] chunk = new byte[READ_CHUNK];
+            while (position > 0) {
+                int size = (int) Math.min(READ_CHUNK, position);
+                position -= size;
+                in.seek(position);
+                in.readFully(chunk, 0, size);
+                //The start of the last line read is carried into the chunk before it
+                byte[] combined = Arrays.copyOf(chunk, size + partialLine.length);
+                System.arraycopy(partialLine, 0, combined, size, partialLine.length);
+                int lineEnd = combined.length;
+                for (int i = combined.length - 1; i >= 0; i--) {
+                    if (combined[i] == '\n') {
+                        String currentLine = new String(combined, i + 1, lineEnd - i - 1).trim();
+                        if (currentLine.startsWith(prefix)) {
+                            return currentLine;
+                        }
+                        lineEnd = i;
+                    }
+                }
+                partialLine = Arrays.copyOf(combined, lineEnd);
+            }
+            String firstLine = new String(partialLine).trim();
+            return firstLine.startsWith(prefix) ? firstLine : null;
+        }
+    }
+
+    /**
+     * Finds the last total entry of an audit log, looking in the active log
+     * first and then in each segment from the newest.
+     * @param activeFile - the active audit log
+     * @return the last total entry, or null if there isn't one
+     * @throws IOException - if a log cannot be read
+     */
+    public static String findLastTotal(File activeFile) throws IOException {
+        String lastTotal = findLastLine(activeFile, TOTAL_MARKER);
+        if (lastTotal != null) {
+            return lastTotal;
+        }
+        List<File> segments = listSegments(activeFile);
+        for (int i = segments.size() - 1; i >= 0 && lastTotal == null; i--) {
+            try {
+                lastTotal = findLastLine(segments.get(i), TOTAL_MARKER);
+            } catch (IOException e) {
+                Logger.getLogger(AuditLogRotation.class.getName()).log(Level.WARNING,
+                        "Skipping the unreadable audit segment " + segments.get(i).getName(), e);
+            }
+        }
+        return lastTotal;
+    }
+
+    private static int segmentNumberOf(File activeFile, File segment) {
+        String name = segment.getName();
+        return Integer.parseInt(name.substring(baseName(activeFile).length() + 1,
+                name.length() - extension(activeFile).length()));
+    }
+
+    private static String baseName(File activeFile) {
+        String name = activeFile.getName();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static String extension(File activeFile) {
+        String name = activeFile.getName();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot);
+    }
+
+    private static LocalDate dateOf(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
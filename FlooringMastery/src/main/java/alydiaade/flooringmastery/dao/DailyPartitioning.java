@@ -0,0 +1,42 @@
+package alydiaade.flooringmastery.dao;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
+
+/**
+ * This is the original partitioning, with one Orders_MMddyyyy.txt file for
+ * each order date.
+ * @author lydiaadejumo
+ */
+public class DailyPartitioning implements OrderPartitioning {
+
+    static final String NAME = "daily";
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("MMddyyyy");
+    private static final Pattern FILE_NAME = Pattern.compile("Orders_\\d{8}\\.txt");
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getFileName(LocalDate date) {
+        return "Orders_" + date.format(FILE_DATE) + ".txt";
+    }
+
+    @Override
+    public boolean isPartitionFile(String fileName) {
+        return FILE_NAME.matcher(fileName).matches();
+    }
+
+    @Override
+    public boolean isSingleDate() {
+        return true;
+    }
+
+    @Override
+    public LocalDate getFirstDate(String fileName) {
+        return LocalDate.parse(fileName.substring("Orders_".length(), fileName.length() - ".txt".length()), FILE_DATE);
+    }
+}
@@ -0,0 +1,205 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * This is the export manifest, which records the state of every order file as
+ * of the last export. Each file has its size, last modified time and content
+ * hash, along with the order numbers it held, so the next export only has to
+ * read the files that have changed.
+ *
+ * The manifest file is in the form
+ * FILE,FileName,Length,LastModified,Hash,ActiveOrders,CancelledOrders
+ * where the order numbers are separated by semicolons.
+ * @author lydiaadejumo
+ */
+public class ExportManifest {
+
+    private static final String DELIMITER = ",";
+    private static final String NUMBER_DELIMITER = ";";
+
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * Loads a saved manifest. A missing or damaged manifest gives an empty one,
+     * so every order file is read again.
+     * @param manifestFile - the file the manifest is saved to
+     * @return the saved manifest
+     */
+    public static ExportManifest load(File manifestFile) {
+        ExportManifest manifest = new ExportManifest();
+        Scanner sc;
+        try {
+            sc = new Scanner(new BufferedReader(new FileReader(manifestFile)));
+        } catch (FileNotFoundException e) {
+            return manifest;
+        }
+        while (sc.hasNextLine()) {
+            String[] manifestDetails = sc.nextLine().split(DELIMITER, -1);
+            try {
+                manifest.entries.put(manifestDetails[1], new Entry(
+                        new OrderFileCache.FileStamp(Long.parseLong(manifestDetails[3]),
+                                Long.parseLong(manifestDetails[2])),
+                        Long.parseLong(manifestDetails[4], 16),
+                        unmarshallingNumbers(manifestDetails[5]),
+                        unmarshallingNumbers(manifestDetails[6])));
+            } catch (RuntimeException e) {
+                manifest.entries.clear();
+                break;
+            }
+        }
+        sc.close();
+        return manifest;
+    }
+
+    /**
+     * Gets the recorded state of an order file.
+     * @param fileName - the order file name
+     * @return the entry for the file, or null if it wasn't in the last export
+     */
+    public Entry get(String fileName) {
+        return entries.get(fileName);
+    }
+
+    /**
+     * Records the state of an order file.
+     * @param fileName - the order file name
+     * @param entry - the state of the file
+     */
+    public void put(String fileName, Entry entry) {
+        entries.put(fileName, entry);
+    }
+
+    /**
+     * Gets every recorded order file, in file name order.
+     * @return the entries by file name
+     */
+    public Map<String, Entry> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Writes the manifest to a file, replacing what was there.
+     * @param manifestFile - the file the manifest is saved to
+     * @throws IOException - if the file cannot be written
+     */
+    public void save(File manifestFile) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(manifestFile, false)))) {
+            for (Map.Entry<String, Entry> eachEntry : entries.entrySet()) {
+                Entry entry = eachEntry.getValue();
+                out.println("FILE" + DELIMITER + eachEntry.getKey()
+                        + DELIMITER + entry.getStamp().getLength()
+                        + DELIMITER + entry.getStamp().getLastModified()
+                        + DELIMITER + Long.toHexString(entry.getHash())
+                        + DELIMITER + marshallingNumbers(entry.getActiveOrders())
+                        + DELIMITER + marshallingNumbers(entry.getCancelledOrders()));
+            }
+            if (out.checkError()) {
+                throw new IOException("Could not write " + manifestFile.getName());
+            }
+        }
+    }
+
+    /**
+     * Works out the content hash of an order file.
+     * @param contents - the whole file
+     * @return the hash of the file contents
+     */
+    public static long hash(ByteBuffer contents) {
+        CRC32C crc = new CRC32C();
+        crc.update(contents.duplicate());
+        return crc.getValue();
+    }
+
+    private static int[] unmarshallingNumbers(String numbers) {
+        if (numbers.isEmpty()) {
+            return new int[0];
+        }
+        String[] numberDetails = numbers.split(NUMBER_DELIMITER);
+        int[] orderNumbers = new int[numberDetails.length];
+        for (int i = 0; i < numberDetails.length; i++) {
+            orderNumbers[i] = Integer.parseInt(numberDetails[i]);
+        }
+        return orderNumbers;
+    }
+
+    private static String marshallingNumbers(int[] orderNumbers) {
+        StringBuilder numbers = new StringBuilder();
+        for (int orderNum : orderNumbers) {
+            if (numbers.length() > 0) {
+                numbers.append(NUMBER_DELIMITER);
+            }
+            numbers.append(orderNum);
+        }
+        return numbers.toString();
+    }
+
+    /**
+     * The state of one order file as of the last export.
+     */
+    public static final class Entry {
+        private final OrderFileCache.FileStamp stamp;
+        private final long hash;
+        private final int[] activeOrders;
+        private final int[] cancelledOrders;
+
+        /**
+         * The entry constructor.
+         * @param stamp - the size and last modified time of the file
+         * @param hash - the hash of the file contents
+         * @param activeOrders - the order numbers that are active in the file
+         * @param cancelledOrders - the order numbers that are inactive in the file
+         */
+        public Entry(OrderFileCache.FileStamp stamp, long hash, int[] activeOrders, int[] cancelledOrders) {
+            this.stamp = stamp;
+            this.hash = hash;
+            this.activeOrders = activeOrders;
+            this.cancelledOrders = cancelledOrders;
+        }
+
+        /**
+         * Gets the size and last modified time of the file
+         * @return the file stamp
+         */
+        public OrderFileCache.FileStamp getStamp() {
+            return stamp;
+        }
+
+        /**
+         * Gets the hash of the file contents
+         * @return the content hash
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        /**
+         * Gets the order numbers that are active in the file
+         * @return the active order numbers
+         */
+        public int[] getActiveOrders() {
+            return activeOrders;
+        }
+
+        /**
+         * Gets the order numbers that are inactive in the file
+         * @return the cancelled order numbers
+         */
+        public int[] getCancelledOrders() {
+            return cancelledOrders;
+        }
+    }
+}
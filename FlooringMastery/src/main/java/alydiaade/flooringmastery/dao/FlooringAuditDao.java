@@ -2,6 +2,8 @@ package alydiaade.flooringmastery.dao;
 
 import alydiaade.flooringmastery.model.Order;
 import java.io.FileNotFoundException;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  *
@@ -26,6 +28,15 @@ public interface FlooringAuditDao {
      */
     public void writeNewOrderEntryLog(Order currentOrder) throws OrderPersistenceException;
     
+    /**
+     * Keeps track of a batch of new orders with a single entry, rather than one
+     * entry for every order.
+     * @param newOrders - the new orders that have been done
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if 
+     * there is an error when reading the file this error will be thrown.
+     */
+    public void writeNewOrdersEntryLog(List<Order> newOrders) throws OrderPersistenceException;
+    
     /**
      * Reads the last order number and adds one.
      * @return the newest order number.
@@ -40,4 +51,24 @@ public interface FlooringAuditDao {
      * there is an error when reading the file this error will be thrown.
      */
     public void logsNumberOfOrders(int NumOfOrders) throws OrderPersistenceException;
+    
+    /**
+     * Reads every audit entry for an order number, oldest first. An entry for a
+     * batch of new orders is included for each order in the batch.
+     * @param orderNum - the order number
+     * @return the audit entries for the order, empty if there are none
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if 
+     * there is an error when reading the file this error will be thrown.
+     */
+    public List<String> readsOrderHistory(int orderNum) throws OrderPersistenceException;
+    
+    /**
+     * Reads every audit entry made between two dates, oldest first.
+     * @param fromDate - the first date, included
+     * @param toDate - the last date, included
+     * @return the audit entries made in the range, empty if there are none
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if 
+     * there is an error when reading the file this error will be thrown.
+     */
+    public List<String> readsHistoryBetween(LocalDate fromDate, LocalDate toDate) throws OrderPersistenceException;
 }
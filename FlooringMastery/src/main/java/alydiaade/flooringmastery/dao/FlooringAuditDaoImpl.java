@@ -1,19 +1,38 @@
 package alydiaade.flooringmastery.dao;
 
 import alydiaade.flooringmastery.model.Order;
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDate;
-import java.util.Scanner;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This method is utilised, to log all the user interactions and updates. It also 
  * records the current total number of orders, which is utilised to update the 
  * new orders and continue on from the current amount.
+ *
+ * In the durable mode every entry is written through a GroupCommitWriter, so an
+ * entry is on disk before the call returns, and entries written together share
+ * one fsync.
+ *
+ * In the asynchronous mode every entry is put on the ring buffer of an
+ * AsyncAuditWriter, so writing an entry costs no file access at all and the
+ * entries are written in the background in the order they were made.
+ *
+ * With an AuditLogRotation set, the audit log is rotated into numbered
+ * segments, and the current order number is found by reading the active log
+ * backwards from its end, so startup doesn't grow with the audit history.
+ *
+ * The history of an order or a date range is looked up through an audit
+ * history index kept next to the log in Index/, which is brought up to date
+ * with whatever has been written since the last lookup.
  * @author lydiaadejumo
  */
 
@@ -21,65 +40,229 @@ public class FlooringAuditDaoImpl implements FlooringAuditDao{
 
     private String DELIMITER = ":::";
     private String AUDIT_STOCK_FILE = "src/main/resources/Audit_Log.txt";
+    private volatile GroupCommitWriter durableWriter;
+    private long commitWindowMillis;
+    private AsyncAuditWriter asyncWriter;
+    private AuditLogRotation rotation;
+    private AuditHistoryIndex historyIndex;
     
-    @Override
-    public void writeOrderEntryLog(Order currentOrder) throws OrderPersistenceException{
-        PrintWriter out;
-        
+    /**
+     * The constructor utilised in the app for the audit log.
+     */
+    public FlooringAuditDaoImpl() {
+    }
+    
+    /**
+     * The constructor utilised to point the DAO at a different audit log.
+     * @param auditFile - the audit log file
+     */
+    public FlooringAuditDaoImpl(String auditFile) {
+        this.AUDIT_STOCK_FILE = auditFile;
+    }
+    
+    /**
+     * The constructor which turns on the durable mode, where every entry is
+     * forced to disk before it returns.
+     * @param auditFile - the audit log file
+     * @param commitWindowMillis - how long to wait to group entries into one fsync
+     * @throws OrderPersistenceException - if the audit log cannot be opened
+     */
+    public FlooringAuditDaoImpl(String auditFile, long commitWindowMillis) throws OrderPersistenceException {
+        this.AUDIT_STOCK_FILE = auditFile;
+        this.commitWindowMillis = commitWindowMillis;
+        openDurableWriter();
+    }
+    
+    /**
+     * The constructor which turns on the asynchronous mode, where entries are
+     * written in the background.
+     * @param auditFile - the audit log file
+     * @param bufferCapacity - the number of entries waiting to be written
+     * @param overflowPolicy - what happens to an entry when the buffer is full
+     * @param flushMillis - the most time an entry waits before it is flushed
+     * @throws OrderPersistenceException - if the audit log cannot be opened
+     */
+    public FlooringAuditDaoImpl(String auditFile, int bufferCapacity, AsyncAuditWriter.OverflowPolicy overflowPolicy,
+            long flushMillis) throws OrderPersistenceException {
+        this.AUDIT_STOCK_FILE = auditFile;
         try {
-            out = new PrintWriter(new FileWriter(AUDIT_STOCK_FILE, true));
+            this.asyncWriter = new AsyncAuditWriter(new File(auditFile), bufferCapacity, overflowPolicy, flushMillis);
         } catch (IOException e) {
             throw new OrderPersistenceException("Could not persist audit information.", e);
         }
-
+    }
+    
+    @Override
+    public void writeOrderEntryLog(Order currentOrder) throws OrderPersistenceException{
         LocalDate timestamp = LocalDate.now();
         if (currentOrder.isActiveOrder()) {
-            out.println(timestamp.toString() + " --> ORDER NUMBER: " + 
+            writeAuditLine(timestamp.toString() + " --> ORDER NUMBER: " + 
                 currentOrder.getOrderNumber() + ", order update.");
         } else {
-            out.println(timestamp.toString() + " --> ORDER NUMBER: " + 
+            writeAuditLine(timestamp.toString() + " --> ORDER NUMBER: " + 
                 currentOrder.getOrderNumber() + ", order cancelled.");
         }
-        
-        out.flush();
-        out.close();
     }
     
     @Override
     public void writeNewOrderEntryLog(Order currentOrder) throws OrderPersistenceException{
-        PrintWriter out;
+        LocalDate timestamp = LocalDate.now();
         
-        try {
-            out = new PrintWriter(new FileWriter(AUDIT_STOCK_FILE, true));
-        } catch (IOException e) {
-            throw new OrderPersistenceException("Could not persist audit information.", e);
-        }
+        writeAuditLine(timestamp.toString() + " --> ORDER NUMBER: " + 
+                currentOrder.getOrderNumber() + ", new order recorded today.");
+    }
 
+    @Override
+    public void writeNewOrdersEntryLog(List<Order> newOrders) throws OrderPersistenceException{
+        if (newOrders.isEmpty()) {
+            return;
+        }
         LocalDate timestamp = LocalDate.now();
+        int firstOrderNumber = newOrders.get(0).getOrderNumber();
+        int lastOrderNumber = newOrders.get(newOrders.size() - 1).getOrderNumber();
         
-        out.println(timestamp.toString() + " --> ORDER NUMBER: " + 
-                currentOrder.getOrderNumber() + ", new order recorded today.");
-        out.flush();
-        out.close();
+        writeAuditLine(timestamp.toString() + " --> ORDER NUMBERS: " + firstOrderNumber
+                + " TO " + lastOrderNumber + ", " + newOrders.size() + " new orders recorded today.");
+    }
+
+    /**
+     * Sets the rotation of the audit log into segments. The rotation has to be
+     * for this DAO's audit log.
+     * @param rotation - the rotation of the audit log
+     */
+    public void setRotation(AuditLogRotation rotation) {
+        if (!rotation.getActiveFile().getAbsoluteFile().equals(new File(AUDIT_STOCK_FILE).getAbsoluteFile())) {
+            throw new IllegalArgumentException("The rotation is for " + rotation.getActiveFile()
+                    + " not " + AUDIT_STOCK_FILE);
+        }
+        this.rotation = rotation;
+        if (asyncWriter != null) {
+            asyncWriter.setRotation(rotation);
+        }
     }
 
     @Override
     public int readsCurrentOrderNumber() throws FileNotFoundException {
-        Scanner sc = new Scanner(new BufferedReader(new FileReader(AUDIT_STOCK_FILE)));
+        if (asyncWriter != null) {
+            //Entries still on the buffer have to be in the file before it is read
+            asyncWriter.flush();
+        }
+        File auditFile = new File(AUDIT_STOCK_FILE);
+        if (!auditFile.exists()) {
+            throw new FileNotFoundException(AUDIT_STOCK_FILE + " does not exist.");
+        }
         String lastLine;
-        int orderNumber = 0;
-        while (sc.hasNext()) {
-            lastLine = sc.nextLine();
-            if (lastLine.startsWith("CURRENT TOTAL ORDERS")) {
-                String[] lastOrderNumber = lastLine.split(DELIMITER);
-                orderNumber = Integer.parseInt(lastOrderNumber[1]);
-            }
+        try {
+            //Only the end of the log is read, back to the last total
+            lastLine = AuditLogRotation.findLastTotal(auditFile);
+        } catch (IOException e) {
+            Logger.getLogger(FlooringAuditDaoImpl.class.getName()).log(Level.SEVERE, null, e);
+            return 0;
         }
-        return orderNumber;
+        if (lastLine == null) {
+            return 0;
+        }
+        String[] lastOrderNumber = lastLine.split(DELIMITER);
+        return Integer.parseInt(lastOrderNumber[1]);
     }
     
     @Override
     public void logsNumberOfOrders(int NumOfOrders) throws OrderPersistenceException {
+        writeAuditLine(AuditLogRotation.TOTAL_MARKER + DELIMITER + NumOfOrders);
+    }
+    
+    @Override
+    public List<String> readsOrderHistory(int orderNum) throws OrderPersistenceException {
+        return readsHistory((index) -> index.findByOrder(orderNum));
+    }
+    
+    @Override
+    public List<String> readsHistoryBetween(LocalDate fromDate, LocalDate toDate) throws OrderPersistenceException {
+        return readsHistory((index) -> index.findBetween(fromDate, toDate));
+    }
+    
+    /**
+     * Runs a lookup on the history index once every entry made so far is in
+     * the audit log. With a rotation set, the lookup holds the rotation's read
+     * lock, so no writer can rotate the log while it is read.
+     * @param lookup - the lookup to run
+     * @return the audit entries found
+     * @throws OrderPersistenceException - if the audit log cannot be read
+     */
+    private List<String> readsHistory(HistoryLookup lookup) throws OrderPersistenceException {
+        if (asyncWriter != null) {
+            //Flushed before locking, as the background thread may have to rotate
+            asyncWriter.flush();
+        }
+        AuditHistoryIndex index = getHistoryIndex();
+        Lock readLock = rotation != null ? rotation.getLock().readLock() : null;
+        if (readLock != null) {
+            readLock.lock();
+        }
+        try {
+            return lookup.find(index);
+        } catch (IOException e) {
+            throw new OrderPersistenceException("Could not read audit information.", e);
+        } finally {
+            if (readLock != null) {
+                readLock.unlock();
+            }
+        }
+    }
+    
+    private synchronized AuditHistoryIndex getHistoryIndex() {
+        if (historyIndex == null) {
+            File auditFile = new File(AUDIT_STOCK_FILE).getAbsoluteFile();
+            String indexName = auditFile.getName().replaceFirst("\\.[^.]*$", "") + "_Index.txt";
+            historyIndex = new AuditHistoryIndex(auditFile, new File(auditFile.getParentFile(), "Index/" + indexName));
+        }
+        return historyIndex;
+    }
+    
+    /**
+     * Writes any queued entries and closes the audit log, used when the app is
+     * closing in the durable or asynchronous mode.
+     * @throws OrderPersistenceException - if the audit log cannot be closed
+     */
+    public void close() throws OrderPersistenceException {
+        if (durableWriter != null) {
+            durableWriter.close();
+        }
+        if (asyncWriter != null) {
+            asyncWriter.close();
+        }
+    }
+    
+    /**
+     * Appends one entry to the audit log, waiting for it to be on disk in the
+     * durable mode.
+     * @param auditLine - the entry to append
+     * @throws OrderPersistenceException - if the audit log cannot be written
+     */
+    private void writeAuditLine(String auditLine) throws OrderPersistenceException {
+        if (asyncWriter != null) {
+            //A dropped entry is counted by the writer, as the overflow policy allows
+            asyncWriter.offer(auditLine);
+            return;
+        }
+        if (durableWriter != null) {
+            writeDurableAuditLine(auditLine);
+            return;
+        }
+        if (rotation == null) {
+            appendAuditLine(auditLine);
+            return;
+        }
+        synchronized (this) {
+            if (rotation.isDue()) {
+                rotate();
+            }
+            appendAuditLine(auditLine);
+            rotation.written(auditLine);
+        }
+    }
+    
+    private void appendAuditLine(String auditLine) throws OrderPersistenceException {
         PrintWriter out;
         
         try {
@@ -88,9 +271,71 @@ public class FlooringAuditDaoImpl implements FlooringAuditDao{
             throw new OrderPersistenceException("Could not persist audit information.", e);
         }
         
-        out.println("CURRENT TOTAL ORDERS" + DELIMITER + NumOfOrders);
+        out.println(auditLine);
         out.flush();
         out.close();
     }
     
+    /**
+     * Queues one entry on the durable writer and waits for it to be on disk.
+     * Entries share the rotation's read lock, so rotating the log waits for
+     * entries being queued but not for the fsync.
+     * @param auditLine - the entry to append
+     * @throws OrderPersistenceException - if the audit log cannot be written
+     */
+    private void writeDurableAuditLine(String auditLine) throws OrderPersistenceException {
+        if (rotation == null) {
+            GroupCommitWriter.await(durableWriter.submit(auditLine + System.lineSeparator()));
+            return;
+        }
+        Lock writeLock = rotation.getLock().writeLock();
+        if (rotation.isDue()) {
+            writeLock.lock();
+            try {
+                if (rotation.isDue()) {
+                    //Closing the writer waits for its queued entries to be on disk
+                    durableWriter.close();
+                    rotate();
+                    openDurableWriter();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        CompletableFuture<Void> durable;
+        Lock readLock = rotation.getLock().readLock();
+        readLock.lock();
+        try {
+            durable = durableWriter.submit(auditLine + System.lineSeparator());
+            rotation.written(auditLine);
+        } finally {
+            readLock.unlock();
+        }
+        GroupCommitWriter.await(durable);
+    }
+    
+    private void openDurableWriter() throws OrderPersistenceException {
+        try {
+            this.durableWriter = new GroupCommitWriter(new File(AUDIT_STOCK_FILE), commitWindowMillis,
+                    GroupCommitWriter.DEFAULT_MAX_BATCH_WRITES);
+        } catch (IOException e) {
+            throw new OrderPersistenceException("Could not persist audit information.", e);
+        }
+    }
+    
+    /**
+     * A lookup on the audit history index.
+     */
+    private interface HistoryLookup {
+        List<String> find(AuditHistoryIndex index) throws IOException;
+    }
+    
+    private void rotate() throws OrderPersistenceException {
+        try {
+            rotation.rotate();
+        } catch (IOException e) {
+            throw new OrderPersistenceException("Could not rotate the audit log.", e);
+        }
+    }
+    
 }
@@ -5,6 +5,7 @@ import alydiaade.flooringmastery.model.Product;
 import alydiaade.flooringmastery.model.Taxes;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -21,6 +22,16 @@ public interface FlooringOrderDao {
      */
     public List<Order> getAllOrders(LocalDate date) throws NoSuchOrderFileException;
     
+    /**
+     * Gets the orders for every date in a range, by order date. Dates without
+     * orders are skipped rather than thrown, and the orders are read as the
+     * stream is used, so the stream should be closed if it isn't used up.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the orders in the range
+     */
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate);
+    
     /**
      * Utilised to add an order to the respective date file.
      * @param newOrder - The new order that needs to be added.
@@ -30,6 +41,16 @@ public interface FlooringOrderDao {
      */
     public Order addOrder(Order newOrder) throws OrderPersistenceException;
     
+    /**
+     * Utilised to add a batch of orders, each to its respective date file. The
+     * orders are grouped by date so each date file is only written to once.
+     * @param newOrders - The new orders that need to be added.
+     * @return returns the orders, that have just been added
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if a
+     * file it is written to doesn't open
+     */
+    public List<Order> addOrders(List<Order> newOrders) throws OrderPersistenceException;
+    
     /**
      * This will export all the active orders to the backup file
      * @return - returns the active orders.
@@ -39,6 +60,18 @@ public interface FlooringOrderDao {
      */
     public List<Order> exportOrders() throws NoSuchOrderFileException, OrderPersistenceException;
     
+    /**
+     * This will export all the active orders to the backup file, either by
+     * only reading the order files that have changed since the last export or
+     * by rebuilding the backup file from every order file.
+     * @param fullRebuild - true to read every order file again
+     * @return - returns the active orders.
+     * @throws NoSuchOrderFileException - If the file cannot be found this exception will be thrown.
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if it is
+     * unable to write to a field
+     */
+    public List<Order> exportOrders(boolean fullRebuild) throws NoSuchOrderFileException, OrderPersistenceException;
+    
     /**
      * Gets an order for the user
      * @param date - requires the date that the order was made
@@ -51,6 +84,15 @@ public interface FlooringOrderDao {
      */
     public Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException;
     
+    /**
+     * Gets an order using only its order number, without needing the date
+     * @param orderNum - requires the order number to retrieve the file order
+     * @return the order with that order number
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderException -  this would
+     * occur if there is no order with that number in any order file
+     */
+    public Order getOrder(int orderNum) throws NoSuchOrderException;
+    
     /**
      * Updates an orders information based on the updated order which could be if
      * a file is still active or if the file has updated details.
@@ -0,0 +1,439 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * This is a flooring order DAO which keeps the orders in an embedded H2
+ * database file rather than one text file per day, so a lookup by order number
+ * or date doesn't depend on how many days of history there are. The taxes and
+ * products are still read from the data files.
+ *
+ * The orders table has the same columns as the order files, with indexes on
+ * the order number, order date, state and product type. Orders are written
+ * with prepared statements, in a single batch and transaction for a group of
+ * orders. Existing order files can be loaded in with OrderFileMigration.
+ * @author lydiaadejumo
+ */
+public class FlooringOrderDaoDbImpl implements FlooringOrderDao {
+
+    /**
+     * The most orders sent to the database in one batch.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private static final String ORDER_COLUMNS = "OrderNumber, OrderCreationDate, OrderDate, CustomerName, "
+            + "State, TaxRate, ProductType, Area, AreaScale, CostPerSquareFoot, LaborCostPerSquareFoot, "
+            + "MaterialCost, LaborCost, Tax, Total, IsActive";
+    private static final String INSERT_ORDER = "INSERT INTO Orders (" + ORDER_COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String MERGE_ORDER = "MERGE INTO Orders (" + ORDER_COLUMNS + ") KEY (OrderNumber) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final String taxFile;
+    private final String productFile;
+    private final String backupFile;
+    private final Map<String, Taxes> allTaxRates = new HashMap<>();
+    private final Map<String, Product> allProducts = new HashMap<>();
+    private final Connection connection;
+
+    /**
+     * The constructor utilised in the app for opening the database.
+     */
+    public FlooringOrderDaoDbImpl() {
+        this("src/main/resources/");
+    }
+
+    /**
+     * The constructor utilised to point the DAO at a different set of files.
+     * The database is kept in the Database folder.
+     * @param fileLocation - the folder holding the data, backup and database files
+     */
+    public FlooringOrderDaoDbImpl(String fileLocation) {
+        this(fileLocation, "jdbc:h2:file:" + new File(fileLocation + "Database/FlooringOrders").getAbsolutePath());
+    }
+
+    /**
+     * The constructor which also sets the database to connect to.
+     * @param fileLocation - the folder holding the data and backup files
+     * @param jdbcUrl - the database URL
+     */
+    public FlooringOrderDaoDbImpl(String fileLocation, String jdbcUrl) {
+        this.taxFile = fileLocation + "Data/Taxes.txt";
+        this.productFile = fileLocation + "Data/Products.txt";
+        this.backupFile = fileLocation + "Backup/DataExport.txt";
+        try {
+            loadTaxes();
+            loadProducts();
+        } catch (FileNotFoundException ex) {
+            Logger.getLogger(FlooringOrderDaoDbImpl.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        try {
+            connection = DriverManager.getConnection(jdbcUrl);
+            createSchema();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open the order database.", e);
+        }
+    }
+
+    @Override
+    public synchronized List<Order> getAllOrders(LocalDate date) throws NoSuchOrderFileException {
+        List<Order> allOrdersOnDate = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT " + ORDER_COLUMNS + " FROM Orders WHERE OrderDate = ? ORDER BY OrderNumber")) {
+            select.setDate(1, Date.valueOf(date));
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    allOrdersOnDate.add(unmarshallingOrder(rows));
+                }
+            }
+        } catch (SQLException e) {
+            throw new NoSuchOrderFileException("There are no orders on this date.", e);
+        }
+        if (allOrdersOnDate.isEmpty()) {
+            throw new NoSuchOrderFileException("There are no orders on this date.");
+        }
+        return allOrdersOnDate;
+    }
+
+    @Override
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate) {
+        List<Order> rangeOrders = new ArrayList<>();
+        synchronized (this) {
+            try (PreparedStatement select = connection.prepareStatement("SELECT " + ORDER_COLUMNS
+                    + " FROM Orders WHERE OrderDate BETWEEN ? AND ? ORDER BY OrderDate, OrderNumber")) {
+                select.setDate(1, Date.valueOf(fromDate));
+                select.setDate(2, Date.valueOf(toDate));
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        rangeOrders.add(unmarshallingOrder(rows));
+                    }
+                }
+            } catch (SQLException e) {
+                //The same as a date with no orders, which isn't an error for a range
+                Logger.getLogger(FlooringOrderDaoDbImpl.class.getName()).log(Level.SEVERE,
+                        "Could not read the orders from " + fromDate + " to " + toDate, e);
+            }
+        }
+        //The range is read in one query, which uses the order date index
+        return rangeOrders.stream();
+    }
+
+    @Override
+    public Order addOrder(Order newOrder) throws OrderPersistenceException {
+        writeOrders(INSERT_ORDER, Collections.singletonList(newOrder));
+        return newOrder;
+    }
+
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) throws OrderPersistenceException {
+        writeOrders(INSERT_ORDER, newOrders);
+        return newOrders;
+    }
+
+    @Override
+    public List<Order> exportOrders() throws NoSuchOrderFileException, OrderPersistenceException {
+        List<Order> activeOrders = new ArrayList<>();
+        OrderLineWriter backupWriter = new OrderLineWriter();
+        synchronized (this) {
+            //The active orders are streamed from one query straight into the backup file
+            try (Statement select = connection.createStatement();
+                    BufferedWriter out = new BufferedWriter(new FileWriter(backupFile, false))) {
+                select.setFetchSize(BATCH_SIZE);
+                out.write("OrderNumber,OrderCreationDate,CustomerName,State,"
+                        + "TaxRate,ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,OrderDate");
+                out.newLine();
+                try (ResultSet rows = select.executeQuery("SELECT " + ORDER_COLUMNS
+                        + " FROM Orders WHERE IsActive ORDER BY OrderNumber")) {
+                    while (rows.next()) {
+                        Order activeOrder = unmarshallingOrder(rows);
+                        backupWriter.writeBackup(activeOrder, out);
+                        activeOrders.add(activeOrder);
+                    }
+                }
+            } catch (SQLException | IOException e) {
+                throw new OrderPersistenceException("Could not add order to file", e);
+            }
+        }
+        return activeOrders;
+    }
+
+    /**
+     * The database always holds one current version of each order, so there is
+     * nothing to rebuild and every export reads the orders table.
+     * @param fullRebuild - not needed by this DAO
+     */
+    @Override
+    public List<Order> exportOrders(boolean fullRebuild) throws NoSuchOrderFileException, OrderPersistenceException {
+        return exportOrders();
+    }
+
+    @Override
+    public synchronized Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException {
+        Order currentOrder = findOrder(orderNum);
+        if (currentOrder != null && currentOrder.getOrderDate().equals(date)) {
+            return currentOrder;
+        }
+        if (!hasOrdersOn(date)) {
+            throw new NoSuchOrderFileException("There are no orders on this date ("
+                    + date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)) + ").");
+        }
+        throw new NoSuchOrderException("There is no order number: " +
+                orderNum + " recorded on this date (" +
+                date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)) + ")." );
+    }
+
+    @Override
+    public synchronized Order getOrder(int orderNum) throws NoSuchOrderException {
+        Order currentOrder = findOrder(orderNum);
+        if (currentOrder == null) {
+            throw new NoSuchOrderException("There is no order number: " + orderNum + " recorded.");
+        }
+        return currentOrder;
+    }
+
+    @Override
+    public void editOrder(Order orderToUpdate) throws NoSuchOrderFileException, OrderPersistenceException {
+        synchronized (this) {
+            if (!hasOrdersOn(orderToUpdate.getOrderDate())) {
+                throw new NoSuchOrderFileException("There are no orders on this date.");
+            }
+        }
+        writeOrders(MERGE_ORDER, Collections.singletonList(orderToUpdate));
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        return new ArrayList<>(allProducts.values());
+    }
+
+    @Override
+    public List<Taxes> getTaxes() {
+        return new ArrayList<>(allTaxRates.values());
+    }
+
+    /**
+     * Adds or replaces a group of orders by their order number, used to load
+     * the existing order files into the database.
+     * @param orders - the orders to load
+     * @throws OrderPersistenceException - if the orders cannot be written
+     */
+    public void importOrders(List<Order> orders) throws OrderPersistenceException {
+        writeOrders(MERGE_ORDER, orders);
+    }
+
+    /**
+     * Closes the database, used when the app is closing.
+     * @throws OrderPersistenceException - if the database cannot be closed
+     */
+    public synchronized void close() throws OrderPersistenceException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new OrderPersistenceException("Could not close the order database", e);
+        }
+    }
+
+    /**
+     * Creates the orders table and its indexes if they don't exist yet.
+     * @throws SQLException - if the table cannot be created
+     */
+    private void createSchema() throws SQLException {
+        try (Statement create = connection.createStatement()) {
+            create.execute("CREATE TABLE IF NOT EXISTS Orders ("
+                    + "OrderNumber INT PRIMARY KEY, "
+                    + "OrderCreationDate DATE NOT NULL, "
+                    + "OrderDate DATE NOT NULL, "
+                    + "CustomerName VARCHAR(255) NOT NULL, "
+                    + "State VARCHAR(2) NOT NULL, "
+                    + "TaxRate NUMERIC(7,2) NOT NULL, "
+                    + "ProductType VARCHAR(50) NOT NULL, "
+                    + "Area NUMERIC(14,4) NOT NULL, "
+                    //The area is kept at the scale it was entered with, as in the order files
+                    + "AreaScale SMALLINT NOT NULL, "
+                    + "CostPerSquareFoot NUMERIC(12,2) NOT NULL, "
+                    + "LaborCostPerSquareFoot NUMERIC(12,2) NOT NULL, "
+                    + "MaterialCost NUMERIC(14,2) NOT NULL, "
+                    + "LaborCost NUMERIC(14,2) NOT NULL, "
+                    + "Tax NUMERIC(14,2) NOT NULL, "
+                    + "Total NUMERIC(14,2) NOT NULL, "
+                    + "IsActive BOOLEAN NOT NULL)");
+            create.execute("CREATE INDEX IF NOT EXISTS OrdersByDate ON Orders (OrderDate)");
+            create.execute("CREATE INDEX IF NOT EXISTS OrdersByState ON Orders (State)");
+            create.execute("CREATE INDEX IF NOT EXISTS OrdersByProduct ON Orders (ProductType)");
+        }
+    }
+
+    /**
+     * Writes a group of orders with one prepared statement, sending them in
+     * batches within a single transaction so either all of them are written or
+     * none are.
+     * @param sql - the insert or merge statement
+     * @param orders - the orders to write
+     * @throws OrderPersistenceException - if the orders cannot be written
+     */
+    private synchronized void writeOrders(String sql, List<Order> orders) throws OrderPersistenceException {
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement write = connection.prepareStatement(sql)) {
+                int batched = 0;
+                for (Order currentOrder : orders) {
+                    marshallingOrder(currentOrder, write);
+                    write.addBatch();
+                    if (++batched == BATCH_SIZE) {
+                        write.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    write.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new OrderPersistenceException("Could not add order to the order database", e);
+        }
+    }
+
+    private Order findOrder(int orderNum) {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT " + ORDER_COLUMNS + " FROM Orders WHERE OrderNumber = ?")) {
+            select.setInt(1, orderNum);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? unmarshallingOrder(rows) : null;
+            }
+        } catch (SQLException e) {
+            Logger.getLogger(FlooringOrderDaoDbImpl.class.getName()).log(Level.SEVERE, null, e);
+            return null;
+        }
+    }
+
+    private boolean hasOrdersOn(LocalDate date) {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT 1 FROM Orders WHERE OrderDate = ? LIMIT 1")) {
+            select.setDate(1, Date.valueOf(date));
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next();
+            }
+        } catch (SQLException e) {
+            Logger.getLogger(FlooringOrderDaoDbImpl.class.getName()).log(Level.SEVERE, null, e);
+            return false;
+        }
+    }
+
+    /**
+     * Sets the parameters of an order statement, in the same column order as
+     * the order files.
+     * @param currentOrder - the order to write
+     * @param write - the insert or merge statement
+     * @throws SQLException - if a parameter cannot be set
+     */
+    private void marshallingOrder(Order currentOrder, PreparedStatement write) throws SQLException {
+        write.setInt(1, currentOrder.getOrderNumber());
+        write.setDate(2, Date.valueOf(currentOrder.getOrderCreation()));
+        write.setDate(3, Date.valueOf(currentOrder.getOrderDate()));
+        write.setString(4, currentOrder.getCustomerName());
+        write.setString(5, currentOrder.getTaxInfo().getState());
+        write.setBigDecimal(6, currentOrder.getTaxInfo().getTaxRate());
+        write.setString(7, currentOrder.getProduct().getProductType());
+        write.setBigDecimal(8, currentOrder.getArea());
+        write.setShort(9, (short) currentOrder.getArea().scale());
+        write.setBigDecimal(10, currentOrder.getProduct().getCostPerSquareFoot());
+        write.setBigDecimal(11, currentOrder.getProduct().getLaborCostPerSquareFoot());
+        write.setBigDecimal(12, currentOrder.getMaterialCost());
+        write.setBigDecimal(13, currentOrder.getLaborCost());
+        write.setBigDecimal(14, currentOrder.getTax());
+        write.setBigDecimal(15, currentOrder.getTotal());
+        write.setBoolean(16, currentOrder.isActiveOrder());
+    }
+
+    /**
+     * Reads the order on the current row. As with the order files, the taxes
+     * and product are the current ones for the state and product type.
+     * @param rows - the query results, on the row to read
+     * @return the order on that row
+     * @throws SQLException - if a column cannot be read
+     */
+    private Order unmarshallingOrder(ResultSet rows) throws SQLException {
+        Taxes taxRate = allTaxRates.get(rows.getString(5));
+        Product product = allProducts.get(rows.getString(7));
+        BigDecimal area = rows.getBigDecimal(8).setScale(rows.getShort(9));
+        Order currentOrder = new Order(rows.getDate(2).toLocalDate(), rows.getDate(3).toLocalDate(),
+                rows.getString(4), taxRate, product, area);
+        currentOrder.setOrderNumber(rows.getInt(1));
+        currentOrder.setMaterialCost(rows.getBigDecimal(12));
+        currentOrder.setLaborCost(rows.getBigDecimal(13));
+        currentOrder.setTax(rows.getBigDecimal(14));
+        currentOrder.setTotal(rows.getBigDecimal(15));
+        currentOrder.setActiveOrder(rows.getBoolean(16));
+        return currentOrder;
+    }
+
+    /**
+     * Reads the tax rates from the file. The file has been set-up in the form
+     * State,StateName,TaxRate
+     * @throws FileNotFoundException - if the found cannot be found this error will be thrown.
+     */
+    private void loadTaxes() throws FileNotFoundException {
+        Scanner sc = new Scanner(new BufferedReader(new FileReader(taxFile)));
+        LineTokenizer aStatesTax = new LineTokenizer(3);
+        sc.nextLine();
+        while (sc.hasNext()) {
+            aStatesTax.reset(sc.nextLine());
+            Taxes newTax = new Taxes(aStatesTax.getString(0), aStatesTax.getString(1), aStatesTax.getDecimal(2));
+            allTaxRates.put(newTax.getState(), newTax);
+        }
+        sc.close();
+    }
+
+    /**
+     * Reads the products from the file. The file has been set-up in the
+     * form ProductType,CostPerSquareFoot,LaborCostPerSquareFoot
+     * @throws FileNotFoundException - if the found cannot be found this error will be thrown.
+     */
+    private void loadProducts() throws FileNotFoundException {
+        Scanner sc = new Scanner(new BufferedReader(new FileReader(productFile)));
+        LineTokenizer aProduct = new LineTokenizer(3);
+        sc.nextLine();
+        while (sc.hasNext()) {
+            aProduct.reset(sc.nextLine());
+            Product newProduct = new Product(aProduct.getString(0), aProduct.getDecimal(1), aProduct.getDecimal(2));
+            allProducts.put(newProduct.getProductType(), newProduct);
+        }
+        sc.close();
+    }
+}
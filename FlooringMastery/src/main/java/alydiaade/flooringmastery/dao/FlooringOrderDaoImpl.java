@@ -4,47 +4,89 @@ import alydiaade.flooringmastery.model.Order;
 import alydiaade.flooringmastery.model.Product;
 import alydiaade.flooringmastery.model.Taxes;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.Lock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * This is the flooring order DAO class which manages the files in memory 
  * returning all the relevant information require for the app to run
+ *
+ * It can be shared between threads. Each order file is guarded by a read/write
+ * lock from OrderFileLocks, so reads of a file run together and writes to
+ * different files don't wait on each other.
  * @author lydiaadejumo
  */
 public class FlooringOrderDaoImpl implements FlooringOrderDao {
 
+    private static final String ORDER_FILE_HEADER = "OrderNumber,OrderCreationDate,OrderDate,"
+            + "CustomerName,State,TaxRate,ProductType,Area,CostPerSquareFoot,"
+            + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive";
+    private static final ThreadLocal<LineTokenizer> ORDER_TOKENIZER = 
+            ThreadLocal.withInitial(() -> new LineTokenizer(15));
+    private static final ThreadLocal<OrderLineWriter> ORDER_WRITER = 
+            ThreadLocal.withInitial(OrderLineWriter::new);
     private String DELIMITER = ",";
     private String fileLocation;
     private String taxFile;
     private String productFile;
     private Map<String, Taxes> allTaxRates = new HashMap<>();
     private Map<String, Product> allProducts = new HashMap<>();
+    private OrderFileCache orderCache;
+    private OrderNumberIndex orderIndex;
+    private ForkJoinPool exportPool = ForkJoinPool.commonPool();
+    private volatile boolean syncWrites;
+    private OrderPartitioning partitioning;
+    private final Map<String, PartitionDateIndex> dateIndexes = new ConcurrentHashMap<>();
+    private final OrderFileLocks fileLocks = new OrderFileLocks(OrderFileLocks.DEFAULT_STRIPES);
+    private final NavigableMap<LocalDate, String> orderFiles = new ConcurrentSkipListMap<>();
+    private volatile ExportSnapshot lastExport;
     
     /**
      * The constructor utilised in the app for opening a file.
      */
     public FlooringOrderDaoImpl() {
-        this.fileLocation = "src/main/resources/";
-        this.taxFile = fileLocation + "Data/Taxes.txt";
-        this.productFile = fileLocation + "Data/Products.txt";
-        setUp();
+        this("src/main/resources/");
     }
 
     /**
@@ -53,10 +95,36 @@ public class FlooringOrderDaoImpl implements FlooringOrderDao {
      * @param fileLocation 
      */
     public FlooringOrderDaoImpl(String fileLocation) {
+        this(fileLocation, OrderFileCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * This constructor also sets how many order dates are kept in memory, which
+     * can be sized for the busiest delivery dates.
+     * @param fileLocation - the folder holding the data, orders and backup files
+     * @param cacheCapacity - the number of order dates to cache
+     */
+    public FlooringOrderDaoImpl(String fileLocation, int cacheCapacity) {
+        this(fileLocation, cacheCapacity, new DailyPartitioning());
+    }
+
+    /**
+     * This constructor also sets how the orders are split into order files,
+     * e.g. a file per week or month rather than a file per day.
+     * @param fileLocation - the folder holding the data, orders and backup files
+     * @param cacheCapacity - the number of order dates to cache
+     * @param partitioning - decides which order file holds each order date
+     */
+    public FlooringOrderDaoImpl(String fileLocation, int cacheCapacity, OrderPartitioning partitioning) {
         this.fileLocation = fileLocation;
         this.taxFile = fileLocation + "Data/Taxes.txt";
         this.productFile = fileLocation + "Data/Products.txt";
+        this.orderCache = new OrderFileCache(cacheCapacity);
+        this.partitioning = partitioning;
         setUp();
+        loadOrderFiles();
+        this.orderIndex = new OrderNumberIndex(new File(fileLocation + "Orders/"),
+                new File(fileLocation + "Index/OrderIndex.txt"), partitioning);
     }
     
     /**
@@ -71,57 +139,315 @@ public class FlooringOrderDaoImpl implements FlooringOrderDao {
         }
     }
     
+    /**
+     * Lists the order files, recording each by the first date it can hold, so
+     * a date range only has to look at the files that exist.
+     */
+    private void loadOrderFiles() {
+        String[] contents = new File(fileLocation + "Orders/").list();
+        if (contents == null) {
+            return;
+        }
+        for (String content : contents) {
+            if (partitioning.isPartitionFile(content)) {
+                orderFiles.put(partitioning.getFirstDate(content), content);
+            }
+        }
+    }
+    
+    /**
+     * Records an order file that has just been written, in case it is new.
+     * @param myObj - the order file
+     */
+    private void recordOrderFile(File myObj) {
+        orderFiles.putIfAbsent(partitioning.getFirstDate(myObj.getName()), myObj.getName());
+    }
+    
+    /**
+     * Gets the cache of parsed order files, so the hit, miss and eviction
+     * counts can be checked.
+     * @return the order file cache
+     */
+    public OrderFileCache getOrderCache() {
+        return orderCache;
+    }
+    
     @Override
     public List<Order> getAllOrders(LocalDate date) throws NoSuchOrderFileException{
-        List<Order> allOrdersOnDate = new ArrayList();
-        String orderFile = getOrderFileName(date);
+        File myObj = new File(getOrderFileName(date));
+        Lock readLock = fileLocks.forFile(myObj.getName()).readLock();
+        readLock.lock();
+        try {
+            return readAllOrders(date, myObj);
+        } finally {
+            readLock.unlock();
+        }
+    }
+    
+    @Override
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            return Stream.empty();
+        }
+        //The first file may start before the range, e.g. the week or month holding the first date
+        LocalDate firstFile = partitioning.getFirstDate(partitioning.getFileName(fromDate));
+        List<LocalDate> fileDates = new ArrayList<>(orderFiles.subMap(firstFile, true, toDate, true).keySet());
+        return ReadAheadStream.of(fileDates, (fileDate) -> readRangeOrders(fileDate, fromDate, toDate),
+                exportPool, exportPool.getParallelism());
+    }
+    
+    /**
+     * Reads the orders in one order file that are in a date range, in date
+     * order. A file that has gone since it was listed has no orders.
+     * @param fileDate - the first date the order file can hold
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the orders in the file and the range
+     */
+    private List<Order> readRangeOrders(LocalDate fileDate, LocalDate fromDate, LocalDate toDate) {
+        String fileName = orderFiles.get(fileDate);
+        try {
+            if (fileName == null) {
+                return new ArrayList<>();
+            }
+            if (partitioning.isSingleDate()) {
+                return getAllOrders(fileDate);
+            }
+            List<Order> rangeOrders = new ArrayList<>();
+            for (Order eachOrder : getPartitionOrders(fileName)) {
+                if (!eachOrder.getOrderDate().isBefore(fromDate) && !eachOrder.getOrderDate().isAfter(toDate)) {
+                    rangeOrders.add(eachOrder);
+                }
+            }
+            rangeOrders.sort(Comparator.comparing(Order::getOrderDate));
+            return rangeOrders;
+        } catch (NoSuchOrderFileException e) {
+            if (!new File(fileLocation + "Orders/" + fileName).exists()) {
+                orderFiles.remove(fileDate, fileName);
+            }
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Reads the orders on a date from the cache or the order file, while the
+     * caller holds the file's lock.
+     * @param date - the order date
+     * @param myObj - the order file for that date
+     * @return the orders on that date
+     * @throws NoSuchOrderFileException - if there are no orders on that date
+     */
+    private List<Order> readAllOrders(LocalDate date, File myObj) throws NoSuchOrderFileException {
+        List<Order> cachedOrders = orderCache.get(date, myObj);
+        if (cachedOrders != null) {
+            return cachedOrders;
+        }
+        //The stamp is taken before reading, so a change mid-read is picked up next time
+        OrderFileCache.FileStamp stamp = OrderFileCache.FileStamp.of(myObj);
+        List<Order> allOrdersOnDate = new ArrayList<>();
         try {
-            Scanner sc = new Scanner(new BufferedReader(new FileReader(orderFile)));
-            sc.nextLine();
-            while (sc.hasNext()) {
-                String currentLine = sc.nextLine();
-                Order newOrder = unmarshallingOrder(currentLine);
-                allOrdersOnDate.add(newOrder);
-            }
-        } catch (FileNotFoundException e) {
+            if (partitioning.isSingleDate()) {
+                MappedOrderFileReader.forEachRow(myObj, (row) -> allOrdersOnDate.add(lazyOrder(row)));
+            } else {
+                //Only the lines the date index has for this date are read from the file
+                ByteBuffer contents = MappedOrderFileReader.load(myObj);
+                PartitionDateIndex dateIndex = getDateIndex(myObj, stamp, contents);
+                MappedOrderFileReader.forEachRowAt(contents, dateIndex.getLineStarts(date), (row) -> {
+                    if (row.getDate(2).equals(date)) {
+                        allOrdersOnDate.add(lazyOrder(row));
+                    }
+                });
+                if (allOrdersOnDate.isEmpty()) {
+                    throw new NoSuchOrderFileException("There are no orders on this date.");
+                }
+            }
+        } catch (IOException e) {
             throw new NoSuchOrderFileException("There are no orders on this date.");
         }
+        orderCache.put(date, stamp, allOrdersOnDate);
         return allOrdersOnDate;
     }
     
+    /**
+     * Gets the date index of an order file that holds more than one date,
+     * building it again if the file has changed since it was built.
+     * @param orderFile - the order file
+     * @param stamp - the state of the file before it was loaded
+     * @param contents - the loaded file
+     * @return the date index for the loaded file
+     */
+    private PartitionDateIndex getDateIndex(File orderFile, OrderFileCache.FileStamp stamp, ByteBuffer contents) {
+        PartitionDateIndex dateIndex = dateIndexes.get(orderFile.getName());
+        if (dateIndex != null && dateIndex.getStamp().equals(stamp)) {
+            return dateIndex;
+        }
+        dateIndex = PartitionDateIndex.build(contents, stamp, orderFile.getName());
+        //An index is only kept if the file didn't change while it was loaded
+        if (stamp.equals(OrderFileCache.FileStamp.of(orderFile))) {
+            dateIndexes.put(orderFile.getName(), dateIndex);
+        }
+        return dateIndex;
+    }
+    
+    /**
+     * Reads every order in an order file, whatever its date, e.g. to load it
+     * somewhere else.
+     * @param fileName - the order file name
+     * @return every order in the file, in file order
+     * @throws NoSuchOrderFileException - if the file cannot be read
+     */
+    List<Order> getPartitionOrders(String fileName) throws NoSuchOrderFileException {
+        List<Order> allOrdersInFile = new ArrayList<>();
+        Lock readLock = fileLocks.forFile(fileName).readLock();
+        readLock.lock();
+        try {
+            MappedOrderFileReader.forEachRow(new File(fileLocation + "Orders/" + fileName),
+                    (row) -> allOrdersInFile.add(unmarshallingOrder(row)));
+        } catch (IOException e) {
+            throw new NoSuchOrderFileException("There are no orders in " + fileName + ".", e);
+        } finally {
+            readLock.unlock();
+        }
+        return allOrdersInFile;
+    }
+    
+    /**
+     * Gets how the orders are split into order files
+     * @return the partitioning
+     */
+    public OrderPartitioning getPartitioning() {
+        return partitioning;
+    }
+    
     /**
      * Sets up the file for importing data from the relevant orders folder
      * @param date - the order date/date for delivery
      * @return - returns the order file name in string form to be utilised in another method
      */
-    private String getOrderFileName(LocalDate date) {
-        String orderFileName = "Orders/Orders_" + date.format(DateTimeFormatter.ofPattern("MMddyyyy"))+ ".txt";
+    String getOrderFileName(LocalDate date) {
+        String orderFileName = "Orders/" + partitioning.getFileName(date);
         return fileLocation + orderFileName;
     }
 
     @Override
     public Order addOrder(Order newOrder) throws OrderPersistenceException{
         String orderFile = getOrderFileName(newOrder.getOrderDate());
+        File myObj = new File(orderFile);
+        Lock writeLock = fileLocks.forFile(myObj.getName()).writeLock();
+        writeLock.lock();
+        try {
+            appendOrder(newOrder, orderFile, myObj);
+        } finally {
+            writeLock.unlock();
+        }
+        return newOrder;
+    }
+    
+    /**
+     * Appends one order to its order file, while the caller holds the file's
+     * lock.
+     * @param newOrder - the order to add
+     * @param orderFile - the order file name
+     * @param myObj - the order file
+     * @throws OrderPersistenceException - if the order file cannot be written
+     */
+    private void appendOrder(Order newOrder, String orderFile, File myObj) throws OrderPersistenceException {
+        OrderFileCache.FileStamp before = OrderFileCache.FileStamp.of(myObj);
         PrintWriter out;
         try {
-            out = new PrintWriter(new FileWriter(orderFile, true));
+            out = new PrintWriter(new FileWriter(orderFile, StandardCharsets.UTF_8, true));
         } catch (IOException e) {
             throw new OrderPersistenceException("Could not add order to file", e);
         }
         //Checks if file is empty
-        File myObj = new File(orderFile);
         if (myObj.length() == 0) {
-            out.println("OrderNumber,OrderCreationDate,OrderDate,CustomerName,State,TaxRate,ProductType,Area,CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive");
+            out.println(ORDER_FILE_HEADER);
         }
         String orderToString = marshallingOrder(newOrder);
         out.println(orderToString);
         out.flush();
         out.close();
-        return newOrder;
+        long offset = myObj.length()
+                - (orderToString + System.lineSeparator()).getBytes(StandardCharsets.UTF_8).length;
+        orderIndex.record(newOrder.getOrderNumber(), newOrder.getOrderDate(), offset, myObj);
+        recordOrderFile(myObj);
+        Order cachedOrder = new Order(newOrder);
+        orderCache.update(newOrder.getOrderDate(), before, OrderFileCache.FileStamp.of(myObj),
+                (cachedOrders) -> cachedOrders.add(cachedOrder));
+    }
+
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) throws OrderPersistenceException {
+        //Orders are grouped by date so each order file is only opened once
+        Map<LocalDate, List<Order>> ordersByDate = new LinkedHashMap<>();
+        for (Order newOrder : newOrders) {
+            ordersByDate.computeIfAbsent(newOrder.getOrderDate(), (date) -> new ArrayList<>()).add(newOrder);
+        }
+        for (Map.Entry<LocalDate, List<Order>> eachDate : ordersByDate.entrySet()) {
+            appendOrders(eachDate.getKey(), eachDate.getValue());
+        }
+        return newOrders;
+    }
+    
+    /**
+     * Appends a group of orders to one order file with a single buffered
+     * writer, recording the offset of each line as it is written.
+     * @param orderDate - the date of the orders
+     * @param newOrders - the orders for that date
+     * @throws OrderPersistenceException - if the order file cannot be written
+     */
+    private void appendOrders(LocalDate orderDate, List<Order> newOrders) throws OrderPersistenceException {
+        File myObj = new File(getOrderFileName(orderDate));
+        Lock writeLock = fileLocks.forFile(myObj.getName()).writeLock();
+        writeLock.lock();
+        try {
+            appendOrders(orderDate, newOrders, myObj);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void appendOrders(LocalDate orderDate, List<Order> newOrders, File myObj) throws OrderPersistenceException {
+        OrderFileCache.FileStamp before = OrderFileCache.FileStamp.of(myObj);
+        OrderNumberIndex.FileIndexer indexer = orderIndex.append(myObj);
+        int separatorLength = System.lineSeparator().getBytes(StandardCharsets.UTF_8).length;
+        long offset = myObj.length();
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(myObj, StandardCharsets.UTF_8, true))) {
+            //Checks if file is empty
+            if (offset == 0) {
+                out.write(ORDER_FILE_HEADER);
+                out.newLine();
+                offset += ORDER_FILE_HEADER.getBytes(StandardCharsets.UTF_8).length + separatorLength;
+            }
+            for (Order newOrder : newOrders) {
+                String orderToString = marshallingOrder(newOrder);
+                out.write(orderToString);
+                out.newLine();
+                indexer.add(orderToString, offset);
+                offset += orderToString.getBytes(StandardCharsets.UTF_8).length + separatorLength;
+            }
+        } catch (IOException e) {
+            throw new OrderPersistenceException("Could not add order to file", e);
+        }
+        indexer.commit();
+        recordOrderFile(myObj);
+        List<Order> cachedOrders = new ArrayList<>(newOrders.size());
+        for (Order newOrder : newOrders) {
+            cachedOrders.add(new Order(newOrder));
+        }
+        orderCache.update(orderDate, before, OrderFileCache.FileStamp.of(myObj),
+                (allCachedOrders) -> allCachedOrders.addAll(cachedOrders));
     }
 
     @Override
     public Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException {
+        OrderNumberIndex.Entry entry = orderIndex.get(orderNum);
+        if (entry != null && entry.getDate().equals(date)) {
+            Order indexedOrder = readIndexedOrder(orderNum);
+            if (indexedOrder != null && indexedOrder.getOrderDate().equals(date)) {
+                return indexedOrder;
+            }
+        }
         Order currentOrder = null;
         try {
             List<Order> allOrders = getAllOrders(date);
@@ -143,35 +469,220 @@ public class FlooringOrderDaoImpl implements FlooringOrderDao {
         return currentOrder;
     }
 
+    @Override
+    public Order getOrder(int orderNum) throws NoSuchOrderException {
+        if (orderIndex.get(orderNum) == null) {
+            //An order file may have been added outside of the app
+            orderIndex.refreshAfterMiss();
+        }
+        Order currentOrder = readIndexedOrder(orderNum);
+        if (currentOrder == null) {
+            throw new NoSuchOrderException("There is no order number: " + orderNum + " recorded.");
+        }
+        return currentOrder;
+    }
+    
+    /**
+     * Reads a single order straight from its position in the order file, using
+     * the offset held in the order number index. The entry is looked up again
+     * once the file is locked, as a rewrite may have moved the line.
+     * @param orderNum - the order number
+     * @return the order, or null if it isn't indexed or the line no longer holds it
+     */
+    private Order readIndexedOrder(int orderNum) {
+        OrderNumberIndex.Entry entry = orderIndex.get(orderNum);
+        while (entry != null) {
+            Lock readLock = fileLocks.forFile(entry.getFileName()).readLock();
+            readLock.lock();
+            try {
+                OrderNumberIndex.Entry lockedEntry = orderIndex.get(orderNum);
+                if (lockedEntry != null && lockedEntry.getFileName().equals(entry.getFileName())) {
+                    return readOrderAt(lockedEntry, orderNum);
+                }
+                //The order moved to another file before the lock was taken
+                entry = lockedEntry;
+            } finally {
+                readLock.unlock();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Reads the order line at an index entry's offset, while the caller holds
+     * the file's lock.
+     * @param entry - the index entry for the order
+     * @param orderNum - the order number expected on that line
+     * @return the order, or null if the line no longer holds that order
+     */
+    private Order readOrderAt(OrderNumberIndex.Entry entry, int orderNum) {
+        File orderFile = new File(fileLocation + "Orders/" + entry.getFileName());
+        try (RandomAccessFile in = new RandomAccessFile(orderFile, "r")) {
+            if (entry.getOffset() > 0) {
+                //The order line has to start straight after a line break
+                in.seek(entry.getOffset() - 1);
+                if (in.read() != '\n') {
+                    return null;
+                }
+            } else {
+                in.seek(entry.getOffset());
+            }
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            int read;
+            outer:
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        line.write(buffer, 0, i);
+                        break outer;
+                    }
+                }
+                line.write(buffer, 0, read);
+            }
+            String currentLine = line.toString(StandardCharsets.UTF_8).trim();
+            if (!currentLine.startsWith(orderNum + DELIMITER)) {
+                return null;
+            }
+            return unmarshallingOrder(currentLine);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
     @Override
     public void editOrder(Order orderToUpdate) throws NoSuchOrderFileException, OrderPersistenceException {
-        List<Order> allOrders = getAllOrders(orderToUpdate.getOrderDate());
-        Map<Integer, Order> orderWithOrderNums = new HashMap<>();
-        for (Order eachOrder : allOrders) {
-            orderWithOrderNums.put(eachOrder.getOrderNumber(), eachOrder);
+        File myObj = new File(getOrderFileName(orderToUpdate.getOrderDate()));
+        //The lock is held from the check so the file can't change in between
+        Lock writeLock = fileLocks.forFile(myObj.getName()).writeLock();
+        writeLock.lock();
+        try {
+            if (!myObj.exists()) {
+                throw new NoSuchOrderFileException("There are no orders on this date.");
+            }
+            Map<Integer, Order> updatedOrders = new HashMap<>();
+            updatedOrders.put(orderToUpdate.getOrderNumber(), orderToUpdate);
+            rewriteOrderFile(orderToUpdate.getOrderDate(), updatedOrders);
+        } finally {
+            writeLock.unlock();
         }
-        orderWithOrderNums.put(orderToUpdate.getOrderNumber(), orderToUpdate);
-        PrintWriter out;
+    }
+    
+    /**
+     * Streams a day file into a new file, replacing the lines of the updated
+     * orders and adding any that weren't in the file, then atomically moves the
+     * new file into place. Only the updated orders are marshalled again, so the
+     * cost is one sequential read and one sequential write. The order file is
+     * created if it doesn't exist yet.
+     * @param orderDate - the date of the order file
+     * @param updatedOrders - the updated orders by their order number
+     * @throws OrderPersistenceException - if the order file cannot be written
+     */
+    void rewriteOrderFile(LocalDate orderDate, Map<Integer, Order> updatedOrders) throws OrderPersistenceException {
+        File myObj = new File(getOrderFileName(orderDate));
+        Lock writeLock = fileLocks.forFile(myObj.getName()).writeLock();
+        writeLock.lock();
         try {
-            out = new PrintWriter(new FileWriter(getOrderFileName(orderToUpdate.getOrderDate()), false));
-            out.close();
+            rewriteOrderFile(orderDate, updatedOrders, myObj);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void rewriteOrderFile(LocalDate orderDate, Map<Integer, Order> updatedOrders, File myObj)
+            throws OrderPersistenceException {
+        OrderFileCache.FileStamp before = OrderFileCache.FileStamp.of(myObj);
+        File tempFile = new File(myObj.getPath() + ".tmp");
+        OrderNumberIndex.FileIndexer indexer = orderIndex.rewrite(myObj);
+        Map<Integer, Order> remainingOrders = new LinkedHashMap<>(updatedOrders);
+        int separatorLength = System.lineSeparator().getBytes(StandardCharsets.UTF_8).length;
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(tempFile, StandardCharsets.UTF_8, false)))) {
+            long offset = 0;
+            if (myObj.exists()) {
+                try (BufferedReader in = new BufferedReader(new FileReader(myObj, StandardCharsets.UTF_8))) {
+                    String header = in.readLine();
+                    if (header == null) {
+                        header = ORDER_FILE_HEADER;
+                    }
+                    out.println(header);
+                    offset = header.getBytes(StandardCharsets.UTF_8).length + separatorLength;
+                    String currentLine;
+                    while ((currentLine = in.readLine()) != null) {
+                        if (currentLine.trim().isEmpty()) {
+                            continue;
+                        }
+                        Order updatedOrder = updatedOrders.get(orderNumberOf(currentLine));
+                        if (updatedOrder != null) {
+                            currentLine = marshallingOrder(updatedOrder);
+                            remainingOrders.remove(updatedOrder.getOrderNumber());
+                        }
+                        out.println(currentLine);
+                        indexer.add(currentLine, offset);
+                        offset += currentLine.getBytes(StandardCharsets.UTF_8).length + separatorLength;
+                    }
+                }
+            } else {
+                out.println(ORDER_FILE_HEADER);
+                offset = ORDER_FILE_HEADER.getBytes(StandardCharsets.UTF_8).length + separatorLength;
+            }
+            for (Order newOrder : remainingOrders.values()) {
+                String orderToString = marshallingOrder(newOrder);
+                out.println(orderToString);
+                indexer.add(orderToString, offset);
+                offset += orderToString.getBytes(StandardCharsets.UTF_8).length + separatorLength;
+            }
+            if (out.checkError()) {
+                throw new IOException("Could not write to " + tempFile.getName());
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new OrderPersistenceException("Could not update order in file", e);
+        }
+        try {
+            if (syncWrites) {
+                try (FileChannel tempChannel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                    tempChannel.force(true);
+                }
+            }
+            replaceFile(tempFile, myObj);
         } catch (IOException e) {
+            tempFile.delete();
             throw new OrderPersistenceException("Could not update order in file", e);
         }
-        List<Order> updatedOrderList = new ArrayList(orderWithOrderNums.values());
-        for (Order updatedOrder : updatedOrderList) {
-            addOrder(updatedOrder);
+        indexer.commit();
+        recordOrderFile(myObj);
+        orderCache.update(orderDate, before, OrderFileCache.FileStamp.of(myObj), (cachedOrders) -> {
+            cachedOrders.replaceAll((eachOrder) -> updatedOrders.containsKey(eachOrder.getOrderNumber())
+                    ? new Order(updatedOrders.get(eachOrder.getOrderNumber())) : eachOrder);
+            for (Order newOrder : remainingOrders.values()) {
+                cachedOrders.add(new Order(newOrder));
+            }
+        });
+    }
+    
+    /**
+     * Reads the order number at the start of an order line, without splitting
+     * the whole line.
+     * @param orderLine - the order line
+     * @return the order number, or -1 if the line doesn't start with one
+     */
+    private int orderNumberOf(String orderLine) {
+        int end = orderLine.indexOf(DELIMITER);
+        try {
+            return Integer.parseInt(end < 0 ? orderLine : orderLine.substring(0, end));
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
     @Override
     public List<Product> getProducts() {
-        return new ArrayList(allProducts.values());
+        return new ArrayList<>(allProducts.values());
     }
 
     @Override
     public List<Taxes> getTaxes() {
-        return new ArrayList(allTaxRates.values());
+        return new ArrayList<>(allTaxRates.values());
     }
     
     /**
@@ -181,13 +692,14 @@ public class FlooringOrderDaoImpl implements FlooringOrderDao {
      */
     private void loadTaxes() throws FileNotFoundException{
         Scanner sc = new Scanner(new BufferedReader(new FileReader(taxFile)));
+        LineTokenizer aStatesTax = new LineTokenizer(3);
         sc.nextLine();
         while (sc.hasNext()) {
-            String currentLine = sc.nextLine();
-            String[] aStatesTax = currentLine.split(DELIMITER);
-            Taxes newTax = new Taxes(aStatesTax[0], aStatesTax[1], new BigDecimal(aStatesTax[2]));
-            allTaxRates.put(aStatesTax[0], newTax);
+            aStatesTax.reset(sc.nextLine());
+            Taxes newTax = new Taxes(aStatesTax.getString(0), aStatesTax.getString(1), aStatesTax.getDecimal(2));
+            allTaxRates.put(newTax.getState(), newTax);
         }
+        sc.close();
     }
     
     /**
@@ -197,184 +709,483 @@ public class FlooringOrderDaoImpl implements FlooringOrderDao {
      */
     private void loadProducts() throws FileNotFoundException{
         Scanner sc = new Scanner(new BufferedReader(new FileReader(productFile)));
+        LineTokenizer aProduct = new LineTokenizer(3);
         sc.nextLine();
         while (sc.hasNext()) {
-            String currentLine = sc.nextLine();
-            String[] aProduct = currentLine.split(DELIMITER);
-            Product newProduct = new Product(aProduct[0], new BigDecimal(aProduct[1]), new BigDecimal(aProduct[2]));
-            allProducts.put(aProduct[0], newProduct);
+            aProduct.reset(sc.nextLine());
+            Product newProduct = new Product(aProduct.getString(0), aProduct.getDecimal(1), aProduct.getDecimal(2));
+            allProducts.put(newProduct.getProductType(), newProduct);
         }
+        sc.close();
     }
     
     /**
-     * This will unmarshall the data for the orders.
-     * @param orderDetails
-     * @return 
+     * This will unmarshall the data for the orders. The line is split with a
+     * tokenizer kept for each thread, so no substrings are made for the number,
+     * date and decimal fields.
+     * @param orderDetails - the order line
+     * @return the order on that line
      */
-    private Order unmarshallingOrder(String orderDetails) {
-        String[] orderSeperatedDetails = orderDetails.split(DELIMITER);
-        //LocalDate OrderDate, String CustomerName, Taxes taxRate, Product Product, BigDecimal Area
-        
+    Order unmarshallingOrder(String orderDetails) {
+        LineTokenizer orderSeperatedDetails = ORDER_TOKENIZER.get().reset(orderDetails);
         //File format -- OrderNumber,OrderCreationDate,OrderDate,CustomerName,State,TaxRate,ProductType,Area,
         //CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive
-        String customerName = orderSeperatedDetails[3];
-        LocalDate orderCreation = LocalDate.parse(orderSeperatedDetails[1],java.time.format.DateTimeFormatter.ofPattern("MM-dd-yyyy"));
-        LocalDate orderDate = LocalDate.parse(orderSeperatedDetails[2],java.time.format.DateTimeFormatter.ofPattern("MM-dd-yyyy"));
-        Taxes taxRate = allTaxRates.get(orderSeperatedDetails[4]);
-        Product product = allProducts.get(orderSeperatedDetails[6]);
-        BigDecimal area = new BigDecimal(orderSeperatedDetails[7]);
+        String customerName = orderSeperatedDetails.getString(3);
+        LocalDate orderCreation = orderSeperatedDetails.getDate(1);
+        LocalDate orderDate = orderSeperatedDetails.getDate(2);
+        Taxes taxRate = allTaxRates.get(orderSeperatedDetails.getString(4));
+        Product product = allProducts.get(orderSeperatedDetails.getString(6));
+        BigDecimal area = orderSeperatedDetails.getDecimal(7);
         
         Order currentOrder = new Order(orderCreation,orderDate, customerName, taxRate, product, area);
-        currentOrder.setOrderNumber(Integer.parseInt(orderSeperatedDetails[0]));
-        currentOrder.setLaborCost(new BigDecimal(orderSeperatedDetails[11]));
-        currentOrder.setMaterialCost(new BigDecimal(orderSeperatedDetails[10]));
-        currentOrder.setTax(new BigDecimal(orderSeperatedDetails[12]));
-        currentOrder.setTotal(new BigDecimal(orderSeperatedDetails[13]));
-        currentOrder.setActiveOrder(Boolean.parseBoolean(orderSeperatedDetails[14]));
+        currentOrder.setOrderNumber(orderSeperatedDetails.getInt(0));
+        currentOrder.setLaborCost(orderSeperatedDetails.getDecimal(11));
+        currentOrder.setMaterialCost(orderSeperatedDetails.getDecimal(10));
+        currentOrder.setTax(orderSeperatedDetails.getDecimal(12));
+        currentOrder.setTotal(orderSeperatedDetails.getDecimal(13));
+        currentOrder.setActiveOrder(orderSeperatedDetails.getBoolean(14));
+        return currentOrder;
+    }
+    
+    /**
+     * This will unmarshall an order straight from a row of a mapped order file,
+     * reading each field from the bytes of the row.
+     * @param row - the order file row
+     * @return the order on that row
+     */
+    private Order unmarshallingOrder(MappedOrderFileReader.Row row) {
+        //File format -- OrderNumber,OrderCreationDate,OrderDate,CustomerName,State,TaxRate,ProductType,Area,
+        //CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive
+        Taxes taxRate = allTaxRates.get(row.getString(4));
+        Product product = allProducts.get(row.getString(6));
+        Order currentOrder = new Order(row.getDate(1), row.getDate(2), row.getString(3), 
+                taxRate, product, row.getDecimal(7));
+        currentOrder.setOrderNumber(row.getInt(0));
+        currentOrder.setLaborCost(row.getDecimal(11));
+        currentOrder.setMaterialCost(row.getDecimal(10));
+        currentOrder.setTax(row.getDecimal(12));
+        currentOrder.setTotal(row.getDecimal(13));
+        currentOrder.setActiveOrder(row.getBoolean(14));
         return currentOrder;
     }
     
+    /**
+     * Keeps the line of an order file row to be parsed as its fields are used,
+     * since most callers of the orders on a date only look at a few of them.
+     * The line is copied out of the buffer on purpose: the orders are cached
+     * long after the read, and holding offsets into a mapping would keep the
+     * whole file mapped, stop it being replaced on some platforms, and crash
+     * the reader if the file were cut short outside the app.
+     * @param row - the order file row
+     * @return the order on that row
+     */
+    private Order lazyOrder(MappedOrderFileReader.Row row) {
+        return new LazyOrder(row.getLine(), allTaxRates, allProducts);
+    }
+    
     /**
      * This will marshal the orders so it is in string form, that way it is can be stored in a text file.
      * @param currentOrder
      * @return the newly created order
      */
-    private String marshallingOrder(Order currentOrder) {
-        
-        //File format -- OrderNumber,OrderCreationDate,OrderDate,CustomerName,State Abbreviation,TaxRate,ProductType,Area,
-        //CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive
-        String orderToString = currentOrder.getOrderNumber() + DELIMITER;
-        
-        orderToString += currentOrder.getOrderCreation().format(DateTimeFormatter.ofPattern("MM-dd-yyyy")) + DELIMITER;
-        
-        orderToString += currentOrder.getOrderDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy")) + DELIMITER;
-        
-        orderToString += currentOrder.getCustomerName() + DELIMITER;
-        
-        orderToString += currentOrder.getTaxInfo().getState() + DELIMITER;
-        
-        orderToString += currentOrder.getTaxInfo().getTaxRate() + DELIMITER;
-        
-        orderToString += currentOrder.getProduct().getProductType() + DELIMITER;
-        
-        orderToString += currentOrder.getArea() + DELIMITER;
-        
-        orderToString += currentOrder.getProduct().getCostPerSquareFoot() + DELIMITER;
-        
-        orderToString += currentOrder.getProduct().getLaborCostPerSquareFoot() + DELIMITER;
-        
-        orderToString += currentOrder.getMaterialCost() + DELIMITER;
-        
-        orderToString += currentOrder.getLaborCost() + DELIMITER;
-        
-        orderToString += currentOrder.getTax() + DELIMITER;
-        
-        orderToString += currentOrder.getTotal() + DELIMITER;
-        
-        orderToString += currentOrder.isActiveOrder();
-        
-        return orderToString;
+    String marshallingOrder(Order currentOrder) {
+        return ORDER_WRITER.get().orderLine(currentOrder);
+    }
+
+    /**
+     * Moves a finished temporary file over the file it replaces, atomically
+     * where the file system allows it.
+     * @param tempFile - the finished temporary file
+     * @param target - the file being replaced
+     * @throws IOException - if the file cannot be moved
+     */
+    private void replaceFile(File tempFile, File target) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     @Override
     public List<Order> exportOrders() throws NoSuchOrderFileException, OrderPersistenceException {
-        Map<Integer, Order> allOrders = new HashMap<>();
+        return exportOrders(false);
+    }
+
+    @Override
+    public List<Order> exportOrders(boolean fullRebuild) throws NoSuchOrderFileException, OrderPersistenceException {
         File directoryPath = new File(fileLocation + "Orders/");
+        File backupFile = new File(fileLocation + "Backup/DataExport.txt");
+        File manifestFile = new File(fileLocation + "Backup/ExportManifest.txt");
         //List of all files and directories
         String[] contents = directoryPath.list();
+        List<String> orderFiles = new ArrayList<>();
         for (String content : contents) {
-            String contentPath = "Orders/"+content;
-            List<Order> ordersInFile = getExportOrdersFiles(contentPath);
-            ordersInFile.forEach((eachOrder) -> {
-                allOrders.put(eachOrder.getOrderNumber(), eachOrder);
-            });
-        }
-        List<Order> activeOrders = allOrders.values().stream()
-                .filter((p) -> p.isActiveOrder())
-                .collect(Collectors.toList());
+            //Skips anything that isn't an order file e.g. a rewrite left by a crash
+            if (!partitioning.isPartitionFile(content)) {
+                continue;
+            }
+            orderFiles.add(content);
+        }
+        //The files are ranked by date, so when an order number is in more than one
+        //file the latest file wins however the parsing is scheduled
+        orderFiles.sort(Comparator.comparing(partitioning::getFirstDate));
+        //Without both the manifest and the last export, every file is read again
+        ExportManifest loadedManifest = fullRebuild || !backupFile.exists() 
+                ? new ExportManifest() : ExportManifest.load(manifestFile);
+        TreeMap<Integer, String> backupLines = new TreeMap<>();
+        Map<Integer, Order> backupOrders = new HashMap<>();
+        if (!loadedManifest.getEntries().isEmpty()) {
+            ExportSnapshot snapshot = lastExport;
+            if (snapshot != null && snapshot.stamp.equals(OrderFileCache.FileStamp.of(backupFile))) {
+                //The last export is still in memory, so its orders don't have to be read or parsed again
+                backupLines.putAll(snapshot.backupLines);
+                backupOrders.putAll(snapshot.backupOrders);
+            } else {
+                TreeMap<Integer, String> readLines = readBackupLines(backupFile);
+                if (readLines == null) {
+                    //The manifest can't be trusted without the last export, so it is rebuilt
+                    loadedManifest = new ExportManifest();
+                } else {
+                    backupLines.putAll(readLines);
+                }
+            }
+        }
+        ExportManifest lastManifest = loadedManifest;
         
-        String backupFileName = fileLocation + "Backup/DataExport.txt";
-        PrintWriter out;
+        //Only the files whose size, time and then hash don't match the manifest are parsed
+        ExportedFile[] exportedFiles = new ExportedFile[orderFiles.size()];
+        runExportTask(() -> IntStream.range(0, orderFiles.size()).parallel().forEach((fileRank) -> {
+            try {
+                exportedFiles[fileRank] = checkExportFile(orderFiles.get(fileRank), 
+                        lastManifest.get(orderFiles.get(fileRank)));
+            } catch (NoSuchOrderFileException e) {
+                throw new CompletionException(e);
+            }
+        }));
+        
+        //Every order number in a changed, new or deleted file may have a new winner
+        Set<Integer> affectedOrders = new HashSet<>();
+        Map<String, Boolean> present = new HashMap<>();
+        for (ExportedFile exportedFile : exportedFiles) {
+            present.put(exportedFile.fileName, true);
+            if (exportedFile.fileOrders != null) {
+                addOrderNumbers(lastManifest.get(exportedFile.fileName), affectedOrders);
+                addOrderNumbers(exportedFile.entry, affectedOrders);
+            }
+        }
+        lastManifest.getEntries().forEach((fileName, entry) -> {
+            if (!present.containsKey(fileName)) {
+                addOrderNumbers(entry, affectedOrders);
+            }
+        });
+        Map<Integer, Integer> winningFiles = new HashMap<>();
+        for (int fileRank = 0; fileRank < exportedFiles.length; fileRank++) {
+            ExportManifest.Entry entry = exportedFiles[fileRank].entry;
+            for (int orderNum : entry.getActiveOrders()) {
+                if (affectedOrders.contains(orderNum)) {
+                    winningFiles.put(orderNum, fileRank);
+                }
+            }
+            for (int orderNum : entry.getCancelledOrders()) {
+                if (affectedOrders.contains(orderNum)) {
+                    winningFiles.remove(orderNum);
+                }
+            }
+        }
+        
+        //An unchanged file only needs reading if one of its orders has just become the winner
+        backupLines.keySet().removeAll(affectedOrders);
+        backupOrders.keySet().removeAll(affectedOrders);
+        Set<Integer> reloadRanks = new TreeSet<>();
+        winningFiles.forEach((orderNum, fileRank) -> {
+            if (exportedFiles[fileRank].fileOrders == null) {
+                reloadRanks.add(fileRank);
+            }
+        });
+        runExportTask(() -> reloadRanks.parallelStream().forEach((fileRank) -> {
+            try {
+                exportedFiles[fileRank].fileOrders = getExportOrdersFiles("Orders/" + exportedFiles[fileRank].fileName);
+            } catch (NoSuchOrderFileException e) {
+                throw new CompletionException(e);
+            }
+        }));
+        OrderLineWriter backupWriter = ORDER_WRITER.get();
+        winningFiles.forEach((orderNum, fileRank) -> {
+            Order winningOrder = exportedFiles[fileRank].fileOrders.get(orderNum);
+            if (winningOrder != null) {
+                backupLines.put(orderNum, backupWriter.backupLine(winningOrder));
+                backupOrders.put(orderNum, winningOrder);
+            }
+        });
+        
+        ExportManifest manifest = new ExportManifest();
+        for (ExportedFile exportedFile : exportedFiles) {
+            manifest.put(exportedFile.fileName, exportedFile.entry);
+        }
+        writeBackupLines(backupFile, backupLines);
         try {
-            out = new PrintWriter(new FileWriter(backupFileName, false));
+            manifest.save(manifestFile);
         } catch (IOException e) {
-            throw new OrderPersistenceException("Could not add order to file", e);
+            //The export itself is complete, the next export will just read every file
+            manifestFile.delete();
+            Logger.getLogger(FlooringOrderDaoImpl.class.getName()).log(Level.WARNING,
+                    "Could not save the export manifest.", e);
         }
-        out.println("OrderNumber,OrderCreationDate,CustomerName,State,"
-                + "TaxRate,ProductType,Area,CostPerSquareFoot,"
-                + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,OrderDate");
-        activeOrders.forEach((eachActiveOrder) -> {
-            out.println(marshallingBackups(eachActiveOrder));
-        });
-        out.flush();
-        out.close();
+        
+        //Only the lines read from the backup file and not yet parsed are parsed here
+        List<Order> activeOrders = new ArrayList<>(backupLines.size());
+        for (Map.Entry<Integer, String> backupLine : backupLines.entrySet()) {
+            Order activeOrder = backupOrders.computeIfAbsent(backupLine.getKey(),
+                    (orderNum) -> unmarshallingBackup(backupLine.getValue()));
+            activeOrders.add(new Order(activeOrder));
+        }
+        lastExport = new ExportSnapshot(OrderFileCache.FileStamp.of(backupFile), backupLines, backupOrders);
         return activeOrders;
     }
     
+    /**
+     * Sets the pool the order files are parsed on during an export or a date
+     * range read. The common pool is used unless another is set, e.g. one sized
+     * for the backup machine.
+     * @param exportPool - the pool to parse the order files on
+     */
+    public void setExportPool(ForkJoinPool exportPool) {
+        this.exportPool = exportPool;
+    }
+    
+    /**
+     * Sets whether a rewritten order file is forced to disk before it replaces
+     * the old one. This is off unless something else, such as a durable order
+     * log, relies on the order files surviving a crash.
+     * @param syncWrites - true to force rewritten order files to disk
+     */
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+    
+    /**
+     * Runs part of an export on the export pool and waits for it to finish.
+     * @param exportWork - the work to run
+     * @throws NoSuchOrderFileException - if an order file cannot be read
+     * @throws OrderPersistenceException - if the export is interrupted or fails
+     */
+    private void runExportTask(Runnable exportWork) throws NoSuchOrderFileException, OrderPersistenceException {
+        ForkJoinTask<?> exportTask = exportPool.submit(exportWork);
+        try {
+            exportTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderPersistenceException("The export was interrupted", e);
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof NoSuchOrderFileException) {
+                    throw (NoSuchOrderFileException) cause;
+                }
+            }
+            throw new OrderPersistenceException("Could not read the order files", e.getCause());
+        }
+    }
+    
+    /**
+     * Checks an order file against its manifest entry. The file is only hashed
+     * if its size or time has changed, and only parsed if its hash has changed.
+     * @param fileName - the order file name
+     * @param lastEntry - the manifest entry from the last export, or null
+     * @return the state of the file, with its orders if it was parsed
+     * @throws NoSuchOrderFileException - if the file cannot be read
+     */
+    private ExportedFile checkExportFile(String fileName, ExportManifest.Entry lastEntry) throws NoSuchOrderFileException {
+        File orderFile = new File(fileLocation + "Orders/" + fileName);
+        OrderFileCache.FileStamp stamp;
+        ByteBuffer contents;
+        //The stamp and contents are read under the lock so they match each other
+        Lock readLock = fileLocks.forFile(fileName).readLock();
+        readLock.lock();
+        try {
+            stamp = OrderFileCache.FileStamp.of(orderFile);
+            if (lastEntry != null && lastEntry.getStamp().equals(stamp)) {
+                return new ExportedFile(fileName, lastEntry, null);
+            }
+            contents = MappedOrderFileReader.load(orderFile);
+        } catch (IOException e) {
+            throw new NoSuchOrderFileException("There are no orders on this date.", e);
+        } finally {
+            readLock.unlock();
+        }
+        long hash = ExportManifest.hash(contents);
+        if (lastEntry != null && lastEntry.getHash() == hash) {
+            return new ExportedFile(fileName, new ExportManifest.Entry(stamp, hash,
+                    lastEntry.getActiveOrders(), lastEntry.getCancelledOrders()), null);
+        }
+        Map<Integer, Order> fileOrders = parseExportOrders(contents);
+        return new ExportedFile(fileName, new ExportManifest.Entry(stamp, hash,
+                fileOrders.entrySet().stream().filter((eachOrder) -> eachOrder.getValue() != null)
+                        .mapToInt(Map.Entry::getKey).sorted().toArray(),
+                fileOrders.entrySet().stream().filter((eachOrder) -> eachOrder.getValue() == null)
+                        .mapToInt(Map.Entry::getKey).sorted().toArray()), fileOrders);
+    }
+    
     /**
      * The method utilised by the export method to get the orders from their
-     * relevant files, since the original getAllMethods method has a different
-     * format for reading files.
+     * relevant files.
      * @param contentPath - the path to the relevant file
-     * @return - returns a list of orders from each order file
-     * @throws NoSuchOrderFileException 
+     * @return the last state of each order number in the file
+     * @throws NoSuchOrderFileException - if the file cannot be read
      */
-    private List<Order> getExportOrdersFiles(String contentPath) throws NoSuchOrderFileException{
-        List<Order> allOrdersOnDate = new ArrayList();
-        String orderFile = fileLocation + contentPath;
+    private Map<Integer, Order> getExportOrdersFiles(String contentPath) throws NoSuchOrderFileException{
+        File orderFile = new File(fileLocation + contentPath);
+        ByteBuffer contents;
+        Lock readLock = fileLocks.forFile(orderFile.getName()).readLock();
+        readLock.lock();
         try {
-            Scanner sc = new Scanner(new BufferedReader(new FileReader(orderFile)));
-            sc.nextLine();
-            while (sc.hasNext()) {
-                String currentLine = sc.nextLine();
-                Order newOrder = unmarshallingOrder(currentLine);
-                allOrdersOnDate.add(newOrder);
-            }
-        } catch (FileNotFoundException e) {
+            contents = MappedOrderFileReader.load(orderFile);
+        } catch (IOException e) {
             throw new NoSuchOrderFileException("There are no orders on this date.");
+        } finally {
+            readLock.unlock();
         }
-        return allOrdersOnDate;
+        return parseExportOrders(contents);
     }
     
     /**
-     * This method is used to write the orders to the back up file since it is
-     * formatted differently to the original orders file, so a different methods
-     * was most suitable
-     * @param currentOrder - the order that needs to be converted to string form
-     * @return - returns the string format of the order
+     * Reads the orders of a loaded order file for an export. Only the order
+     * number and active flag are read for every line, the full order is only
+     * created for active orders. A later line for the same order number replaces
+     * an earlier one, and an inactive order is kept as a null so it can cancel
+     * the order from an earlier file.
+     * @param contents - the whole order file
+     * @return the last state of each order number in the file
      */
-    private String marshallingBackups(Order currentOrder) {
-        
-        //File format -- OrderNumber,OrderCreationDate,CustomerName,State Abbreviation,TaxRate,ProductType,Area,
-        //CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,OrderDate
-        String orderToString = currentOrder.getOrderNumber() + DELIMITER;
-        
-        orderToString += currentOrder.getOrderCreation().format(DateTimeFormatter.ofPattern("MM-dd-yyyy")) + DELIMITER;
-        
-        orderToString += currentOrder.getCustomerName() + DELIMITER;
-        
-        orderToString += currentOrder.getTaxInfo().getState() + DELIMITER;
-        
-        orderToString += currentOrder.getTaxInfo().getTaxRate() + DELIMITER;
-        
-        orderToString += currentOrder.getProduct().getProductType() + DELIMITER;
-        
-        orderToString += currentOrder.getArea() + DELIMITER;
-        
-        orderToString += currentOrder.getProduct().getCostPerSquareFoot() + DELIMITER;
-        
-        orderToString += currentOrder.getProduct().getLaborCostPerSquareFoot() + DELIMITER;
-        
-        orderToString += currentOrder.getMaterialCost() + DELIMITER;
-        
-        orderToString += currentOrder.getLaborCost() + DELIMITER;
-        
-        orderToString += currentOrder.getTax() + DELIMITER;
-        
-        orderToString += currentOrder.getTotal() + DELIMITER;
-        
-        orderToString += currentOrder.getOrderDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));
-        
-        return orderToString;
+    private Map<Integer, Order> parseExportOrders(ByteBuffer contents) {
+        Map<Integer, Order> fileOrders = new HashMap<>();
+        MappedOrderFileReader.forEachRow(contents, (row) -> {
+            fileOrders.put(row.getInt(0), row.getBoolean(14) ? unmarshallingOrder(row) : null);
+        });
+        return fileOrders;
+    }
+    
+    private void addOrderNumbers(ExportManifest.Entry entry, Set<Integer> orderNumbers) {
+        if (entry == null) {
+            return;
+        }
+        for (int orderNum : entry.getActiveOrders()) {
+            orderNumbers.add(orderNum);
+        }
+        for (int orderNum : entry.getCancelledOrders()) {
+            orderNumbers.add(orderNum);
+        }
+    }
+    
+    /**
+     * Reads the lines of the last export by order number, so the unchanged
+     * orders can be written out again as they are.
+     * @param backupFile - the backup file
+     * @return the backup lines by order number, or null if it cannot be read
+     */
+    private TreeMap<Integer, String> readBackupLines(File backupFile) {
+        TreeMap<Integer, String> backupLines = new TreeMap<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(backupFile))) {
+            //Skips the header
+            String backupLine = in.readLine();
+            while ((backupLine = in.readLine()) != null) {
+                if (!backupLine.isBlank()) {
+                    int orderNum = orderNumberOf(backupLine);
+                    if (orderNum < 0) {
+                        throw new IOException("Not a backup line: " + backupLine);
+                    }
+                    backupLines.put(orderNum, backupLine);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.getLogger(FlooringOrderDaoImpl.class.getName()).log(Level.WARNING,
+                    "Could not read the last export, every order file will be read again.", e);
+            return null;
+        }
+        return backupLines;
+    }
+    
+    /**
+     * Writes the backup file in order number order, replacing the last export
+     * once it is complete.
+     * @param backupFile - the backup file
+     * @param backupLines - the backup lines by order number
+     * @throws OrderPersistenceException - if the backup file cannot be written
+     */
+    private void writeBackupLines(File backupFile, TreeMap<Integer, String> backupLines) throws OrderPersistenceException {
+        File tempFile = new File(backupFile.getPath() + ".tmp");
+        try {
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(tempFile, false))) {
+                out.write("OrderNumber,OrderCreationDate,CustomerName,State,"
+                        + "TaxRate,ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,OrderDate");
+                out.newLine();
+                for (String backupLine : backupLines.values()) {
+                    out.write(backupLine);
+                    out.newLine();
+                }
+            }
+            replaceFile(tempFile, backupFile);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new OrderPersistenceException("Could not add order to file", e);
+        }
+    }
+    
+    /**
+     * This will unmarshal a line of the backup file, which is formatted
+     * differently to the order files.
+     * File format -- OrderNumber,OrderCreationDate,CustomerName,State,TaxRate,ProductType,Area,
+     * CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,OrderDate
+     * @param backupLine - the backup line
+     * @return the active order
+     */
+    private Order unmarshallingBackup(String backupLine) {
+        LineTokenizer orderDetails = ORDER_TOKENIZER.get().reset(backupLine);
+        Taxes taxRate = allTaxRates.get(orderDetails.getString(3));
+        Product product = allProducts.get(orderDetails.getString(5));
+        Order currentOrder = new Order(orderDetails.getDate(1), orderDetails.getDate(13), 
+                orderDetails.getString(2), taxRate, product, orderDetails.getDecimal(6));
+        currentOrder.setOrderNumber(orderDetails.getInt(0));
+        currentOrder.setMaterialCost(orderDetails.getDecimal(9));
+        currentOrder.setLaborCost(orderDetails.getDecimal(10));
+        currentOrder.setTax(orderDetails.getDecimal(11));
+        currentOrder.setTotal(orderDetails.getDecimal(12));
+        currentOrder.setActiveOrder(true);
+        return currentOrder;
+    }
+    
+    /**
+     * The last export, kept so the next export doesn't read and parse the
+     * unchanged orders again. It is only used while the backup file is still
+     * the one it was written to, and isn't changed once made.
+     */
+    private static final class ExportSnapshot {
+        private final OrderFileCache.FileStamp stamp;
+        private final TreeMap<Integer, String> backupLines;
+        private final Map<Integer, Order> backupOrders;
+
+        private ExportSnapshot(OrderFileCache.FileStamp stamp, TreeMap<Integer, String> backupLines,
+                Map<Integer, Order> backupOrders) {
+            this.stamp = stamp;
+            this.backupLines = backupLines;
+            this.backupOrders = backupOrders;
+        }
+    }
+    
+    /**
+     * An order file found during an export, with its manifest entry and, if it
+     * had to be parsed, the last state of each of its order numbers.
+     */
+    private static final class ExportedFile {
+        private final String fileName;
+        private final ExportManifest.Entry entry;
+        private Map<Integer, Order> fileOrders;
+
+        private ExportedFile(String fileName, ExportManifest.Entry entry, Map<Integer, Order> fileOrders) {
+            this.fileName = fileName;
+            this.entry = entry;
+            this.fileOrders = fileOrders;
+        }
     }
 }
@@ -0,0 +1,573 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * This is a flooring order DAO which records every new, edited and removed order
+ * as a single line appended to an order log, so the write path never rewrites a
+ * day file. The log is split into numbered segments in the Log folder. The day
+ * files and order index are brought up to date by a compaction step which runs
+ * in the background, and reads merge the compacted day files with the orders
+ * that are still only in the log.
+ *
+ * Each log line is in the form ADD|order, EDIT|order or REMOVE|order, where the
+ * order is in the same format as the order files.
+ *
+ * In the durable mode the log is written through a GroupCommitWriter, so a
+ * call only returns once its log line has been forced to disk, and concurrent
+ * calls share one fsync per commit window. An order is only read back once its
+ * log line is on disk.
+ * @author lydiaadejumo
+ */
+public class FlooringOrderLogDaoImpl implements FlooringOrderDao {
+
+    /**
+     * The default size a log segment can grow to before a new segment is started.
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+
+    /**
+     * The default number of seconds between background compactions.
+     */
+    public static final long DEFAULT_COMPACTION_SECONDS = 30;
+
+    /**
+     * The commit window that leaves the log unforced, as it was before the
+     * durable mode.
+     */
+    public static final long NOT_DURABLE = -1;
+
+    private static final String RECORD_DELIMITER = "|";
+
+    private final FlooringOrderDaoImpl store;
+    private final File logFolder;
+    private final long segmentBytes;
+    private final long commitWindowMillis;
+    private final Object compactionLock = new Object();
+    private final NavigableMap<LocalDate, Map<Integer, Order>> pendingByDate = new TreeMap<>();
+    private final Map<Integer, Order> pendingByNumber = new HashMap<>();
+    private final Deque<QueuedRecords> unforcedRecords = new ArrayDeque<>();
+    private ScheduledExecutorService compactor;
+    private PrintWriter segmentWriter;
+    private GroupCommitWriter durableWriter;
+    private File activeSegment;
+    private int activeSegmentNumber;
+
+    /**
+     * The constructor utilised in the app for opening a file.
+     */
+    public FlooringOrderLogDaoImpl() {
+        this("src/main/resources/");
+    }
+
+    /**
+     * The constructor utilised to point the DAO at a different set of files.
+     * @param fileLocation - the folder holding the data, orders, backup and log files
+     */
+    public FlooringOrderLogDaoImpl(String fileLocation) {
+        this(fileLocation, DEFAULT_SEGMENT_BYTES, DEFAULT_COMPACTION_SECONDS);
+    }
+
+    /**
+     * The constructor which also sets the size of the log segments and how
+     * often they are compacted into the day files.
+     * @param fileLocation - the folder holding the data, orders, backup and log files
+     * @param segmentBytes - the size a segment can grow to before a new one is started
+     * @param compactionSeconds - the seconds between background compactions,
+     * 0 turns the background compaction off
+     */
+    public FlooringOrderLogDaoImpl(String fileLocation, long segmentBytes, long compactionSeconds) {
+        this(fileLocation, segmentBytes, compactionSeconds, NOT_DURABLE);
+    }
+
+    /**
+     * The constructor which also turns on the durable mode, where every write
+     * is forced to disk before it returns.
+     * @param fileLocation - the folder holding the data, orders, backup and log files
+     * @param segmentBytes - the size a segment can grow to before a new one is started
+     * @param compactionSeconds - the seconds between background compactions,
+     * 0 turns the background compaction off
+     * @param commitWindowMillis - how long the log waits to group writes into
+     * one fsync, NOT_DURABLE turns the durable mode off
+     */
+    public FlooringOrderLogDaoImpl(String fileLocation, long segmentBytes, long compactionSeconds,
+            long commitWindowMillis) {
+        this.store = new FlooringOrderDaoImpl(fileLocation);
+        this.logFolder = new File(fileLocation + "Log/");
+        this.segmentBytes = segmentBytes;
+        this.commitWindowMillis = commitWindowMillis;
+        //The log is deleted after compaction, so the day files have to be durable first
+        store.setSyncWrites(isDurable());
+        logFolder.mkdirs();
+        replaySegments();
+        if (compactionSeconds > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor((task) -> {
+                Thread compactionThread = new Thread(task, "order-log-compaction");
+                compactionThread.setDaemon(true);
+                return compactionThread;
+            });
+            compactor.scheduleWithFixedDelay(() -> {
+                try {
+                    compact();
+                } catch (OrderPersistenceException e) {
+                    Logger.getLogger(FlooringOrderLogDaoImpl.class.getName()).log(Level.WARNING,
+                            "Order log compaction failed, it will be tried again.", e);
+                }
+            }, compactionSeconds, compactionSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public List<Order> getAllOrders(LocalDate date) throws NoSuchOrderFileException {
+        List<Order> allOrdersOnDate;
+        Map<Integer, Order> pendingOrders;
+        synchronized (this) {
+            pendingOrders = copyOrders(pendingByDate.get(date));
+        }
+        try {
+            allOrdersOnDate = store.getAllOrders(date);
+        } catch (NoSuchOrderFileException e) {
+            if (pendingOrders.isEmpty()) {
+                throw e;
+            }
+            allOrdersOnDate = new ArrayList<>();
+        }
+        //The log holds the newest version of an order, so it replaces the day file's version
+        allOrdersOnDate.replaceAll((eachOrder) -> pendingOrders.containsKey(eachOrder.getOrderNumber())
+                ? pendingOrders.remove(eachOrder.getOrderNumber()) : eachOrder);
+        allOrdersOnDate.addAll(pendingOrders.values());
+        return allOrdersOnDate;
+    }
+
+    @Override
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            return Stream.empty();
+        }
+        Map<LocalDate, Map<Integer, Order>> pendingInRange = new TreeMap<>();
+        synchronized (this) {
+            for (Map.Entry<LocalDate, Map<Integer, Order>> eachDate
+                    : pendingByDate.subMap(fromDate, true, toDate, true).entrySet()) {
+                pendingInRange.put(eachDate.getKey(), copyOrders(eachDate.getValue()));
+            }
+        }
+        //The log holds the newest version of an order, so it replaces the order file's version
+        Stream<Order> storedOrders = store.getOrders(fromDate, toDate).map((eachOrder) -> {
+            Map<Integer, Order> pendingOrders = pendingInRange.get(eachOrder.getOrderDate());
+            Order pendingOrder = pendingOrders == null ? null : pendingOrders.remove(eachOrder.getOrderNumber());
+            return pendingOrder != null ? pendingOrder : eachOrder;
+        });
+        //Orders only in the log follow, once the order files have been read
+        Stream<Order> loggedOrders = Stream.of(pendingInRange).flatMap((pendingOrders) -> pendingOrders.values()
+                .stream().flatMap((dateOrders) -> dateOrders.values().stream()));
+        return Stream.concat(storedOrders, loggedOrders);
+    }
+
+    @Override
+    public Order addOrder(Order newOrder) throws OrderPersistenceException {
+        appendRecord("ADD", newOrder);
+        return newOrder;
+    }
+
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) throws OrderPersistenceException {
+        CompletableFuture<Void> durable = queueRecords("ADD", newOrders);
+        if (durable != null) {
+            awaitRecords(durable);
+        }
+        return newOrders;
+    }
+
+    @Override
+    public List<Order> exportOrders() throws NoSuchOrderFileException, OrderPersistenceException {
+        compact();
+        return store.exportOrders();
+    }
+
+    @Override
+    public List<Order> exportOrders(boolean fullRebuild) throws NoSuchOrderFileException, OrderPersistenceException {
+        compact();
+        return store.exportOrders(fullRebuild);
+    }
+
+    @Override
+    public Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException {
+        boolean dateInLog;
+        synchronized (this) {
+            Order pendingOrder = pendingByNumber.get(orderNum);
+            if (pendingOrder != null && pendingOrder.getOrderDate().equals(date)) {
+                return new Order(pendingOrder);
+            }
+            dateInLog = pendingByDate.containsKey(date);
+        }
+        try {
+            return store.getOrder(date, orderNum);
+        } catch (NoSuchOrderFileException e) {
+            //The date may only exist in the log so far
+            if (dateInLog) {
+                throw new NoSuchOrderException("There is no order number: " + orderNum
+                        + " recorded on this date.");
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Order getOrder(int orderNum) throws NoSuchOrderException {
+        synchronized (this) {
+            Order pendingOrder = pendingByNumber.get(orderNum);
+            if (pendingOrder != null) {
+                return new Order(pendingOrder);
+            }
+        }
+        return store.getOrder(orderNum);
+    }
+
+    @Override
+    public void editOrder(Order orderToUpdate) throws NoSuchOrderFileException, OrderPersistenceException {
+        synchronized (this) {
+            if (!pendingByDate.containsKey(orderToUpdate.getOrderDate())
+                    && !new File(store.getOrderFileName(orderToUpdate.getOrderDate())).exists()) {
+                throw new NoSuchOrderFileException("There are no orders on this date.");
+            }
+        }
+        appendRecord(orderToUpdate.isActiveOrder() ? "EDIT" : "REMOVE", orderToUpdate);
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        return store.getProducts();
+    }
+
+    @Override
+    public List<Taxes> getTaxes() {
+        return store.getTaxes();
+    }
+
+    /**
+     * Applies every order in the sealed log segments to the day files and
+     * removes those segments. Orders changed again while the compaction runs
+     * stay in the log for the next compaction.
+     * @throws OrderPersistenceException - if a day file cannot be written
+     */
+    public void compact() throws OrderPersistenceException {
+        synchronized (compactionLock) {
+            List<File> sealedSegments;
+            Map<LocalDate, Map<Integer, Order>> snapshot = new HashMap<>();
+            synchronized (this) {
+                if (pendingByNumber.isEmpty() && unforcedRecords.isEmpty()) {
+                    return;
+                }
+                sealedSegments = listSegments();
+                openSegment(activeSegmentNumber + 1);
+                //Closing the sealed segment forced its lines, so their orders go in the snapshot
+                publishForcedRecords();
+                for (Map.Entry<LocalDate, Map<Integer, Order>> eachDate : pendingByDate.entrySet()) {
+                    snapshot.put(eachDate.getKey(), new LinkedHashMap<>(eachDate.getValue()));
+                }
+            }
+            for (Map.Entry<LocalDate, Map<Integer, Order>> eachDate : snapshot.entrySet()) {
+                store.rewriteOrderFile(eachDate.getKey(), eachDate.getValue());
+            }
+            synchronized (this) {
+                for (Map<Integer, Order> compactedOrders : snapshot.values()) {
+                    for (Order compactedOrder : compactedOrders.values()) {
+                        //Only orders that haven't changed since the snapshot are done with
+                        if (pendingByNumber.get(compactedOrder.getOrderNumber()) == compactedOrder) {
+                            removePending(compactedOrder);
+                        }
+                    }
+                }
+                //Orders changed since the snapshot were written to the new segment
+                for (File sealedSegment : sealedSegments) {
+                    sealedSegment.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Compacts the log and stops the background compaction, used when the app
+     * is closing.
+     * @throws OrderPersistenceException - if a day file cannot be written
+     */
+    public void close() throws OrderPersistenceException {
+        if (compactor != null) {
+            compactor.shutdown();
+        }
+        compact();
+        synchronized (this) {
+            if (durableWriter != null) {
+                durableWriter.close();
+            } else {
+                segmentWriter.close();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of orders that are in the log but not yet in a day file.
+     * @return the number of orders waiting to be compacted
+     */
+    public synchronized int getPendingOrderCount() {
+        return pendingByNumber.size();
+    }
+
+    /**
+     * Gets whether every write is forced to disk before it returns.
+     * @return true in the durable mode
+     */
+    public boolean isDurable() {
+        return commitWindowMillis != NOT_DURABLE;
+    }
+
+    /**
+     * Appends one order to the active log segment and records it as pending,
+     * waiting for the log line to be on disk in the durable mode.
+     * @param operation - ADD, EDIT or REMOVE
+     * @param currentOrder - the order to record
+     * @throws OrderPersistenceException - if the log cannot be written
+     */
+    private void appendRecord(String operation, Order currentOrder) throws OrderPersistenceException {
+        List<Order> orders = new ArrayList<>();
+        orders.add(currentOrder);
+        CompletableFuture<Void> durable = queueRecords(operation, orders);
+        if (durable != null) {
+            //The lock is released first so other writes can join this batch
+            awaitRecords(durable);
+        }
+    }
+
+    /**
+     * Waits for queued log lines to be on disk, then records every order whose
+     * lines are on disk as pending. Orders whose lines could not be forced are
+     * dropped, so a failed write is never read back.
+     * @param durable - the future returned by queueRecords
+     * @throws OrderPersistenceException - if the log lines could not be forced
+     */
+    private void awaitRecords(CompletableFuture<Void> durable) throws OrderPersistenceException {
+        try {
+            GroupCommitWriter.await(durable);
+        } finally {
+            publishForcedRecords();
+        }
+    }
+
+    /**
+     * Records the queued orders as pending in the order they were logged. The
+     * writer forces its lines in the order they were queued, so this stops at
+     * the first ones still waiting.
+     */
+    private synchronized void publishForcedRecords() {
+        while (!unforcedRecords.isEmpty() && unforcedRecords.peekFirst().durable.isDone()) {
+            QueuedRecords forcedRecords = unforcedRecords.pollFirst();
+            if (!forcedRecords.durable.isCompletedExceptionally()) {
+                for (Order forcedOrder : forcedRecords.orders) {
+                    putPending(forcedOrder);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the orders to the active log segment and records them as pending,
+     * starting a new segment once the active one is full. In the durable mode
+     * the lines are only queued, and the orders are kept back until
+     * awaitRecords sees their lines on disk.
+     * @param operation - ADD, EDIT or REMOVE
+     * @param orders - the orders to record
+     * @return a future completed once the lines are on disk, or null when the
+     * durable mode is off
+     * @throws OrderPersistenceException - if the log cannot be written
+     */
+    private synchronized CompletableFuture<Void> queueRecords(String operation, List<Order> orders)
+            throws OrderPersistenceException {
+        CompletableFuture<Void> durable = null;
+        if (durableWriter != null) {
+            StringBuilder records = new StringBuilder();
+            for (Order currentOrder : orders) {
+                records.append(formatRecord(operation, currentOrder)).append(System.lineSeparator());
+            }
+            durable = durableWriter.submit(records.toString());
+            List<Order> queuedOrders = new ArrayList<>(orders.size());
+            for (Order currentOrder : orders) {
+                queuedOrders.add(new Order(currentOrder));
+            }
+            unforcedRecords.addLast(new QueuedRecords(durable, queuedOrders));
+        } else {
+            for (Order currentOrder : orders) {
+                segmentWriter.println(formatRecord(operation, currentOrder));
+            }
+            segmentWriter.flush();
+            if (segmentWriter.checkError()) {
+                throw new OrderPersistenceException("Could not add order to the order log");
+            }
+            for (Order currentOrder : orders) {
+                putPending(new Order(currentOrder));
+            }
+        }
+        long segmentLength = durableWriter != null ? durableWriter.getLength() : activeSegment.length();
+        if (segmentLength >= segmentBytes) {
+            openSegment(activeSegmentNumber + 1);
+        }
+        return durable;
+    }
+
+    private String formatRecord(String operation, Order currentOrder) {
+        return operation + RECORD_DELIMITER + store.marshallingOrder(currentOrder);
+    }
+
+    private void putPending(Order pendingOrder) {
+        Order previous = pendingByNumber.put(pendingOrder.getOrderNumber(), pendingOrder);
+        if (previous != null && !previous.getOrderDate().equals(pendingOrder.getOrderDate())) {
+            removeFromDate(previous);
+        }
+        pendingByDate.computeIfAbsent(pendingOrder.getOrderDate(), (date) -> new LinkedHashMap<>())
+                .put(pendingOrder.getOrderNumber(), pendingOrder);
+    }
+
+    private void removePending(Order pendingOrder) {
+        pendingByNumber.remove(pendingOrder.getOrderNumber());
+        removeFromDate(pendingOrder);
+    }
+
+    private void removeFromDate(Order pendingOrder) {
+        Map<Integer, Order> pendingOrders = pendingByDate.get(pendingOrder.getOrderDate());
+        if (pendingOrders != null) {
+            pendingOrders.remove(pendingOrder.getOrderNumber());
+            if (pendingOrders.isEmpty()) {
+                pendingByDate.remove(pendingOrder.getOrderDate());
+            }
+        }
+    }
+
+    /**
+     * Reads every log segment left from the last run, in order, so the orders
+     * that were never compacted are pending again. A new segment is then
+     * started for this run.
+     */
+    private synchronized void replaySegments() {
+        List<File> segments = listSegments();
+        for (File segment : segments) {
+            try (BufferedReader in = new BufferedReader(new FileReader(segment))) {
+                String currentLine;
+                while ((currentLine = in.readLine()) != null) {
+                    int split = currentLine.indexOf(RECORD_DELIMITER);
+                    if (split < 0) {
+                        //A line cut short by a crash is the only thing that can be lost
+                        continue;
+                    }
+                    try {
+                        putPending(store.unmarshallingOrder(currentLine.substring(split + 1)));
+                    } catch (RuntimeException e) {
+                        Logger.getLogger(FlooringOrderLogDaoImpl.class.getName()).log(Level.WARNING,
+                                "Skipping an unreadable order log line in " + segment.getName(), e);
+                    }
+                }
+            } catch (IOException e) {
+                Logger.getLogger(FlooringOrderLogDaoImpl.class.getName()).log(Level.SEVERE, null, e);
+            }
+        }
+        int lastSegment = segments.isEmpty() ? 0 : segmentNumberOf(segments.get(segments.size() - 1));
+        openSegment(lastSegment + 1);
+    }
+
+    /**
+     * Closes the active segment, if there is one, and starts a new one.
+     * @param segmentNumber - the number of the new segment
+     */
+    private void openSegment(int segmentNumber) {
+        if (segmentWriter != null) {
+            segmentWriter.close();
+        }
+        if (durableWriter != null) {
+            try {
+                //Waits for the segment's queued lines to be forced
+                durableWriter.close();
+            } catch (OrderPersistenceException e) {
+                Logger.getLogger(FlooringOrderLogDaoImpl.class.getName()).log(Level.WARNING,
+                        "Could not close the order log " + activeSegment.getName(), e);
+            }
+        }
+        activeSegmentNumber = segmentNumber;
+        activeSegment = new File(logFolder, String.format("OrderLog_%06d.log", segmentNumber));
+        try {
+            if (isDurable()) {
+                durableWriter = new GroupCommitWriter(activeSegment, commitWindowMillis,
+                        GroupCommitWriter.DEFAULT_MAX_BATCH_WRITES);
+                return;
+            }
+            segmentWriter = new PrintWriter(new FileWriter(activeSegment, true));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the order log " + activeSegment.getName(), e);
+        }
+    }
+
+    /**
+     * Lists the log segments in the order they were written.
+     * @return the log segments
+     */
+    private List<File> listSegments() {
+        File[] segments = logFolder.listFiles((folder, name) -> name.startsWith("OrderLog_") && name.endsWith(".log"));
+        if (segments == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(segments, (first, second) -> Integer.compare(segmentNumberOf(first), segmentNumberOf(second)));
+        return new ArrayList<>(Arrays.asList(segments));
+    }
+
+    private static int segmentNumberOf(File segment) {
+        String name = segment.getName();
+        return Integer.parseInt(name.substring("OrderLog_".length(), name.length() - ".log".length()));
+    }
+
+    private static Map<Integer, Order> copyOrders(Map<Integer, Order> orders) {
+        Map<Integer, Order> copies = new LinkedHashMap<>();
+        if (orders != null) {
+            for (Order eachOrder : orders.values()) {
+                copies.put(eachOrder.getOrderNumber(), new Order(eachOrder));
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Orders whose log lines are queued, and the future completed once the
+     * lines are on disk.
+     */
+    private static final class QueuedRecords {
+        private final CompletableFuture<Void> durable;
+        private final List<Order> orders;
+
+        private QueuedRecords(CompletableFuture<Void> durable, List<Order> orders) {
+            this.durable = durable;
+            this.orders = orders;
+        }
+    }
+}
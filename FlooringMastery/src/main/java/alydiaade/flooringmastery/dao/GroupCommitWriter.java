@@ -0,0 +1,234 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a durable appender for a single file. Callers queue their lines and a
+ * single writer thread appends everything that arrives within the commit window
+ * as one batch, then forces the batch to disk with one FileChannel.force. A
+ * caller is only released once the batch holding its lines is on disk, so many
+ * concurrent writes share the cost of one fsync.
+ *
+ * A commit window of 0 still groups whatever is queued while the previous batch
+ * is being forced. A batch size of 1 gives one fsync per write, which is the
+ * baseline the grouped numbers are compared against.
+ * @author lydiaadejumo
+ */
+public class GroupCommitWriter {
+
+    /**
+     * The default time the writer waits for more lines before forcing a batch.
+     */
+    public static final long DEFAULT_COMMIT_WINDOW_MILLIS = 2;
+
+    /**
+     * The default largest number of writes forced together.
+     */
+    public static final int DEFAULT_MAX_BATCH_WRITES = 1024;
+
+    private static final PendingWrite CLOSE = new PendingWrite(new byte[0]);
+
+    private final File file;
+    private final FileChannel channel;
+    private final long commitWindowNanos;
+    private final int maxBatchWrites;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong length;
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private boolean closing;
+
+    /**
+     * The writer constructor, which opens the file for appending and starts the
+     * writer thread.
+     * @param file - the file to append to, created if it doesn't exist
+     * @param commitWindowMillis - how long to wait for more writes before
+     * forcing a batch, longer windows trade latency for fewer fsyncs
+     * @param maxBatchWrites - the largest number of writes forced together
+     * @throws IOException - if the file cannot be opened
+     */
+    public GroupCommitWriter(File file, long commitWindowMillis, int maxBatchWrites) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.commitWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, commitWindowMillis));
+        this.maxBatchWrites = Math.max(1, maxBatchWrites);
+        this.length = new AtomicLong(channel.size());
+        Thread writerThread = new Thread(this::runWriter, "group-commit-" + file.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Appends the text and waits until it is on disk.
+     * @param text - the lines to append, including their line separators
+     * @throws OrderPersistenceException - if the text cannot be written or forced
+     */
+    public void write(String text) throws OrderPersistenceException {
+        await(submit(text));
+    }
+
+    /**
+     * Queues the text to be appended without waiting for it. Text is appended
+     * in the order it is submitted, so a caller holding its own lock while
+     * submitting keeps its order in the file.
+     * @param text - the lines to append, including their line separators
+     * @return a future completed once the text is on disk
+     * @throws OrderPersistenceException - if the writer has been closed
+     */
+    public synchronized CompletableFuture<Void> submit(String text) throws OrderPersistenceException {
+        if (closing) {
+            throw new OrderPersistenceException("Could not write to " + file.getName() + ", it has been closed.");
+        }
+        PendingWrite pendingWrite = new PendingWrite(text.getBytes(Charset.defaultCharset()));
+        length.addAndGet(pendingWrite.bytes.length);
+        queue.add(pendingWrite);
+        return pendingWrite.durable;
+    }
+
+    /**
+     * Waits for a submitted write to be on disk.
+     * @param durable - the future returned by submit
+     * @throws OrderPersistenceException - if the write failed
+     */
+    public static void await(CompletableFuture<Void> durable) throws OrderPersistenceException {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw new OrderPersistenceException("Could not make the write durable.", e.getCause());
+        }
+    }
+
+    /**
+     * Gets the length of the file once everything submitted has been written.
+     * @return the file length in bytes
+     */
+    public long getLength() {
+        return length.get();
+    }
+
+    /**
+     * Gets the number of fsyncs done so far.
+     * @return the number of batches forced to disk
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Gets the number of writes that are on disk so far.
+     * @return the number of writes forced to disk
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Forces everything already submitted to disk, then stops the writer
+     * thread and closes the file.
+     * @throws OrderPersistenceException - if the file cannot be closed
+     */
+    public void close() throws OrderPersistenceException {
+        synchronized (this) {
+            if (!closing) {
+                closing = true;
+                queue.add(CLOSE);
+            }
+        }
+        await(closed);
+    }
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean closeRequested = false;
+        while (!closeRequested) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + commitWindowNanos;
+                while (batch.size() < maxBatchWrites && batch.get(batch.size() - 1) != CLOSE) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                //Nothing more can be waited for, so the queue is written and the file closed
+                queue.drainTo(batch);
+                closeRequested = true;
+            }
+            closeRequested |= batch.remove(CLOSE);
+            commitBatch(batch);
+            batch.clear();
+        }
+        try {
+            channel.close();
+            closed.complete(null);
+        } catch (IOException e) {
+            closed.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Appends a batch of writes as one buffer, forces it to disk, and releases
+     * the callers waiting on it.
+     * @param batch - the writes to commit
+     */
+    private void commitBatch(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int batchBytes = 0;
+        for (PendingWrite pendingWrite : batch) {
+            batchBytes += pendingWrite.bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(batchBytes);
+        for (PendingWrite pendingWrite : batch) {
+            buffer.put(pendingWrite.bytes);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            for (PendingWrite pendingWrite : batch) {
+                pendingWrite.durable.completeExceptionally(e);
+            }
+            return;
+        }
+        batchCount.incrementAndGet();
+        writeCount.addAndGet(batch.size());
+        for (PendingWrite pendingWrite : batch) {
+            pendingWrite.durable.complete(null);
+        }
+    }
+
+    /**
+     * Text waiting to be written, and the future its caller waits on.
+     */
+    private static final class PendingWrite {
+        private final byte[] bytes;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        private PendingWrite(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
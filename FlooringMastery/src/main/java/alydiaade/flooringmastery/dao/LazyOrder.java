@@ -0,0 +1,402 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Money;
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Quantity;
+import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * This is an order read from an order file that keeps its line and only parses
+ * a field the first time it is asked for, so a caller that only looks at e.g.
+ * the order number and whether it is active doesn't pay for the dates and
+ * decimals. The line is split once, on the first field asked for, and only
+ * where each field ends is kept, so every later field is parsed straight from
+ * its place on the line. A parsed field is kept, a set field is never parsed,
+ * and the line is let go once every field has been parsed. Like any order it
+ * isn't safe to share between threads.
+ * @author lydiaadejumo
+ */
+final class LazyOrder extends Order {
+
+    //File format -- OrderNumber,OrderCreationDate,OrderDate,CustomerName,State,TaxRate,ProductType,Area,
+    //CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive
+    private static final int ORDER_NUMBER = 0;
+    private static final int ORDER_CREATION = 1;
+    private static final int ORDER_DATE = 2;
+    private static final int CUSTOMER_NAME = 3;
+    private static final int STATE = 4;
+    private static final int PRODUCT_TYPE = 6;
+    private static final int AREA = 7;
+    private static final int MATERIAL_COST = 10;
+    private static final int LABOR_COST = 11;
+    private static final int TAX = 12;
+    private static final int TOTAL = 13;
+    private static final int IS_ACTIVE = 14;
+    private static final int ALL_FIELDS = 1 << ORDER_NUMBER | 1 << ORDER_CREATION | 1 << ORDER_DATE
+            | 1 << CUSTOMER_NAME | 1 << STATE | 1 << PRODUCT_TYPE | 1 << AREA | 1 << MATERIAL_COST
+            | 1 << LABOR_COST | 1 << TAX | 1 << TOTAL | 1 << IS_ACTIVE;
+    private static final ThreadLocal<LineTokenizer> TOKENIZER =
+            ThreadLocal.withInitial(() -> new LineTokenizer(IS_ACTIVE + 1));
+
+    private final Map<String, Taxes> allTaxRates;
+    private final Map<String, Product> allProducts;
+    private String line;
+    private int[] fieldEnds;
+    private int parsedFields;
+    private LocalDate orderCreation;
+    private LocalDate orderDate;
+
+    /**
+     * The constructor for an order that hasn't been parsed yet.
+     * @param line - the order line from the file
+     * @param allTaxRates - the taxes by state, to look up the state
+     * @param allProducts - the products by type, to look up the product
+     */
+    LazyOrder(String line, Map<String, Taxes> allTaxRates, Map<String, Product> allProducts) {
+        this.line = line;
+        this.allTaxRates = allTaxRates;
+        this.allProducts = allProducts;
+    }
+
+    /**
+     * Copies an order, keeping a lazy order lazy. The copy shares the line and
+     * its field ends, and has the fields the original has already parsed or
+     * been given.
+     * @param order - the order to copy
+     * @return the copy
+     */
+    static Order copyOf(Order order) {
+        if (!(order instanceof LazyOrder)) {
+            return new Order(order);
+        }
+        LazyOrder original = (LazyOrder) order;
+        LazyOrder copy = new LazyOrder(original.line, original.allTaxRates, original.allProducts);
+        copy.fieldEnds = original.fieldEnds;
+        int parsed = original.parsedFields;
+        copy.parsedFields = parsed;
+        copy.orderCreation = original.orderCreation;
+        copy.orderDate = original.orderDate;
+        if (isSet(parsed, ORDER_NUMBER)) {
+            copy.setOrderNumber(original.getOrderNumber());
+        }
+        if (isSet(parsed, CUSTOMER_NAME)) {
+            copy.setCustomerName(original.getCustomerName());
+        }
+        if (isSet(parsed, STATE)) {
+            copy.setTaxInfo(original.getTaxInfo());
+        }
+        if (isSet(parsed, PRODUCT_TYPE)) {
+            copy.setProduct(original.getProduct());
+        }
+        if (isSet(parsed, AREA)) {
+            copy.setArea(original.getArea());
+        }
+        if (isSet(parsed, MATERIAL_COST)) {
+            copy.setMaterialCost(original.getMaterialCost());
+        }
+        if (isSet(parsed, LABOR_COST)) {
+            copy.setLaborCost(original.getLaborCost());
+        }
+        if (isSet(parsed, TAX)) {
+            copy.setTax(original.getTax());
+        }
+        if (isSet(parsed, TOTAL)) {
+            copy.setTotal(original.getTotal());
+        }
+        if (isSet(parsed, IS_ACTIVE)) {
+            copy.setActiveOrder(original.isActiveOrder());
+        }
+        return copy;
+    }
+
+    @Override
+    public LocalDate getOrderCreation() {
+        parse(ORDER_CREATION);
+        return orderCreation;
+    }
+
+    @Override
+    public LocalDate getOrderDate() {
+        parse(ORDER_DATE);
+        return orderDate;
+    }
+
+    @Override
+    public int getOrderNumber() {
+        parse(ORDER_NUMBER);
+        return super.getOrderNumber();
+    }
+
+    @Override
+    public void setOrderNumber(int orderNumber) {
+        parsed(ORDER_NUMBER);
+        super.setOrderNumber(orderNumber);
+    }
+
+    @Override
+    public String getCustomerName() {
+        parse(CUSTOMER_NAME);
+        return super.getCustomerName();
+    }
+
+    @Override
+    public void setCustomerName(String customerName) {
+        parsed(CUSTOMER_NAME);
+        super.setCustomerName(customerName);
+    }
+
+    @Override
+    public Taxes getTaxInfo() {
+        parse(STATE);
+        return super.getTaxInfo();
+    }
+
+    @Override
+    public void setTaxInfo(Taxes taxRate) {
+        parsed(STATE);
+        super.setTaxInfo(taxRate);
+    }
+
+    @Override
+    public Product getProduct() {
+        parse(PRODUCT_TYPE);
+        return super.getProduct();
+    }
+
+    @Override
+    public void setProduct(Product product) {
+        parsed(PRODUCT_TYPE);
+        super.setProduct(product);
+    }
+
+    @Override
+    public BigDecimal getArea() {
+        parse(AREA);
+        return super.getArea();
+    }
+
+    @Override
+    public Quantity getAreaQuantity() {
+        parse(AREA);
+        return super.getAreaQuantity();
+    }
+
+    @Override
+    public long getAreaTenThousandths() {
+        parse(AREA);
+        return super.getAreaTenThousandths();
+    }
+
+    @Override
+    public StringBuilder appendArea(StringBuilder out) {
+        parse(AREA);
+        return super.appendArea(out);
+    }
+
+    @Override
+    public void setArea(BigDecimal area) {
+        parsed(AREA);
+        super.setArea(area);
+    }
+
+    @Override
+    public BigDecimal getMaterialCost() {
+        parse(MATERIAL_COST);
+        return super.getMaterialCost();
+    }
+
+    @Override
+    public Money getMaterialCostMoney() {
+        parse(MATERIAL_COST);
+        return super.getMaterialCostMoney();
+    }
+
+    @Override
+    public long getMaterialCostCents() {
+        parse(MATERIAL_COST);
+        return super.getMaterialCostCents();
+    }
+
+    @Override
+    public void setMaterialCost(BigDecimal materialCost) {
+        parsed(MATERIAL_COST);
+        super.setMaterialCost(materialCost);
+    }
+
+    @Override
+    public BigDecimal getLaborCost() {
+        parse(LABOR_COST);
+        return super.getLaborCost();
+    }
+
+    @Override
+    public Money getLaborCostMoney() {
+        parse(LABOR_COST);
+        return super.getLaborCostMoney();
+    }
+
+    @Override
+    public long getLaborCostCents() {
+        parse(LABOR_COST);
+        return super.getLaborCostCents();
+    }
+
+    @Override
+    public void setLaborCost(BigDecimal laborCost) {
+        parsed(LABOR_COST);
+        super.setLaborCost(laborCost);
+    }
+
+    @Override
+    public BigDecimal getTax() {
+        parse(TAX);
+        return super.getTax();
+    }
+
+    @Override
+    public Money getTaxMoney() {
+        parse(TAX);
+        return super.getTaxMoney();
+    }
+
+    @Override
+    public long getTaxCents() {
+        parse(TAX);
+        return super.getTaxCents();
+    }
+
+    @Override
+    public void setTax(BigDecimal tax) {
+        parsed(TAX);
+        super.setTax(tax);
+    }
+
+    @Override
+    public BigDecimal getTotal() {
+        parse(TOTAL);
+        return super.getTotal();
+    }
+
+    @Override
+    public Money getTotalMoney() {
+        parse(TOTAL);
+        return super.getTotalMoney();
+    }
+
+    @Override
+    public long getTotalCents() {
+        parse(TOTAL);
+        return super.getTotalCents();
+    }
+
+    @Override
+    public void setTotal(BigDecimal total) {
+        parsed(TOTAL);
+        super.setTotal(total);
+    }
+
+    @Override
+    public void setCostsInCents(long materialCost, long laborCost, long tax, long total) {
+        parsed(MATERIAL_COST);
+        parsed(LABOR_COST);
+        parsed(TAX);
+        parsed(TOTAL);
+        super.setCostsInCents(materialCost, laborCost, tax, total);
+    }
+
+    @Override
+    public StringBuilder appendCosts(StringBuilder out, char delimiter) {
+        parse(MATERIAL_COST);
+        parse(LABOR_COST);
+        parse(TAX);
+        parse(TOTAL);
+        return super.appendCosts(out, delimiter);
+    }
+
+    @Override
+    public boolean isActiveOrder() {
+        parse(IS_ACTIVE);
+        return super.isActiveOrder();
+    }
+
+    @Override
+    public void setActiveOrder(boolean activeOrder) {
+        parsed(IS_ACTIVE);
+        super.setActiveOrder(activeOrder);
+    }
+
+    /**
+     * Parses a field from the line, unless it has been parsed or set already.
+     * The line is only split the first time, after that the kept field ends
+     * are used. The value is stored through the order's own setters.
+     */
+    private void parse(int field) {
+        if (isSet(parsedFields, field)) {
+            return;
+        }
+        LineTokenizer fields = TOKENIZER.get();
+        if (fieldEnds == null) {
+            fieldEnds = fields.reset(line).getFieldEnds();
+        } else {
+            fields.reset(line, fieldEnds);
+        }
+        switch (field) {
+            case ORDER_NUMBER:
+                super.setOrderNumber(fields.getInt(ORDER_NUMBER));
+                break;
+            case ORDER_CREATION:
+                orderCreation = fields.getDate(ORDER_CREATION);
+                break;
+            case ORDER_DATE:
+                orderDate = fields.getDate(ORDER_DATE);
+                break;
+            case CUSTOMER_NAME:
+                super.setCustomerName(fields.getString(CUSTOMER_NAME));
+                break;
+            case STATE:
+                super.setTaxInfo(allTaxRates.get(fields.getString(STATE)));
+                break;
+            case PRODUCT_TYPE:
+                super.setProduct(allProducts.get(fields.getString(PRODUCT_TYPE)));
+                break;
+            case AREA:
+                super.setArea(fields.getDecimal(AREA));
+                break;
+            case MATERIAL_COST:
+                super.setMaterialCost(fields.getDecimal(MATERIAL_COST));
+                break;
+            case LABOR_COST:
+                super.setLaborCost(fields.getDecimal(LABOR_COST));
+                break;
+            case TAX:
+                super.setTax(fields.getDecimal(TAX));
+                break;
+            case TOTAL:
+                super.setTotal(fields.getDecimal(TOTAL));
+                break;
+            default:
+                super.setActiveOrder(fields.getBoolean(IS_ACTIVE));
+        }
+        parsed(field);
+    }
+
+    /**
+     * Records that a field has its value, and lets go of the line once every
+     * field does.
+     */
+    private void parsed(int field) {
+        parsedFields |= 1 << field;
+        if (parsedFields == ALL_FIELDS) {
+            line = null;
+            fieldEnds = null;
+        }
+    }
+
+    private static boolean isSet(int parsedFields, int field) {
+        return (parsedFields & 1 << field) != 0;
+    }
+}
@@ -0,0 +1,182 @@
+package alydiaade.flooringmastery.dao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * This splits a comma separated line into fields in a single pass, recording
+ * only where each field starts and ends. Numbers, decimals and MM-dd-yyyy dates
+ * are parsed straight from those positions, so no array of substrings is built
+ * and no regular expression or date formatter is involved. The field ends of a
+ * line can be kept and given back later, so a line read more than once is only
+ * split once. A tokenizer is reused for line after line, so it is not safe to
+ * share between threads.
+ * @author lydiaadejumo
+ */
+public final class LineTokenizer {
+
+    private static final char DELIMITER = ',';
+
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+    private char[] characters = new char[128];
+    private String line;
+    private int fieldCount;
+    private boolean charactersCopied;
+
+    /**
+     * The tokenizer constructor, which needs the most fields a line can have.
+     * @param maxFields - the most fields that will be read from a line, any
+     * after that are ignored
+     */
+    public LineTokenizer(int maxFields) {
+        this.fieldStarts = new int[maxFields];
+        this.fieldEnds = new int[maxFields];
+    }
+
+    /**
+     * Finds the fields of a new line.
+     * @param line - the line to split
+     * @return this tokenizer, so the fields can be read straight away
+     */
+    public LineTokenizer reset(String line) {
+        this.line = line;
+        fieldCount = 0;
+        int length = line.length();
+        if (characters.length < length) {
+            characters = new char[Math.max(length, characters.length * 2)];
+        }
+        line.getChars(0, length, characters, 0);
+        charactersCopied = true;
+        int fieldStart = 0;
+        for (int position = 0; position <= length && fieldCount < fieldStarts.length; position++) {
+            if (position == length || characters[position] == DELIMITER) {
+                fieldStarts[fieldCount] = fieldStart;
+                fieldEnds[fieldCount] = position;
+                fieldCount++;
+                fieldStart = position + 1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets a line that has been split before, using the field ends kept from
+     * getFieldEnds. The line isn't searched for delimiters again, and only the
+     * characters of the fields read are copied.
+     * @param line - the line that was split
+     * @param fieldEnds - the field ends of the line
+     * @return this tokenizer, so the fields can be read straight away
+     */
+    public LineTokenizer reset(String line, int[] fieldEnds) {
+        this.line = line;
+        fieldCount = Math.min(fieldEnds.length, fieldStarts.length);
+        if (characters.length < line.length()) {
+            characters = new char[Math.max(line.length(), characters.length * 2)];
+        }
+        charactersCopied = false;
+        for (int field = 0; field < fieldCount; field++) {
+            fieldStarts[field] = field == 0 ? 0 : fieldEnds[field - 1] + 1;
+            this.fieldEnds[field] = fieldEnds[field];
+        }
+        return this;
+    }
+
+    /**
+     * Gets where each field of the line ends, to give back to reset later
+     * @return a copy of the field ends
+     */
+    public int[] getFieldEnds() {
+        return Arrays.copyOf(fieldEnds, fieldCount);
+    }
+
+    /**
+     * Gets the number of fields on the line
+     * @return the number of fields
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Reads a field as text
+     * @param field - the field number, starting at 0
+     * @return the field text
+     */
+    public String getString(int field) {
+        checkField(field);
+        return line.substring(fieldStarts[field], fieldEnds[field]);
+    }
+
+    /**
+     * Reads a whole number field
+     * @param field - the field number, starting at 0
+     * @return the number
+     */
+    public int getInt(int field) {
+        checkField(field);
+        return Integer.parseInt(line, fieldStarts[field], fieldEnds[field], 10);
+    }
+
+    /**
+     * Reads a decimal field straight from the characters of the line
+     * @param field - the field number, starting at 0
+     * @return the decimal value
+     */
+    public BigDecimal getDecimal(int field) {
+        checkField(field);
+        copyCharacters(field);
+        return new BigDecimal(characters, fieldStarts[field], fieldEnds[field] - fieldStarts[field]);
+    }
+
+    /**
+     * Reads a date field in the form MM-dd-yyyy straight from the characters
+     * @param field - the field number, starting at 0
+     * @return the date
+     */
+    public LocalDate getDate(int field) {
+        checkField(field);
+        copyCharacters(field);
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start != 10 || characters[start + 2] != '-' || characters[start + 5] != '-') {
+            throw new IllegalArgumentException("Field " + field + " is not a MM-dd-yyyy date");
+        }
+        return LocalDate.of(digits(start + 6, 4), digits(start, 2), digits(start + 3, 2));
+    }
+
+    /**
+     * Reads a true or false field
+     * @param field - the field number, starting at 0
+     * @return true only if the field is "true", ignoring case
+     */
+    public boolean getBoolean(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        return fieldEnds[field] - start == 4 && line.regionMatches(true, start, "true", 0, 4);
+    }
+
+    private int digits(int start, int length) {
+        int value = 0;
+        for (int position = start; position < start + length; position++) {
+            int digit = characters[position] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Expected a digit in the date");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void copyCharacters(int field) {
+        if (!charactersCopied) {
+            line.getChars(fieldStarts[field], fieldEnds[field], characters, fieldStarts[field]);
+        }
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException("There is no field " + field + " on this line");
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * This reads the order files straight from a memory mapped buffer. The line and
+ * field boundaries are found by scanning the bytes, and strings, dates and
+ * decimals are only created for the fields that are asked for, rather than
+ * decoding every line into a string and splitting it.
+ *
+ * Small files are read into a heap buffer instead of being mapped, since a
+ * mapping costs more to set up than reading a few lines.
+ * @author lydiaadejumo
+ */
+public final class MappedOrderFileReader {
+
+    /**
+     * Files smaller than this are read rather than mapped.
+     */
+    private static final long MAP_THRESHOLD = 64 * 1024;
+
+    /**
+     * The most fields read from a line, an order line has 15.
+     */
+    private static final int MAX_FIELDS = 16;
+
+    private static final Charset FILE_CHARSET = StandardCharsets.UTF_8;
+
+    private MappedOrderFileReader() {
+    }
+
+    /**
+     * Handles each row of an order file as it is scanned.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * Handles one row. The row is reused for the next line, so any values
+         * needed later have to be read before returning.
+         * @param row - the current row
+         */
+        void handle(Row row);
+    }
+
+    /**
+     * Maps an order file and passes each row after the header to the handler.
+     * @param orderFile - the order file to read
+     * @param handler - handles each row
+     * @throws IOException - if the file cannot be opened or read
+     */
+    public static void forEachRow(File orderFile, RowHandler handler) throws IOException {
+        forEachRow(load(orderFile), handler);
+    }
+
+    /**
+     * Passes each row after the header of an order file that has already been
+     * loaded to the handler.
+     * @param buffer - the whole order file
+     * @param handler - handles each row
+     */
+    static void forEachRow(ByteBuffer buffer, RowHandler handler) {
+        Row row = new Row(buffer);
+        int limit = buffer.limit();
+        int lineStart = 0;
+        boolean header = true;
+        for (int position = 0; position <= limit; position++) {
+            if (position == limit || buffer.get(position) == '\n') {
+                int lineEnd = position;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (header) {
+                    header = false;
+                } else if (lineEnd > lineStart) {
+                    row.reset(lineStart, lineEnd);
+                    handler.handle(row);
+                }
+                lineStart = position + 1;
+            }
+        }
+    }
+
+    /**
+     * Passes only the rows starting at the given offsets to the handler, e.g.
+     * the rows found for one date by a date index. An offset that isn't the
+     * start of a line is skipped.
+     * @param buffer - the whole order file
+     * @param lineStarts - the offsets of the rows to read
+     * @param handler - handles each row
+     */
+    static void forEachRowAt(ByteBuffer buffer, int[] lineStarts, RowHandler handler) {
+        Row row = new Row(buffer);
+        int limit = buffer.limit();
+        for (int lineStart : lineStarts) {
+            if (lineStart <= 0 || lineStart >= limit || buffer.get(lineStart - 1) != '\n') {
+                continue;
+            }
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                row.reset(lineStart, lineEnd);
+                handler.handle(row);
+            }
+        }
+    }
+
+    /**
+     * Opens the file as a read only buffer, mapping it if it is large enough.
+     * @param orderFile - the order file
+     * @return the file contents
+     * @throws IOException - if the file cannot be opened or read
+     */
+    static ByteBuffer load(File orderFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(orderFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(orderFile.getName() + " is too large to read.");
+            }
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                //keeps reading until the whole file is in the buffer
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * A view of one line of an order file. The field boundaries are found once
+     * per line and each field is only converted when it is read.
+     */
+    public static final class Row {
+        private final ByteBuffer buffer;
+        private final int[] fieldStarts = new int[MAX_FIELDS];
+        private final int[] fieldEnds = new int[MAX_FIELDS];
+        private int fieldCount;
+        private int lineStart;
+        private int lineEnd;
+
+        private Row(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private void reset(int start, int end) {
+            lineStart = start;
+            lineEnd = end;
+            fieldCount = 0;
+            int fieldStart = start;
+            for (int position = start; position <= end && fieldCount < MAX_FIELDS; position++) {
+                if (position == end || buffer.get(position) == ',') {
+                    fieldStarts[fieldCount] = fieldStart;
+                    fieldEnds[fieldCount] = position;
+                    fieldCount++;
+                    fieldStart = position + 1;
+                }
+            }
+        }
+
+        /**
+         * Gets the number of fields on the line
+         * @return the number of fields
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Gets the byte offset of the line in the file
+         * @return the offset of the start of the line
+         */
+        public int getLineStart() {
+            return lineStart;
+        }
+
+        /**
+         * Gets the byte offset of the end of the line, not including the line break
+         * @return the offset of the end of the line
+         */
+        public int getLineEnd() {
+            return lineEnd;
+        }
+
+        /**
+         * Reads a field as text
+         * @param field - the field number, starting at 0
+         * @return the field text
+         */
+        public String getString(int field) {
+            checkField(field);
+            return decode(fieldStarts[field], fieldEnds[field]);
+        }
+
+        /**
+         * Reads the whole line as text
+         * @return the line text
+         */
+        public String getLine() {
+            return decode(lineStart, lineEnd);
+        }
+
+        /**
+         * Reads a whole number field straight from the bytes
+         * @param field - the field number, starting at 0
+         * @return the number
+         * @throws NumberFormatException if the field isn't a number or doesn't fit in an int
+         */
+        public int getInt(int field) {
+            checkField(field);
+            int start = fieldStarts[field];
+            int end = fieldEnds[field];
+            boolean negative = start < end && buffer.get(start) == '-';
+            int firstDigit = negative ? start + 1 : start;
+            if (firstDigit == end) {
+                throw new NumberFormatException("Field " + field + " has no digits");
+            }
+            //The digits are added with their sign so the smallest int can be read too
+            int value = 0;
+            try {
+                for (int position = firstDigit; position < end; position++) {
+                    int digit = buffer.get(position) - '0';
+                    if (digit < 0 || digit > 9) {
+                        throw new NumberFormatException("Field " + field + " is not a number");
+                    }
+                    value = Math.addExact(Math.multiplyExact(value, 10), negative ? -digit : digit);
+                }
+            } catch (ArithmeticException e) {
+                throw new NumberFormatException("Field " + field + " is out of range for an int");
+            }
+            return value;
+        }
+
+        /**
+         * Reads a decimal field, converting only that field's characters
+         * @param field - the field number, starting at 0
+         * @return the decimal value
+         */
+        public BigDecimal getDecimal(int field) {
+            checkField(field);
+            char[] digits = new char[fieldEnds[field] - fieldStarts[field]];
+            for (int i = 0; i < digits.length; i++) {
+                digits[i] = (char) buffer.get(fieldStarts[field] + i);
+            }
+            return new BigDecimal(digits);
+        }
+
+        /**
+         * Reads a date field in the form MM-dd-yyyy straight from the bytes
+         * @param field - the field number, starting at 0
+         * @return the date
+         */
+        public LocalDate getDate(int field) {
+            checkField(field);
+            int start = fieldStarts[field];
+            if (fieldEnds[field] - start != 10 || buffer.get(start + 2) != '-' || buffer.get(start + 5) != '-') {
+                throw new IllegalArgumentException("Field " + field + " is not a MM-dd-yyyy date");
+            }
+            int month = digits(start, 2);
+            int day = digits(start + 3, 2);
+            int year = digits(start + 6, 4);
+            return LocalDate.of(year, month, day);
+        }
+
+        /**
+         * Reads a true or false field
+         * @param field - the field number, starting at 0
+         * @return true only if the field is "true", ignoring case
+         */
+        public boolean getBoolean(int field) {
+            checkField(field);
+            int start = fieldStarts[field];
+            if (fieldEnds[field] - start != 4) {
+                return false;
+            }
+            return (buffer.get(start) | 0x20) == 't' && (buffer.get(start + 1) | 0x20) == 'r'
+                    && (buffer.get(start + 2) | 0x20) == 'u' && (buffer.get(start + 3) | 0x20) == 'e';
+        }
+
+        /**
+         * Decodes the bytes between two offsets with one bulk copy, or none for a
+         * buffer that was read onto the heap.
+         */
+        private String decode(int start, int end) {
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + start, end - start, FILE_CHARSET);
+            }
+            byte[] bytes = new byte[end - start];
+            buffer.duplicate().position(start).get(bytes);
+            return new String(bytes, FILE_CHARSET);
+        }
+
+        private int digits(int start, int length) {
+            int value = 0;
+            for (int position = start; position < start + length; position++) {
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("Expected a digit in the date");
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private void checkField(int field) {
+            if (field < 0 || field >= fieldCount) {
+                throw new ArrayIndexOutOfBoundsException("There is no field " + field + " on this line");
+            }
+        }
+    }
+}
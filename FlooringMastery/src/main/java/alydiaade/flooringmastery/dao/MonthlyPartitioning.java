@@ -0,0 +1,43 @@
+package alydiaade.flooringmastery.dao;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
+
+/**
+ * This partitioning keeps a month of orders in each file e.g. Orders_M112020.txt.
+ * @author lydiaadejumo
+ */
+public class MonthlyPartitioning implements OrderPartitioning {
+
+    static final String NAME = "monthly";
+    private static final DateTimeFormatter FILE_MONTH = DateTimeFormatter.ofPattern("MMyyyy");
+    private static final Pattern FILE_NAME = Pattern.compile("Orders_M\\d{6}\\.txt");
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getFileName(LocalDate date) {
+        return "Orders_M" + date.format(FILE_MONTH) + ".txt";
+    }
+
+    @Override
+    public boolean isPartitionFile(String fileName) {
+        return FILE_NAME.matcher(fileName).matches();
+    }
+
+    @Override
+    public boolean isSingleDate() {
+        return false;
+    }
+
+    @Override
+    public LocalDate getFirstDate(String fileName) {
+        return YearMonth.parse(fileName.substring("Orders_M".length(), fileName.length() - ".txt".length()), FILE_MONTH)
+                .atDay(1);
+    }
+}
@@ -0,0 +1,242 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * This is a bounded, least recently used cache of the parsed order files, keyed
+ * by the order date. Each entry remembers the last modified time and size of the
+ * file it was read from, so an entry is only used while the file on disk is
+ * unchanged. The orders are copied on the way in and out so callers can never
+ * change what is held in the cache.
+ * @author lydiaadejumo
+ */
+public class OrderFileCache {
+
+    /**
+     * The default number of order dates kept in memory.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int capacity;
+    private final Map<LocalDate, CachedOrderFile> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * The cache constructor, which needs the maximum number of dates to hold.
+     * @param capacity - the number of order dates kept before the least
+     * recently used date is evicted
+     */
+    public OrderFileCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The cache capacity must be at least 1.");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns copies of the cached orders for the date, as long as the file has
+     * not been modified since it was cached.
+     * @param date - the order date
+     * @param orderFile - the order file for that date
+     * @return the orders on that date, or null if they need to be read again
+     */
+    public synchronized List<Order> get(LocalDate date, File orderFile) {
+        CachedOrderFile entry = entries.get(date);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (!entry.stamp.equals(FileStamp.of(orderFile))) {
+            entries.remove(date);
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOrders(entry.orders);
+    }
+
+    /**
+     * Stores the orders that have been read from a file.
+     * @param date - the order date
+     * @param stamp - the state of the file before it was read
+     * @param orders - the orders read from the file
+     */
+    public synchronized void put(LocalDate date, FileStamp stamp, List<Order> orders) {
+        entries.put(date, new CachedOrderFile(stamp, copyOrders(orders)));
+        while (entries.size() > capacity) {
+            LocalDate eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+            evictions++;
+        }
+    }
+
+    /**
+     * Applies a write that has just been made to an order file to the cached
+     * orders. This is only done if the cached entry matched the file before the
+     * write, otherwise the entry is dropped and reloaded on the next read.
+     * @param date - the order date
+     * @param before - the state of the file before the write
+     * @param after - the state of the file after the write
+     * @param update - the change made to the orders in the file
+     */
+    public synchronized void update(LocalDate date, FileStamp before, FileStamp after, Consumer<List<Order>> update) {
+        CachedOrderFile entry = entries.get(date);
+        if (entry == null) {
+            return;
+        }
+        if (!entry.stamp.equals(before)) {
+            entries.remove(date);
+            return;
+        }
+        update.accept(entry.orders);
+        entry.stamp = after;
+    }
+
+    /**
+     * Removes the cached orders for a date.
+     * @param date - the order date
+     */
+    public synchronized void invalidate(LocalDate date) {
+        entries.remove(date);
+    }
+
+    /**
+     * Removes every cached date, the counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the maximum number of dates held
+     * @return the capacity of the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of dates currently held
+     * @return the number of cached dates
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of reads served from the cache
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of reads that had to go to the file
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of dates removed to keep within the capacity
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Copies each order, so the cached orders can't be changed by callers. An
+     * order that hasn't been parsed yet is copied without parsing it.
+     * @param orders - the orders to copy
+     * @return the copied orders
+     */
+    private static List<Order> copyOrders(List<Order> orders) {
+        List<Order> copies = new ArrayList<>(orders.size());
+        for (Order eachOrder : orders) {
+            copies.add(LazyOrder.copyOf(eachOrder));
+        }
+        return copies;
+    }
+
+    /**
+     * The orders held for one date along with the file state they were read from.
+     */
+    private static class CachedOrderFile {
+        private FileStamp stamp;
+        private final List<Order> orders;
+
+        private CachedOrderFile(FileStamp stamp, List<Order> orders) {
+            this.stamp = stamp;
+            this.orders = orders;
+        }
+    }
+
+    /**
+     * The last modified time and size of a file, used to check if a file has
+     * changed since it was last read.
+     */
+    public static final class FileStamp {
+        private final long lastModified;
+        private final long length;
+
+        FileStamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        /**
+         * Reads the current state of a file
+         * @param file - the file to check
+         * @return the file stamp, a missing file has a time and size of 0
+         */
+        public static FileStamp of(File file) {
+            return new FileStamp(file.lastModified(), file.length());
+        }
+
+        /**
+         * Gets the last modified time of the file
+         * @return the last modified time in milliseconds
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the size of the file
+         * @return the file size in bytes
+         */
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) obj;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModified) * 31 + Long.hashCode(length);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package alydiaade.flooringmastery.dao;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This is a fixed set of read/write locks shared out between the order files by
+ * the hash of the file name. Reads of the same file run in parallel, a write
+ * waits for the file's readers and other writers, and writes to different files
+ * only contend if their names land on the same lock.
+ *
+ * A thread never holds the locks of two files at once, so the shared locks
+ * cannot deadlock.
+ * @author lydiaadejumo
+ */
+public final class OrderFileLocks {
+
+    /**
+     * The default number of locks, which is the most writes to different files
+     * that can run at once.
+     */
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReadWriteLock[] stripes;
+
+    /**
+     * The lock set constructor.
+     * @param stripeCount - the number of locks, rounded up to a power of two
+     */
+    public OrderFileLocks(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Gets the lock guarding an order file.
+     * @param fileName - the order file name, without its folder
+     * @return the lock for the file
+     */
+    public ReadWriteLock forFile(String fileName) {
+        int hash = fileName.hashCode();
+        //The high bits are mixed in as the file names only differ in a few digits
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    /**
+     * Gets the number of locks shared between the files.
+     * @return the number of locks
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
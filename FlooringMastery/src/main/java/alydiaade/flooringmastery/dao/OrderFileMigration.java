@@ -0,0 +1,94 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This loads the existing order files into the order database. The files are
+ * loaded in order of their first date, and an order number that is already in the database is
+ * replaced, so running the migration again is safe and the newest file wins as
+ * it does in an export.
+ *
+ * It can be run on its own, with the folder holding the Orders and Data
+ * folders as the first argument, and optionally the partitioning of the order
+ * files (daily, weekly or monthly) as the second.
+ * @author lydiaadejumo
+ */
+public class OrderFileMigration {
+
+    private final FlooringOrderDaoImpl fileDao;
+    private final FlooringOrderDaoDbImpl databaseDao;
+    private final File ordersFolder;
+
+    /**
+     * The migration constructor, for order files with one file per day.
+     * @param fileLocation - the folder holding the order and data files
+     * @param databaseDao - the database the orders are loaded into
+     */
+    public OrderFileMigration(String fileLocation, FlooringOrderDaoDbImpl databaseDao) {
+        this(fileLocation, databaseDao, new DailyPartitioning());
+    }
+
+    /**
+     * The migration constructor, for order files split by any partitioning.
+     * @param fileLocation - the folder holding the order and data files
+     * @param databaseDao - the database the orders are loaded into
+     * @param partitioning - how the order files are split
+     */
+    public OrderFileMigration(String fileLocation, FlooringOrderDaoDbImpl databaseDao, OrderPartitioning partitioning) {
+        this.fileDao = new FlooringOrderDaoImpl(fileLocation, OrderFileCache.DEFAULT_CAPACITY, partitioning);
+        this.databaseDao = databaseDao;
+        this.ordersFolder = new File(fileLocation + "Orders/");
+    }
+
+    /**
+     * Loads every order file into the database, one batch per file.
+     * @return the number of orders loaded
+     * @throws OrderPersistenceException - if the orders cannot be written
+     */
+    public int migrate() throws OrderPersistenceException {
+        String[] contents = ordersFolder.list((folder, name) -> fileDao.getPartitioning().isPartitionFile(name));
+        if (contents == null) {
+            return 0;
+        }
+        OrderPartitioning partitioning = fileDao.getPartitioning();
+        Arrays.sort(contents, Comparator.comparing(partitioning::getFirstDate));
+        int migratedOrders = 0;
+        for (String content : contents) {
+            try {
+                List<Order> allOrdersInFile = fileDao.getPartitionOrders(content);
+                databaseDao.importOrders(allOrdersInFile);
+                migratedOrders += allOrdersInFile.size();
+            } catch (NoSuchOrderFileException e) {
+                Logger.getLogger(OrderFileMigration.class.getName()).log(Level.WARNING,
+                        "Skipping " + content + ", it could not be read.", e);
+            }
+        }
+        return migratedOrders;
+    }
+
+    /**
+     * Runs the migration against the app's files, or the folder given as the
+     * first argument.
+     * @param args - optionally the folder holding the order and data files,
+     * then the partitioning of the order files
+     * @throws OrderPersistenceException - if the orders cannot be written
+     */
+    public static void main(String[] args) throws OrderPersistenceException {
+        String fileLocation = args.length > 0 ? args[0] : "src/main/resources/";
+        OrderPartitioning partitioning = args.length > 1
+                ? OrderPartitioning.forName(args[1]) : new DailyPartitioning();
+        FlooringOrderDaoDbImpl databaseDao = new FlooringOrderDaoDbImpl(fileLocation);
+        try {
+            int migratedOrders = new OrderFileMigration(fileLocation, databaseDao, partitioning).migrate();
+            System.out.println("Orders loaded into the database: " + migratedOrders);
+        } finally {
+            databaseDao.close();
+        }
+    }
+}
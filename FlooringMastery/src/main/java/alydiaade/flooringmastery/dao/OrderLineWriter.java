@@ -0,0 +1,95 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * This writes orders in the order file and backup file formats. Each field is
+ * appended to one reused line buffer with a cached date formatter, rather than
+ * joining the fields with a chain of string concatenations, and the order's
+ * area and costs are appended from its whole numbers rather than as decimals. The lines are the
+ * same, character for character, as the ones built by concatenation. A writer
+ * reuses its buffer, so it is not safe to share between threads.
+ * @author lydiaadejumo
+ */
+public final class OrderLineWriter {
+
+    private static final char DELIMITER = ',';
+    private static final DateTimeFormatter ORDER_DATE = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final StringBuilder line = new StringBuilder(192);
+
+    /**
+     * Builds the order file line for an order.
+     * File format -- OrderNumber,OrderCreationDate,OrderDate,CustomerName,State Abbreviation,TaxRate,
+     * ProductType,Area,CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive
+     * @param currentOrder - the order to write
+     * @return the order line, without a line break
+     */
+    public String orderLine(Order currentOrder) {
+        appendOrder(currentOrder);
+        return line.toString();
+    }
+
+    /**
+     * Builds the backup file line for an order.
+     * File format -- OrderNumber,OrderCreationDate,CustomerName,State Abbreviation,TaxRate,ProductType,Area,
+     * CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,OrderDate
+     * @param currentOrder - the order to write
+     * @return the backup line, without a line break
+     */
+    public String backupLine(Order currentOrder) {
+        appendBackup(currentOrder);
+        return line.toString();
+    }
+
+    /**
+     * Writes the backup file line for an order, followed by a line break,
+     * straight to the writer.
+     * @param currentOrder - the order to write
+     * @param out - the writer for the backup file
+     * @throws IOException - if the writer fails
+     */
+    public void writeBackup(Order currentOrder, Writer out) throws IOException {
+        appendBackup(currentOrder);
+        line.append(LINE_SEPARATOR);
+        out.append(line);
+    }
+
+    private void appendOrder(Order currentOrder) {
+        line.setLength(0);
+        line.append(currentOrder.getOrderNumber()).append(DELIMITER);
+        ORDER_DATE.formatTo(currentOrder.getOrderCreation(), line);
+        line.append(DELIMITER);
+        ORDER_DATE.formatTo(currentOrder.getOrderDate(), line);
+        line.append(DELIMITER);
+        line.append(currentOrder.getCustomerName()).append(DELIMITER);
+        line.append(currentOrder.getTaxInfo().getState()).append(DELIMITER);
+        line.append(currentOrder.getTaxInfo().getTaxRate()).append(DELIMITER);
+        line.append(currentOrder.getProduct().getProductType()).append(DELIMITER);
+        currentOrder.appendArea(line).append(DELIMITER);
+        line.append(currentOrder.getProduct().getCostPerSquareFoot()).append(DELIMITER);
+        line.append(currentOrder.getProduct().getLaborCostPerSquareFoot()).append(DELIMITER);
+        currentOrder.appendCosts(line, DELIMITER).append(DELIMITER);
+        line.append(currentOrder.isActiveOrder());
+    }
+
+    private void appendBackup(Order currentOrder) {
+        line.setLength(0);
+        line.append(currentOrder.getOrderNumber()).append(DELIMITER);
+        ORDER_DATE.formatTo(currentOrder.getOrderCreation(), line);
+        line.append(DELIMITER);
+        line.append(currentOrder.getCustomerName()).append(DELIMITER);
+        line.append(currentOrder.getTaxInfo().getState()).append(DELIMITER);
+        line.append(currentOrder.getTaxInfo().getTaxRate()).append(DELIMITER);
+        line.append(currentOrder.getProduct().getProductType()).append(DELIMITER);
+        currentOrder.appendArea(line).append(DELIMITER);
+        line.append(currentOrder.getProduct().getCostPerSquareFoot()).append(DELIMITER);
+        line.append(currentOrder.getProduct().getLaborCostPerSquareFoot()).append(DELIMITER);
+        currentOrder.appendCosts(line, DELIMITER).append(DELIMITER);
+        ORDER_DATE.formatTo(currentOrder.getOrderDate(), line);
+    }
+}
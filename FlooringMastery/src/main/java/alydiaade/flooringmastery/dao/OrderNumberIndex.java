@@ -0,0 +1,477 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is the order number index, which records the date and byte offset of
+ * every order number across all the order files. It is saved to the index file
+ * so it only has to be built once, and is kept up to date as orders are added
+ * or edited. Order files that have changed since they were indexed are indexed
+ * again automatically, and only their lines are appended to the index file.
+ *
+ * The index file is in the form
+ * FILE,FileName,Length,LastModified and ORDER,OrderNumber,MMddyyyy,Offset,FileName
+ * where later lines replace earlier ones. A CLEAR,FileName line drops the
+ * orders recorded for a file before it was indexed again.
+ * @author lydiaadejumo
+ */
+public class OrderNumberIndex {
+
+    private static final String DELIMITER = ",";
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("MMddyyyy");
+    private static final long MISS_REFRESH_MILLIS = 1000;
+    private static final ThreadLocal<LineTokenizer> LINE_TOKENIZER =
+            ThreadLocal.withInitial(() -> new LineTokenizer(3));
+
+    private final File ordersFolder;
+    private final File indexFile;
+    private final OrderPartitioning partitioning;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, OrderFileCache.FileStamp> indexedFiles = new HashMap<>();
+    private int loadedLines;
+    private long folderModified = -1;
+    private long lastRefresh;
+
+    /**
+     * The index constructor, which loads the index file and re-indexes any
+     * order files that are missing from it or have changed.
+     * @param ordersFolder - the folder holding the order files
+     * @param indexFile - the file the index is saved to
+     */
+    public OrderNumberIndex(File ordersFolder, File indexFile) {
+        this(ordersFolder, indexFile, new DailyPartitioning());
+    }
+
+    /**
+     * The index constructor for order files split by a partitioning other than
+     * one file per day.
+     * @param ordersFolder - the folder holding the order files
+     * @param indexFile - the file the index is saved to
+     * @param partitioning - decides which files in the folder are order files
+     */
+    public OrderNumberIndex(File ordersFolder, File indexFile, OrderPartitioning partitioning) {
+        this.ordersFolder = ordersFolder;
+        this.indexFile = indexFile;
+        this.partitioning = partitioning;
+        load();
+        refresh();
+        //Rewrites keep appending to the index file, so it is compacted on start up
+        if (loadedLines > 2 * (entries.size() + indexedFiles.size()) + 64) {
+            save();
+        }
+    }
+
+    /**
+     * Gets the location of an order number.
+     * @param orderNum - the order number
+     * @return the date and offset of the order, or null if it is not indexed
+     */
+    public synchronized Entry get(int orderNum) {
+        Entry entry = entries.get(orderNum);
+        if (entry != null && isStale(entry.getFileName())) {
+            appendFile(entry.getFileName(), indexFile(entry.getFileName()));
+            entry = entries.get(orderNum);
+        }
+        return entry;
+    }
+
+    /**
+     * Records an order that has just been written to an order file.
+     * @param orderNum - the order number
+     * @param date - the order date
+     * @param offset - the byte offset of the order line in the file
+     * @param orderFile - the order file it was written to
+     */
+    public synchronized void record(int orderNum, LocalDate date, long offset, File orderFile) {
+        Entry entry = new Entry(date, offset, orderFile.getName());
+        OrderFileCache.FileStamp stamp = OrderFileCache.FileStamp.of(orderFile);
+        entries.put(orderNum, entry);
+        indexedFiles.put(orderFile.getName(), stamp);
+        try (PrintWriter out = new PrintWriter(new FileWriter(indexFile, true))) {
+            out.println(marshallingEntry(orderNum, entry));
+            out.println(marshallingFile(orderFile.getName(), stamp));
+        } catch (IOException e) {
+            Logger.getLogger(OrderNumberIndex.class.getName()).log(Level.WARNING,
+                    "Could not update the order index, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    /**
+     * Starts indexing an order file that is being rewritten. Each line is added
+     * as it is written, and the new offsets only replace the old ones once the
+     * rewrite is committed.
+     * @param orderFile - the order file being rewritten
+     * @return the indexer for the rewritten file
+     */
+    public FileIndexer rewrite(File orderFile) {
+        return new FileIndexer(orderFile, true);
+    }
+
+    /**
+     * Starts indexing a batch of orders being appended to an order file. The
+     * orders already in the file keep their offsets, and the batch is only
+     * recorded once it is committed.
+     * @param orderFile - the order file being appended to
+     * @return the indexer for the appended orders
+     */
+    public FileIndexer append(File orderFile) {
+        return new FileIndexer(orderFile, false);
+    }
+
+    /**
+     * Indexes a whole order file again e.g. after it has been rewritten.
+     * @param orderFile - the order file
+     */
+    public synchronized void reindex(File orderFile) {
+        appendFile(orderFile.getName(), indexFile(orderFile.getName()));
+    }
+
+    /**
+     * Refreshes the index after a lookup found nothing, e.g. for an order file
+     * added outside of the app. A lookup for an order that doesn't exist would
+     * otherwise scan the folder every time, so the folder is only scanned
+     * again once a file has been added or removed, or after a second.
+     */
+    public synchronized void refreshAfterMiss() {
+        if (ordersFolder.lastModified() == folderModified
+                && System.currentTimeMillis() - lastRefresh < MISS_REFRESH_MILLIS) {
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * Checks every order file against the index, and indexes any order file
+     * that is new or has changed. Orders from deleted files are dropped.
+     */
+    public synchronized void refresh() {
+        boolean changed = false;
+        //Taken before listing, so a file added during the scan is still seen as a change
+        folderModified = ordersFolder.lastModified();
+        lastRefresh = System.currentTimeMillis();
+        String[] contents = ordersFolder.list();
+        if (contents == null) {
+            contents = new String[0];
+        }
+        Map<String, Boolean> present = new HashMap<>();
+        for (String content : contents) {
+            if (!partitioning.isPartitionFile(content)) {
+                continue;
+            }
+            present.put(content, true);
+            if (isStale(content)) {
+                indexFile(content);
+                changed = true;
+            }
+        }
+        Iterator<String> indexed = indexedFiles.keySet().iterator();
+        while (indexed.hasNext()) {
+            String fileName = indexed.next();
+            if (!present.containsKey(fileName)) {
+                indexed.remove();
+                entries.values().removeIf((entry) -> entry.getFileName().equals(fileName));
+                changed = true;
+            }
+        }
+        if (changed || !indexFile.exists()) {
+            save();
+        }
+    }
+
+    /**
+     * Gets the number of orders in the index
+     * @return the number of indexed orders
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks if an order file has changed since it was indexed.
+     * @param fileName - the order file name
+     * @return true if the file needs to be indexed again
+     */
+    private boolean isStale(String fileName) {
+        OrderFileCache.FileStamp stamp = indexedFiles.get(fileName);
+        return stamp == null || !stamp.equals(OrderFileCache.FileStamp.of(new File(ordersFolder, fileName)));
+    }
+
+    /**
+     * Reads an order file, recording the offset of every order line. The order
+     * number and order date are the only fields read from each line.
+     * @param fileName - the order file name
+     * @return the orders found in the file, or null if it could not be read
+     */
+    private Map<Integer, Entry> indexFile(String fileName) {
+        File orderFile = new File(ordersFolder, fileName);
+        entries.values().removeIf((entry) -> entry.getFileName().equals(fileName));
+        OrderFileCache.FileStamp stamp = OrderFileCache.FileStamp.of(orderFile);
+        Map<Integer, Entry> fileEntries = new LinkedHashMap<>();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(orderFile))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            long lineStart = 0;
+            boolean header = true;
+            int next;
+            while ((next = in.read()) != -1) {
+                position++;
+                if (next == '\n') {
+                    if (!header) {
+                        indexLine(line.toString(StandardCharsets.UTF_8), lineStart, fileName, fileEntries);
+                    }
+                    header = false;
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(next);
+                }
+            }
+            if (!header && line.size() > 0) {
+                indexLine(line.toString(StandardCharsets.UTF_8), lineStart, fileName, fileEntries);
+            }
+            entries.putAll(fileEntries);
+            indexedFiles.put(fileName, stamp);
+            return fileEntries;
+        } catch (IOException e) {
+            indexedFiles.remove(fileName);
+            return null;
+        }
+    }
+
+    /**
+     * Appends the orders of a file that has just been indexed again to the
+     * index file, after a line dropping the orders it held before.
+     * @param fileName - the order file name
+     * @param fileEntries - the orders found in the file, or null if it could not be read
+     */
+    private void appendFile(String fileName, Map<Integer, Entry> fileEntries) {
+        OrderFileCache.FileStamp stamp = indexedFiles.get(fileName);
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(indexFile, true)))) {
+            out.println(marshallingClear(fileName));
+            if (fileEntries != null && stamp != null) {
+                for (Map.Entry<Integer, Entry> eachEntry : fileEntries.entrySet()) {
+                    out.println(marshallingEntry(eachEntry.getKey(), eachEntry.getValue()));
+                }
+                out.println(marshallingFile(fileName, stamp));
+            }
+        } catch (IOException e) {
+            Logger.getLogger(OrderNumberIndex.class.getName()).log(Level.WARNING,
+                    "Could not update the order index, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    /**
+     * Records a single order line of an order file.
+     * @param orderLine - the order line
+     * @param offset - the byte offset of the line in the file
+     * @param fileName - the order file name
+     * @param target - the entries the order is recorded in
+     */
+    private static void indexLine(String orderLine, long offset, String fileName, Map<Integer, Entry> target) {
+        LineTokenizer orderDetails = LINE_TOKENIZER.get().reset(orderLine.trim());
+        if (orderDetails.getFieldCount() < 3) {
+            return;
+        }
+        try {
+            int orderNum = orderDetails.getInt(0);
+            LocalDate orderDate = orderDetails.getDate(2);
+            target.put(orderNum, new Entry(orderDate, offset, fileName));
+        } catch (RuntimeException e) {
+            Logger.getLogger(OrderNumberIndex.class.getName()).log(Level.WARNING,
+                    "Skipping an unreadable order line in " + fileName, e);
+        }
+    }
+
+    /**
+     * Loads the saved index file, if there is one.
+     */
+    private void load() {
+        Scanner sc;
+        try {
+            sc = new Scanner(new BufferedReader(new FileReader(indexFile)));
+        } catch (FileNotFoundException e) {
+            return;
+        }
+        //The line each order and each CLEAR was last read at, so a CLEAR only drops earlier orders
+        Map<Integer, Integer> entryLines = new HashMap<>();
+        Map<String, Integer> clearLines = new HashMap<>();
+        while (sc.hasNextLine()) {
+            loadedLines++;
+            String[] indexDetails = sc.nextLine().split(DELIMITER);
+            try {
+                if (indexDetails[0].equals("FILE")) {
+                    indexedFiles.put(indexDetails[1], new OrderFileCache.FileStamp(
+                            Long.parseLong(indexDetails[3]), Long.parseLong(indexDetails[2])));
+                } else if (indexDetails[0].equals("ORDER")) {
+                    LocalDate orderDate = LocalDate.parse(indexDetails[2], FILE_DATE);
+                    int orderNum = Integer.parseInt(indexDetails[1]);
+                    entries.put(orderNum, new Entry(orderDate, Long.parseLong(indexDetails[3]), indexDetails[4]));
+                    entryLines.put(orderNum, loadedLines);
+                } else if (indexDetails[0].equals("CLEAR")) {
+                    clearLines.put(indexDetails[1], loadedLines);
+                    indexedFiles.remove(indexDetails[1]);
+                }
+            } catch (RuntimeException e) {
+                //A damaged index can't be trusted, so everything is indexed again
+                entries.clear();
+                indexedFiles.clear();
+                clearLines.clear();
+                break;
+            }
+        }
+        sc.close();
+        if (!clearLines.isEmpty()) {
+            entries.entrySet().removeIf((eachEntry) -> {
+                Integer clearLine = clearLines.get(eachEntry.getValue().getFileName());
+                return clearLine != null && entryLines.get(eachEntry.getKey()) < clearLine;
+            });
+        }
+    }
+
+    /**
+     * Writes the whole index to the index file, replacing what was there.
+     */
+    private void save() {
+        File indexFolder = indexFile.getParentFile();
+        if (indexFolder != null) {
+            indexFolder.mkdirs();
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(indexFile, false))) {
+            for (Map.Entry<String, OrderFileCache.FileStamp> eachFile : indexedFiles.entrySet()) {
+                out.println(marshallingFile(eachFile.getKey(), eachFile.getValue()));
+            }
+            for (Map.Entry<Integer, Entry> eachEntry : entries.entrySet()) {
+                out.println(marshallingEntry(eachEntry.getKey(), eachEntry.getValue()));
+            }
+        } catch (IOException e) {
+            Logger.getLogger(OrderNumberIndex.class.getName()).log(Level.WARNING,
+                    "Could not save the order index, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    private String marshallingClear(String fileName) {
+        return "CLEAR" + DELIMITER + fileName;
+    }
+
+    private String marshallingFile(String fileName, OrderFileCache.FileStamp stamp) {
+        return "FILE" + DELIMITER + fileName + DELIMITER + stamp.getLength() + DELIMITER + stamp.getLastModified();
+    }
+
+    private String marshallingEntry(int orderNum, Entry entry) {
+        return "ORDER" + DELIMITER + orderNum + DELIMITER + entry.getDate().format(FILE_DATE)
+                + DELIMITER + entry.getOffset() + DELIMITER + entry.getFileName();
+    }
+
+    /**
+     * Collects the offsets of an order file while it is being rewritten or
+     * appended to.
+     */
+    public final class FileIndexer {
+        private final File orderFile;
+        private final boolean replace;
+        private final Map<Integer, Entry> fileEntries = new LinkedHashMap<>();
+
+        private FileIndexer(File orderFile, boolean replace) {
+            this.orderFile = orderFile;
+            this.replace = replace;
+        }
+
+        /**
+         * Adds an order line that has been written to the file.
+         * @param orderLine - the order line
+         * @param offset - the byte offset of the line in the file
+         */
+        public void add(String orderLine, long offset) {
+            indexLine(orderLine, offset, orderFile.getName(), fileEntries);
+        }
+
+        /**
+         * Records the new offsets once the file is in place. A rewritten file's
+         * old entries are replaced, an appended file's old entries are kept.
+         */
+        public void commit() {
+            synchronized (OrderNumberIndex.this) {
+                String fileName = orderFile.getName();
+                OrderFileCache.FileStamp stamp = OrderFileCache.FileStamp.of(orderFile);
+                if (replace) {
+                    entries.values().removeIf((entry) -> entry.getFileName().equals(fileName));
+                }
+                entries.putAll(fileEntries);
+                indexedFiles.put(fileName, stamp);
+                try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(indexFile, true)))) {
+                    if (replace) {
+                        out.println(marshallingClear(fileName));
+                    }
+                    for (Map.Entry<Integer, Entry> eachEntry : fileEntries.entrySet()) {
+                        out.println(marshallingEntry(eachEntry.getKey(), eachEntry.getValue()));
+                    }
+                    out.println(marshallingFile(fileName, stamp));
+                } catch (IOException e) {
+                    Logger.getLogger(OrderNumberIndex.class.getName()).log(Level.WARNING,
+                            "Could not update the order index, it will be rebuilt on the next start.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The location of one order, being its order date and the byte offset of
+     * its line in the order file.
+     */
+    public static final class Entry {
+        private final LocalDate date;
+        private final long offset;
+        private final String fileName;
+
+        private Entry(LocalDate date, long offset, String fileName) {
+            this.date = date;
+            this.offset = offset;
+            this.fileName = fileName;
+        }
+
+        /**
+         * Gets the order date
+         * @return the order date
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * Gets the byte offset of the order line
+         * @return the offset in the order file
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Gets the name of the order file holding the order
+         * @return the order file name
+         */
+        public String getFileName() {
+            return fileName;
+        }
+    }
+}
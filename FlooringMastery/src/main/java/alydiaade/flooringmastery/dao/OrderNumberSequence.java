@@ -0,0 +1,270 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is the order number sequence, which hands out order numbers from an
+ * AtomicLong so concurrent creates never share a number. Numbers are leased
+ * from the sequence file a block at a time. The file only holds the end of the
+ * current block, so it is read in one go on startup, and it is written before
+ * any number in a new block is handed out. A crash can lose at most the unused
+ * part of one block, and never hands out a number twice. Closing the sequence
+ * also saves the next unused number, so a normal restart carries on from it
+ * rather than skipping the rest of the block.
+ *
+ * The sequence file is in the form LEASED:::NextBlockStart, followed by a line
+ * NEXT:::NextOrderNumber after a clean shutdown.
+ * @author lydiaadejumo
+ */
+public class OrderNumberSequence {
+
+    /**
+     * The default number of order numbers leased at a time.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private static final String DELIMITER = ":::";
+    private static final String LEASED = "LEASED" + DELIMITER;
+    private static final String NEXT = "NEXT" + DELIMITER;
+
+    private final File sequenceFile;
+    private final int blockSize;
+    private final AtomicLong nextNumber = new AtomicLong(1);
+    private volatile long leasedUpTo;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * The constructor for a sequence kept in memory only, used when there is
+     * no sequence file and the numbers are recorded elsewhere.
+     * @param firstNumber - the first order number to hand out
+     */
+    public OrderNumberSequence(long firstNumber) {
+        this.sequenceFile = null;
+        this.blockSize = DEFAULT_BLOCK_SIZE;
+        this.nextNumber.set(firstNumber);
+        this.leasedUpTo = Long.MAX_VALUE;
+        this.started = true;
+    }
+
+    /**
+     * The constructor utilised in the app, which leases numbers from a
+     * sequence file.
+     * @param sequenceFile - the file holding the end of the leased block
+     */
+    public OrderNumberSequence(String sequenceFile) {
+        this(sequenceFile, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * The constructor which also sets how many numbers are leased at a time.
+     * @param sequenceFile - the file holding the end of the leased block
+     * @param blockSize - the number of order numbers leased at a time
+     */
+    public OrderNumberSequence(String sequenceFile, int blockSize) {
+        this.sequenceFile = new File(sequenceFile);
+        this.blockSize = Math.max(1, blockSize);
+        long[] saved = load();
+        long savedLease = saved[0];
+        if (savedLease > 0) {
+            //Numbers below the saved lease may have been handed out before a crash
+            long resumeAt = savedLease;
+            if (saved[1] > 0 && saved[1] <= savedLease) {
+                try {
+                    //The next number is only trusted once, so it is taken out before any number is handed out
+                    save(savedLease, 0);
+                    resumeAt = saved[1];
+                } catch (OrderPersistenceException e) {
+                    Logger.getLogger(OrderNumberSequence.class.getName()).log(Level.WARNING,
+                            "Could not clear the next order number, the rest of the block is skipped.", e);
+                }
+            }
+            nextNumber.set(resumeAt);
+            leasedUpTo = savedLease;
+            started = true;
+        }
+    }
+
+    /**
+     * Checks if the sequence has a starting point yet. A new sequence file has
+     * to be started from the last order number recorded elsewhere.
+     * @return true if numbers can be handed out
+     */
+    public synchronized boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Sets the first number of a new sequence, e.g. one past the last order
+     * number in the audit log. This does nothing once the sequence has started.
+     * @param firstNumber - the first order number to hand out
+     */
+    public synchronized void startAt(long firstNumber) {
+        if (started) {
+            return;
+        }
+        nextNumber.set(firstNumber);
+        leasedUpTo = firstNumber;
+        started = true;
+    }
+
+    /**
+     * Hands out the next order number. This only touches the AtomicLong unless
+     * the leased block has run out.
+     * @return the order number
+     * @throws OrderPersistenceException - if a new block cannot be leased
+     */
+    public int next() throws OrderPersistenceException {
+        long orderNum = nextNumber.getAndIncrement();
+        if (orderNum >= leasedUpTo) {
+            lease(orderNum);
+        }
+        return toOrderNumber(orderNum);
+    }
+
+    /**
+     * Hands out a run of consecutive order numbers, e.g. for a batch of orders.
+     * @param count - the number of order numbers needed
+     * @return the first order number of the run
+     * @throws OrderPersistenceException - if a new block cannot be leased
+     */
+    public int next(int count) throws OrderPersistenceException {
+        long firstNum = nextNumber.getAndAdd(count);
+        long lastNum = firstNum + count - 1;
+        if (lastNum >= leasedUpTo) {
+            lease(lastNum);
+        }
+        toOrderNumber(lastNum);
+        return toOrderNumber(firstNum);
+    }
+
+    /**
+     * Gets the number the next order is likely to get, without handing it out.
+     * @return the next order number
+     */
+    public int peek() {
+        return toOrderNumber(nextNumber.get());
+    }
+
+    /**
+     * Saves the next unused order number with the lease, so the next startup
+     * carries on from it. No more numbers can be handed out once closed.
+     * @throws OrderPersistenceException - if the sequence file cannot be written
+     */
+    public synchronized void close() throws OrderPersistenceException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long lease = leasedUpTo;
+        //Any number taken after this goes through lease, which refuses it
+        leasedUpTo = Long.MIN_VALUE;
+        if (sequenceFile != null && started) {
+            save(lease, Math.min(nextNumber.get(), lease));
+        }
+    }
+
+    /**
+     * Leases new blocks until the order number is covered, saving the end of
+     * the lease before the number is used.
+     * @param orderNum - the order number that has to be leased
+     * @throws OrderPersistenceException - if the sequence file cannot be written
+     */
+    private synchronized void lease(long orderNum) throws OrderPersistenceException {
+        if (closed) {
+            throw new OrderPersistenceException("The order number sequence has been closed.");
+        }
+        if (orderNum < leasedUpTo) {
+            //Another thread leased the block while this one waited
+            return;
+        }
+        long newLease = leasedUpTo + blockSize;
+        if (orderNum >= newLease) {
+            newLease = orderNum + blockSize;
+        }
+        save(newLease, 0);
+        leasedUpTo = newLease;
+    }
+
+    /**
+     * Reads the end of the last lease, and the next unused number if the last
+     * run shut down cleanly, from the sequence file.
+     * @return the start of the next block, or 0 for a new sequence, followed
+     * by the next unused number, or 0 if there isn't one
+     */
+    private long[] load() {
+        long[] saved = new long[2];
+        try (BufferedReader in = new BufferedReader(new FileReader(sequenceFile))) {
+            String currentLine = in.readLine();
+            if (currentLine != null && currentLine.startsWith(LEASED)) {
+                saved[0] = Long.parseLong(currentLine.substring(LEASED.length()).trim());
+                String nextLine = in.readLine();
+                if (nextLine != null && nextLine.startsWith(NEXT)) {
+                    saved[1] = Long.parseLong(nextLine.substring(NEXT.length()).trim());
+                }
+            }
+        } catch (FileNotFoundException e) {
+            return saved;
+        } catch (IOException | RuntimeException e) {
+            Logger.getLogger(OrderNumberSequence.class.getName()).log(Level.WARNING,
+                    "Could not read " + sequenceFile.getName() + ", the sequence will start again.", e);
+        }
+        return saved;
+    }
+
+    /**
+     * Writes the end of the new lease to a temporary file, forces it to disk
+     * and moves it over the sequence file.
+     * @param newLease - the start of the block after the leased one
+     * @param next - the next unused number on a clean shutdown, otherwise 0
+     * @throws OrderPersistenceException - if the sequence file cannot be written
+     */
+    private void save(long newLease, long next) throws OrderPersistenceException {
+        File tempFile = new File(sequenceFile.getPath() + ".tmp");
+        File sequenceFolder = sequenceFile.getAbsoluteFile().getParentFile();
+        if (sequenceFolder != null) {
+            sequenceFolder.mkdirs();
+        }
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                String sequence = LEASED + newLease + System.lineSeparator()
+                        + (next > 0 ? NEXT + next + System.lineSeparator() : "");
+                ByteBuffer contents = ByteBuffer.wrap(sequence.getBytes(StandardCharsets.UTF_8));
+                while (contents.hasRemaining()) {
+                    channel.write(contents);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tempFile.toPath(), sequenceFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), sequenceFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new OrderPersistenceException("Could not lease more order numbers.", e);
+        }
+    }
+
+    private static int toOrderNumber(long orderNum) {
+        if (orderNum > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The order numbers have run out.");
+        }
+        return (int) orderNum;
+    }
+}
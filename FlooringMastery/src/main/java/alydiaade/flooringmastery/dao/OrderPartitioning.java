@@ -0,0 +1,65 @@
+package alydiaade.flooringmastery.dao;
+
+import java.time.LocalDate;
+
+/**
+ * This decides which order file holds the orders for each order date, so the
+ * orders can be split into one file per day, week or month. Each order line
+ * still holds its own order date, so a file can hold any number of dates.
+ * @author lydiaadejumo
+ */
+public interface OrderPartitioning {
+
+    /**
+     * Gets the name used to pick this partitioning e.g. in the repartitioning tool.
+     * @return the partitioning name
+     */
+    public String getName();
+
+    /**
+     * Gets the name of the order file holding the orders for a date.
+     * @param date - the order date
+     * @return the order file name, without a folder
+     */
+    public String getFileName(LocalDate date);
+
+    /**
+     * Checks if a file in the orders folder is an order file for this partitioning.
+     * @param fileName - the file name
+     * @return true if the file is one of this partitioning's order files
+     */
+    public boolean isPartitionFile(String fileName);
+
+    /**
+     * Checks if each order file only ever holds a single date, in which case
+     * every line in the file is on that date.
+     * @return true if there is one order file per date
+     */
+    public boolean isSingleDate();
+
+    /**
+     * Gets the first order date an order file can hold, from its name.
+     * @param fileName - one of this partitioning's order file names
+     * @return the first date of the file's day, week or month
+     */
+    public LocalDate getFirstDate(String fileName);
+
+    /**
+     * Finds a partitioning by its name.
+     * @param name - daily, weekly or monthly
+     * @return the partitioning
+     * @throws IllegalArgumentException - if there is no partitioning with that name
+     */
+    public static OrderPartitioning forName(String name) {
+        switch (name.toLowerCase()) {
+            case DailyPartitioning.NAME:
+                return new DailyPartitioning();
+            case WeeklyPartitioning.NAME:
+                return new WeeklyPartitioning();
+            case MonthlyPartitioning.NAME:
+                return new MonthlyPartitioning();
+            default:
+                throw new IllegalArgumentException("There is no partitioning called " + name);
+        }
+    }
+}
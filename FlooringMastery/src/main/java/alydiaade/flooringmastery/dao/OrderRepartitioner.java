@@ -0,0 +1,206 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This converts the order files from one partitioning to another e.g. from a
+ * file per day to a file per month. It is run once, while the app isn't
+ * running, and the app then needs to be set up with the new partitioning.
+ *
+ * Every order line is copied as it is, in the order the old files are read, to
+ * new files in a staging folder. Once every new file has been written, a
+ * Finished.txt file listing the old files is added to the staging folder. The
+ * new files are then moved in, and only after that are the old files removed,
+ * so a run that stops part way can be finished by running it again. The order
+ * index and export manifest pick up the new files the next time they are used.
+ * @author lydiaadejumo
+ */
+public class OrderRepartitioner {
+
+    private static final String ORDER_FILE_HEADER = "OrderNumber,OrderCreationDate,OrderDate,"
+            + "CustomerName,State,TaxRate,ProductType,Area,CostPerSquareFoot,"
+            + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive";
+
+    private static final String FINISHED_FILE = "Finished.txt";
+    private static final String LINES_PREFIX = "LINES:::";
+
+    private final File ordersFolder;
+    private final File stagingFolder;
+
+    /**
+     * The repartitioner constructor.
+     * @param fileLocation - the folder holding the Orders folder
+     */
+    public OrderRepartitioner(String fileLocation) {
+        this.ordersFolder = new File(fileLocation + "Orders/");
+        this.stagingFolder = new File(fileLocation + "Orders.repartition/");
+    }
+
+    /**
+     * Moves every order line from the old partitioning's files to the new
+     * partitioning's files. If an earlier run stopped after all its new files
+     * were written, that run is finished instead.
+     * @param from - the partitioning the order files are in now
+     * @param to - the partitioning to convert them to
+     * @return the number of order lines moved
+     * @throws OrderPersistenceException - if the order files cannot be read or
+     * written, or an earlier run stopped before its new files were all written
+     */
+    public int repartition(OrderPartitioning from, OrderPartitioning to) throws OrderPersistenceException {
+        if (new File(stagingFolder, FINISHED_FILE).exists()) {
+            return finish();
+        }
+        String[] stagedFiles = stagingFolder.list();
+        if (stagedFiles != null && stagedFiles.length > 0) {
+            throw new OrderPersistenceException(stagingFolder.getName() + " holds files from an earlier run that "
+                    + "didn't finish. Check the order files and remove it before trying again.");
+        }
+        if (from.getName().equals(to.getName())) {
+            return 0;
+        }
+        if (stage(from, to) == null) {
+            return 0;
+        }
+        return finish();
+    }
+
+    /**
+     * Copies every order line into the new files in the staging folder, then
+     * records that the staging is complete along with the old files to remove.
+     * Nothing in the Orders folder is changed.
+     * @param from - the partitioning the order files are in now
+     * @param to - the partitioning to convert them to
+     * @return the old files, or null if there are none
+     * @throws OrderPersistenceException - if the order files cannot be read or written
+     */
+    String[] stage(OrderPartitioning from, OrderPartitioning to) throws OrderPersistenceException {
+        String[] contents = ordersFolder.list((folder, name) -> from.isPartitionFile(name));
+        if (contents == null) {
+            return null;
+        }
+        Arrays.sort(contents);
+        stagingFolder.mkdirs();
+        int movedLines = 0;
+        try {
+            for (String content : contents) {
+                movedLines += stageFile(content, to);
+            }
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(new File(stagingFolder, FINISHED_FILE)))) {
+                out.write(LINES_PREFIX + movedLines);
+                out.newLine();
+                for (String content : contents) {
+                    out.write(content);
+                    out.newLine();
+                }
+            } catch (IOException e) {
+                throw new OrderPersistenceException("Could not write " + FINISHED_FILE + ", nothing has been changed.", e);
+            }
+        } catch (OrderPersistenceException e) {
+            //The old files haven't been touched, so the partial staging can go
+            deleteStaging();
+            throw e;
+        }
+        return contents;
+    }
+
+    private int stageFile(String content, OrderPartitioning to) throws OrderPersistenceException {
+        //Each old file is grouped by its new file, so only one old file is held at a time
+        Map<String, List<String>> linesByFile = new LinkedHashMap<>();
+        try {
+            MappedOrderFileReader.forEachRow(new File(ordersFolder, content), (row) -> {
+                linesByFile.computeIfAbsent(to.getFileName(row.getDate(2)), (fileName) -> new ArrayList<>())
+                        .add(row.getLine());
+            });
+        } catch (IOException | RuntimeException e) {
+            throw new OrderPersistenceException("Could not read " + content + ", nothing has been changed.", e);
+        }
+        int movedLines = 0;
+        for (Map.Entry<String, List<String>> eachFile : linesByFile.entrySet()) {
+            File stagedFile = new File(stagingFolder, eachFile.getKey());
+            boolean newFile = !stagedFile.exists();
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(stagedFile, StandardCharsets.UTF_8, true))) {
+                if (newFile) {
+                    out.write(ORDER_FILE_HEADER);
+                    out.newLine();
+                }
+                for (String orderLine : eachFile.getValue()) {
+                    out.write(orderLine);
+                    out.newLine();
+                }
+            } catch (IOException e) {
+                throw new OrderPersistenceException("Could not write " + eachFile.getKey()
+                        + ", nothing has been changed.", e);
+            }
+            movedLines += eachFile.getValue().size();
+        }
+        return movedLines;
+    }
+
+    /**
+     * Moves the staged files into the Orders folder and only then removes the
+     * old files, so every order is always in one of the two folders. The new
+     * file names never match the old ones, and a file already moved or removed
+     * is skipped, so a run that stopped part way can be finished by running it
+     * again.
+     * @return the number of order lines moved
+     * @throws OrderPersistenceException - if a file cannot be moved or removed
+     */
+    private int finish() throws OrderPersistenceException {
+        File finishedFile = new File(stagingFolder, FINISHED_FILE);
+        try {
+            List<String> finished = Files.readAllLines(finishedFile.toPath(), StandardCharsets.UTF_8);
+            for (File stagedFile : stagingFolder.listFiles()) {
+                if (!stagedFile.getName().equals(FINISHED_FILE)) {
+                    Files.move(stagedFile.toPath(), new File(ordersFolder, stagedFile.getName()).toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            for (String oldFile : finished.subList(1, finished.size())) {
+                Files.deleteIfExists(new File(ordersFolder, oldFile).toPath());
+            }
+            Files.delete(finishedFile.toPath());
+            Files.delete(stagingFolder.toPath());
+            return Integer.parseInt(finished.get(0).substring(LINES_PREFIX.length()));
+        } catch (IOException | RuntimeException e) {
+            throw new OrderPersistenceException("Could not finish moving the order files, run the repartition "
+                    + "again to finish it. The files not yet moved are in " + stagingFolder.getName(), e);
+        }
+    }
+
+    private void deleteStaging() {
+        File[] stagedFiles = stagingFolder.listFiles();
+        if (stagedFiles != null) {
+            for (File stagedFile : stagedFiles) {
+                stagedFile.delete();
+            }
+        }
+        stagingFolder.delete();
+    }
+
+    /**
+     * Runs the repartitioning from the command line.
+     * @param args - the folder holding the Orders folder, the current
+     * partitioning and the new partitioning e.g. src/main/resources/ daily monthly
+     * @throws OrderPersistenceException - if the order files cannot be read or written
+     */
+    public static void main(String[] args) throws OrderPersistenceException {
+        if (args.length < 3) {
+            System.out.println("Usage: OrderRepartitioner <folder> <daily|weekly|monthly> <daily|weekly|monthly>");
+            return;
+        }
+        int movedLines = new OrderRepartitioner(args[0])
+                .repartition(OrderPartitioning.forName(args[1]), OrderPartitioning.forName(args[2]));
+        System.out.println("Order lines moved: " + movedLines);
+    }
+}
@@ -0,0 +1,91 @@
+package alydiaade.flooringmastery.dao;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This is the date index of one order file that holds more than one order
+ * date, recording where each date's lines start. It is built with a single
+ * scan that only reads the order date of each line, so the orders on one date
+ * can be read without creating the orders on every other date in the file.
+ * @author lydiaadejumo
+ */
+public final class PartitionDateIndex {
+
+    private static final int[] NO_LINES = new int[0];
+
+    private final OrderFileCache.FileStamp stamp;
+    private final TreeMap<LocalDate, int[]> lineStarts;
+
+    private PartitionDateIndex(OrderFileCache.FileStamp stamp, TreeMap<LocalDate, int[]> lineStarts) {
+        this.stamp = stamp;
+        this.lineStarts = lineStarts;
+    }
+
+    /**
+     * Builds the date index of a loaded order file.
+     * @param contents - the whole order file
+     * @param stamp - the state of the file when it was loaded
+     * @param fileName - the order file name, used when reporting unreadable lines
+     * @return the date index
+     */
+    public static PartitionDateIndex build(ByteBuffer contents, OrderFileCache.FileStamp stamp, String fileName) {
+        Map<LocalDate, int[]> found = new HashMap<>();
+        Map<LocalDate, Integer> counts = new HashMap<>();
+        MappedOrderFileReader.forEachRow(contents, (row) -> {
+            LocalDate orderDate;
+            try {
+                orderDate = row.getDate(2);
+            } catch (RuntimeException e) {
+                Logger.getLogger(PartitionDateIndex.class.getName()).log(Level.WARNING,
+                        "Skipping an unreadable order line in " + fileName, e);
+                return;
+            }
+            int[] starts = found.computeIfAbsent(orderDate, (date) -> new int[8]);
+            int count = counts.getOrDefault(orderDate, 0);
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                found.put(orderDate, starts);
+            }
+            starts[count] = row.getLineStart();
+            counts.put(orderDate, count + 1);
+        });
+        TreeMap<LocalDate, int[]> lineStarts = new TreeMap<>();
+        found.forEach((orderDate, starts) -> lineStarts.put(orderDate, Arrays.copyOf(starts, counts.get(orderDate))));
+        return new PartitionDateIndex(stamp, lineStarts);
+    }
+
+    /**
+     * Gets the state of the file the index was built from
+     * @return the file stamp
+     */
+    public OrderFileCache.FileStamp getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Gets every date with orders in the file
+     * @return the order dates, earliest first
+     */
+    public NavigableSet<LocalDate> getDates() {
+        return Collections.unmodifiableNavigableSet(lineStarts.navigableKeySet());
+    }
+
+    /**
+     * Gets where the lines for a date start
+     * @param date - the order date
+     * @return the offsets of the date's lines, in file order
+     */
+    public int[] getLineStarts(LocalDate date) {
+        int[] starts = lineStarts.get(date);
+        return starts == null ? NO_LINES : starts;
+    }
+}
@@ -0,0 +1,102 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This turns a list of order files into a stream of their orders, reading a
+ * few files ahead of the one being used on a pool. Files are only read as the
+ * stream gets close to them, so a stream that is stopped early doesn't read the
+ * rest of its files, and the orders come out in the order of the files.
+ * @author lydiaadejumo
+ */
+final class ReadAheadStream {
+
+    private ReadAheadStream() {
+    }
+
+    /**
+     * Makes the stream of orders for a list of files.
+     * @param <F> - what the files are given as e.g. a name or a date
+     * @param files - the files, in the order their orders should come out
+     * @param reader - reads the orders of one file
+     * @param pool - the pool the files are read on
+     * @param readAhead - the most files read at once
+     * @return the orders of every file, which cancels any reads left when closed
+     */
+    static <F> Stream<Order> of(List<F> files, Function<F, List<Order>> reader, Executor pool, int readAhead) {
+        FileReads<F> reads = new FileReads<>(files.iterator(), reader, pool, Math.max(1, readAhead));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reads, Spliterator.ORDERED), false)
+                .onClose(reads::cancel)
+                .flatMap(List::stream);
+    }
+
+    /**
+     * The reads of the files, which keeps up to the read ahead in flight.
+     */
+    private static final class FileReads<F> implements Iterator<List<Order>> {
+        private final Iterator<F> files;
+        private final Function<F, List<Order>> reader;
+        private final Executor pool;
+        private final int readAhead;
+        private final Deque<CompletableFuture<List<Order>>> reads = new ArrayDeque<>();
+
+        private FileReads(Iterator<F> files, Function<F, List<Order>> reader, Executor pool, int readAhead) {
+            this.files = files;
+            this.reader = reader;
+            this.pool = pool;
+            this.readAhead = readAhead;
+        }
+
+        @Override
+        public boolean hasNext() {
+            startReads();
+            return !reads.isEmpty();
+        }
+
+        @Override
+        public List<Order> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CompletableFuture<List<Order>> read = reads.poll();
+            startReads();
+            try {
+                return read.join();
+            } catch (CompletionException e) {
+                cancel();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        private void startReads() {
+            while (reads.size() < readAhead && files.hasNext()) {
+                F file = files.next();
+                reads.add(CompletableFuture.supplyAsync(() -> reader.apply(file), pool));
+            }
+        }
+
+        private void cancel() {
+            reads.forEach((read) -> read.cancel(false));
+            reads.clear();
+            while (files.hasNext()) {
+                files.next();
+            }
+        }
+    }
+}
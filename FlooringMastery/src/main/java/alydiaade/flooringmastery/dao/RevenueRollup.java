@@ -0,0 +1,590 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.RevenueTotals;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * This is the revenue rollup, which keeps running totals of the active orders
+ * by order date, state and product, so the revenue reports are answered
+ * without reading any order file. Each order's share of the totals is kept by
+ * its order number, so a new, edited or cancelled order only moves its own
+ * share from one set of totals to another.
+ *
+ * The rollup file is a journal of the orders' shares, appended to as orders
+ * change and compacted on start up. If there is no rollup file, the rollup is
+ * built from the orders once and saved. The journal is in the form
+ * ORDER,OrderNumber,State,ProductType,MMddyyyy,Area,MaterialCost,LaborCost,Tax,Total
+ * and CANCEL,OrderNumber where later lines replace earlier ones, and
+ * HIGHEST,OrderNumber which records the highest order number in the rollup.
+ *
+ * A PENDING,OrderNumber line is written before an order is written to the
+ * orders, and the order's own line after it. So if the app stops in between,
+ * the journal still has the order waiting. On start up those orders are read
+ * from the orders again, along with any order numbered after the highest one,
+ * e.g. orders added while the rollup file couldn't be written. If the highest
+ * active order in the rollup can't be found in the orders at all, e.g. the
+ * order files were replaced, the rollup is built again. Orders edited outside
+ * the app, e.g. by hand, aren't noticed; deleting the rollup file rebuilds it.
+ * @author lydiaadejumo
+ */
+public class RevenueRollup {
+
+    private static final String DELIMITER = ",";
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("MMddyyyy");
+    private static final LocalDate FIRST_ORDER_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LAST_ORDER_DATE = LocalDate.of(9999, 12, 31);
+
+    private final File rollupFile;
+    private final Map<Integer, Share> byOrder = new HashMap<>();
+    private final NavigableMap<LocalDate, Map<String, Map<String, RevenueTotals>>> byDate = new TreeMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private int highestOrderNum;
+    private int loadedLines;
+
+    /**
+     * The constructor for a rollup kept in memory only, built from every order
+     * each time it is made. This is for tests and tools, the app uses a
+     * rollup file.
+     * @param dao - the order DAO
+     */
+    public RevenueRollup(FlooringOrderDao dao) {
+        this.rollupFile = null;
+        build(dao);
+    }
+
+    /**
+     * The constructor utilised in the app, which loads the rollup file, or
+     * builds the rollup from the orders if there isn't one.
+     * @param dao - the order DAO
+     * @param rollupFile - the file the rollup is saved to
+     */
+    public RevenueRollup(FlooringOrderDao dao, String rollupFile) {
+        this.rollupFile = new File(rollupFile);
+        if (!load() || !matches(dao)) {
+            clear();
+            build(dao);
+            save();
+        } else if (catchUp(dao) || loadedLines > 2 * byOrder.size() + 64) {
+            //Edits keep appending to the rollup file, so it is compacted on start up
+            save();
+        }
+    }
+
+    /**
+     * Records that orders are about to be written to the orders, so they are
+     * read again on the next start if the app stops before they are applied.
+     * @param orderNumbers - the numbers of the orders about to be written
+     */
+    public synchronized void begin(Collection<Integer> orderNumbers) {
+        if (rollupFile == null) {
+            return;
+        }
+        StringBuilder pendingLines = new StringBuilder();
+        for (int orderNum : orderNumbers) {
+            pendingLines.append("PENDING").append(DELIMITER).append(orderNum).append(System.lineSeparator());
+        }
+        append(pendingLines.toString());
+    }
+
+    /**
+     * Records that an order is about to be written to the orders.
+     * @param orderNum - the number of the order about to be written
+     */
+    public void begin(int orderNum) {
+        begin(Collections.singletonList(orderNum));
+    }
+
+    /**
+     * Records a new, edited or cancelled order, moving its share of the totals.
+     * @param order - the order as it now is
+     */
+    public void apply(Order order) {
+        apply(Collections.singletonList(order));
+    }
+
+    /**
+     * Records new, edited or cancelled orders, with one write to the rollup
+     * file for all of them.
+     * @param orders - the orders as they now are
+     */
+    public synchronized void apply(List<Order> orders) {
+        StringBuilder rollupLines = new StringBuilder();
+        for (Order order : orders) {
+            Share share = Share.of(order);
+            highestOrderNum = Math.max(highestOrderNum, order.getOrderNumber());
+            if (!Objects.equals(share, byOrder.get(order.getOrderNumber()))) {
+                move(order.getOrderNumber(), share);
+            }
+            //The line is written even if the share hasn't moved, as it answers the PENDING line
+            rollupLines.append(share == null ? "CANCEL" + DELIMITER + order.getOrderNumber()
+                    : marshallingShare(order.getOrderNumber(), share)).append(System.lineSeparator());
+        }
+        append(rollupLines.toString());
+    }
+
+    /**
+     * Gets the totals for each state over a range of order dates.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the totals by state abbreviation
+     */
+    public Map<String, RevenueTotals> totalsByState(LocalDate fromDate, LocalDate toDate) {
+        return totalsBy(fromDate, toDate, (cell) -> cell.state);
+    }
+
+    /**
+     * Gets the totals for each product over a range of order dates.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the totals by product type
+     */
+    public Map<String, RevenueTotals> totalsByProduct(LocalDate fromDate, LocalDate toDate) {
+        return totalsBy(fromDate, toDate, (cell) -> cell.productType);
+    }
+
+    /**
+     * Gets the totals for each order date in a range.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the totals by order date, only for dates with orders
+     */
+    public synchronized NavigableMap<LocalDate, RevenueTotals> totalsByDate(LocalDate fromDate, LocalDate toDate) {
+        NavigableMap<LocalDate, RevenueTotals> dateTotals = new TreeMap<>();
+        if (toDate.isBefore(fromDate)) {
+            return dateTotals;
+        }
+        for (Map.Entry<LocalDate, Map<String, Map<String, RevenueTotals>>> eachDate
+                : byDate.subMap(fromDate, true, toDate, true).entrySet()) {
+            RevenueTotals totals = new RevenueTotals();
+            eachDate.getValue().values().forEach((products) -> products.values().forEach(totals::add));
+            dateTotals.put(eachDate.getKey(), totals);
+        }
+        return dateTotals;
+    }
+
+    /**
+     * Gets the number of active orders in the rollup
+     * @return the number of orders
+     */
+    public synchronized int size() {
+        return byOrder.size();
+    }
+
+    private synchronized Map<String, RevenueTotals> totalsBy(LocalDate fromDate, LocalDate toDate,
+            Function<Cell, String> group) {
+        Map<String, RevenueTotals> groupTotals = new TreeMap<>();
+        if (toDate.isBefore(fromDate)) {
+            return groupTotals;
+        }
+        for (Map<String, Map<String, RevenueTotals>> states : byDate.subMap(fromDate, true, toDate, true).values()) {
+            for (Map.Entry<String, Map<String, RevenueTotals>> eachState : states.entrySet()) {
+                for (Map.Entry<String, RevenueTotals> eachProduct : eachState.getValue().entrySet()) {
+                    String groupKey = group.apply(new Cell(eachState.getKey(), eachProduct.getKey()));
+                    groupTotals.computeIfAbsent(groupKey, (key) -> new RevenueTotals()).add(eachProduct.getValue());
+                }
+            }
+        }
+        return groupTotals;
+    }
+
+    /**
+     * Takes an order's old share out of its totals and adds the new one.
+     * @param orderNum - the order number
+     * @param share - the order's new share, or null if it is no longer active
+     */
+    private void move(int orderNum, Share share) {
+        Share oldShare = share == null ? byOrder.remove(orderNum) : byOrder.put(orderNum, share);
+        if (oldShare != null) {
+            Map<String, Map<String, RevenueTotals>> states = byDate.get(oldShare.orderDate);
+            Map<String, RevenueTotals> products = states.get(oldShare.state);
+            RevenueTotals totals = products.get(oldShare.productType);
+            totals.subtract(oldShare.getArea(), oldShare.getMaterialCost(), oldShare.getLaborCost(),
+                    oldShare.getTax(), oldShare.getTotal());
+            //Empty totals are dropped so the rollup only holds what has orders
+            if (totals.getOrderCount() == 0) {
+                products.remove(oldShare.productType);
+                if (products.isEmpty()) {
+                    states.remove(oldShare.state);
+                    if (states.isEmpty()) {
+                        byDate.remove(oldShare.orderDate);
+                    }
+                }
+            }
+        }
+        if (share != null) {
+            byDate.computeIfAbsent(share.orderDate, (date) -> new HashMap<>())
+                    .computeIfAbsent(share.state, (state) -> new HashMap<>())
+                    .computeIfAbsent(share.productType, (productType) -> new RevenueTotals())
+                    .add(share.getArea(), share.getMaterialCost(), share.getLaborCost(), share.getTax(),
+                            share.getTotal());
+        }
+    }
+
+    /**
+     * Builds the rollup from every order the DAO holds.
+     * @param dao - the order DAO
+     */
+    private void build(FlooringOrderDao dao) {
+        try (Stream<Order> allOrders = dao.getOrders(FIRST_ORDER_DATE, LAST_ORDER_DATE)) {
+            //An order moved to a later date is read again, and the later version wins
+            allOrders.forEach((eachOrder) -> {
+                move(eachOrder.getOrderNumber(), Share.of(eachOrder));
+                highestOrderNum = Math.max(highestOrderNum, eachOrder.getOrderNumber());
+            });
+        }
+    }
+
+    /**
+     * Checks the loaded rollup against the orders, by looking up the highest
+     * active order it holds.
+     * @param dao - the order DAO
+     * @return false if that order isn't in the orders
+     */
+    private boolean matches(FlooringOrderDao dao) {
+        Optional<Integer> highestActive = byOrder.keySet().stream().max(Integer::compare);
+        if (!highestActive.isPresent()) {
+            return true;
+        }
+        try {
+            dao.getOrder(highestActive.get());
+            return true;
+        } catch (NoSuchOrderException e) {
+            Logger.getLogger(RevenueRollup.class.getName()).log(Level.WARNING,
+                    "Order " + highestActive.get() + " is in the rollup but not the orders, the rollup will be rebuilt.");
+            return false;
+        }
+    }
+
+    /**
+     * Reads the orders the journal was waiting on, and any orders numbered
+     * after the highest one, from the orders again.
+     * @param dao - the order DAO
+     * @return true if any order was read again
+     */
+    private boolean catchUp(FlooringOrderDao dao) {
+        boolean caughtUp = !pending.isEmpty();
+        for (int orderNum : pending) {
+            reread(dao, orderNum);
+        }
+        pending.clear();
+        //Order numbers are handed out in order, so the first missing number is the end
+        while (reread(dao, highestOrderNum + 1)) {
+            caughtUp = true;
+        }
+        return caughtUp;
+    }
+
+    /**
+     * Reads one order from the orders again and moves its share.
+     * @param dao - the order DAO
+     * @param orderNum - the order number
+     * @return false if there is no such order
+     */
+    private boolean reread(FlooringOrderDao dao, int orderNum) {
+        try {
+            move(orderNum, Share.of(dao.getOrder(orderNum)));
+            highestOrderNum = Math.max(highestOrderNum, orderNum);
+            return true;
+        } catch (NoSuchOrderException e) {
+            move(orderNum, null);
+            return false;
+        }
+    }
+
+    private void clear() {
+        byOrder.clear();
+        byDate.clear();
+        pending.clear();
+        highestOrderNum = 0;
+    }
+
+    /**
+     * Loads the rollup file, if there is one.
+     * @return false if there is no rollup file or it can't be trusted
+     */
+    private boolean load() {
+        Scanner sc;
+        try {
+            sc = new Scanner(new BufferedReader(new FileReader(rollupFile)));
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+        try {
+            while (sc.hasNextLine()) {
+                loadedLines++;
+                String[] rollupDetails = sc.nextLine().split(DELIMITER);
+                int orderNum = Integer.parseInt(rollupDetails[1]);
+                switch (rollupDetails[0]) {
+                    case "PENDING":
+                        pending.add(orderNum);
+                        continue;
+                    case "HIGHEST":
+                        break;
+                    case "CANCEL":
+                        move(orderNum, null);
+                        break;
+                    case "ORDER":
+                        move(orderNum, Share.of(rollupDetails[2], rollupDetails[3],
+                                LocalDate.parse(rollupDetails[4], FILE_DATE), new BigDecimal(rollupDetails[5]),
+                                new BigDecimal(rollupDetails[6]), new BigDecimal(rollupDetails[7]),
+                                new BigDecimal(rollupDetails[8]), new BigDecimal(rollupDetails[9])));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown rollup line " + rollupDetails[0]);
+                }
+                pending.remove(orderNum);
+                highestOrderNum = Math.max(highestOrderNum, orderNum);
+            }
+        } catch (RuntimeException e) {
+            //A damaged rollup can't be trusted, so it is built from the orders again
+            Logger.getLogger(RevenueRollup.class.getName()).log(Level.WARNING,
+                    "Could not read " + rollupFile.getName() + ", the rollup will be rebuilt.", e);
+            clear();
+            return false;
+        } finally {
+            sc.close();
+        }
+        return true;
+    }
+
+    /**
+     * Appends changes to the rollup file. If they can't be written, the file
+     * is deleted so the rollup is rebuilt on the next start rather than loaded
+     * without the changes.
+     * @param rollupLines - the journal lines, each with its line break
+     */
+    private void append(String rollupLines) {
+        if (rollupFile == null) {
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(rollupFile, true))) {
+            out.print(rollupLines);
+            if (out.checkError()) {
+                throw new IOException("Could not write to " + rollupFile.getName());
+            }
+        } catch (IOException e) {
+            rollupFile.delete();
+            Logger.getLogger(RevenueRollup.class.getName()).log(Level.WARNING,
+                    "Could not update the revenue rollup, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    /**
+     * Writes every order's share to the rollup file, replacing what was there.
+     */
+    private void save() {
+        File rollupFolder = rollupFile.getAbsoluteFile().getParentFile();
+        if (rollupFolder != null) {
+            rollupFolder.mkdirs();
+        }
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(rollupFile, false)))) {
+            out.println("HIGHEST" + DELIMITER + highestOrderNum);
+            for (Map.Entry<Integer, Share> eachOrder : byOrder.entrySet()) {
+                out.println(marshallingShare(eachOrder.getKey(), eachOrder.getValue()));
+            }
+            if (out.checkError()) {
+                throw new IOException("Could not write to " + rollupFile.getName());
+            }
+        } catch (IOException e) {
+            rollupFile.delete();
+            Logger.getLogger(RevenueRollup.class.getName()).log(Level.WARNING,
+                    "Could not save the revenue rollup, it will be rebuilt on the next start.", e);
+        }
+    }
+
+    private String marshallingShare(int orderNum, Share share) {
+        return "ORDER" + DELIMITER + orderNum + DELIMITER + share.state + DELIMITER + share.productType
+                + DELIMITER + share.orderDate.format(FILE_DATE) + DELIMITER + share.getArea().toPlainString()
+                + DELIMITER + share.getMaterialCost().toPlainString() + DELIMITER
+                + share.getLaborCost().toPlainString() + DELIMITER + share.getTax().toPlainString() + DELIMITER
+                + share.getTotal().toPlainString();
+    }
+
+    /**
+     * A state and product pair the totals of a date are split by.
+     */
+    private static final class Cell {
+        private final String state;
+        private final String productType;
+
+        private Cell(String state, String productType) {
+            this.state = state;
+            this.productType = productType;
+        }
+    }
+
+    /**
+     * One active order's share of the totals, and where in the rollup it is.
+     * The amounts are kept as whole numbers, the area in ten thousandths and
+     * the costs in cents, read from the order without making BigDecimals. A
+     * share with an amount that doesn't fit keeps its amounts as BigDecimals.
+     */
+    private static final class Share {
+        private static final int AREA_SCALE = 4;
+        private static final int COST_SCALE = 2;
+
+        private final String state;
+        private final String productType;
+        private final LocalDate orderDate;
+        private final long area;
+        private final long materialCost;
+        private final long laborCost;
+        private final long tax;
+        private final long total;
+        private final BigDecimal[] wideAmounts;
+
+        private Share(String state, String productType, LocalDate orderDate, long area, long materialCost,
+                long laborCost, long tax, long total) {
+            this.state = state;
+            this.productType = productType;
+            this.orderDate = orderDate;
+            this.area = area;
+            this.materialCost = materialCost;
+            this.laborCost = laborCost;
+            this.tax = tax;
+            this.total = total;
+            this.wideAmounts = null;
+        }
+
+        private Share(String state, String productType, LocalDate orderDate, BigDecimal[] wideAmounts) {
+            this.state = state;
+            this.productType = productType;
+            this.orderDate = orderDate;
+            this.area = 0;
+            this.materialCost = 0;
+            this.laborCost = 0;
+            this.tax = 0;
+            this.total = 0;
+            this.wideAmounts = wideAmounts;
+        }
+
+        /**
+         * Gets an order's share of the totals.
+         * @param order - the order
+         * @return the share, or null if the order is cancelled or incomplete
+         */
+        private static Share of(Order order) {
+            if (!order.isActiveOrder() || order.getTaxInfo() == null || order.getProduct() == null
+                    || order.getOrderDate() == null) {
+                return null;
+            }
+            String state = order.getTaxInfo().getState();
+            String productType = order.getProduct().getProductType();
+            try {
+                return new Share(state, productType, order.getOrderDate(), orZero(order::getAreaTenThousandths),
+                        orZero(order::getMaterialCostCents), orZero(order::getLaborCostCents),
+                        orZero(order::getTaxCents), orZero(order::getTotalCents));
+            } catch (ArithmeticException e) {
+                return new Share(state, productType, order.getOrderDate(), new BigDecimal[] {
+                    orZero(order.getArea()), orZero(order.getMaterialCost()), orZero(order.getLaborCost()),
+                    orZero(order.getTax()), orZero(order.getTotal())});
+            }
+        }
+
+        /**
+         * Gets a share read back from the rollup file.
+         * @return the share
+         */
+        private static Share of(String state, String productType, LocalDate orderDate, BigDecimal area,
+                BigDecimal materialCost, BigDecimal laborCost, BigDecimal tax, BigDecimal total) {
+            try {
+                return new Share(state, productType, orderDate, unscaled(area, AREA_SCALE),
+                        unscaled(materialCost, COST_SCALE), unscaled(laborCost, COST_SCALE),
+                        unscaled(tax, COST_SCALE), unscaled(total, COST_SCALE));
+            } catch (ArithmeticException e) {
+                return new Share(state, productType, orderDate,
+                        new BigDecimal[] {area, materialCost, laborCost, tax, total});
+            }
+        }
+
+        private static long unscaled(BigDecimal amount, int scale) {
+            return amount.setScale(scale).unscaledValue().longValueExact();
+        }
+
+        private static long orZero(LongSupplier amount) {
+            try {
+                return amount.getAsLong();
+            } catch (IllegalStateException e) {
+                //The amount hasn't been set
+                return 0;
+            }
+        }
+
+        private static BigDecimal orZero(BigDecimal amount) {
+            return amount == null ? BigDecimal.ZERO : amount;
+        }
+
+        private BigDecimal getArea() {
+            return wideAmounts == null ? BigDecimal.valueOf(area, AREA_SCALE) : wideAmounts[0];
+        }
+
+        private BigDecimal getMaterialCost() {
+            return wideAmounts == null ? BigDecimal.valueOf(materialCost, COST_SCALE) : wideAmounts[1];
+        }
+
+        private BigDecimal getLaborCost() {
+            return wideAmounts == null ? BigDecimal.valueOf(laborCost, COST_SCALE) : wideAmounts[2];
+        }
+
+        private BigDecimal getTax() {
+            return wideAmounts == null ? BigDecimal.valueOf(tax, COST_SCALE) : wideAmounts[3];
+        }
+
+        private BigDecimal getTotal() {
+            return wideAmounts == null ? BigDecimal.valueOf(total, COST_SCALE) : wideAmounts[4];
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Share)) {
+                return false;
+            }
+            Share share = (Share) other;
+            if (!state.equals(share.state) || !productType.equals(share.productType)
+                    || !orderDate.equals(share.orderDate)) {
+                return false;
+            }
+            if (wideAmounts == null && share.wideAmounts == null) {
+                return area == share.area && materialCost == share.materialCost && laborCost == share.laborCost
+                        && tax == share.tax && total == share.total;
+            }
+            return getArea().compareTo(share.getArea()) == 0
+                    && getMaterialCost().compareTo(share.getMaterialCost()) == 0
+                    && getLaborCost().compareTo(share.getLaborCost()) == 0
+                    && getTax().compareTo(share.getTax()) == 0 && getTotal().compareTo(share.getTotal()) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, productType, orderDate);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package alydiaade.flooringmastery.dao;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.regex.Pattern;
+
+/**
+ * This partitioning keeps a week of orders in each file, named after the
+ * Monday the week starts on e.g. Orders_W11022020.txt.
+ * @author lydiaadejumo
+ */
+public class WeeklyPartitioning implements OrderPartitioning {
+
+    static final String NAME = "weekly";
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("MMddyyyy");
+    private static final Pattern FILE_NAME = Pattern.compile("Orders_W\\d{8}\\.txt");
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getFileName(LocalDate date) {
+        LocalDate weekStart = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return "Orders_W" + weekStart.format(FILE_DATE) + ".txt";
+    }
+
+    @Override
+    public boolean isPartitionFile(String fileName) {
+        return FILE_NAME.matcher(fileName).matches();
+    }
+
+    @Override
+    public boolean isSingleDate() {
+        return false;
+    }
+
+    @Override
+    public LocalDate getFirstDate(String fileName) {
+        return LocalDate.parse(fileName.substring("Orders_W".length(), fileName.length() - ".txt".length()), FILE_DATE);
+    }
+}
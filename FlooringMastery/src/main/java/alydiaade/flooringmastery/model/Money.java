@@ -0,0 +1,106 @@
+package alydiaade.flooringmastery.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class holds an amount of money, e.g. an order total, as a whole number
+ * of cents, so it takes a single long rather than a BigDecimal and its digits.
+ * It is immutable.
+ * @author lydiaadejumo
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * The number of decimal places every amount has.
+     */
+    public static final int SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Makes an amount from the number of cents.
+     * @param cents - the number of cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    /**
+     * Makes an amount from a decimal, rounded half up to the cent.
+     * @param value - the decimal
+     * @return the amount
+     * @throws ArithmeticException if the value is too big to hold
+     */
+    public static Money of(BigDecimal value) {
+        return new Money(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Makes an amount from the digits and scale of a decimal, without making
+     * the decimal when the scale is 2 or less.
+     * @param unscaled - the digits of the decimal
+     * @param scale - the number of decimal places
+     * @return the amount, rounded half up to the cent
+     * @throws ArithmeticException if the value is too big to hold
+     */
+    public static Money of(long unscaled, int scale) {
+        if (scale >= 0 && scale <= SCALE) {
+            return new Money(Math.multiplyExact(unscaled, POWERS_OF_TEN[SCALE - scale]));
+        }
+        return of(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    /**
+     * Gets the number of cents
+     * @return the number of cents
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Gets the amount as a decimal, always with 2 decimal places
+     * @return the decimal
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Adds two amounts
+     * @param other - the amount to add
+     * @return the sum
+     * @throws ArithmeticException if the sum is too big to hold
+     */
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -1,27 +1,54 @@
 package alydiaade.flooringmastery.model;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 
 /**
  * This class handles the Order details. Based on what the user inputs the files 
  * will be other properties will be adjusted as required.
+ * The area and costs are kept as the digits and scale of each decimal rather
+ * than as BigDecimals, so an order in memory is a fraction of the size. The
+ * BigDecimal getters give back exactly what was set, and a decimal too long to
+ * fit in a long is kept as it is. Each BigDecimal getter makes a new decimal,
+ * so code that reads every order, e.g. pricing or writing the files, uses the
+ * whole number getters and the append methods instead.
  * @author lydiaadejumo
  */
 public class Order {
     
+    private static final byte NO_VALUE = Byte.MIN_VALUE;
+    private static final byte WIDE_VALUE = Byte.MIN_VALUE + 1;
+    private static final int MAX_COMPACT_PRECISION = 18;
+    private static final int AREA = 0;
+    private static final int MATERIAL_COST = 1;
+    private static final int LABOR_COST = 2;
+    private static final int TAX = 3;
+    private static final int TOTAL = 4;
+    private static final int CENTS_SCALE = 2;
+    private static final int TEN_THOUSANDTHS_SCALE = 4;
+    private static final int MAX_PLAIN_SCALE = 18;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+        10_000_000L, 100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L,
+        100_000_000_000_000_000L, 1_000_000_000_000_000_000L};
+    
     private LocalDate orderDate;
     private LocalDate orderCreation;
     private int orderNumber;
     private String customerName;
     private Product product;
     private Taxes taxInfo;
-    private BigDecimal area;
-    private BigDecimal materialCost;
-    private BigDecimal laborCost;
-    private BigDecimal total;
-    private BigDecimal tax;
+    private long area;
+    private long materialCost;
+    private long laborCost;
+    private long total;
+    private long tax;
+    private byte areaScale = NO_VALUE;
+    private byte materialCostScale = NO_VALUE;
+    private byte laborCostScale = NO_VALUE;
+    private byte totalScale = NO_VALUE;
+    private byte taxScale = NO_VALUE;
+    private BigDecimal[] wideValues;
     private boolean activeOrder = true;
     
     /**
@@ -40,9 +67,51 @@ public class Order {
         this.customerName = customerName;
         this.taxInfo = taxRate;
         this.product = product;
-        this.area = area;
+        setArea(area);
     }
-    
+
+    /**
+     * This is the constructor for a subclass that fills in the order details
+     * itself, e.g. as they are read.
+     */
+    protected Order() {
+    }
+
+    /**
+     * This is the copy constructor for the Order class, so that an order can be
+     * handed out without sharing the original e.g. from a cache.
+     * @param order - the order to copy
+     */
+    public Order(Order order) {
+        this.orderCreation = order.getOrderCreation();
+        this.orderDate = order.getOrderDate();
+        this.orderNumber = order.getOrderNumber();
+        this.customerName = order.getCustomerName();
+        this.taxInfo = order.getTaxInfo();
+        this.product = order.getProduct();
+        this.activeOrder = order.isActiveOrder();
+        if (order.getClass() != Order.class) {
+            //A subclass may fill its fields in as they are asked for, so only its getters can be trusted
+            setArea(order.getArea());
+            setMaterialCost(order.getMaterialCost());
+            setLaborCost(order.getLaborCost());
+            setTax(order.getTax());
+            setTotal(order.getTotal());
+            return;
+        }
+        this.area = order.area;
+        this.materialCost = order.materialCost;
+        this.laborCost = order.laborCost;
+        this.tax = order.tax;
+        this.total = order.total;
+        this.areaScale = order.areaScale;
+        this.materialCostScale = order.materialCostScale;
+        this.laborCostScale = order.laborCostScale;
+        this.taxScale = order.taxScale;
+        this.totalScale = order.totalScale;
+        this.wideValues = order.wideValues == null ? null : order.wideValues.clone();
+    }
+
     /**
      * Gets the order creation date
      * @return the order creation date.
@@ -133,7 +202,7 @@ public class Order {
      * @return returns the area
      */
     public BigDecimal getArea() {
-        return area;
+        return decimalOf(area, areaScale, AREA);
     }
 
     /**
@@ -141,7 +210,9 @@ public class Order {
      * @param Area - the new or existing area that is being used.
      */
     public void setArea(BigDecimal Area) {
-        this.area = Area;
+        this.areaScale = scaleOf(Area);
+        this.area = unscaledOf(Area, areaScale);
+        keepWide(AREA, Area, areaScale);
     }
     
     /**
@@ -149,7 +220,7 @@ public class Order {
      * @return returns the material costs
      */
     public BigDecimal getMaterialCost() {
-        return materialCost;
+        return decimalOf(materialCost, materialCostScale, MATERIAL_COST);
     }
 
     /**
@@ -157,7 +228,7 @@ public class Order {
      * @return returns the labour costs
      */
     public BigDecimal getLaborCost() {
-        return laborCost;
+        return decimalOf(laborCost, laborCostScale, LABOR_COST);
     }
     
     /**
@@ -165,7 +236,7 @@ public class Order {
      * @return returns the tax costs
      */
     public BigDecimal getTax() {
-        return tax;
+        return decimalOf(tax, taxScale, TAX);
     }
 
     /**
@@ -173,7 +244,7 @@ public class Order {
      * @return returns the total costs
      */
     public BigDecimal getTotal() {
-        return total;
+        return decimalOf(total, totalScale, TOTAL);
     }
 
     /**
@@ -197,7 +268,9 @@ public class Order {
      * @param materialCost - the material costs
      */
     public void setMaterialCost(BigDecimal materialCost) {
-        this.materialCost = materialCost;
+        this.materialCostScale = scaleOf(materialCost);
+        this.materialCost = unscaledOf(materialCost, materialCostScale);
+        keepWide(MATERIAL_COST, materialCost, materialCostScale);
     }
 
     /**
@@ -205,7 +278,9 @@ public class Order {
      * @param laborCost - the labour costs
      */
     public void setLaborCost(BigDecimal laborCost) {
-        this.laborCost = laborCost;
+        this.laborCostScale = scaleOf(laborCost);
+        this.laborCost = unscaledOf(laborCost, laborCostScale);
+        keepWide(LABOR_COST, laborCost, laborCostScale);
     }
 
     /**
@@ -213,7 +288,9 @@ public class Order {
      * @param total - the total amount
      */
     public void setTotal(BigDecimal total) {
-        this.total = total;
+        this.totalScale = scaleOf(total);
+        this.total = unscaledOf(total, totalScale);
+        keepWide(TOTAL, total, totalScale);
     }
 
     /**
@@ -221,7 +298,238 @@ public class Order {
      * @param tax - the tax amount
      */
     public void setTax(BigDecimal tax) {
+        this.taxScale = scaleOf(tax);
+        this.tax = unscaledOf(tax, taxScale);
+        keepWide(TAX, tax, taxScale);
+    }
+
+    /**
+     * Returns the area as a quantity
+     * @return the area to four decimal places, or null if it hasn't been set
+     */
+    public Quantity getAreaQuantity() {
+        return areaScale == NO_VALUE ? null : quantityOf(area, areaScale, AREA);
+    }
+
+    /**
+     * Returns the material costs as money
+     * @return the material costs, or null if they haven't been calculated
+     */
+    public Money getMaterialCostMoney() {
+        return materialCostScale == NO_VALUE ? null : moneyOf(materialCost, materialCostScale, MATERIAL_COST);
+    }
+
+    /**
+     * Returns the labour costs as money
+     * @return the labour costs, or null if they haven't been calculated
+     */
+    public Money getLaborCostMoney() {
+        return laborCostScale == NO_VALUE ? null : moneyOf(laborCost, laborCostScale, LABOR_COST);
+    }
+
+    /**
+     * Returns the tax as money
+     * @return the tax, or null if it hasn't been calculated
+     */
+    public Money getTaxMoney() {
+        return taxScale == NO_VALUE ? null : moneyOf(tax, taxScale, TAX);
+    }
+
+    /**
+     * Returns the total costs as money
+     * @return the total costs, or null if they haven't been calculated
+     */
+    public Money getTotalMoney() {
+        return totalScale == NO_VALUE ? null : moneyOf(total, totalScale, TOTAL);
+    }
+
+    /**
+     * Returns the area in ten thousandths, without making a BigDecimal
+     * @return the area in ten thousandths
+     * @throws ArithmeticException if the area has more than four decimal places or doesn't fit in a long
+     * @throws IllegalStateException if the area hasn't been set
+     */
+    public long getAreaTenThousandths() {
+        return exactly(area, areaScale, AREA, TEN_THOUSANDTHS_SCALE);
+    }
+
+    /**
+     * Returns the material costs in cents, without making a BigDecimal
+     * @return the material costs in cents
+     * @throws ArithmeticException if the costs aren't a whole number of cents or don't fit in a long
+     * @throws IllegalStateException if the costs haven't been calculated
+     */
+    public long getMaterialCostCents() {
+        return exactly(materialCost, materialCostScale, MATERIAL_COST, CENTS_SCALE);
+    }
+
+    /**
+     * Returns the labour costs in cents, without making a BigDecimal
+     * @return the labour costs in cents
+     * @throws ArithmeticException if the costs aren't a whole number of cents or don't fit in a long
+     * @throws IllegalStateException if the costs haven't been calculated
+     */
+    public long getLaborCostCents() {
+        return exactly(laborCost, laborCostScale, LABOR_COST, CENTS_SCALE);
+    }
+
+    /**
+     * Returns the tax in cents, without making a BigDecimal
+     * @return the tax in cents
+     * @throws ArithmeticException if the tax isn't a whole number of cents or doesn't fit in a long
+     * @throws IllegalStateException if the tax hasn't been calculated
+     */
+    public long getTaxCents() {
+        return exactly(tax, taxScale, TAX, CENTS_SCALE);
+    }
+
+    /**
+     * Returns the total costs in cents, without making a BigDecimal
+     * @return the total costs in cents
+     * @throws ArithmeticException if the total isn't a whole number of cents or doesn't fit in a long
+     * @throws IllegalStateException if the total hasn't been calculated
+     */
+    public long getTotalCents() {
+        return exactly(total, totalScale, TOTAL, CENTS_SCALE);
+    }
+
+    /**
+     * Sets all of the costs in cents, the same as setting each of them to a
+     * decimal with 2 decimal places, without making the decimals.
+     * @param materialCost - the material costs in cents
+     * @param laborCost - the labour costs in cents
+     * @param tax - the tax in cents
+     * @param total - the total costs in cents
+     */
+    public void setCostsInCents(long materialCost, long laborCost, long tax, long total) {
+        this.materialCost = materialCost;
+        this.laborCost = laborCost;
         this.tax = tax;
+        this.total = total;
+        this.materialCostScale = CENTS_SCALE;
+        this.laborCostScale = CENTS_SCALE;
+        this.taxScale = CENTS_SCALE;
+        this.totalScale = CENTS_SCALE;
+        if (wideValues != null) {
+            wideValues[MATERIAL_COST] = null;
+            wideValues[LABOR_COST] = null;
+            wideValues[TAX] = null;
+            wideValues[TOTAL] = null;
+        }
+    }
+
+    /**
+     * Appends the area, exactly as appending getArea would, without making a
+     * BigDecimal.
+     * @param out - the text to append to
+     * @return the same text
+     */
+    public StringBuilder appendArea(StringBuilder out) {
+        return appendDecimal(out, area, areaScale, AREA);
+    }
+
+    /**
+     * Appends the material costs, labour costs, tax and total with the
+     * delimiter between them, exactly as appending their getters would, without
+     * making BigDecimals.
+     * @param out - the text to append to
+     * @param delimiter - the character between the costs
+     * @return the same text
+     */
+    public StringBuilder appendCosts(StringBuilder out, char delimiter) {
+        appendDecimal(out, materialCost, materialCostScale, MATERIAL_COST).append(delimiter);
+        appendDecimal(out, laborCost, laborCostScale, LABOR_COST).append(delimiter);
+        appendDecimal(out, tax, taxScale, TAX).append(delimiter);
+        return appendDecimal(out, total, totalScale, TOTAL);
+    }
+
+    private long exactly(long unscaled, byte scale, int field, int wantedScale) {
+        if (scale == NO_VALUE) {
+            throw new IllegalStateException("The value hasn't been set");
+        }
+        if (scale >= 0 && scale <= wantedScale) {
+            return Math.multiplyExact(unscaled, POWERS_OF_TEN[wantedScale - scale]);
+        }
+        BigDecimal value = scale == WIDE_VALUE ? wideValues[field] : BigDecimal.valueOf(unscaled, scale);
+        return value.setScale(wantedScale).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Appends the digits with the decimal point in place, which is what
+     * BigDecimal.toString gives for a decimal that isn't written with an
+     * exponent. Anything else is appended as a BigDecimal.
+     */
+    private StringBuilder appendDecimal(StringBuilder out, long unscaled, byte scale, int field) {
+        if (scale == 0) {
+            return out.append(unscaled);
+        }
+        long digits = Math.abs(unscaled);
+        //BigDecimal.toString only uses an exponent for a negative scale or a value below 10^-6
+        if (scale < 0 || scale > MAX_PLAIN_SCALE || unscaled == Long.MIN_VALUE
+                || precisionOf(digits) - 1 - scale < -6) {
+            return out.append(decimalOf(unscaled, scale, field));
+        }
+        if (unscaled < 0) {
+            out.append('-');
+        }
+        long fraction = digits % POWERS_OF_TEN[scale];
+        out.append(digits / POWERS_OF_TEN[scale]).append('.');
+        for (int zeros = scale - precisionOf(fraction); zeros > 0; zeros--) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    private static int precisionOf(long digits) {
+        int precision = 1;
+        while (precision < POWERS_OF_TEN.length && digits >= POWERS_OF_TEN[precision]) {
+            precision++;
+        }
+        return precision;
+    }
+
+    private BigDecimal decimalOf(long unscaled, byte scale, int field) {
+        if (scale == NO_VALUE) {
+            return null;
+        }
+        return scale == WIDE_VALUE ? wideValues[field] : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private Money moneyOf(long unscaled, byte scale, int field) {
+        return scale == WIDE_VALUE ? Money.of(wideValues[field]) : Money.of(unscaled, scale);
+    }
+
+    private Quantity quantityOf(long unscaled, byte scale, int field) {
+        return scale == WIDE_VALUE ? Quantity.of(wideValues[field]) : Quantity.of(unscaled, scale);
+    }
+
+    /**
+     * Keeps a decimal that doesn't fit in a long, and lets go of the old one
+     * when a value that does fit replaces it.
+     */
+    private void keepWide(int field, BigDecimal value, byte scale) {
+        if (scale == WIDE_VALUE) {
+            if (wideValues == null) {
+                wideValues = new BigDecimal[TOTAL + 1];
+            }
+            wideValues[field] = value;
+        } else if (wideValues != null) {
+            wideValues[field] = null;
+        }
+    }
+
+    private static byte scaleOf(BigDecimal value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        if (value.precision() > MAX_COMPACT_PRECISION || value.scale() <= WIDE_VALUE || value.scale() > Byte.MAX_VALUE) {
+            return WIDE_VALUE;
+        }
+        return (byte) value.scale();
+    }
+
+    private static long unscaledOf(BigDecimal value, byte scale) {
+        return scale == NO_VALUE || scale == WIDE_VALUE ? 0 : value.unscaledValue().longValue();
     }
     
 }
@@ -11,6 +11,8 @@ public class Product {
     private String productType;
     private BigDecimal costPerSquareFoot;
     private BigDecimal laborCostPerSquareFoot;
+    private long costPerSquareFootCents;
+    private long laborCostPerSquareFootCents;
 
     /**
      * The product constructor, which will need the following detail for the product for set up.
@@ -22,6 +24,8 @@ public class Product {
         this.productType = productType;
         this.costPerSquareFoot = costPerSquareFoot.setScale(2);
         this.laborCostPerSquareFoot = laborCostPerSquareFoot.setScale(2);
+        this.costPerSquareFootCents = WholeNumbers.unscaledOrTooBig(this.costPerSquareFoot);
+        this.laborCostPerSquareFootCents = WholeNumbers.unscaledOrTooBig(this.laborCostPerSquareFoot);
     }
     
     /**
@@ -47,6 +51,40 @@ public class Product {
     public BigDecimal getLaborCostPerSquareFoot() {
         return laborCostPerSquareFoot;
     }
+
+    /**
+     * This will return the cost per square foot for the product type as money
+     * @return returns the cost per square foot
+     */
+    public Money getCostPerSquareFootMoney() {
+        return Money.of(costPerSquareFoot);
+    }
+
+    /**
+     * This will return the labour cost per square foot for the product type as money
+     * @return returns the labour cost per square foot.
+     */
+    public Money getLaborCostPerSquareFootMoney() {
+        return Money.of(laborCostPerSquareFoot);
+    }
+
+    /**
+     * This will return the cost per square foot for the product type in cents, worked out when the product is made
+     * @return returns the cost per square foot in cents
+     * @throws ArithmeticException if the cost is too big to hold in cents
+     */
+    public long getCostPerSquareFootCents() {
+        return WholeNumbers.exactly(costPerSquareFootCents);
+    }
+
+    /**
+     * This will return the labour cost per square foot for the product type in cents, worked out when the product is made
+     * @return returns the labour cost per square foot in cents
+     * @throws ArithmeticException if the cost is too big to hold in cents
+     */
+    public long getLaborCostPerSquareFootCents() {
+        return WholeNumbers.exactly(laborCostPerSquareFootCents);
+    }
     
     
 }
@@ -0,0 +1,106 @@
+package alydiaade.flooringmastery.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class holds a quantity such as an area or a tax rate as a whole number
+ * of ten thousandths, so it takes a single long rather than a BigDecimal and
+ * its digits. It is immutable.
+ * @author lydiaadejumo
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+    /**
+     * The number of decimal places every quantity has.
+     */
+    public static final int SCALE = 4;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private final long units;
+
+    private Quantity(long units) {
+        this.units = units;
+    }
+
+    /**
+     * Makes a quantity from the number of ten thousandths.
+     * @param units - the number of ten thousandths
+     * @return the quantity
+     */
+    public static Quantity ofTenThousandths(long units) {
+        return new Quantity(units);
+    }
+
+    /**
+     * Makes a quantity from a decimal, rounded half up to the ten thousandth.
+     * @param value - the decimal
+     * @return the quantity
+     * @throws ArithmeticException if the value is too big to hold
+     */
+    public static Quantity of(BigDecimal value) {
+        return new Quantity(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Makes a quantity from the digits and scale of a decimal, without making
+     * the decimal when the scale is 4 or less.
+     * @param unscaled - the digits of the decimal
+     * @param scale - the number of decimal places
+     * @return the quantity, rounded half up to the ten thousandth
+     * @throws ArithmeticException if the value is too big to hold
+     */
+    public static Quantity of(long unscaled, int scale) {
+        if (scale >= 0 && scale <= SCALE) {
+            return new Quantity(Math.multiplyExact(unscaled, POWERS_OF_TEN[SCALE - scale]));
+        }
+        return of(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    /**
+     * Gets the number of ten thousandths
+     * @return the number of ten thousandths
+     */
+    public long getTenThousandths() {
+        return units;
+    }
+
+    /**
+     * Gets the quantity as a decimal, always with 4 decimal places
+     * @return the decimal
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Adds two quantities
+     * @param other - the quantity to add
+     * @return the sum
+     * @throws ArithmeticException if the sum is too big to hold
+     */
+    public Quantity plus(Quantity other) {
+        return new Quantity(Math.addExact(units, other.units));
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Quantity && ((Quantity) other).units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
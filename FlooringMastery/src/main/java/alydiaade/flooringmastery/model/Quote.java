@@ -0,0 +1,69 @@
+package alydiaade.flooringmastery.model;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds the costs quoted for an area of a product in a state,
+ * kept in cents so a quote doesn't need an order.
+ * @author lydiaadejumo
+ */
+public class Quote {
+
+    private final long materialCents;
+    private final long laborCents;
+    private final long taxCents;
+    private final long totalCents;
+
+    /**
+     * The quote constructor
+     * @param materialCents - the material cost in cents
+     * @param laborCents - the labour cost in cents
+     * @param taxCents - the tax in cents
+     */
+    public Quote(long materialCents, long laborCents, long taxCents) {
+        this.materialCents = materialCents;
+        this.laborCents = laborCents;
+        this.taxCents = taxCents;
+        this.totalCents = materialCents + laborCents + taxCents;
+    }
+
+    /**
+     * Gets the material cost
+     * @return the material cost
+     */
+    public BigDecimal getMaterialCost() {
+        return BigDecimal.valueOf(materialCents, 2);
+    }
+
+    /**
+     * Gets the labour cost
+     * @return the labour cost
+     */
+    public BigDecimal getLaborCost() {
+        return BigDecimal.valueOf(laborCents, 2);
+    }
+
+    /**
+     * Gets the tax
+     * @return the tax
+     */
+    public BigDecimal getTax() {
+        return BigDecimal.valueOf(taxCents, 2);
+    }
+
+    /**
+     * Gets the total
+     * @return the total
+     */
+    public BigDecimal getTotal() {
+        return BigDecimal.valueOf(totalCents, 2);
+    }
+
+    /**
+     * Gets the total in cents
+     * @return the total in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+}
@@ -0,0 +1,134 @@
+package alydiaade.flooringmastery.model;
+
+import java.math.BigDecimal;
+
+/**
+ * This class holds the running sums of a group of active orders, e.g. every
+ * order in one state on one date, for the revenue reports.
+ * @author lydiaadejumo
+ */
+public class RevenueTotals {
+
+    private int orderCount;
+    private BigDecimal area = BigDecimal.ZERO;
+    private BigDecimal materialCost = BigDecimal.ZERO;
+    private BigDecimal laborCost = BigDecimal.ZERO;
+    private BigDecimal tax = BigDecimal.ZERO;
+    private BigDecimal total = BigDecimal.ZERO;
+
+    /**
+     * The constructor for empty totals.
+     */
+    public RevenueTotals() {
+    }
+
+    /**
+     * The copy constructor, so totals can be handed out without sharing them.
+     * @param totals - the totals to copy
+     */
+    public RevenueTotals(RevenueTotals totals) {
+        this.orderCount = totals.orderCount;
+        this.area = totals.area;
+        this.materialCost = totals.materialCost;
+        this.laborCost = totals.laborCost;
+        this.tax = totals.tax;
+        this.total = totals.total;
+    }
+
+    /**
+     * Adds one order's amounts to the totals.
+     * @param area - the order area
+     * @param materialCost - the order material cost
+     * @param laborCost - the order labour cost
+     * @param tax - the order tax
+     * @param total - the order total
+     */
+    public void add(BigDecimal area, BigDecimal materialCost, BigDecimal laborCost, BigDecimal tax, BigDecimal total) {
+        this.orderCount += 1;
+        this.area = this.area.add(area);
+        this.materialCost = this.materialCost.add(materialCost);
+        this.laborCost = this.laborCost.add(laborCost);
+        this.tax = this.tax.add(tax);
+        this.total = this.total.add(total);
+    }
+
+    /**
+     * Takes one order's amounts away from the totals, e.g. when it is edited
+     * or cancelled.
+     * @param area - the order area
+     * @param materialCost - the order material cost
+     * @param laborCost - the order labour cost
+     * @param tax - the order tax
+     * @param total - the order total
+     */
+    public void subtract(BigDecimal area, BigDecimal materialCost, BigDecimal laborCost, BigDecimal tax,
+            BigDecimal total) {
+        this.orderCount -= 1;
+        this.area = this.area.subtract(area);
+        this.materialCost = this.materialCost.subtract(materialCost);
+        this.laborCost = this.laborCost.subtract(laborCost);
+        this.tax = this.tax.subtract(tax);
+        this.total = this.total.subtract(total);
+    }
+
+    /**
+     * Adds other totals to these, e.g. to sum a range of dates.
+     * @param totals - the totals to add
+     */
+    public void add(RevenueTotals totals) {
+        this.orderCount += totals.orderCount;
+        this.area = this.area.add(totals.area);
+        this.materialCost = this.materialCost.add(totals.materialCost);
+        this.laborCost = this.laborCost.add(totals.laborCost);
+        this.tax = this.tax.add(totals.tax);
+        this.total = this.total.add(totals.total);
+    }
+
+    /**
+     * Gets the number of orders
+     * @return the number of orders in the totals
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Gets the total area
+     * @return the total area
+     */
+    public BigDecimal getArea() {
+        return area;
+    }
+
+    /**
+     * Gets the total material cost
+     * @return the total material cost
+     */
+    public BigDecimal getMaterialCost() {
+        return materialCost;
+    }
+
+    /**
+     * Gets the total labour cost
+     * @return the total labour cost
+     */
+    public BigDecimal getLaborCost() {
+        return laborCost;
+    }
+
+    /**
+     * Gets the total tax
+     * @return the total tax
+     */
+    public BigDecimal getTax() {
+        return tax;
+    }
+
+    /**
+     * Gets the total of the order totals
+     * @return the total revenue
+     */
+    public BigDecimal getTotal() {
+        return total;
+    }
+}
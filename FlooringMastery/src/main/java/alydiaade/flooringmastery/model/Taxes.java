@@ -1,6 +1,7 @@
 package alydiaade.flooringmastery.model;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * This class handles all the tax values per state
@@ -9,9 +10,12 @@ import java.math.BigDecimal;
 
 public class Taxes {
     
+    private static final BigDecimal ONE_HUNDRED = new BigDecimal(100);
+
     private String state;
     private String stateName;
     private BigDecimal taxRate;
+    private long taxRateBasisPoints;
 
     /**
      * This is the state class constructor, it needs the state details to be activated
@@ -23,6 +27,8 @@ public class Taxes {
         this.state = state;
         this.stateName = stateName;
         this.taxRate = taxRate;
+        this.taxRateBasisPoints = WholeNumbers.unscaledOrTooBig(
+                taxRate.divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP).setScale(4));
     }
 
     /**
@@ -48,5 +54,23 @@ public class Taxes {
     public BigDecimal getTaxRate() {
         return taxRate;
     }
+
+    /**
+     * This will return the corresponding tax rate as a quantity
+     * @return returns the state tax rate, as a percentage
+     */
+    public Quantity getTaxRateQuantity() {
+        return Quantity.of(taxRate);
+    }
+
+    /**
+     * This will return the corresponding tax rate in basis points, rounded to a whole percent the way the costs
+     * round it, worked out when the taxes are made
+     * @return returns the state tax rate, in hundredths of a percent
+     * @throws ArithmeticException if the tax rate is too big to hold in basis points
+     */
+    public long getTaxRateBasisPoints() {
+        return WholeNumbers.exactly(taxRateBasisPoints);
+    }
     
 }
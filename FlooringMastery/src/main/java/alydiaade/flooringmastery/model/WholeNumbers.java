@@ -0,0 +1,45 @@
+package alydiaade.flooringmastery.model;
+
+import java.math.BigDecimal;
+
+/**
+ * This holds the whole number form of a catalog value, e.g. a product cost in
+ * cents, which is worked out once when the product or taxes are made. A value
+ * too big for a long is kept as a marker, and only refused when it is asked
+ * for, so the catalog still loads and the value is priced with BigDecimals.
+ * @author lydiaadejumo
+ */
+final class WholeNumbers {
+
+    private static final long TOO_BIG = Long.MIN_VALUE;
+
+    private WholeNumbers() {
+    }
+
+    /**
+     * Gets the digits of a value without its decimal point
+     * @param value - the value, already at the scale wanted
+     * @return the digits, or the marker if they don't fit in a long
+     */
+    static long unscaledOrTooBig(BigDecimal value) {
+        try {
+            long unscaled = value.unscaledValue().longValueExact();
+            return unscaled == TOO_BIG ? TOO_BIG : unscaled;
+        } catch (ArithmeticException e) {
+            return TOO_BIG;
+        }
+    }
+
+    /**
+     * Gets a whole number that was worked out earlier
+     * @param wholeNumber - the digits, or the marker
+     * @return the digits
+     * @throws ArithmeticException if the value didn't fit in a long
+     */
+    static long exactly(long wholeNumber) {
+        if (wholeNumber == TOO_BIG) {
+            throw new ArithmeticException("The value is too big to hold as a whole number");
+        }
+        return wholeNumber;
+    }
+}
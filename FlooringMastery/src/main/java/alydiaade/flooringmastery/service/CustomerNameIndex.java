@@ -0,0 +1,118 @@
+package alydiaade.flooringmastery.service;
+
+import alydiaade.flooringmastery.dao.FlooringOrderDao;
+import alydiaade.flooringmastery.dao.NoSuchOrderException;
+import alydiaade.flooringmastery.model.Order;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * This is the customer name index, which keeps the order number of every
+ * active order sorted by its customer name, ignoring case, so the orders for a
+ * name or the start of a name are found with a single range lookup rather than
+ * a read of every order file. Each key is the lower case name followed by the
+ * order number, so customers with the same name each keep their own orders.
+ *
+ * Only the keys are held, not the orders, so the index stays small however
+ * many orders there are. The matching orders are read through the DAO by
+ * their number, which costs a lookup for each match rather than each search.
+ * @author lydiaadejumo
+ */
+public class CustomerNameIndex {
+
+    private static final LocalDate FIRST_ORDER_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LAST_ORDER_DATE = LocalDate.of(9999, 12, 31);
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final int ORDER_NUMBER_DIGITS = 10;
+
+    private final FlooringOrderDao dao;
+    private final NavigableSet<String> byName = new ConcurrentSkipListSet<>();
+    private final Map<Integer, String> keysByOrder = new ConcurrentHashMap<>();
+
+    private CustomerNameIndex(FlooringOrderDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Builds the index from every order the DAO holds.
+     * @param dao - the order DAO, which the matching orders are read from
+     * @return the index of the active orders
+     */
+    public static CustomerNameIndex build(FlooringOrderDao dao) {
+        CustomerNameIndex index = new CustomerNameIndex(dao);
+        try (Stream<Order> allOrders = dao.getOrders(FIRST_ORDER_DATE, LAST_ORDER_DATE)) {
+            //An order moved to a later date is read again, and the later version wins
+            allOrders.forEach(index::put);
+        }
+        return index;
+    }
+
+    /**
+     * Adds or updates an order. A cancelled order is taken out of the index.
+     * @param order - the new or edited order
+     */
+    public synchronized void put(Order order) {
+        String oldKey = keysByOrder.remove(order.getOrderNumber());
+        if (oldKey != null) {
+            byName.remove(oldKey);
+        }
+        if (!order.isActiveOrder() || order.getCustomerName() == null) {
+            return;
+        }
+        String key = keyOf(order.getCustomerName(), order.getOrderNumber());
+        byName.add(key);
+        keysByOrder.put(order.getOrderNumber(), key);
+    }
+
+    /**
+     * Finds the orders whose customer name starts with the prefix, ignoring
+     * case, sorted by customer name and then order number.
+     * @param prefix - the start of the customer name
+     * @return the matching orders read from the DAO, empty for a blank prefix
+     */
+    public List<Order> search(String prefix) {
+        List<Order> matches = new ArrayList<>();
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return matches;
+        }
+        String from = normalise(prefix);
+        //Every key starting with the prefix sorts before the prefix followed by the highest character
+        for (String key : byName.subSet(from, true, from + Character.MAX_VALUE, false)) {
+            try {
+                Order match = dao.getOrder(Integer.parseInt(key.substring(key.length() - ORDER_NUMBER_DIGITS)));
+                //The order may have been changed since the key was taken
+                if (match.isActiveOrder() && match.getCustomerName() != null
+                        && normalise(match.getCustomerName()).startsWith(from)) {
+                    matches.add(match);
+                }
+            } catch (NoSuchOrderException e) {
+                //The order has gone from the orders since it was indexed, so it isn't a match
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the number of orders in the index
+     * @return the number of indexed orders
+     */
+    public int size() {
+        return keysByOrder.size();
+    }
+
+    private static String keyOf(String customerName, int orderNum) {
+        return normalise(customerName) + KEY_SEPARATOR + String.format("%0" + ORDER_NUMBER_DIGITS + "d", orderNum);
+    }
+
+    private static String normalise(String customerName) {
+        return customerName.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,95 @@
+package alydiaade.flooringmastery.service;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * This is the pricing engine, which works out an order's costs in whole
+ * numbers rather than BigDecimals: the area in ten thousandths, the costs in
+ * cents and the tax rate in basis points. These are read from the longs the
+ * order, product and taxes already hold, and the costs are written back as
+ * cents, so pricing an order makes no BigDecimals. Every step rounds half up
+ * to the cent the same way the BigDecimal sums do, so the costs come out the
+ * same. An area with more than four decimal places, or a value too big for the
+ * sums to fit in a long, is priced with BigDecimals.
+ * @author lydiaadejumo
+ */
+public class FixedPointPricing {
+
+    static final long COST_TO_CENTS = 10_000L;
+    static final long BASIS_POINTS = 10_000L;
+    private static final BigDecimal ONE_HUNDRED = new BigDecimal(100);
+
+    /**
+     * Works out the material cost, labour cost, tax and total of an order.
+     * @param order - the order with its area, product and tax info
+     * @return the same order with its costs set
+     */
+    public Order calculateCosts(Order order) {
+        try {
+            long area = order.getAreaTenThousandths();
+            Product product = order.getProduct();
+            long materialCost = roundHalfUp(Math.multiplyExact(area, product.getCostPerSquareFootCents()),
+                    COST_TO_CENTS);
+            long laborCost = roundHalfUp(Math.multiplyExact(area, product.getLaborCostPerSquareFootCents()),
+                    COST_TO_CENTS);
+            long costs = Math.addExact(materialCost, laborCost);
+            long tax = roundHalfUp(Math.multiplyExact(costs, order.getTaxInfo().getTaxRateBasisPoints()),
+                    BASIS_POINTS);
+            order.setCostsInCents(materialCost, laborCost, tax, Math.addExact(costs, tax));
+            return order;
+        } catch (ArithmeticException e) {
+            return calculateCostsExactly(order);
+        }
+    }
+
+    /**
+     * Works out the costs of a list of orders, e.g. when repricing.
+     * @param orders - the orders with their areas, products and tax info
+     * @return the same orders with their costs set
+     */
+    public List<Order> calculateCosts(List<Order> orders) {
+        for (Order order : orders) {
+            calculateCosts(order);
+        }
+        return orders;
+    }
+
+    /**
+     * Works out the costs with BigDecimals. This is how the costs have always
+     * been worked out, and is used for the amounts that don't fit in a long.
+     * @param order - the order with its area, product and tax info
+     * @return the same order with its costs set
+     */
+    static Order calculateCostsExactly(Order order) {
+        //Material Cost
+        BigDecimal materialCost = order.getArea().multiply(order.getProduct().getCostPerSquareFoot()).setScale(2, RoundingMode.HALF_UP);
+        //Labour Cost
+        BigDecimal laborCost = order.getArea().multiply(order.getProduct().getLaborCostPerSquareFoot()).setScale(2, RoundingMode.HALF_UP);
+        //Tax
+        BigDecimal addMCandLC = materialCost.add(laborCost);
+        BigDecimal taxRatePercentage = order.getTaxInfo().getTaxRate().divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP);
+        BigDecimal tax = addMCandLC.multiply(taxRatePercentage).setScale(2, RoundingMode.HALF_UP);
+        //Total
+        BigDecimal total = materialCost.add(laborCost).add(tax).setScale(2, RoundingMode.HALF_UP);
+
+        order.setMaterialCost(materialCost);
+        order.setLaborCost(laborCost);
+        order.setTax(tax);
+        order.setTotal(total);
+
+        return order;
+    }
+
+    static long roundHalfUp(long amount, long divisor) {
+        long whole = amount / divisor;
+        long remainder = Math.abs(amount % divisor);
+        if (remainder * 2 >= divisor) {
+            whole += Long.signum(amount);
+        }
+        return whole;
+    }
+}
@@ -5,9 +5,15 @@ import alydiaade.flooringmastery.dao.NoSuchOrderFileException;
 import alydiaade.flooringmastery.dao.OrderPersistenceException;
 import alydiaade.flooringmastery.model.Order;
 import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Quote;
+import alydiaade.flooringmastery.model.RevenueTotals;
 import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.stream.Stream;
 
 /**
  *
@@ -29,6 +35,50 @@ public interface FlooringServiceLayer {
      */
     public List<Order> getOrders(LocalDate date) throws NoSuchOrderFileException;
     
+    /**
+     * This method will list all the orders between two dates, e.g. for a report
+     * over a month. Dates without any orders are skipped.
+     * @param fromDate - the first date, included
+     * @param toDate - the last date, included
+     * @return the orders in the range, read as the stream is used
+     */
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate);
+    
+    /**
+     * This method will find the active orders of every customer whose name
+     * starts with the prefix, ignoring case, e.g. for a customer on the phone.
+     * @param prefix - the start of the customer name
+     * @return the matching orders sorted by customer name, empty if there are none
+     */
+    public List<Order> searchOrdersByCustomer(String prefix);
+    
+    /**
+     * This method will total the active orders in each state over a range of
+     * order dates, without reading the order files.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the totals by state abbreviation
+     */
+    public Map<String, RevenueTotals> getRevenueByState(LocalDate fromDate, LocalDate toDate);
+    
+    /**
+     * This method will total the active orders of each product over a range of
+     * order dates, without reading the order files.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the totals by product type
+     */
+    public Map<String, RevenueTotals> getRevenueByProduct(LocalDate fromDate, LocalDate toDate);
+    
+    /**
+     * This method will total the active orders on each order date in a range,
+     * without reading the order files.
+     * @param fromDate - the first order date, included
+     * @param toDate - the last order date, included
+     * @return the totals by order date, only for dates with orders
+     */
+    public NavigableMap<LocalDate, RevenueTotals> getRevenueByDate(LocalDate fromDate, LocalDate toDate);
+    
     /**
      * This method will get a particular order based on the date and the orderNum.
      * @param date -  the date of the order
@@ -44,7 +94,21 @@ public interface FlooringServiceLayer {
     public Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException, OrderCancelledException;
     
     /**
-     * Creates a new order based on the input of the user.
+     * This method will get a particular order based only on the orderNum, so
+     * the date of the order isn't needed.
+     * @param orderNum - the order number for the order being requested
+     * @return - returns the specified order, if it exists
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderException - if there is
+     * no order with that order number
+     * @throws alydiaade.flooringmastery.service.OrderCancelledException - if an
+     * order has already been cancelled this error will flag it
+     */
+    public Order getOrder(int orderNum) throws NoSuchOrderException, OrderCancelledException;
+    
+    /**
+     * Creates a new order based on the input of the user. The order is given
+     * the next order number as it is created, so with several users the number
+     * may be later than the one shown by getOrderNumber.
      * @param newOrder - new order with details filled out.
      * @return - the created order.
      * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the 
@@ -52,6 +116,17 @@ public interface FlooringServiceLayer {
      */
     public Order createOrder(Order newOrder) throws OrderPersistenceException;
     
+    /**
+     * Creates a batch of new orders, e.g. for a bulk load. Each order is given
+     * the next order number in turn, and the batch is recorded in the audit
+     * log as a single entry.
+     * @param newOrders - new orders with details filled out.
+     * @return - the created orders, with their order numbers.
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the 
+     * file is unable to add the new orders to a file
+     */
+    public List<Order> createOrders(List<Order> newOrders) throws OrderPersistenceException;
+    
     /**
      * This method allows for the edited order, done by the user to be inputted 
      * into the system.
@@ -100,4 +175,22 @@ public interface FlooringServiceLayer {
      */
     public Order calculateCosts(Order order);
     
+    /**
+     * This method is utilised to calculate the costs of a batch of orders,
+     * e.g. when repricing, in the same way as for a single order.
+     * @param orders - the orders without their costs.
+     * @return - the same orders with all the calculations completed.
+     */
+    public List<Order> calculateCosts(List<Order> orders);
+    
+    /**
+     * This method quotes the costs of an area of a product in a state without
+     * making an order, using the same calculations as calculateCosts.
+     * @param state - the state abbreviation.
+     * @param productType - the product type.
+     * @param area - the area in square feet.
+     * @return - the quoted material cost, labour cost, tax and total.
+     */
+    public Quote quote(String state, String productType, BigDecimal area);
+    
 }
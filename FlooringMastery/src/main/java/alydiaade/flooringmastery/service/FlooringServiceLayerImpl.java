@@ -9,17 +9,24 @@ import alydiaade.flooringmastery.dao.FlooringAuditDao;
 import alydiaade.flooringmastery.dao.FlooringOrderDao;
 import alydiaade.flooringmastery.dao.NoSuchOrderException;
 import alydiaade.flooringmastery.dao.NoSuchOrderFileException;
+import alydiaade.flooringmastery.dao.OrderNumberSequence;
 import alydiaade.flooringmastery.dao.OrderPersistenceException;
+import alydiaade.flooringmastery.dao.RevenueRollup;
 import alydiaade.flooringmastery.model.Order;
 import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Quote;
+import alydiaade.flooringmastery.model.RevenueTotals;
 import alydiaade.flooringmastery.model.Taxes;
 import java.io.FileNotFoundException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * This is the service layer, which handles interactions between the controller
@@ -30,16 +37,60 @@ public class FlooringServiceLayerImpl implements FlooringServiceLayer {
 
     FlooringOrderDao dao;
     private FlooringAuditDao auditDao;
-    int currentOrderNum;
+    private OrderNumberSequence orderNumbers;
+    private CustomerNameIndex customerIndex;
+    private RevenueRollup revenueRollup;
+    private final FixedPointPricing pricing = new FixedPointPricing();
+    private PriceMatrix priceMatrix;
 
+    /**
+     * The service constructor for tests and tools, which carries on the order
+     * numbers from the last total in the audit log and keeps the revenue
+     * totals in memory only, building them from every order each time the
+     * service is made. The app uses the constructor with a persisted order
+     * number sequence and revenue rollup.
+     * @param dao - the order DAO
+     * @param auditDao - the audit DAO
+     */
     public FlooringServiceLayerImpl(FlooringOrderDao dao, FlooringAuditDao auditDao) {
         this.dao = dao;
         this.auditDao = auditDao;
-        
+        this.orderNumbers = new OrderNumberSequence(readsNextOrderNumber());
+        this.customerIndex = CustomerNameIndex.build(dao);
+        this.revenueRollup = new RevenueRollup(dao);
+        this.priceMatrix = new PriceMatrix(dao);
+    }
+    
+    /**
+     * The service constructor utilised in the app, which hands out order
+     * numbers from a persisted sequence, so startup doesn't read the audit log,
+     * and keeps the revenue totals in a persisted rollup, so the reports don't
+     * read the order files. The audit log is only read to start a new sequence
+     * file.
+     * @param dao - the order DAO
+     * @param auditDao - the audit DAO
+     * @param orderNumbers - the order number sequence
+     * @param revenueRollup - the revenue rollup
+     */
+    public FlooringServiceLayerImpl(FlooringOrderDao dao, FlooringAuditDao auditDao,
+            OrderNumberSequence orderNumbers, RevenueRollup revenueRollup) {
+        this.dao = dao;
+        this.auditDao = auditDao;
+        this.orderNumbers = orderNumbers;
+        if (!orderNumbers.isStarted()) {
+            orderNumbers.startAt(readsNextOrderNumber());
+        }
+        this.customerIndex = CustomerNameIndex.build(dao);
+        this.revenueRollup = revenueRollup;
+        this.priceMatrix = new PriceMatrix(dao);
+    }
+    
+    private int readsNextOrderNumber() {
         try {
-            currentOrderNum = auditDao.readsCurrentOrderNumber() + 1;
+            return auditDao.readsCurrentOrderNumber() + 1;
         } catch (FileNotFoundException ex) {
             Logger.getLogger(FlooringServiceLayerImpl.class.getName()).log(Level.SEVERE, null, ex);
+            return 1;
         }
     }
     
@@ -55,13 +106,18 @@ public class FlooringServiceLayerImpl implements FlooringServiceLayer {
 
     @Override
     public int getOrderNumber() {
-        return currentOrderNum;
+        return orderNumbers.peek();
     }
     
     @Override
     public List<Order> getOrders(LocalDate date) throws NoSuchOrderFileException {
         return dao.getAllOrders(date);
     }
+    
+    @Override
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate) {
+        return dao.getOrders(fromDate, toDate);
+    }
 
     @Override
     public Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException, OrderCancelledException {
@@ -74,19 +130,79 @@ public class FlooringServiceLayerImpl implements FlooringServiceLayer {
                 
     }
 
+    @Override
+    public Order getOrder(int orderNum) throws NoSuchOrderException, OrderCancelledException {
+        Order currentOrder = dao.getOrder(orderNum);
+        if (!currentOrder.isActiveOrder()) {
+            throw new OrderCancelledException("This order has already been cancelled.");
+        }
+        return currentOrder;
+    }
+
     @Override
     public Order createOrder(Order newOrder) throws OrderPersistenceException{
+        //The number is only taken now, so two creates at once can't share it
+        newOrder.setOrderNumber(orderNumbers.next());
+        revenueRollup.begin(newOrder.getOrderNumber());
         dao.addOrder(newOrder);
         auditDao.writeNewOrderEntryLog(newOrder);
-        auditDao.logsNumberOfOrders(currentOrderNum);
-        currentOrderNum += 1;
+        auditDao.logsNumberOfOrders(newOrder.getOrderNumber());
+        customerIndex.put(newOrder);
+        revenueRollup.apply(newOrder);
         return newOrder;
     }
 
+    @Override
+    public List<Order> createOrders(List<Order> newOrders) throws OrderPersistenceException {
+        if (newOrders.isEmpty()) {
+            return newOrders;
+        }
+        int nextOrderNum = orderNumbers.next(newOrders.size());
+        List<Integer> newOrderNumbers = new ArrayList<>(newOrders.size());
+        for (Order newOrder : newOrders) {
+            newOrder.setOrderNumber(nextOrderNum);
+            newOrderNumbers.add(nextOrderNum);
+            nextOrderNum += 1;
+        }
+        revenueRollup.begin(newOrderNumbers);
+        dao.addOrders(newOrders);
+        auditDao.writeNewOrdersEntryLog(newOrders);
+        auditDao.logsNumberOfOrders(nextOrderNum - 1);
+        for (Order newOrder : newOrders) {
+            customerIndex.put(newOrder);
+        }
+        revenueRollup.apply(newOrders);
+        return newOrders;
+    }
+
     @Override
     public void editOrder(Order editedOrder) throws NoSuchOrderFileException, OrderPersistenceException {
+        revenueRollup.begin(editedOrder.getOrderNumber());
         dao.editOrder(editedOrder);
         auditDao.writeOrderEntryLog(editedOrder);
+        customerIndex.put(editedOrder);
+        //A cancelled order is taken out of the totals
+        revenueRollup.apply(editedOrder);
+    }
+    
+    @Override
+    public List<Order> searchOrdersByCustomer(String prefix) {
+        return customerIndex.search(prefix);
+    }
+    
+    @Override
+    public Map<String, RevenueTotals> getRevenueByState(LocalDate fromDate, LocalDate toDate) {
+        return revenueRollup.totalsByState(fromDate, toDate);
+    }
+    
+    @Override
+    public Map<String, RevenueTotals> getRevenueByProduct(LocalDate fromDate, LocalDate toDate) {
+        return revenueRollup.totalsByProduct(fromDate, toDate);
+    }
+    
+    @Override
+    public NavigableMap<LocalDate, RevenueTotals> getRevenueByDate(LocalDate fromDate, LocalDate toDate) {
+        return revenueRollup.totalsByDate(fromDate, toDate);
     }
 
     @Override
@@ -96,23 +212,17 @@ public class FlooringServiceLayerImpl implements FlooringServiceLayer {
 
     @Override
     public Order calculateCosts(Order order) {
-        //Material Cost
-        BigDecimal materialCost = order.getArea().multiply(order.getProduct().getCostPerSquareFoot()).setScale(2, RoundingMode.HALF_UP);
-        //Labour Cost
-        BigDecimal laborCost = order.getArea().multiply(order.getProduct().getLaborCostPerSquareFoot()).setScale(2, RoundingMode.HALF_UP);
-        //Tax
-        BigDecimal addMCandLC = materialCost.add(laborCost);
-        BigDecimal taxRatePercentage = order.getTaxInfo().getTaxRate().divide(new BigDecimal(100), 2, RoundingMode.HALF_UP);
-        BigDecimal tax = addMCandLC.multiply(taxRatePercentage).setScale(2, RoundingMode.HALF_UP);
-        //Total
-        BigDecimal total = materialCost.add(laborCost).add(tax).setScale(2, RoundingMode.HALF_UP);
-        
-        order.setMaterialCost(materialCost);
-        order.setLaborCost(laborCost);
-        order.setTax(tax);
-        order.setTotal(total);
-        
-        return order;
+        return pricing.calculateCosts(order);
+    }
+
+    @Override
+    public List<Order> calculateCosts(List<Order> orders) {
+        return pricing.calculateCosts(orders);
+    }
+
+    @Override
+    public Quote quote(String state, String productType, BigDecimal area) {
+        return priceMatrix.quote(state, productType, area);
     }
 
 }
@@ -0,0 +1,139 @@
+package alydiaade.flooringmastery.service;
+
+import alydiaade.flooringmastery.dao.FlooringOrderDao;
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Quote;
+import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * This is the price matrix, which compiles the tax and product catalog into a
+ * table with a cell for every state and product. Each cell holds the material
+ * and labour cost per square foot in cents and the tax rate in basis
+ * points, so a quote is a couple of lookups and some long sums, priced the same
+ * way as FixedPointPricing. A cost or tax rate that doesn't fit in those units
+ * marks its cells as unpriced, and those cells are quoted with BigDecimal. The
+ * whole table is swapped in one go when it is rebuilt, so a quote never sees
+ * half of an old catalog.
+ * @author lydiaadejumo
+ */
+public class PriceMatrix {
+
+    private static final int MATERIAL = 0;
+    private static final int LABOR = 1;
+    private static final int TAX = 2;
+    private static final int CELL_SIZE = 3;
+    private static final long UNPRICED = Long.MIN_VALUE;
+
+    private final FlooringOrderDao dao;
+    private volatile Table table;
+
+    /**
+     * The price matrix constructor, which builds the table from the catalog.
+     * @param dao - the order DAO holding the taxes and products
+     */
+    public PriceMatrix(FlooringOrderDao dao) {
+        this.dao = dao;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the table from the DAO's current taxes and products. The DAOs
+     * only load the catalog when they are created, so whatever reloads it
+     * should call this afterwards. Quotes carry on using the old table until
+     * the new one is complete.
+     */
+    public void rebuild() {
+        table = new Table(dao.getTaxes(), dao.getProducts());
+    }
+
+    /**
+     * Quotes the costs of an area of a product in a state.
+     * @param state - the state abbreviation
+     * @param productType - the product type
+     * @param area - the area in square feet
+     * @return the quoted costs
+     * @throws IllegalArgumentException if the state or product isn't in the catalog
+     * @throws ArithmeticException if the costs are too big to hold in cents
+     */
+    public Quote quote(String state, String productType, BigDecimal area) {
+        Table current = table;
+        Integer stateId = current.stateIds.get(state);
+        Integer productId = current.productIds.get(productType);
+        if (stateId == null || productId == null) {
+            throw new IllegalArgumentException("No price for " + productType + " in " + state);
+        }
+        int cell = (stateId * current.products.length + productId) * CELL_SIZE;
+        if (current.cells[cell + MATERIAL] == UNPRICED || current.cells[cell + LABOR] == UNPRICED
+                || current.cells[cell + TAX] == UNPRICED) {
+            return quoteExactly(current, stateId, productId, area);
+        }
+        try {
+            long areaUnits = area.movePointRight(4).longValueExact();
+            long materialCost = FixedPointPricing.roundHalfUp(
+                    Math.multiplyExact(areaUnits, current.cells[cell + MATERIAL]), FixedPointPricing.COST_TO_CENTS);
+            long laborCost = FixedPointPricing.roundHalfUp(
+                    Math.multiplyExact(areaUnits, current.cells[cell + LABOR]), FixedPointPricing.COST_TO_CENTS);
+            long tax = FixedPointPricing.roundHalfUp(Math.multiplyExact(Math.addExact(materialCost, laborCost),
+                    current.cells[cell + TAX]), FixedPointPricing.BASIS_POINTS);
+            return new Quote(materialCost, laborCost, tax);
+        } catch (ArithmeticException e) {
+            return quoteExactly(current, stateId, productId, area);
+        }
+    }
+
+    private static Quote quoteExactly(Table current, int stateId, int productId, BigDecimal area) {
+        Order order = FixedPointPricing.calculateCostsExactly(
+                new Order(null, null, null, current.taxes[stateId], current.products[productId], area));
+        return new Quote(centsOf(order.getMaterialCost()), centsOf(order.getLaborCost()), centsOf(order.getTax()));
+    }
+
+    private static long centsOf(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * The compiled catalog. It isn't changed once built.
+     */
+    private static final class Table {
+        private final Map<String, Integer> stateIds = new HashMap<>();
+        private final Map<String, Integer> productIds = new HashMap<>();
+        private final Taxes[] taxes;
+        private final Product[] products;
+        private final long[] cells;
+
+        private Table(List<Taxes> taxList, List<Product> productList) {
+            taxes = taxList.toArray(new Taxes[0]);
+            products = productList.toArray(new Product[0]);
+            cells = new long[taxes.length * products.length * CELL_SIZE];
+            for (int productId = 0; productId < products.length; productId++) {
+                productIds.put(products[productId].getProductType(), productId);
+            }
+            for (int stateId = 0; stateId < taxes.length; stateId++) {
+                Taxes taxInfo = taxes[stateId];
+                stateIds.put(taxInfo.getState(), stateId);
+                long basisPoints = unitsOrUnpriced(taxInfo::getTaxRateBasisPoints);
+                for (int productId = 0; productId < products.length; productId++) {
+                    Product product = products[productId];
+                    int cell = (stateId * products.length + productId) * CELL_SIZE;
+                    cells[cell + MATERIAL] = unitsOrUnpriced(product::getCostPerSquareFootCents);
+                    cells[cell + LABOR] = unitsOrUnpriced(product::getLaborCostPerSquareFootCents);
+                    cells[cell + TAX] = basisPoints;
+                }
+            }
+        }
+
+        private static long unitsOrUnpriced(LongSupplier units) {
+            try {
+                return units.getAsLong();
+            } catch (ArithmeticException e) {
+                return UNPRICED;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package alydiaade.flooringmastery;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * This runs the rounds of the *Benchmark classes, which are left out of the
+ * tests and only run with the benchmarks profile: mvn test -Pbenchmarks
+ *
+ * A round is run a number of times to warm up, so the JIT has compiled it,
+ * then a number of times to be measured, and the fastest measured round is
+ * kept, since it is the one least disturbed by GC and the rest of the machine.
+ * A round can leave its setup out of the time by starting and stopping the
+ * stopwatch it is given.
+ * @author lydiaadejumo
+ */
+public final class BenchmarkRunner {
+
+    private static volatile long consumed;
+
+    private final int warmUpRounds;
+    private final int measuredRounds;
+
+    /**
+     * The benchmark runner constructor.
+     * @param warmUpRounds - the rounds run before measuring
+     * @param measuredRounds - the rounds measured
+     */
+    public BenchmarkRunner(int warmUpRounds, int measuredRounds) {
+        this.warmUpRounds = warmUpRounds;
+        this.measuredRounds = measuredRounds;
+    }
+
+    /**
+     * One round of the work being measured.
+     */
+    @FunctionalInterface
+    public interface Round {
+        /**
+         * Runs the work once. Only the time between the stopwatch's start and
+         * stop is counted, or the whole round if they aren't called.
+         * @param stopwatch - times the part of the round being measured
+         * @return any value worked out from the results, so the JIT can't
+         * leave the work out
+         * @throws Exception - if the work fails
+         */
+        long run(Stopwatch stopwatch) throws Exception;
+    }
+
+    /**
+     * Times one round, along with the bytes the measuring thread allocated.
+     */
+    public static final class Stopwatch {
+        private long startNanos;
+        private long startBytes;
+        private long elapsedNanos;
+        private long allocatedBytes;
+        private boolean stopped;
+
+        private Stopwatch() {
+        }
+
+        /**
+         * Starts timing, leaving out anything the round did before.
+         */
+        public void start() {
+            stopped = false;
+            startBytes = allocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Stops timing, leaving out anything the round does after.
+         */
+        public void stop() {
+            elapsedNanos = System.nanoTime() - startNanos;
+            allocatedBytes = allocatedBytes() - startBytes;
+            stopped = true;
+        }
+    }
+
+    /**
+     * The fastest of the measured rounds.
+     */
+    public static final class Result {
+        private final long bestNanos;
+        private final long allocatedBytes;
+        private final int bestRound;
+
+        private Result(long bestNanos, long allocatedBytes, int bestRound) {
+            this.bestNanos = bestNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.bestRound = bestRound;
+        }
+
+        /**
+         * Gets the time of the fastest round
+         * @return the time in nanoseconds
+         */
+        public long getBestNanos() {
+            return bestNanos;
+        }
+
+        /**
+         * Gets the time of the fastest round
+         * @return the time in milliseconds
+         */
+        public long getBestMillis() {
+            return bestNanos / 1_000_000;
+        }
+
+        /**
+         * Gets how many of something the fastest round got through in a second
+         * @param units - how many the round handles, e.g. rows or orders
+         * @return the units per second
+         */
+        public double perSecond(long units) {
+            return units * 1e9 / bestNanos;
+        }
+
+        /**
+         * Gets the time the fastest round took for each of something
+         * @param units - how many the round handles, e.g. rows or orders
+         * @return the nanoseconds per unit
+         */
+        public double nanosEach(long units) {
+            return (double) bestNanos / units;
+        }
+
+        /**
+         * Gets the bytes the measuring thread allocated in the fastest round.
+         * Other threads' allocations aren't counted.
+         * @return the allocated bytes
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Gets which measured round was the fastest, for rounds that keep
+         * figures of their own
+         * @return the round, starting at 0
+         */
+        public int getBestRound() {
+            return bestRound;
+        }
+    }
+
+    /**
+     * Warms up and then measures a round.
+     * @param round - the work to measure
+     * @return the fastest measured round
+     * @throws Exception - if a round fails
+     */
+    public Result measure(Round round) throws Exception {
+        for (int warmUp = 0; warmUp < warmUpRounds; warmUp++) {
+            runOnce(round);
+        }
+        Stopwatch best = null;
+        int bestRound = -1;
+        for (int measured = 0; measured < measuredRounds; measured++) {
+            Stopwatch stopwatch = runOnce(round);
+            if (best == null || stopwatch.elapsedNanos < best.elapsedNanos) {
+                best = stopwatch;
+                bestRound = measured;
+            }
+        }
+        return new Result(best.elapsedNanos, best.allocatedBytes, bestRound);
+    }
+
+    /**
+     * Prints one line of a benchmark's figures.
+     * @param format - the line's format, without the line break
+     * @param args - the figures
+     */
+    public static void report(String format, Object... args) {
+        System.out.println(String.format(format, args));
+    }
+
+    private static Stopwatch runOnce(Round round) throws Exception {
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.start();
+        consumed += round.run(stopwatch);
+        if (!stopwatch.stopped) {
+            stopwatch.stop();
+        }
+        return stopwatch;
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,150 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the asynchronous audit writer, with a small buffer so it fills up
+ * and each overflow policy is used.
+ * @author lydiaadejumo
+ */
+public class AsyncAuditWriterTest {
+
+    private Path testFolder;
+    private File auditFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("audit-test");
+        auditFile = testFolder.resolve("Audit_Log.txt").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (File eachFile : testFolder.toFile().listFiles()) {
+            eachFile.delete();
+        }
+        Files.deleteIfExists(testFolder);
+    }
+
+    /**
+     * Testing that with the BLOCK policy every entry from every thread is
+     * written, and each thread's entries stay in order.
+     */
+    @Test
+    public void testBlockKeepsEveryEntryInOrder() throws Exception {
+        //ARRANGE
+        AsyncAuditWriter testWriter = new AsyncAuditWriter(auditFile, 8, AsyncAuditWriter.OverflowPolicy.BLOCK, 0);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+
+        //ACT
+        for (int caller = 0; caller < 4; caller++) {
+            int callerNum = caller;
+            results.add(callers.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    assertTrue(testWriter.offer(callerNum + "," + i), "No entry should be dropped");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+        testWriter.close();
+        List<String> entries = Files.readAllLines(auditFile.toPath());
+
+        //ASSESS
+        assertEquals(2000, entries.size(), "Every entry should be written");
+        assertInOrder(entries);
+    }
+
+    /**
+     * Testing that with the DROP policy every entry is either written or
+     * counted as dropped.
+     */
+    @Test
+    public void testDropCountsDroppedEntries() throws Exception {
+        //ARRANGE
+        AsyncAuditWriter testWriter = new AsyncAuditWriter(auditFile, 2, AsyncAuditWriter.OverflowPolicy.DROP, 0);
+
+        //ACT
+        for (int i = 0; i < 5000; i++) {
+            testWriter.offer("0," + i);
+        }
+        testWriter.close();
+        List<String> entries = Files.readAllLines(auditFile.toPath());
+
+        //ASSESS
+        assertEquals(5000, entries.size() + testWriter.getDroppedEntries(), "Each entry should be written or dropped");
+        assertInOrder(entries);
+    }
+
+    /**
+     * Testing that with the SPILL policy every entry ends up in the audit log
+     * in the order it was made, and the spill file is removed.
+     */
+    @Test
+    public void testSpillKeepsEveryEntryInOrder() throws Exception {
+        //ARRANGE
+        AsyncAuditWriter testWriter = new AsyncAuditWriter(auditFile, 2, AsyncAuditWriter.OverflowPolicy.SPILL, 0);
+
+        //ACT
+        for (int i = 0; i < 5000; i++) {
+            testWriter.offer("0," + i);
+        }
+        testWriter.flush();
+        List<String> flushedEntries = Files.readAllLines(auditFile.toPath());
+        testWriter.close();
+
+        //ASSESS
+        assertEquals(5000, flushedEntries.size(), "Every entry should be written once flushed");
+        assertInOrder(flushedEntries);
+        assertFalse(new File(auditFile.getPath() + ".spill").exists(), "The spill file should be copied in");
+        assertThrows(OrderPersistenceException.class, () -> testWriter.offer("0,5000"), "The writer has been closed");
+    }
+
+    /**
+     * Testing that the audit DAO's asynchronous mode reads back the last order
+     * total it was given.
+     */
+    @Test
+    public void testAsyncAuditDao() throws Exception {
+        //ARRANGE
+        FlooringAuditDaoImpl testDao = new FlooringAuditDaoImpl(auditFile.getPath(), 16,
+                AsyncAuditWriter.OverflowPolicy.BLOCK, AsyncAuditWriter.DEFAULT_FLUSH_MILLIS);
+
+        //ACT
+        for (int orderNum = 1; orderNum <= 50; orderNum++) {
+            testDao.logsNumberOfOrders(orderNum);
+        }
+
+        //ASSESS
+        assertEquals(50, testDao.readsCurrentOrderNumber(), "The last total should be read back");
+        testDao.close();
+    }
+
+    private void assertInOrder(List<String> entries) {
+        Map<String, Integer> lastByCaller = new HashMap<>();
+        for (String entry : entries) {
+            String[] entryDetails = entry.split(",");
+            int entryNum = Integer.parseInt(entryDetails[1]);
+            Integer last = lastByCaller.put(entryDetails[0], entryNum);
+            assertTrue(last == null || last < entryNum, "Each caller's entries should be in order");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for looking up the audit history of an order or a date range through
+ * the audit history index.
+ * @author lydiaadejumo
+ */
+public class AuditHistoryIndexTest {
+
+    private Path testFolder;
+    private File auditFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("audit-history-test");
+        auditFile = testFolder.resolve("Audit_Log.txt").toFile();
+        try (PrintWriter out = new PrintWriter(new FileWriter(auditFile))) {
+            out.println("CURRENT TOTAL ORDERS:::3");
+            out.println("2020-06-25 --> ORDER NUMBER: 4, order updated.");
+            out.println("2020-06-25 --> ORDER NUMBER: 5, order updated.");
+            out.println("2020-06-26 --> ORDER NUMBERS: 6 TO 9, 4 new orders recorded today.");
+            out.println("2020-06-27 --> ORDER NUMBER: 4, order cancelled.");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> contents = Files.walk(testFolder)) {
+            contents.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Testing that the history of an order is found in order, including batch
+     * entries, and entries written after the index was built.
+     */
+    @Test
+    public void testReadsOrderHistory() throws Exception {
+        //ARRANGE
+        FlooringAuditDaoImpl testAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+
+        //ACT
+        List<String> orderFour = testAuditDao.readsOrderHistory(4);
+        List<String> orderSeven = testAuditDao.readsOrderHistory(7);
+        Order editedOrder = orderNumbered(7);
+        testAuditDao.writeOrderEntryLog(editedOrder);
+        List<String> orderSevenAfter = testAuditDao.readsOrderHistory(7);
+
+        //ASSESS
+        assertEquals(2, orderFour.size());
+        assertEquals("2020-06-25 --> ORDER NUMBER: 4, order updated.", orderFour.get(0));
+        assertEquals("2020-06-27 --> ORDER NUMBER: 4, order cancelled.", orderFour.get(1));
+        assertEquals(1, orderSeven.size());
+        assertEquals(2, orderSevenAfter.size());
+        assertTrue(orderSevenAfter.get(1).endsWith("ORDER NUMBER: 7, order update."));
+        assertTrue(testAuditDao.readsOrderHistory(42).isEmpty());
+    }
+
+    /**
+     * Testing that entries are found by date range, and that a saved index is
+     * loaded and brought up to date by a new DAO.
+     */
+    @Test
+    public void testReadsHistoryBetween() throws Exception {
+        //ARRANGE
+        FlooringAuditDaoImpl testAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+        testAuditDao.readsOrderHistory(4);
+        try (PrintWriter out = new PrintWriter(new FileWriter(auditFile, true))) {
+            out.println("2020-06-28 --> ORDER NUMBER: 10, new order recorded today.");
+        }
+
+        //ACT
+        FlooringAuditDaoImpl reopenedAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+        List<String> middleDays = reopenedAuditDao.readsHistoryBetween(LocalDate.of(2020, 6, 26),
+                LocalDate.of(2020, 6, 28));
+        List<String> noDays = reopenedAuditDao.readsHistoryBetween(LocalDate.of(2020, 6, 28),
+                LocalDate.of(2020, 6, 26));
+
+        //ASSESS
+        assertTrue(testFolder.resolve("Index/Audit_Log_Index.txt").toFile().exists());
+        assertEquals(3, middleDays.size());
+        assertTrue(middleDays.get(0).contains("ORDER NUMBERS: 6 TO 9"));
+        assertTrue(middleDays.get(2).contains("ORDER NUMBER: 10"));
+        assertTrue(noDays.isEmpty());
+    }
+
+    /**
+     * Testing that entries moved into a segment by a rotation are still found.
+     */
+    @Test
+    public void testHistoryAcrossRotation() throws Exception {
+        //ARRANGE
+        FlooringAuditDaoImpl testAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+        testAuditDao.readsOrderHistory(4);
+        testAuditDao.setRotation(new AuditLogRotation(auditFile.getPath(), 100, false));
+        List<Order> newOrders = new ArrayList<>();
+        newOrders.add(orderNumbered(10));
+        newOrders.add(orderNumbered(11));
+
+        //ACT
+        testAuditDao.writeNewOrdersEntryLog(newOrders);
+        Order cancelledOrder = orderNumbered(4);
+        cancelledOrder.setActiveOrder(false);
+        testAuditDao.writeOrderEntryLog(cancelledOrder);
+        List<String> orderFour = testAuditDao.readsOrderHistory(4);
+
+        //ASSESS
+        assertFalse(AuditLogRotation.listSegments(auditFile).isEmpty());
+        assertEquals(3, orderFour.size());
+        assertEquals("2020-06-25 --> ORDER NUMBER: 4, order updated.", orderFour.get(0));
+        assertTrue(orderFour.get(2).endsWith("ORDER NUMBER: 4, order cancelled."));
+        assertEquals(1, testAuditDao.readsOrderHistory(11).size());
+    }
+
+    private static Order orderNumbered(int orderNum) {
+        Order order = new Order(LocalDate.now(), LocalDate.now(), "Ada Lovelace", null, null, null);
+        order.setOrderNumber(orderNum);
+        return order;
+    }
+}
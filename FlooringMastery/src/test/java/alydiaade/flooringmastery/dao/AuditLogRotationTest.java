@@ -0,0 +1,156 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for rotating the audit log into segments and finding the current
+ * order count from the end of the log.
+ * @author lydiaadejumo
+ */
+public class AuditLogRotationTest {
+
+    private Path testFolder;
+    private File auditFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("audit-rotation-test");
+        auditFile = testFolder.resolve("Audit_Log.txt").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (File eachFile : testFolder.toFile().listFiles()) {
+            eachFile.delete();
+        }
+        Files.deleteIfExists(testFolder);
+    }
+
+    /**
+     * Testing that the last total is found when it is several chunks back from
+     * the end of the log.
+     */
+    @Test
+    public void testFindLastLineAcrossChunks() throws IOException {
+        //ARRANGE
+        try (PrintWriter out = new PrintWriter(new FileWriter(auditFile))) {
+            out.println("CURRENT TOTAL ORDERS:::3");
+            out.println("CURRENT TOTAL ORDERS:::12");
+            for (int i = 0; i < 2000; i++) {
+                out.println("ORDER EDITED:::" + i + ":::Ada Lovelace:::CA:::Tile");
+            }
+        }
+
+        //ACT
+        String lastTotal = AuditLogRotation.findLastLine(auditFile, AuditLogRotation.TOTAL_MARKER);
+        String missing = AuditLogRotation.findLastLine(auditFile, "NOT LOGGED");
+
+        //ASSESS
+        assertEquals("CURRENT TOTAL ORDERS:::12", lastTotal);
+        assertNull(missing);
+    }
+
+    /**
+     * Testing that the audit DAO rotates the log once it is full, and the
+     * current order number is still read after the rotation.
+     */
+    @Test
+    public void testSizeRotationKeepsOrderNumber() throws Exception {
+        //ARRANGE
+        FlooringAuditDaoImpl testAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+        testAuditDao.setRotation(new AuditLogRotation(auditFile.getPath(), 200, false));
+
+        //ACT
+        for (int i = 1; i <= 40; i++) {
+            testAuditDao.logsNumberOfOrders(i);
+        }
+        List<File> segments = AuditLogRotation.listSegments(auditFile);
+
+        //ASSESS
+        assertTrue(segments.size() > 1, "The log should have been rotated");
+        assertEquals("Audit_Log_000001.txt", segments.get(0).getName());
+        assertTrue(auditFile.length() <= 200 + 32, "The active log should stay near its limit");
+        assertEquals(40, testAuditDao.readsCurrentOrderNumber());
+        assertEquals(40, new FlooringAuditDaoImpl(auditFile.getPath()).readsCurrentOrderNumber());
+    }
+
+    /**
+     * Testing that a log last written to yesterday is rotated on the first
+     * entry of today, and the new log starts with the last total.
+     */
+    @Test
+    public void testDailyRotation() throws Exception {
+        //ARRANGE
+        try (PrintWriter out = new PrintWriter(new FileWriter(auditFile))) {
+            out.println("CURRENT TOTAL ORDERS:::7");
+        }
+        auditFile.setLastModified(System.currentTimeMillis() - 25 * 60 * 60 * 1000L);
+        AuditLogRotation testRotation = new AuditLogRotation(auditFile.getPath(), 0, true);
+        FlooringAuditDaoImpl testAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+        testAuditDao.setRotation(testRotation);
+
+        //ACT
+        boolean dueBefore = testRotation.isDue();
+        testAuditDao.logsNumberOfOrders(8);
+
+        //ASSESS
+        assertTrue(dueBefore);
+        assertFalse(testRotation.isDue());
+        assertEquals(1, AuditLogRotation.listSegments(auditFile).size());
+        List<String> activeLines = Files.readAllLines(auditFile.toPath());
+        assertEquals("CURRENT TOTAL ORDERS:::7", activeLines.get(0));
+        assertEquals("CURRENT TOTAL ORDERS:::8", activeLines.get(1));
+        assertEquals(8, testAuditDao.readsCurrentOrderNumber());
+    }
+
+    /**
+     * Testing that a rotation from the plain writer waits for a reader holding
+     * the rotation's read lock, the same as one from the durable writer.
+     */
+    @Test
+    public void testRotationWaitsForReaders() throws Exception {
+        //ARRANGE
+        FlooringAuditDaoImpl testAuditDao = new FlooringAuditDaoImpl(auditFile.getPath());
+        for (int i = 1; i <= 5; i++) {
+            testAuditDao.logsNumberOfOrders(i);
+        }
+        //The log is already full, so the next entry rotates it
+        AuditLogRotation rotation = new AuditLogRotation(auditFile.getPath(), auditFile.length(), false);
+        testAuditDao.setRotation(rotation);
+
+        //ACT
+        CompletableFuture<Void> writing;
+        rotation.getLock().readLock().lock();
+        try {
+            writing = CompletableFuture.runAsync(() -> {
+                try {
+                    testAuditDao.logsNumberOfOrders(6);
+                } catch (OrderPersistenceException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> writing.get(200, TimeUnit.MILLISECONDS),
+                    "The rotation should wait for the reader");
+        } finally {
+            rotation.getLock().readLock().unlock();
+        }
+        writing.get(5, TimeUnit.SECONDS);
+
+        //ASSESS
+        assertFalse(AuditLogRotation.listSegments(auditFile).isEmpty(), "The log should have been rotated");
+        assertEquals(6, testAuditDao.readsCurrentOrderNumber());
+    }
+}
@@ -0,0 +1,93 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares adding 10,000 and 100,000 orders over 25 order dates one at a time
+ * with addOrder, against adding them as one batch with addOrders. Every round
+ * starts from an empty order folder, and only the adding is timed.
+ * @author lydiaadejumo
+ */
+public class BulkAddOrdersBenchmark {
+
+    private static final int[] BATCH_SIZES = {10_000, 100_000};
+    private static final int ORDER_DATES = 25;
+    private static final BenchmarkRunner RUNNER = new BenchmarkRunner(1, 3);
+
+    /**
+     * Measuring both ways of adding the orders, at each batch size.
+     */
+    @Test
+    public void measureBulkAdd() throws Exception {
+        for (int batchSize : BATCH_SIZES) {
+            //ACT
+            BenchmarkRunner.Result oneByOne = RUNNER.measure((stopwatch) -> addOrders(batchSize, stopwatch, false));
+            BenchmarkRunner.Result batch = RUNNER.measure((stopwatch) -> addOrders(batchSize, stopwatch, true));
+
+            //ASSESS
+            BenchmarkRunner.report("Adding %,d orders, addOrder: %,d ms (%,.0f orders/sec)", batchSize,
+                    oneByOne.getBestMillis(), oneByOne.perSecond(batchSize));
+            BenchmarkRunner.report("Adding %,d orders, addOrders: %,d ms (%,.0f orders/sec)", batchSize,
+                    batch.getBestMillis(), batch.perSecond(batchSize));
+        }
+    }
+
+    private long addOrders(int batchSize, BenchmarkRunner.Stopwatch stopwatch, boolean asBatch) throws Exception {
+        Path testFolder = createTestFolder();
+        try {
+            FlooringOrderDaoImpl testDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+            List<Order> newOrders = createOrders(testDao, batchSize);
+            stopwatch.start();
+            if (asBatch) {
+                testDao.addOrders(newOrders);
+            } else {
+                for (Order newOrder : newOrders) {
+                    testDao.addOrder(newOrder);
+                }
+            }
+            stopwatch.stop();
+            int firstDateOrders = testDao.getAllOrders(newOrders.get(0).getOrderDate()).size();
+            assertEquals(batchSize / ORDER_DATES, firstDateOrders);
+            return firstDateOrders;
+        } finally {
+            deleteFolder(testFolder);
+        }
+    }
+
+    private List<Order> createOrders(FlooringOrderDaoImpl testDao, int batchSize) {
+        List<Order> newOrders = new ArrayList<>(batchSize);
+        for (int orderNum = 1; orderNum <= batchSize; orderNum++) {
+            newOrders.add(testDao.unmarshallingOrder(orderNum + ",06-01-2020,"
+                    + String.format("11-%02d-2020", (orderNum - 1) % ORDER_DATES + 1) + ",Customer " + orderNum
+                    + ",WA,9.25,Wood,243.00,5.15,4.75,1251.45,1154.25,216.51,2622.21,true"));
+        }
+        return newOrders;
+    }
+
+    private Path createTestFolder() throws IOException {
+        Path testFolder = Files.createTempDirectory("bulk-add-benchmark");
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.createDirectories(testFolder.resolve("Backup"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        return testFolder;
+    }
+
+    private void deleteFolder(Path testFolder) throws IOException {
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -2,6 +2,9 @@ package alydiaade.flooringmastery.dao;
 
 import alydiaade.flooringmastery.model.Order;
 import java.io.FileNotFoundException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *
@@ -19,6 +22,11 @@ public class FlooringAuditDaoStub implements FlooringAuditDao {
         //Does nothing
     }
 
+    @Override
+    public void writeNewOrdersEntryLog(List<Order> newOrders) throws OrderPersistenceException {
+        //Does nothing
+    }
+
     @Override
     public int readsCurrentOrderNumber() throws FileNotFoundException {
         return 5;
@@ -28,5 +36,15 @@ public class FlooringAuditDaoStub implements FlooringAuditDao {
     public void logsNumberOfOrders(int NumOfOrders) throws OrderPersistenceException {
         //Does nothing
     }
+
+    @Override
+    public List<String> readsOrderHistory(int orderNum) throws OrderPersistenceException {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<String> readsHistoryBetween(LocalDate fromDate, LocalDate toDate) throws OrderPersistenceException {
+        return new ArrayList<>();
+    }
     
 }
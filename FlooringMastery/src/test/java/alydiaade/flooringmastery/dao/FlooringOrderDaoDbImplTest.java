@@ -0,0 +1,227 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order database DAO, which run against a new database in a
+ * temporary folder holding the same two orders as the order file tests.
+ * @author lydiaadejumo
+ */
+public class FlooringOrderDaoDbImplTest {
+
+    private static final String FIRST_ORDER = "1,06-01-2020,11-04-2020,Ada Lovelace,CA,25.00,Tile,"
+            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true";
+    private static final String SECOND_ORDER = "2,06-25-2020,11-04-2020,Doctor Who,WA,9.25,Wood,243.00,"
+            + "5.15,4.75,1251.45,1154.25,216.51,2622.21,true";
+
+    private final LocalDate orderDate = LocalDate.of(2020, 11, 4);
+    private Path testFolder;
+    private String fileLocation;
+    private FlooringOrderDaoImpl fileDao;
+    private FlooringOrderDaoDbImpl testDao;
+
+    @BeforeEach
+    public void setUp() throws IOException, OrderPersistenceException {
+        testFolder = Files.createTempDirectory("order-db-test");
+        fileLocation = testFolder.toString() + File.separator;
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.createDirectories(testFolder.resolve("Backup"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        fileDao = new FlooringOrderDaoImpl(fileLocation);
+        testDao = new FlooringOrderDaoDbImpl(fileLocation);
+        List<Order> testOrders = new ArrayList<>();
+        testOrders.add(fileDao.unmarshallingOrder(FIRST_ORDER));
+        testOrders.add(fileDao.unmarshallingOrder(SECOND_ORDER));
+        testDao.addOrders(testOrders);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException, OrderPersistenceException {
+        testDao.close();
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Testing that the orders on a date are read back exactly as they were
+     * written.
+     */
+    @Test
+    public void testGetAllOrders() throws NoSuchOrderFileException {
+        //ACT
+        List<Order> allOrders = testDao.getAllOrders(orderDate);
+
+        //ASSESS
+        assertEquals(2, allOrders.size(), "There should be 2 orders on this date");
+        assertEquals(FIRST_ORDER, fileDao.marshallingOrder(allOrders.get(0)), "Order 1 should be unchanged");
+        assertEquals(SECOND_ORDER, fileDao.marshallingOrder(allOrders.get(1)), "Order 2 should be unchanged");
+    }
+
+    /**
+     * Testing that a date range returns the orders in it, and nothing for a
+     * range without orders.
+     */
+    @Test
+    public void testGetOrdersRange() {
+        //ACT
+        List<Order> rangeOrders = testDao.getOrders(LocalDate.of(2020, 11, 1), LocalDate.of(2020, 11, 30))
+                .collect(Collectors.toList());
+        List<Order> noOrders = testDao.getOrders(LocalDate.of(2020, 11, 5), LocalDate.of(2020, 11, 30))
+                .collect(Collectors.toList());
+
+        //ASSESS
+        assertEquals(2, rangeOrders.size(), "There should be 2 orders in November");
+        assertEquals(1, rangeOrders.get(0).getOrderNumber(), "Order 1 should come first");
+        assertTrue(noOrders.isEmpty(), "There are no orders after the 4th");
+    }
+
+    /**
+     * Testing that a date without any orders is reported the same way as a
+     * missing order file.
+     */
+    @Test
+    public void testGetAllOrdersNoOrders() {
+        //ASSESS
+        assertThrows(NoSuchOrderFileException.class, () -> testDao.getAllOrders(LocalDate.of(2020, 11, 5)),
+                "There are no orders on this date");
+    }
+
+    /**
+     * Testing that an order can be found by its date and order number, and by
+     * its order number alone.
+     */
+    @Test
+    public void testGetOrder() throws NoSuchOrderFileException, NoSuchOrderException {
+        //ACT
+        Order byDate = testDao.getOrder(orderDate, 2);
+        Order byNumber = testDao.getOrder(2);
+
+        //ASSESS
+        assertEquals("Doctor Who", byDate.getCustomerName(), "Order 2 should be Doctor Who's");
+        assertEquals("Doctor Who", byNumber.getCustomerName(), "Order 2 should be Doctor Who's");
+        assertThrows(NoSuchOrderException.class, () -> testDao.getOrder(orderDate, 3),
+                "There is no order 3 on this date");
+        assertThrows(NoSuchOrderFileException.class, () -> testDao.getOrder(LocalDate.of(2020, 11, 5), 2),
+                "There are no orders on this date");
+        assertThrows(NoSuchOrderException.class, () -> testDao.getOrder(3), "There is no order 3");
+    }
+
+    /**
+     * Testing that a single new order is added, and that an order number can't
+     * be added twice.
+     */
+    @Test
+    public void testAddOrder() throws OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ARRANGE
+        Order newOrder = fileDao.unmarshallingOrder("3,06-20-2020,11-04-2020,Josh Hosepipe,TX,4.45,Laminate,"
+                + "200,1.75,2.10,350.00,420.00,30.80,800.80,true");
+
+        //ACT
+        testDao.addOrder(newOrder);
+        Order retrievedOrder = testDao.getOrder(orderDate, 3);
+
+        //ASSESS
+        assertEquals(new BigDecimal("200"), retrievedOrder.getArea(), "The area should keep its scale");
+        assertEquals(3, testDao.getAllOrders(orderDate).size(), "There should be 3 orders on this date");
+        assertThrows(OrderPersistenceException.class, () -> testDao.addOrder(newOrder),
+                "Order 3 has already been added");
+    }
+
+    /**
+     * Testing that an edited order replaces the old one and leaves the other
+     * order on the date alone.
+     */
+    @Test
+    public void testEditOrder() throws OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ARRANGE
+        Order currentOrder = testDao.getOrder(orderDate, 1);
+        currentOrder.setCustomerName("Beyonce Knowles");
+
+        //ACT
+        testDao.editOrder(currentOrder);
+
+        //ASSESS
+        assertEquals("Beyonce Knowles", testDao.getOrder(orderDate, 1).getCustomerName(),
+                "The name should have changed");
+        assertEquals("Doctor Who", testDao.getOrder(orderDate, 2).getCustomerName(),
+                "Order 2 should be unchanged");
+    }
+
+    /**
+     * Testing that a removed order is left out of the export, and that the
+     * backup file is in the same format as the order file DAO writes.
+     */
+    @Test
+    public void testRemoveOrderAndExport() throws OrderPersistenceException, NoSuchOrderFileException,
+            NoSuchOrderException, IOException {
+        //ARRANGE
+        Order currentOrder = testDao.getOrder(orderDate, 1);
+        currentOrder.setActiveOrder(false);
+
+        //ACT
+        testDao.editOrder(currentOrder);
+        List<Order> exportedOrders = testDao.exportOrders();
+        List<String> backupLines = Files.readAllLines(testFolder.resolve("Backup/DataExport.txt"));
+
+        //ASSESS
+        assertEquals(1, exportedOrders.size(), "Only order 2 should be exported");
+        assertEquals(2, backupLines.size(), "There should be a header and one backup line");
+        assertEquals("2,06-25-2020,Doctor Who,WA,9.25,Wood,243.00,5.15,4.75,1251.45,1154.25,216.51,2622.21,11-04-2020",
+                backupLines.get(1), "The backup line should be in the backup format");
+    }
+
+    /**
+     * Testing that the migration loads the order files, with a later file
+     * replacing an order number that is already in the database, and a file
+     * from the next year being later even though its name sorts first.
+     */
+    @Test
+    public void testMigration() throws IOException, OrderPersistenceException, NoSuchOrderFileException,
+            NoSuchOrderException {
+        //ARRANGE
+        try (PrintWriter out = new PrintWriter(new FileWriter(testFolder.resolve("Orders/Orders_12082020.txt").toFile()))) {
+            out.println("OrderNumber,OrderCreationDate,OrderDate,CustomerName,State,TaxRate,ProductType,Area,"
+                    + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive");
+            out.println("2,06-25-2020,12-08-2020,Doctor Who,WA,9.25,Wood,243.00,"
+                    + "5.15,4.75,1251.45,1154.25,216.51,2622.21,true");
+            out.println("4,06-25-2020,12-08-2020,Ursula James,WA,9.25,Carpet,400,"
+                    + "2.25,2.10,900.00,840.00,156.60,1896.60,true");
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(testFolder.resolve("Orders/Orders_01052021.txt").toFile()))) {
+            out.println("OrderNumber,OrderCreationDate,OrderDate,CustomerName,State,TaxRate,ProductType,Area,"
+                    + "CostPerSquareFoot,LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,Total,isActive");
+            out.println("2,06-25-2020,01-05-2021,Doctor Who,WA,9.25,Wood,243.00,"
+                    + "5.15,4.75,1251.45,1154.25,216.51,2622.21,true");
+        }
+
+        //ACT
+        int migratedOrders = new OrderFileMigration(fileLocation, testDao).migrate();
+
+        //ASSESS
+        assertEquals(3, migratedOrders, "Every order in both files should be loaded");
+        assertEquals(LocalDate.of(2021, 1, 5), testDao.getOrder(2).getOrderDate(),
+                "Order 2 should have moved to the newest file's date");
+        assertEquals(1, testDao.getAllOrders(orderDate).size(), "Only order 1 should be left on 11-04-2020");
+        assertEquals("Ursula James", testDao.getOrder(4).getCustomerName(), "Order 4 should be loaded");
+    }
+}
@@ -9,10 +9,25 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -81,7 +96,43 @@ public class FlooringOrderDaoImplTest {
     }
     
     /**
-     * Testing if the DAO can get all the orders in a test order file but 
+     * Testing if the DAO serves repeat reads from the cache and reloads the
+     * orders once the file has been changed outside of the DAO.
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if the
+     * order file cannot be found
+     * @throws java.io.IOException - if the order file cannot be changed
+     */
+    @Test
+    public void testGetAllOrdersCached() throws NoSuchOrderFileException, IOException {
+        //ARRANGE
+        LocalDate orderDate = LocalDate.parse("2020-11-04");
+        OrderFileCache orderCache = ((FlooringOrderDaoImpl) testDao).getOrderCache();
+
+        //ACT
+        List<Order> firstRead = testDao.getAllOrders(orderDate);
+        firstRead.get(0).setCustomerName("Changed By Caller");
+        List<Order> secondRead = testDao.getAllOrders(orderDate);
+
+        //ASSESS
+        assertEquals(1, orderCache.getMisses(), "The first read should miss the cache");
+        assertEquals(1, orderCache.getHits(), "The second read should hit the cache");
+        assertEquals("Ada Lovelace", secondRead.get(0).getCustomerName(),
+                "Changing a returned order should not change the cache");
+
+        //ACT - the file is changed without going through the DAO
+        PrintWriter out = new PrintWriter(new FileWriter("src/test/resources/Orders/Orders_11042020.txt", true));
+        out.println("3,06-01-2020,11-04-2020,Grace Hopper,TX,4.45,Carpet,"
+                + "100.00,2.25,2.10,225.00,210.00,17.40,452.40,true");
+        out.close();
+        List<Order> thirdRead = testDao.getAllOrders(orderDate);
+
+        //ASSESS
+        assertEquals(3, thirdRead.size(), "The changed file should be read again");
+        assertEquals(2, orderCache.getMisses(), "The changed file should miss the cache");
+    }
+
+    /**
+     * Testing if the DAO can get all the orders in a test order file but
      * should throw an error because the file does not exist
      */
     @Test
@@ -157,6 +208,41 @@ public class FlooringOrderDaoImplTest {
         }
     }
     
+    /**
+     * Testing if the DAO can get an order with only its order number, using
+     * the order number index.
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderException - if the order
+     * cannot be found
+     */
+    @Test
+    public void testGetOrderByNumber() throws NoSuchOrderException {
+        //ARRANGE
+        int orderNum = 2;
+
+        //ACT
+        Order currentOrder = testDao.getOrder(orderNum);
+
+        //ASSESS
+        assertEquals("Doctor Who", currentOrder.getCustomerName(), "The order "
+                + "should be for Doctor Who");
+        assertEquals(LocalDate.parse("2020-11-04"), currentOrder.getOrderDate(),
+                "The order date should be 2020-11-04");
+    }
+
+    /**
+     * Testing if the DAO throws an error when the order number doesn't exist
+     * in any order file.
+     */
+    @Test
+    public void testGetOrderByNumberNoOrderNumber() {
+        //ACT & ASSESS
+        try {
+            testDao.getOrder(999);
+            fail("There is no order 999 so it should throw the NoSuchOrderException");
+        } catch (NoSuchOrderException ex) {
+        }
+    }
+
     /**
      * Testing if the DAO can add a new order to a respective existing file;
      * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if there is an error finding the file.
@@ -327,6 +413,38 @@ public class FlooringOrderDaoImplTest {
         }
     }
     
+    /**
+     * Testing if editing an order leaves the other orders in the file as they
+     * were, and they can still be found by their order number.
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if there
+     * is an error whilst writing the order file
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if the
+     * order file cannot be found
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderException - if an order
+     * cannot be found in the file
+     */
+    @Test
+    public void testEditOrderKeepsOtherOrders() throws OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ARRANGE
+        LocalDate orderDate = LocalDate.parse("2020-11-04");
+        Order currentOrder = testDao.getOrder(orderDate, 1);
+        currentOrder.setCustomerName("Ada King");
+
+        //ACT
+        testDao.editOrder(currentOrder);
+        List<Order> allOrders = testDao.getAllOrders(orderDate);
+        Order otherOrder = testDao.getOrder(2);
+
+        //ASSESS
+        assertEquals(2, allOrders.size(), "There should still be 2 orders on this date");
+        assertEquals("Ada King", allOrders.get(0).getCustomerName(), "The edited "
+                + "order should stay in its place in the file");
+        assertEquals("Doctor Who", otherOrder.getCustomerName(), "The other order "
+                + "should be unchanged");
+        assertFalse(new File("src/test/resources/Orders/Orders_11042020.txt.tmp").exists(),
+                "The temporary file should have been moved into place");
+    }
+
     /**
      * Testing if the DAO can remove an order, so changing the file to inactive
      * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if there
@@ -400,4 +518,396 @@ public class FlooringOrderDaoImplTest {
         }
         
     }
+    
+    /**
+     * Testing that an export parsed on several threads gives the orders in
+     * order number order, with an order in a later file replacing or cancelling
+     * the same order number in an earlier file.
+     * @throws java.io.IOException - if the test folder cannot be set up
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the
+     * backup file cannot be written
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if an
+     * order file cannot be read
+     */
+    @Test
+    public void testExportOrderParallel() throws IOException, OrderPersistenceException, NoSuchOrderFileException {
+        //ARRANGE
+        Path testFolder = createExportFolder();
+        FlooringOrderDaoImpl parallelDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        ForkJoinPool exportPool = new ForkJoinPool(4);
+        parallelDao.setExportPool(exportPool);
+        
+        //ACT
+        List<Order> exportedOrders;
+        List<String> backupLines;
+        try {
+            exportedOrders = parallelDao.exportOrders();
+            backupLines = Files.readAllLines(testFolder.resolve("Backup/DataExport.txt"));
+        } finally {
+            exportPool.shutdown();
+            deleteFolder(testFolder);
+        }
+        
+        //ASSESS
+        assertEquals(99, exportedOrders.size(), "There should be 99 active orders");
+        for (int i = 0; i < exportedOrders.size() - 1; i++) {
+            assertTrue(exportedOrders.get(i).getOrderNumber() < exportedOrders.get(i + 1).getOrderNumber(),
+                    "The orders should be in order number order");
+        }
+        assertFalse(exportedOrders.stream().anyMatch((eachOrder) -> eachOrder.getOrderNumber() == 2),
+                "Order 2 was cancelled in the last file");
+        Order movedOrder = exportedOrders.get(0);
+        assertEquals("Moved Customer", movedOrder.getCustomerName(), "The last file's order 1 should win");
+        assertEquals(100, backupLines.size(), "There should be a header and 99 backup lines");
+        assertTrue(backupLines.get(1).startsWith("1,"), "The first backup line should be order 1");
+    }
+    
+    /**
+     * Testing that an order in files either side of a new year is exported
+     * from the January file, even though its name sorts before December's.
+     * @throws java.io.IOException - if the test folder cannot be set up
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the
+     * backup file cannot be written
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if an
+     * order file cannot be read
+     */
+    @Test
+    public void testExportOrderAcrossYears() throws IOException, OrderPersistenceException, NoSuchOrderFileException {
+        //ARRANGE
+        Path testFolder = createTestFolder();
+        writeOrderFile(testFolder, "12312020", "1,06-01-2020,12-31-2020,December Customer,CA,25.00,Tile,"
+                + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true");
+        writeOrderFile(testFolder, "01042021", "1,06-01-2020,01-04-2021,January Customer,CA,25.00,Tile,"
+                + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true");
+        FlooringOrderDaoImpl exportDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        
+        //ACT
+        List<Order> exportedOrders;
+        try {
+            exportedOrders = exportDao.exportOrders();
+        } finally {
+            deleteFolder(testFolder);
+        }
+        
+        //ASSESS
+        assertEquals(1, exportedOrders.size(), "Order 1 should only be exported once");
+        assertEquals("January Customer", exportedOrders.get(0).getCustomerName(), "The later file should win");
+        assertEquals(LocalDate.of(2021, 1, 4), exportedOrders.get(0).getOrderDate());
+    }
+    
+    /**
+     * Testing that an export which only reads the changed order files gives the
+     * same backup file as reading every order file again.
+     * @throws java.io.IOException - if the test folder cannot be set up
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the
+     * backup file cannot be written
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if an
+     * order file cannot be read
+     */
+    @Test
+    public void testExportOrderIncremental() throws IOException, OrderPersistenceException, NoSuchOrderFileException {
+        //ARRANGE
+        Path testFolder = createExportFolder();
+        FlooringOrderDaoImpl exportDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        
+        //ACT
+        List<Order> incrementalOrders;
+        List<String> incrementalLines;
+        List<Order> rebuiltOrders;
+        List<String> rebuiltLines;
+        try {
+            exportDao.exportOrders();
+            //The last file moved order 1 and cancelled order 2, so deleting it brings them back
+            Files.delete(testFolder.resolve("Orders/Orders_11202020.txt"));
+            try (PrintWriter out = new PrintWriter(new FileWriter(
+                    testFolder.resolve("Orders/Orders_11052020.txt").toFile(), true))) {
+                out.println("3,06-01-2020,11-05-2020,Customer 3,CA,25.00,Tile,"
+                        + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,false");
+            }
+            incrementalOrders = exportDao.exportOrders();
+            incrementalLines = Files.readAllLines(testFolder.resolve("Backup/DataExport.txt"));
+            rebuiltOrders = exportDao.exportOrders(true);
+            rebuiltLines = Files.readAllLines(testFolder.resolve("Backup/DataExport.txt"));
+        } finally {
+            deleteFolder(testFolder);
+        }
+        
+        //ASSESS
+        assertEquals(rebuiltLines, incrementalLines, "Both exports should write the same backup file");
+        assertEquals(94, incrementalOrders.size(), "There should be 94 active orders");
+        assertEquals(rebuiltOrders.size(), incrementalOrders.size(), "Both exports should return the same orders");
+        assertEquals("Customer 1", incrementalOrders.get(0).getCustomerName(), "Order 1 should be back in the first file");
+        assertEquals(2, incrementalOrders.get(1).getOrderNumber(), "Order 2 should be active again");
+        assertEquals(4, incrementalOrders.get(2).getOrderNumber(), "Order 3 should be cancelled");
+    }
+    
+    /**
+     * Testing that an export which can't read the last export reads every order
+     * file again, rather than trusting the manifest and losing the unchanged orders.
+     * @throws java.io.IOException - if the test folder cannot be set up
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the
+     * backup file cannot be written
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if an
+     * order file cannot be read
+     */
+    @Test
+    public void testExportOrderUnreadableBackup() throws IOException, OrderPersistenceException, NoSuchOrderFileException {
+        //ARRANGE
+        Path testFolder = createExportFolder();
+        FlooringOrderDaoImpl exportDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        
+        //ACT
+        List<Order> firstOrders;
+        List<Order> secondOrders;
+        List<String> backupLines;
+        try {
+            firstOrders = exportDao.exportOrders();
+            //The last export is cut short by a line that isn't a backup line
+            Path backupFile = testFolder.resolve("Backup/DataExport.txt");
+            Files.write(backupFile, List.of("OrderNumber", "not a backup line"));
+            secondOrders = exportDao.exportOrders();
+            backupLines = Files.readAllLines(backupFile);
+        } finally {
+            deleteFolder(testFolder);
+        }
+        
+        //ASSESS
+        assertEquals(99, firstOrders.size(), "There should be 99 active orders");
+        assertEquals(firstOrders.size(), secondOrders.size(), "No order should be lost with the last export");
+        assertEquals(100, backupLines.size(), "There should be a header and 99 backup lines");
+    }
+    
+    /**
+     * Testing that a batch of orders over two dates is written to both order
+     * files, and that every order can then be found by its order number.
+     * @throws java.io.IOException - if the test folder cannot be set up
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if an
+     * order file cannot be written
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderFileException - if an
+     * order file cannot be read
+     * @throws alydiaade.flooringmastery.dao.NoSuchOrderException - if an order
+     * cannot be found
+     */
+    @Test
+    public void testAddOrders() throws IOException, OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ARRANGE
+        Path testFolder = createTestFolder();
+        FlooringOrderDaoImpl batchDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        LocalDate firstDate = LocalDate.of(2020, 11, 4);
+        LocalDate secondDate = LocalDate.of(2020, 12, 8);
+        Taxes tax = batchDao.getTaxes().get(0);
+        Product product = batchDao.getProducts().get(0);
+        List<Order> newOrders = new ArrayList<>();
+        for (int orderNum = 1; orderNum <= 50; orderNum++) {
+            Order newOrder = new Order(LocalDate.of(2020, 6, 1), orderNum % 2 == 0 ? firstDate : secondDate,
+                    "Customer " + orderNum, tax, product, new BigDecimal("100.00"));
+            newOrder.setOrderNumber(orderNum);
+            newOrder.setMaterialCost(new BigDecimal("225.00"));
+            newOrder.setLaborCost(new BigDecimal("210.00"));
+            newOrder.setTax(new BigDecimal("19.36"));
+            newOrder.setTotal(new BigDecimal("454.36"));
+            newOrders.add(newOrder);
+        }
+        
+        //ACT
+        List<Order> firstDateOrders;
+        List<Order> secondDateOrders;
+        Order indexedOrder;
+        List<String> firstDateLines;
+        try {
+            batchDao.addOrders(newOrders);
+            firstDateOrders = batchDao.getAllOrders(firstDate);
+            secondDateOrders = new FlooringOrderDaoImpl(testFolder.toString() + File.separator)
+                    .getAllOrders(secondDate);
+            indexedOrder = batchDao.getOrder(secondDate, 49);
+            firstDateLines = Files.readAllLines(testFolder.resolve("Orders/Orders_11042020.txt"));
+        } finally {
+            deleteFolder(testFolder);
+        }
+        
+        //ASSESS
+        assertEquals(25, firstDateOrders.size(), "There should be 25 orders on the first date");
+        assertEquals(25, secondDateOrders.size(), "There should be 25 orders on the second date");
+        assertEquals("Customer 49", indexedOrder.getCustomerName(), "Order 49 should be found by its offset");
+        assertEquals(26, firstDateLines.size(), "The first date file should have one header and 25 orders");
+        assertTrue(firstDateLines.get(0).startsWith("OrderNumber,"), "The header should only be written once");
+    }
+    
+    /**
+     * Testing that adds, edits and reads from many threads at once, spread over
+     * a few dates, neither lose nor duplicate any order.
+     */
+    @Test
+    public void testConcurrentAddEditAndRead() throws Exception {
+        //ARRANGE
+        Path testFolder = createTestFolder();
+        String concurrentLocation = testFolder.toString() + File.separator;
+        FlooringOrderDaoImpl concurrentDao = new FlooringOrderDaoImpl(concurrentLocation);
+        int threads = 8;
+        int ordersPerThread = 30;
+        LocalDate[] orderDates = {LocalDate.of(2020, 11, 4), LocalDate.of(2020, 11, 5), LocalDate.of(2020, 11, 6)};
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        //ACT
+        for (int thread = 0; thread < threads; thread++) {
+            int firstOrderNum = thread * 1000;
+            results.add(workers.submit(() -> {
+                for (int i = 0; i < ordersPerThread; i++) {
+                    int orderNum = firstOrderNum + i;
+                    LocalDate orderDate = orderDates[i % orderDates.length];
+                    concurrentDao.addOrder(concurrentDao.unmarshallingOrder(orderNum + ",06-01-2020,"
+                            + orderDate.format(DateTimeFormatter.ofPattern("MM-dd-yyyy"))
+                            + ",Customer " + orderNum + ",CA,25.00,Tile,249.00,3.50,4.15,871.50,1033.35,476.21,"
+                            + "2381.06,true"));
+                    if (i >= 3 && i % 3 == 0) {
+                        //Edits an earlier order of this thread's on the same date
+                        Order editedOrder = concurrentDao.getOrder(orderNum - 3);
+                        editedOrder.setCustomerName("Edited " + (orderNum - 3));
+                        concurrentDao.editOrder(editedOrder);
+                    }
+                    List<Order> allOrders = concurrentDao.getAllOrders(orderDate);
+                    Set<Integer> orderNumbers = new HashSet<>();
+                    for (Order eachOrder : allOrders) {
+                        assertTrue(orderNumbers.add(eachOrder.getOrderNumber()), "An order should only be read once");
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        workers.shutdown();
+        //A new DAO reads the files rather than the cache
+        FlooringOrderDaoImpl checkDao = new FlooringOrderDaoImpl(concurrentLocation);
+        Map<Integer, Order> ordersInFiles = new HashMap<>();
+        for (int day = 4; day <= 6; day++) {
+            for (Order eachOrder : checkDao.getAllOrders(LocalDate.of(2020, 11, day))) {
+                assertNull(ordersInFiles.put(eachOrder.getOrderNumber(), eachOrder), "An order should only be written once");
+            }
+        }
+
+        //ASSESS
+        assertEquals(threads * ordersPerThread, ordersInFiles.size(), "No order should be lost");
+        assertEquals("Edited 0", ordersInFiles.get(0).getCustomerName(), "Order 0 should be edited");
+        assertEquals("Customer 1", ordersInFiles.get(1).getCustomerName(), "Order 1 should not be edited");
+        assertEquals("Edited 7024", ordersInFiles.get(7024).getCustomerName(), "Order 7024 should be edited");
+        assertEquals("Edited 7024", concurrentDao.getOrder(7024).getCustomerName(),
+                "The cached order should match the file");
+        deleteFolder(testFolder);
+    }
+
+    /**
+     * Testing that a date range only reads the order files in the range, skips
+     * the dates without a file, and picks up a file added after the DAO started.
+     */
+    @Test
+    public void testGetOrdersRange() throws Exception {
+        //ARRANGE
+        Path testFolder = createExportFolder();
+        FlooringOrderDaoImpl rangeDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        Order decemberOrder = rangeDao.unmarshallingOrder("200,06-01-2020,12-08-2020,Customer 200,CA,25.00,Tile,"
+                + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true");
+
+        //ACT
+        List<Order> middleOrders;
+        List<Order> lastOrders;
+        List<Order> firstThree;
+        List<Order> laterOrders;
+        try {
+            try (Stream<Order> middleDays = rangeDao.getOrders(LocalDate.of(2020, 11, 5), LocalDate.of(2020, 11, 7))) {
+                middleOrders = middleDays.collect(Collectors.toList());
+            }
+            try (Stream<Order> lastDays = rangeDao.getOrders(LocalDate.of(2020, 11, 18), LocalDate.of(2020, 12, 31))) {
+                lastOrders = lastDays.collect(Collectors.toList());
+            }
+            try (Stream<Order> allDays = rangeDao.getOrders(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31))) {
+                firstThree = allDays.limit(3).collect(Collectors.toList());
+            }
+            rangeDao.addOrder(decemberOrder);
+            try (Stream<Order> december = rangeDao.getOrders(LocalDate.of(2020, 11, 21), LocalDate.of(2020, 12, 31))) {
+                laterOrders = december.collect(Collectors.toList());
+            }
+        } finally {
+            deleteFolder(testFolder);
+        }
+
+        //ASSESS
+        assertEquals(15, middleOrders.size(), "There should be 5 orders on each of the 3 days");
+        assertEquals(LocalDate.of(2020, 11, 5), middleOrders.get(0).getOrderDate());
+        assertEquals(LocalDate.of(2020, 11, 7), middleOrders.get(14).getOrderDate());
+        assertEquals(17, lastOrders.size(), "The days after the last file should be skipped");
+        assertEquals(3, firstThree.size());
+        assertEquals(1, firstThree.get(0).getOrderNumber(), "The first file should come first");
+        assertEquals(1, laterOrders.size(), "The new order file should be found");
+        assertEquals(200, laterOrders.get(0).getOrderNumber());
+        assertTrue(rangeDao.getOrders(LocalDate.of(2020, 11, 7), LocalDate.of(2020, 11, 5))
+                .collect(Collectors.toList()).isEmpty(), "A backwards range has no orders");
+    }
+
+    /**
+     * Creates a folder with 20 order files of 5 orders each. The last file
+     * moves order 1 to itself and cancels order 2.
+     * @return the test folder
+     * @throws IOException - if the folder cannot be set up
+     */
+    private Path createExportFolder() throws IOException {
+        Path testFolder = createTestFolder();
+        for (int day = 1; day <= 20; day++) {
+            String fileDate = String.format("11%02d2020", day);
+            try (PrintWriter out = new PrintWriter(new FileWriter(
+                    testFolder.resolve("Orders/Orders_" + fileDate + ".txt").toFile()))) {
+                out.println("OrderNumber,OrderCreationDate,OrderDate,CustomerName,"
+                        + "State,TaxRate,ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,"
+                        + "Total,isActive");
+                for (int orderNum = day * 5 - 4; orderNum <= day * 5; orderNum++) {
+                    out.println(orderNum + ",06-01-2020," + String.format("11-%02d-2020", day) 
+                            + ",Customer " + orderNum + ",CA,25.00,Tile,"
+                            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true");
+                }
+                if (day == 20) {
+                    //Order 1 is moved to the last file and order 2 is cancelled there
+                    out.println("1,06-01-2020,11-20-2020,Moved Customer,CA,25.00,Tile,"
+                            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true");
+                    out.println("2,06-01-2020,11-20-2020,Customer 2,CA,25.00,Tile,"
+                            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,false");
+                }
+            }
+        }
+        return testFolder;
+    }
+    
+    private void writeOrderFile(Path testFolder, String fileDate, String orderLine) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(
+                testFolder.resolve("Orders/Orders_" + fileDate + ".txt").toFile()))) {
+            out.println("OrderNumber,OrderCreationDate,OrderDate,CustomerName,"
+                    + "State,TaxRate,ProductType,Area,CostPerSquareFoot,"
+                    + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,"
+                    + "Total,isActive");
+            out.println(orderLine);
+        }
+    }
+    
+    /**
+     * Creates a folder with a copy of the test data and no order files.
+     * @return the test folder
+     * @throws IOException - if the folder cannot be set up
+     */
+    private Path createTestFolder() throws IOException {
+        Path testFolder = Files.createTempDirectory("order-test");
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.createDirectories(testFolder.resolve("Backup"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        return testFolder;
+    }
+    
+    private void deleteFolder(Path testFolder) throws IOException {
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
 }
@@ -16,6 +16,7 @@ import java.util.Scanner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class acts as a stub for the DAO when testing the service layer, to allow
@@ -139,12 +140,28 @@ public class FlooringOrderDaoStub implements FlooringOrderDao {
         return dateOrders;
     }
 
+    @Override
+    public Stream<Order> getOrders(LocalDate fromDate, LocalDate toDate) {
+        List<Order> rangeOrders = allOrders.values().stream()
+                .filter((p) -> !p.getOrderDate().isBefore(fromDate) && !p.getOrderDate().isAfter(toDate))
+                .collect(Collectors.toList());
+        return rangeOrders.stream();
+    }
+
     @Override
     public Order addOrder(Order newOrder) throws OrderPersistenceException {
         allOrders.put(newOrder.getOrderNumber(), newOrder);
         return newOrder;
     }
 
+    @Override
+    public List<Order> addOrders(List<Order> newOrders) throws OrderPersistenceException {
+        for (Order newOrder : newOrders) {
+            allOrders.put(newOrder.getOrderNumber(), newOrder);
+        }
+        return newOrders;
+    }
+
     @Override
     public List<Order> exportOrders() throws NoSuchOrderFileException, OrderPersistenceException {
         List<Order> activeOrders = allOrders.values().stream()
@@ -153,11 +170,26 @@ public class FlooringOrderDaoStub implements FlooringOrderDao {
         return activeOrders;
     }
 
+    @Override
+    public List<Order> exportOrders(boolean fullRebuild) throws NoSuchOrderFileException, OrderPersistenceException {
+        return exportOrders();
+    }
+
     @Override
     public Order getOrder(LocalDate date, int orderNum) throws NoSuchOrderFileException, NoSuchOrderException {
         return allOrders.get(orderNum);
     }
 
+    @Override
+    public Order getOrder(int orderNum) throws NoSuchOrderException {
+        Order currentOrder = allOrders.get(orderNum);
+        if (currentOrder == null) {
+            throw new NoSuchOrderException("There is no order number: " + orderNum + " recorded.");
+        }
+        //Like the real DAOs, each caller gets its own copy of the order
+        return new Order(currentOrder);
+    }
+
     @Override
     public void editOrder(Order orderToUpdate) throws NoSuchOrderFileException, OrderPersistenceException {
         allOrders.put(orderToUpdate.getOrderNumber(), orderToUpdate);
@@ -0,0 +1,174 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order log DAO, which run against a copy of the test data in a
+ * temporary folder so the log and day files start empty for every test.
+ * @author lydiaadejumo
+ */
+public class FlooringOrderLogDaoImplTest {
+
+    private Path testFolder;
+    private String fileLocation;
+    private FlooringOrderLogDaoImpl testDao;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("order-log-test");
+        fileLocation = testFolder.toString() + File.separator;
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.createDirectories(testFolder.resolve("Backup"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        testDao = new FlooringOrderLogDaoImpl(fileLocation, FlooringOrderLogDaoImpl.DEFAULT_SEGMENT_BYTES, 0);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException, OrderPersistenceException {
+        testDao.close();
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Testing that a new order can be read back before it has been compacted,
+     * without a day file being written.
+     */
+    @Test
+    public void testAddOrderReadFromLog() throws OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ARRANGE
+        Order newOrder = createOrder(1, "Ada Lovelace");
+
+        //ACT
+        testDao.addOrder(newOrder);
+        List<Order> allOrders = testDao.getAllOrders(newOrder.getOrderDate());
+        Order retrievedOrder = testDao.getOrder(newOrder.getOrderDate(), 1);
+
+        //ASSESS
+        assertEquals(1, allOrders.size(), "There should be 1 order on this date");
+        assertEquals("Ada Lovelace", retrievedOrder.getCustomerName(), "The name should be Ada Lovelace");
+        assertFalse(new File(fileLocation + "Orders/Orders_11042020.txt").exists(),
+                "The day file shouldn't be written until the log is compacted");
+        assertEquals(1, testDao.getPendingOrderCount(), "The order should be waiting in the log");
+    }
+
+    /**
+     * Testing that compaction writes the newest version of each order to the
+     * day file and empties the log.
+     */
+    @Test
+    public void testCompact() throws OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ARRANGE
+        testDao.addOrder(createOrder(1, "Ada Lovelace"));
+        testDao.addOrder(createOrder(2, "Doctor Who"));
+        Order editedOrder = createOrder(2, "Beyonce Knowles");
+        testDao.editOrder(editedOrder);
+
+        //ACT
+        testDao.compact();
+        List<Order> allOrders = testDao.getAllOrders(editedOrder.getOrderDate());
+
+        //ASSESS
+        assertTrue(new File(fileLocation + "Orders/Orders_11042020.txt").exists(),
+                "The day file should be written by the compaction");
+        assertEquals(0, testDao.getPendingOrderCount(), "The log should be empty");
+        assertEquals(2, allOrders.size(), "There should be 2 orders on this date");
+        assertEquals("Beyonce Knowles", testDao.getOrder(2).getCustomerName(),
+                "The edited name should be in the day file");
+    }
+
+    /**
+     * Testing that orders still in the log are replayed when the DAO is opened
+     * again, e.g. after the app stopped before compacting.
+     */
+    @Test
+    public void testReplayLog() throws OrderPersistenceException, NoSuchOrderException {
+        //ARRANGE
+        Order newOrder = createOrder(1, "Ada Lovelace");
+        testDao.addOrder(newOrder);
+        newOrder.setActiveOrder(false);
+        try {
+            testDao.editOrder(newOrder);
+        } catch (NoSuchOrderFileException e) {
+            fail("The date is in the log so the order should be editable.");
+        }
+
+        //ACT
+        FlooringOrderLogDaoImpl reopenedDao = new FlooringOrderLogDaoImpl(fileLocation,
+                FlooringOrderLogDaoImpl.DEFAULT_SEGMENT_BYTES, 0);
+        Order retrievedOrder = reopenedDao.getOrder(1);
+
+        //ASSESS
+        assertFalse(retrievedOrder.isActiveOrder(), "The removed order should be inactive after a replay");
+        reopenedDao.close();
+    }
+
+    /**
+     * Testing that in the durable mode orders added from several threads are
+     * all in the log once the calls return, and are replayed from it.
+     */
+    @Test
+    public void testDurableAddOrder() throws Exception {
+        //ARRANGE
+        FlooringOrderLogDaoImpl durableDao = new FlooringOrderLogDaoImpl(fileLocation,
+                FlooringOrderLogDaoImpl.DEFAULT_SEGMENT_BYTES, 0, 5);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<Order>> addedOrders = new ArrayList<>();
+
+        //ACT
+        for (int orderNum = 1; orderNum <= 20; orderNum++) {
+            Order newOrder = createOrder(orderNum, "Customer " + orderNum);
+            addedOrders.add(callers.submit(() -> durableDao.addOrder(newOrder)));
+        }
+        for (Future<Order> addedOrder : addedOrders) {
+            addedOrder.get();
+        }
+        callers.shutdown();
+        FlooringOrderLogDaoImpl reopenedDao = new FlooringOrderLogDaoImpl(fileLocation,
+                FlooringOrderLogDaoImpl.DEFAULT_SEGMENT_BYTES, 0);
+
+        //ASSESS
+        assertTrue(durableDao.isDurable(), "The DAO should be in the durable mode");
+        assertEquals(20, reopenedDao.getPendingOrderCount(), "Every order should be replayed from the log");
+        assertEquals("Customer 7", reopenedDao.getOrder(7).getCustomerName(), "Order 7 should be in the log");
+        reopenedDao.close();
+        durableDao.close();
+        assertEquals(20, testDao.getAllOrders(LocalDate.parse("2020-11-04")).size(),
+                "Every order should be compacted into the day file");
+    }
+
+    private Order createOrder(int orderNum, String customerName) {
+        List<Product> products = testDao.getProducts();
+        List<Taxes> taxes = testDao.getTaxes();
+        Order newOrder = new Order(LocalDate.parse("2020-06-01"), LocalDate.parse("2020-11-04"),
+                customerName, taxes.get(0), products.get(0), new BigDecimal("100.00"));
+        newOrder.setOrderNumber(orderNum);
+        newOrder.setMaterialCost(new BigDecimal("225.00"));
+        newOrder.setLaborCost(new BigDecimal("210.00"));
+        newOrder.setTax(new BigDecimal("17.40"));
+        newOrder.setTotal(new BigDecimal("452.40"));
+        return newOrder;
+    }
+}
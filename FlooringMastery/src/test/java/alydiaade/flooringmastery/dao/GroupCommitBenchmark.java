@@ -0,0 +1,101 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares one fsync per durable write against grouped fsyncs over a few
+ * commit windows, with 1, 8 and 32 callers writing at once. The writes per
+ * second, the mean time a caller waits and the number of fsyncs are reported.
+ * The log is written under target, so it is on the same disk as the build
+ * rather than a memory backed temporary folder.
+ * @author lydiaadejumo
+ */
+public class GroupCommitBenchmark {
+
+    private static final int[] CALLER_COUNTS = {1, 8, 32};
+    private static final long[] COMMIT_WINDOWS_MILLIS = {0, 1, 2, 5};
+    private static final int WRITES = 2_000;
+    private static final String AUDIT_LINE = "2020-11-04 --> ORDER NUMBER: 12345, new order recorded today.";
+    private static final BenchmarkRunner RUNNER = new BenchmarkRunner(1, 3);
+
+    /**
+     * Measuring fsync per write and grouped fsyncs for each number of callers.
+     */
+    @Test
+    public void measureGroupCommit() throws Exception {
+        //ARRANGE
+        Files.createDirectories(Paths.get("target"));
+
+        for (int callers : CALLER_COUNTS) {
+            //ACT
+            report(callers, "fsync per write", 0, 1);
+
+            //ASSESS
+            for (long commitWindow : COMMIT_WINDOWS_MILLIS) {
+                report(callers, "grouped, " + commitWindow + " ms window", commitWindow,
+                        GroupCommitWriter.DEFAULT_MAX_BATCH_WRITES);
+            }
+        }
+    }
+
+    private void report(int callers, String mode, long commitWindowMillis, int maxBatchWrites) throws Exception {
+        List<long[]> rounds = new ArrayList<>();
+        int writes = WRITES / callers * callers;
+        BenchmarkRunner.Result result = RUNNER.measure((stopwatch) -> {
+            long[] round = write(callers, commitWindowMillis, maxBatchWrites, stopwatch);
+            rounds.add(round);
+            return round[1];
+        });
+        //The warm up round is first, so the measured rounds start at 1
+        long[] bestRound = rounds.get(result.getBestRound() + 1);
+        BenchmarkRunner.report("%d callers, %s: %,.0f writes/sec, %.2f ms per write, %,d fsyncs",
+                callers, mode, result.perSecond(writes), bestRound[0] / 1e6 / writes, bestRound[1]);
+    }
+
+    /**
+     * Writes WRITES lines shared between the callers.
+     * @return the total time the callers waited in nanoseconds and the fsync count
+     */
+    private long[] write(int callers, long commitWindowMillis, int maxBatchWrites, BenchmarkRunner.Stopwatch stopwatch)
+            throws Exception {
+        Path testFile = Files.createTempFile(Paths.get("target"), "group-commit-benchmark", ".log");
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            GroupCommitWriter testWriter = new GroupCommitWriter(testFile.toFile(), commitWindowMillis, maxBatchWrites);
+            List<Future<Long>> waits = new ArrayList<>();
+            stopwatch.start();
+            for (int caller = 0; caller < callers; caller++) {
+                waits.add(callerPool.submit(() -> {
+                    long waited = 0;
+                    for (int write = 0; write < WRITES / callers; write++) {
+                        long writeStart = System.nanoTime();
+                        testWriter.write(AUDIT_LINE + System.lineSeparator());
+                        waited += System.nanoTime() - writeStart;
+                    }
+                    return waited;
+                }));
+            }
+            long totalWait = 0;
+            for (Future<Long> wait : waits) {
+                totalWait += wait.get();
+            }
+            stopwatch.stop();
+            testWriter.close();
+            assertEquals(WRITES / callers * callers, testWriter.getWriteCount());
+            return new long[] {totalWait, testWriter.getBatchCount()};
+        } finally {
+            callerPool.shutdown();
+            Files.deleteIfExists(testFile);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the group commit writer, comparing one fsync per write with
+ * grouped fsyncs for the same concurrent writes.
+ * @author lydiaadejumo
+ */
+public class GroupCommitWriterTest {
+
+    private static final int CALLERS = 8;
+    private static final int WRITES_PER_CALLER = 25;
+
+    private Path testFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFile = Files.createTempFile("group-commit-test", ".log");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    /**
+     * Testing that a batch size of 1 forces every write on its own.
+     */
+    @Test
+    public void testFsyncPerWrite() throws Exception {
+        //ARRANGE
+        GroupCommitWriter testWriter = new GroupCommitWriter(testFile.toFile(), 0, 1);
+
+        //ACT
+        writeConcurrently(testWriter);
+        testWriter.close();
+
+        //ASSESS
+        assertEquals(CALLERS * WRITES_PER_CALLER, testWriter.getWriteCount(), "Every write should be on disk");
+        assertEquals(testWriter.getWriteCount(), testWriter.getBatchCount(), "There should be one fsync per write");
+        assertAllLinesWritten();
+    }
+
+    /**
+     * Testing that concurrent writes within the commit window share fsyncs,
+     * and that every line is still written whole.
+     */
+    @Test
+    public void testGroupedFsync() throws Exception {
+        //ARRANGE
+        GroupCommitWriter testWriter = new GroupCommitWriter(testFile.toFile(), 5,
+                GroupCommitWriter.DEFAULT_MAX_BATCH_WRITES);
+
+        //ACT
+        writeConcurrently(testWriter);
+        testWriter.close();
+
+        //ASSESS
+        assertEquals(CALLERS * WRITES_PER_CALLER, testWriter.getWriteCount(), "Every write should be on disk");
+        assertTrue(testWriter.getBatchCount() < testWriter.getWriteCount(), "Writes should share fsyncs");
+        assertEquals(Files.size(testFile), testWriter.getLength(), "The length should match the file");
+        assertAllLinesWritten();
+    }
+
+    /**
+     * Testing that nothing more can be written once the writer is closed.
+     */
+    @Test
+    public void testWriteAfterClose() throws Exception {
+        //ARRANGE
+        GroupCommitWriter testWriter = new GroupCommitWriter(testFile.toFile(), 0, 1);
+        testWriter.write("first" + System.lineSeparator());
+
+        //ACT
+        testWriter.close();
+
+        //ASSESS
+        assertThrows(OrderPersistenceException.class, () -> testWriter.write("second" + System.lineSeparator()),
+                "The writer has been closed");
+        assertEquals(1, Files.readAllLines(testFile).size(), "Only the first line should be written");
+    }
+
+    private void writeConcurrently(GroupCommitWriter testWriter) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int caller = 0; caller < CALLERS; caller++) {
+            int callerNum = caller;
+            results.add(callers.submit(() -> {
+                for (int i = 0; i < WRITES_PER_CALLER; i++) {
+                    testWriter.write(callerNum + "," + i + System.lineSeparator());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+    }
+
+    private void assertAllLinesWritten() throws IOException {
+        List<String> lines = Files.readAllLines(testFile);
+        Set<String> uniqueLines = new HashSet<>(lines);
+        assertEquals(CALLERS * WRITES_PER_CALLER, lines.size(), "There should be a line per write");
+        assertEquals(lines.size(), uniqueLines.size(), "No line should be written twice");
+        assertTrue(uniqueLines.contains((CALLERS - 1) + "," + (WRITES_PER_CALLER - 1)), "The last line should be whole");
+    }
+}
@@ -0,0 +1,112 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Money;
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that an order only parses the fields of its line that are used.
+ * @author lydiaadejumo
+ */
+public class LazyOrderTest {
+
+    private static final String ORDER_LINE = "1,06-01-2020,11-04-2020,Ada Lovelace,CA,25.00,Tile,249.00,3.50,4.15,"
+            + "871.50,1033.35,476.21,2381.06,true";
+
+    private final Map<String, Taxes> allTaxRates = new HashMap<>();
+    private final Map<String, Product> allProducts = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        allTaxRates.put("CA", new Taxes("CA", "Calfornia", new BigDecimal("25.00")));
+        allProducts.put("Tile", new Product("Tile", new BigDecimal("3.50"), new BigDecimal("4.15")));
+    }
+
+    /**
+     * Testing that every field is read from the line as it is asked for, and a
+     * copy has the same fields.
+     */
+    @Test
+    public void testParsesEachField() {
+        //ARRANGE
+        LazyOrder testOrder = new LazyOrder(ORDER_LINE, allTaxRates, allProducts);
+
+        //ACT
+        Order copiedOrder = new Order(testOrder);
+
+        //ASSESS
+        for (Order eachOrder : new Order[] {testOrder, copiedOrder}) {
+            assertEquals(1, eachOrder.getOrderNumber());
+            assertEquals(LocalDate.of(2020, 6, 1), eachOrder.getOrderCreation());
+            assertEquals(LocalDate.of(2020, 11, 4), eachOrder.getOrderDate());
+            assertEquals("Ada Lovelace", eachOrder.getCustomerName());
+            assertSame(allTaxRates.get("CA"), eachOrder.getTaxInfo());
+            assertSame(allProducts.get("Tile"), eachOrder.getProduct());
+            assertEquals(new BigDecimal("249.00"), eachOrder.getArea());
+            assertEquals(new BigDecimal("871.50"), eachOrder.getMaterialCost());
+            assertEquals(new BigDecimal("1033.35"), eachOrder.getLaborCost());
+            assertEquals(new BigDecimal("476.21"), eachOrder.getTax());
+            assertEquals(new BigDecimal("2381.06"), eachOrder.getTotal());
+            assertEquals(Money.ofCents(238106), eachOrder.getTotalMoney());
+            assertEquals(238106, eachOrder.getTotalCents());
+            assertEquals(2_490_000, eachOrder.getAreaTenThousandths());
+            assertTrue(eachOrder.isActiveOrder());
+        }
+    }
+
+    /**
+     * Testing that fields which aren't used aren't parsed, that a set field
+     * isn't parsed over, and that a lazy copy keeps what was set.
+     */
+    @Test
+    public void testOnlyParsesUsedFields() {
+        //ARRANGE
+        String badDates = ORDER_LINE.replace("11-04-2020", "not a date").replace("2381.06", "not a total");
+        LazyOrder testOrder = new LazyOrder(badDates, allTaxRates, allProducts);
+
+        //ACT
+        testOrder.setTotal(new BigDecimal("100.00"));
+        testOrder.setActiveOrder(false);
+        Order lazyCopy = LazyOrder.copyOf(testOrder);
+
+        //ASSESS
+        for (Order eachOrder : new Order[] {testOrder, lazyCopy}) {
+            assertEquals(1, eachOrder.getOrderNumber(), "The order number can be read without the dates");
+            assertEquals(new BigDecimal("100.00"), eachOrder.getTotal(), "A set total shouldn't be parsed");
+            assertFalse(eachOrder.isActiveOrder(), "A set flag shouldn't be parsed");
+            assertThrows(IllegalArgumentException.class, () -> eachOrder.getOrderDate(),
+                    "The bad date is only found when it is used");
+        }
+        assertTrue(lazyCopy instanceof LazyOrder, "The cache copy should stay lazy");
+    }
+
+    /**
+     * Testing that appending parses the area and costs, and that costs set in
+     * cents aren't parsed over.
+     */
+    @Test
+    public void testAppendsParsedAndSetCosts() {
+        //ARRANGE
+        LazyOrder parsedOrder = new LazyOrder(ORDER_LINE, allTaxRates, allProducts);
+        LazyOrder repricedOrder = new LazyOrder(ORDER_LINE.replace("2381.06", "not a total"), allTaxRates, allProducts);
+
+        //ACT
+        repricedOrder.setCostsInCents(100, 200, 75, 375);
+        String parsedCosts = parsedOrder.appendCosts(parsedOrder.appendArea(new StringBuilder()).append(','), ',')
+                .toString();
+        String setCosts = repricedOrder.appendCosts(new StringBuilder(), ',').toString();
+
+        //ASSESS
+        assertEquals("249.00,871.50,1033.35,476.21,2381.06", parsedCosts);
+        assertEquals("1.00,2.00,0.75,3.75", setCosts, "Costs set in cents shouldn't be parsed");
+        assertEquals(375, repricedOrder.getTotalCents());
+    }
+}
@@ -0,0 +1,102 @@
+package alydiaade.flooringmastery.dao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the line tokenizer reads the same values as splitting the line
+ * and parsing each field the way the DAO used to.
+ * @author lydiaadejumo
+ */
+public class LineTokenizerTest {
+
+    private static final String ORDER_LINE = "2,06-25-2020,11-04-2020,Doctor Who,WA,9.25,Wood,"
+            + "243.00,5.15,4.75,1251.45,1154.25,216.51,2622.21,true";
+
+    /**
+     * Testing that every field of an order line matches the split values.
+     */
+    @Test
+    public void testOrderLineMatchesSplit() {
+        //ARRANGE
+        String[] splitDetails = ORDER_LINE.split(",");
+        LineTokenizer tokenizer = new LineTokenizer(15);
+
+        //ACT
+        tokenizer.reset(ORDER_LINE);
+
+        //ASSESS
+        assertEquals(splitDetails.length, tokenizer.getFieldCount(), "There should be 15 fields");
+        assertEquals(Integer.parseInt(splitDetails[0]), tokenizer.getInt(0), "The order number should match");
+        assertEquals(LocalDate.parse(splitDetails[1], DateTimeFormatter.ofPattern("MM-dd-yyyy")),
+                tokenizer.getDate(1), "The order creation date should match");
+        assertEquals(splitDetails[3], tokenizer.getString(3), "The customer name should match");
+        for (int field = 7; field <= 13; field++) {
+            assertEquals(new BigDecimal(splitDetails[field]), tokenizer.getDecimal(field),
+                    "Field " + field + " should match, including its scale");
+        }
+        assertTrue(tokenizer.getBoolean(14), "The order should be active");
+    }
+
+    /**
+     * Testing that a tokenizer reused for a shorter line doesn't keep any of the
+     * fields from the longer line.
+     */
+    @Test
+    public void testReuseForShorterLine() {
+        //ARRANGE
+        LineTokenizer tokenizer = new LineTokenizer(15);
+        tokenizer.reset(ORDER_LINE);
+
+        //ACT
+        tokenizer.reset("Tile,3.50,4.15");
+
+        //ASSESS
+        assertEquals(3, tokenizer.getFieldCount(), "There should be 3 fields");
+        assertEquals("Tile", tokenizer.getString(0), "The product type should be Tile");
+        assertEquals(new BigDecimal("4.15"), tokenizer.getDecimal(2), "The labour cost should be 4.15");
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> tokenizer.getString(3),
+                "There is no fourth field on the shorter line");
+    }
+
+    /**
+     * Testing that an invalid date is rejected rather than read as a different date.
+     */
+    @Test
+    public void testInvalidDate() {
+        //ARRANGE
+        LineTokenizer tokenizer = new LineTokenizer(2);
+
+        //ACT
+        tokenizer.reset("1,13-40-2020");
+
+        //ASSESS
+        assertThrows(RuntimeException.class, () -> tokenizer.getDate(1), "Month 13 is not a valid date");
+    }
+
+    /**
+     * Testing that a line given back with its kept field ends reads the same
+     * fields, after the tokenizer has split a different line in between.
+     */
+    @Test
+    public void testResetWithFieldEnds() {
+        //ARRANGE
+        LineTokenizer tokenizer = new LineTokenizer(15);
+        int[] fieldEnds = tokenizer.reset(ORDER_LINE).getFieldEnds();
+        tokenizer.reset("99,01-01-1999,Someone Else,XX");
+
+        //ACT
+        tokenizer.reset(ORDER_LINE, fieldEnds);
+
+        //ASSESS
+        assertEquals(15, tokenizer.getFieldCount(), "There should be 15 fields");
+        assertEquals(2, tokenizer.getInt(0), "The order number should be 2");
+        assertEquals(LocalDate.of(2020, 11, 4), tokenizer.getDate(2), "The order date should be 11-04-2020");
+        assertEquals("Doctor Who", tokenizer.getString(3), "The customer name should match");
+        assertEquals(new BigDecimal("2622.21"), tokenizer.getDecimal(13), "The total should be 2622.21");
+        assertTrue(tokenizer.getBoolean(14), "The order should be active");
+    }
+}
@@ -0,0 +1,101 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading the fields of order file rows straight from the bytes,
+ * from both a heap buffer and a mapped file.
+ * @author lydiaadejumo
+ */
+public class MappedOrderFileReaderTest {
+
+    private static final String HEADER = "OrderNumber,CustomerName";
+
+    private Path testFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFile = Files.createTempFile("mapped-reader-test", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    /**
+     * Testing that order numbers are read the same as Integer.parseInt reads
+     * them, with a field too big for an int rejected rather than wrapped.
+     */
+    @Test
+    public void testGetInt() throws IOException {
+        //ARRANGE
+        String[] numbers = {"7", "2147483647", "-2147483648", "2147483648", "99999999999", "-", "", "1a"};
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (String number : numbers) {
+            lines.add(number + ",Customer");
+        }
+        Files.write(testFile, lines, StandardCharsets.UTF_8);
+
+        //ACT
+        List<Object> readNumbers = new ArrayList<>();
+        MappedOrderFileReader.forEachRow(testFile.toFile(), (row) -> {
+            try {
+                readNumbers.add(row.getInt(0));
+            } catch (NumberFormatException e) {
+                readNumbers.add(e.getClass());
+            }
+        });
+
+        //ASSESS
+        assertEquals(numbers.length, readNumbers.size());
+        for (int i = 0; i < numbers.length; i++) {
+            Object expected;
+            try {
+                expected = Integer.parseInt(numbers[i]);
+            } catch (NumberFormatException e) {
+                expected = e.getClass();
+            }
+            assertEquals(expected, readNumbers.get(i), "\"" + numbers[i] + "\" should be read like parseInt");
+        }
+    }
+
+    /**
+     * Testing that names outside of ASCII are decoded from a file big enough to
+     * be mapped.
+     */
+    @Test
+    public void testGetStringMapped() throws IOException {
+        //ARRANGE
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int orderNum = 1; orderNum <= 5_000; orderNum++) {
+            lines.add(orderNum + ",Zoë Customer " + orderNum);
+        }
+        Files.write(testFile, lines, StandardCharsets.UTF_8);
+
+        //ACT
+        List<String> names = new ArrayList<>();
+        List<String> rowLines = new ArrayList<>();
+        MappedOrderFileReader.forEachRow(testFile.toFile(), (row) -> {
+            names.add(row.getString(1));
+            rowLines.add(row.getLine());
+        });
+
+        //ASSESS
+        assertTrue(Files.size(testFile) >= 64 * 1024, "The file should be big enough to be mapped");
+        assertEquals(5_000, names.size());
+        assertEquals("Zoë Customer 4321", names.get(4320));
+        assertEquals(lines.subList(1, lines.size()), rowLines, "Each line should be read back unchanged");
+    }
+}
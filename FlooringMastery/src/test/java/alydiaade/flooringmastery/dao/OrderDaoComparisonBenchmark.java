@@ -0,0 +1,150 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the order database DAO against the order file DAO on the same
+ * 50,000 orders over 25 dates: adding them as one batch, reading every date,
+ * reading the whole range, looking orders up by number and exporting them
+ * from scratch. Each add starts from an empty folder, and the reads share one
+ * folder holding every order.
+ * @author lydiaadejumo
+ */
+public class OrderDaoComparisonBenchmark {
+
+    private static final int ORDERS = 50_000;
+    private static final int ORDER_DATES = 25;
+    private static final int LOOKUPS = 2_000;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 11, 1);
+    private static final BenchmarkRunner RUNNER = new BenchmarkRunner(1, 3);
+    private static final String[] OPERATIONS = {"addOrders", "getAllOrders per date", "getOrders for the range",
+        "getOrder by number", "exportOrders"};
+
+    /**
+     * Measuring both DAOs on each operation.
+     */
+    @Test
+    public void measureDaos() throws Exception {
+        //ACT
+        long[] fileMillis = measure(false);
+        long[] databaseMillis = measure(true);
+
+        //ASSESS
+        for (int operation = 0; operation < OPERATIONS.length; operation++) {
+            BenchmarkRunner.report("%,d orders, %s: file %,d ms, database %,d ms", ORDERS, OPERATIONS[operation],
+                    fileMillis[operation], databaseMillis[operation]);
+        }
+    }
+
+    /**
+     * Runs every operation on one kind of DAO.
+     * @return the time taken by each operation
+     */
+    private long[] measure(boolean database) throws Exception {
+        long[] millis = new long[OPERATIONS.length];
+        millis[0] = RUNNER.measure((stopwatch) -> {
+            Path testFolder = createTestFolder();
+            FlooringOrderDao testDao = createDao(testFolder, database);
+            try {
+                List<Order> newOrders = createOrders(testFolder);
+                stopwatch.start();
+                testDao.addOrders(newOrders);
+                stopwatch.stop();
+                return newOrders.size();
+            } finally {
+                closeDao(testDao, testFolder);
+            }
+        }).getBestMillis();
+
+        Path testFolder = createTestFolder();
+        FlooringOrderDao testDao = createDao(testFolder, database);
+        try {
+            testDao.addOrders(createOrders(testFolder));
+            millis[1] = RUNNER.measure((stopwatch) -> {
+                int readOrders = 0;
+                for (int day = 0; day < ORDER_DATES; day++) {
+                    readOrders += testDao.getAllOrders(FIRST_DATE.plusDays(day)).size();
+                }
+                assertEquals(ORDERS, readOrders);
+                return readOrders;
+            }).getBestMillis();
+            millis[2] = RUNNER.measure((stopwatch) -> {
+                long rangeOrders = testDao.getOrders(FIRST_DATE, FIRST_DATE.plusDays(ORDER_DATES - 1)).count();
+                assertEquals(ORDERS, rangeOrders);
+                return rangeOrders;
+            }).getBestMillis();
+            millis[3] = RUNNER.measure((stopwatch) -> {
+                Random random = new Random(7);
+                for (int lookup = 0; lookup < LOOKUPS; lookup++) {
+                    int orderNum = random.nextInt(ORDERS) + 1;
+                    assertEquals(orderNum, testDao.getOrder(orderNum).getOrderNumber());
+                }
+                return LOOKUPS;
+            }).getBestMillis();
+            millis[4] = RUNNER.measure((stopwatch) -> {
+                int exportedOrders = testDao.exportOrders(true).size();
+                assertEquals(ORDERS, exportedOrders);
+                return exportedOrders;
+            }).getBestMillis();
+        } finally {
+            closeDao(testDao, testFolder);
+        }
+        return millis;
+    }
+
+    private FlooringOrderDao createDao(Path testFolder, boolean database) {
+        String fileLocation = testFolder.toString() + File.separator;
+        return database ? new FlooringOrderDaoDbImpl(fileLocation) : new FlooringOrderDaoImpl(fileLocation);
+    }
+
+    private void closeDao(FlooringOrderDao testDao, Path testFolder) throws Exception {
+        try {
+            if (testDao instanceof FlooringOrderDaoDbImpl) {
+                ((FlooringOrderDaoDbImpl) testDao).close();
+            }
+        } finally {
+            deleteFolder(testFolder);
+        }
+    }
+
+    private List<Order> createOrders(Path testFolder) {
+        FlooringOrderDaoImpl fileDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        List<Order> newOrders = new ArrayList<>(ORDERS);
+        for (int orderNum = 1; orderNum <= ORDERS; orderNum++) {
+            LocalDate orderDate = FIRST_DATE.plusDays((orderNum - 1) % ORDER_DATES);
+            newOrders.add(fileDao.unmarshallingOrder(orderNum + ",06-01-2020,"
+                    + String.format("11-%02d-2020", orderDate.getDayOfMonth()) + ",Customer " + orderNum
+                    + ",WA,9.25,Wood,243.00,5.15,4.75,1251.45,1154.25,216.51,2622.21,true"));
+        }
+        return newOrders;
+    }
+
+    private Path createTestFolder() throws IOException {
+        Path testFolder = Files.createTempDirectory("order-dao-benchmark");
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.createDirectories(testFolder.resolve("Backup"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        return testFolder;
+    }
+
+    private void deleteFolder(Path testFolder) throws IOException {
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the order line writer writes exactly the lines the order and
+ * backup files already hold.
+ * @author lydiaadejumo
+ */
+public class OrderLineWriterTest {
+
+    private static final String ORDER_LINE = "1,06-01-2020,11-04-2020,Ada Lovelace,CA,25.00,Tile,"
+            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true";
+
+    private final FlooringOrderDaoImpl testDao = new FlooringOrderDaoImpl("src/test/resources/");
+
+    /**
+     * Testing that reading and writing an order line gives back the same line.
+     */
+    @Test
+    public void testOrderLineRoundTrip() {
+        //ARRANGE
+        Order currentOrder = testDao.unmarshallingOrder(ORDER_LINE);
+
+        //ACT
+        String orderLine = new OrderLineWriter().orderLine(currentOrder);
+
+        //ASSESS
+        assertEquals(ORDER_LINE, orderLine, "The order line should be unchanged");
+    }
+
+    /**
+     * Testing that the backup line moves the order date to the end and drops
+     * the active flag, and that a reused writer doesn't keep the last line.
+     * @throws java.io.IOException - if the writer fails
+     */
+    @Test
+    public void testWriteBackup() throws IOException {
+        //ARRANGE
+        Order currentOrder = testDao.unmarshallingOrder(ORDER_LINE);
+        OrderLineWriter lineWriter = new OrderLineWriter();
+        StringWriter out = new StringWriter();
+
+        //ACT
+        lineWriter.orderLine(currentOrder);
+        lineWriter.writeBackup(currentOrder, out);
+
+        //ASSESS
+        assertEquals("1,06-01-2020,Ada Lovelace,CA,25.00,Tile,249.00,3.50,4.15,"
+                + "871.50,1033.35,476.21,2381.06,11-04-2020" + System.lineSeparator(),
+                out.toString(), "The backup line should be in the backup format");
+    }
+}
@@ -0,0 +1,98 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order number index, re-indexing changed order files and
+ * finding order files added outside of the app.
+ * @author lydiaadejumo
+ */
+public class OrderNumberIndexTest {
+
+    private static final String HEADER = "OrderNumber,OrderCreationDate,OrderDate,CustomerName,"
+            + "State,TaxRate,ProductType,Area,CostPerSquareFoot,LaborCostPerSquareFoot,"
+            + "MaterialCost,LaborCost,Tax,Total,isActive";
+    private static final String ORDER_DETAILS = ",06-01-2020,11-04-2020,Zoë Customer,CA,25.00,Tile,"
+            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true";
+
+    private Path testFolder;
+    private File ordersFolder;
+    private File indexFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("order-index-test");
+        ordersFolder = testFolder.resolve("Orders").toFile();
+        ordersFolder.mkdirs();
+        indexFile = testFolder.resolve("Index/OrderIndex.txt").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Testing that a changed order file is indexed again by appending to the
+     * index file, and that a reloaded index drops the orders no longer in it.
+     */
+    @Test
+    public void testChangedFileAppended() throws IOException {
+        //ARRANGE
+        Path orderFile = ordersFolder.toPath().resolve("Orders_11042020.txt");
+        Files.write(orderFile, Arrays.asList(HEADER, "1" + ORDER_DETAILS, "2" + ORDER_DETAILS, "3" + ORDER_DETAILS),
+                StandardCharsets.UTF_8);
+        OrderNumberIndex testIndex = new OrderNumberIndex(ordersFolder, indexFile);
+        List<String> indexBefore = Files.readAllLines(indexFile.toPath());
+
+        //ACT
+        Files.write(orderFile, Arrays.asList(HEADER, "1" + ORDER_DETAILS, "3" + ORDER_DETAILS),
+                StandardCharsets.UTF_8);
+        OrderNumberIndex.Entry thirdOrder = testIndex.get(3);
+        List<String> indexAfter = Files.readAllLines(indexFile.toPath());
+        OrderNumberIndex reloadedIndex = new OrderNumberIndex(ordersFolder, indexFile);
+
+        //ASSESS
+        long expectedOffset = (HEADER + System.lineSeparator() + "1" + ORDER_DETAILS + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(expectedOffset, thirdOrder.getOffset(), "The offset should count the bytes of the name");
+        assertEquals(indexBefore, indexAfter.subList(0, indexBefore.size()), "The index file should be appended to");
+        assertNull(testIndex.get(2), "Order 2 was removed from the file");
+        assertNull(reloadedIndex.get(2), "Order 2 should stay removed once the index is loaded again");
+        assertEquals(expectedOffset, reloadedIndex.get(3).getOffset());
+    }
+
+    /**
+     * Testing that an order file added outside of the app is found after a
+     * lookup misses.
+     */
+    @Test
+    public void testRefreshAfterMiss() throws IOException {
+        //ARRANGE
+        OrderNumberIndex testIndex = new OrderNumberIndex(ordersFolder, indexFile);
+        Files.write(ordersFolder.toPath().resolve("Orders_11042020.txt"),
+                Arrays.asList(HEADER, "7" + ORDER_DETAILS), StandardCharsets.UTF_8);
+
+        //ACT
+        OrderNumberIndex.Entry missed = testIndex.get(7);
+        testIndex.refreshAfterMiss();
+
+        //ASSESS
+        assertNull(missed, "The new file hasn't been indexed yet");
+        assertNotNull(testIndex.get(7), "The new file should be indexed after the miss");
+    }
+}
@@ -0,0 +1,135 @@
+package alydiaade.flooringmastery.dao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order number sequence, which run against a sequence file in a
+ * temporary folder.
+ * @author lydiaadejumo
+ */
+public class OrderNumberSequenceTest {
+
+    private Path testFolder;
+    private String sequenceFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("sequence-test");
+        sequenceFile = testFolder.resolve("OrderSequence.txt").toString();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFolder.resolve("OrderSequence.txt"));
+        Files.deleteIfExists(testFolder);
+    }
+
+    /**
+     * Testing that numbers handed out from many threads at once are never
+     * repeated, across several leased blocks.
+     */
+    @Test
+    public void testConcurrentNext() throws Exception {
+        //ARRANGE
+        OrderNumberSequence testSequence = new OrderNumberSequence(sequenceFile, 100);
+        testSequence.startAt(6);
+        Set<Integer> orderNumbers = ConcurrentHashMap.newKeySet();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+
+        //ACT
+        for (int caller = 0; caller < 8; caller++) {
+            results.add(callers.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    assertTrue(orderNumbers.add(testSequence.next()), "An order number should only be used once");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+
+        //ASSESS
+        assertEquals(2000, orderNumbers.size(), "Every caller should get its own numbers");
+        assertTrue(orderNumbers.contains(6) && orderNumbers.contains(2005), "The numbers should run from 6 to 2005");
+        assertEquals(2006, testSequence.peek(), "The next number should follow the last one handed out");
+    }
+
+    /**
+     * Testing that a restarted sequence carries on after the leased block
+     * rather than reusing any number, and ignores a new starting point.
+     */
+    @Test
+    public void testRestartAfterLease() throws OrderPersistenceException {
+        //ARRANGE
+        OrderNumberSequence firstRun = new OrderNumberSequence(sequenceFile, 100);
+        firstRun.startAt(6);
+        int firstNum = firstRun.next();
+        int batchStart = firstRun.next(150);
+
+        //ACT
+        OrderNumberSequence secondRun = new OrderNumberSequence(sequenceFile, 100);
+        secondRun.startAt(1);
+
+        //ASSESS
+        assertEquals(6, firstNum, "The first number should be the starting point");
+        assertEquals(7, batchStart, "The batch should follow the first number");
+        assertTrue(secondRun.isStarted(), "The saved lease should start the sequence");
+        assertTrue(secondRun.next() > 156, "No number handed out before the restart should be reused");
+        assertTrue(secondRun.peek() <= 157 + 100, "At most one block should be skipped");
+    }
+
+    /**
+     * Testing that a sequence without a file has to be given a starting point.
+     */
+    @Test
+    public void testNewSequence() {
+        //ACT
+        OrderNumberSequence testSequence = new OrderNumberSequence(sequenceFile);
+
+        //ASSESS
+        assertFalse(testSequence.isStarted(), "A new sequence file needs a starting point");
+        testSequence.startAt(42);
+        assertEquals(42, testSequence.peek(), "The sequence should start at 42");
+    }
+
+    /**
+     * Testing that a clean shutdown lets the next run carry on from the next
+     * unused number, but only once, so a crash after that still skips ahead.
+     */
+    @Test
+    public void testRestartAfterClose() throws OrderPersistenceException {
+        //ARRANGE
+        OrderNumberSequence firstRun = new OrderNumberSequence(sequenceFile, 100);
+        firstRun.startAt(6);
+        firstRun.next(3);
+
+        //ACT
+        firstRun.close();
+        OrderNumberSequence secondRun = new OrderNumberSequence(sequenceFile, 100);
+        int resumedNum = secondRun.next();
+        //The second run isn't closed, as if it crashed
+        OrderNumberSequence thirdRun = new OrderNumberSequence(sequenceFile, 100);
+
+        //ASSESS
+        assertThrows(OrderPersistenceException.class, () -> firstRun.next(), "A closed sequence can't hand out numbers");
+        assertEquals(9, resumedNum, "A clean restart should carry on from the next unused number");
+        assertTrue(thirdRun.peek() > resumedNum, "A crash shouldn't let a number be reused");
+        assertEquals(106, thirdRun.peek(), "A crash should skip to the end of the lease");
+    }
+}
@@ -0,0 +1,122 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares reading order lines with the LineTokenizer against splitting each
+ * line and making new date formatters, the way the DAO read them before. Both
+ * read the same 200,000 lines, and the rows per second and the bytes allocated
+ * for each row are reported.
+ * @author lydiaadejumo
+ */
+public class OrderParsingBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final BenchmarkRunner RUNNER = new BenchmarkRunner(5, 5);
+
+    private Path testFolder;
+    private FlooringOrderDaoImpl fileDao;
+    private final Map<String, Taxes> allTaxRates = new HashMap<>();
+    private final Map<String, Product> allProducts = new HashMap<>();
+    private String[] orderLines;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("order-parsing-benchmark");
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        fileDao = new FlooringOrderDaoImpl(testFolder.toString() + File.separator);
+        for (Taxes eachTax : fileDao.getTaxes()) {
+            allTaxRates.put(eachTax.getState(), eachTax);
+        }
+        for (Product eachProduct : fileDao.getProducts()) {
+            allProducts.put(eachProduct.getProductType(), eachProduct);
+        }
+        orderLines = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            orderLines[i] = (i + 1) + ",06-01-2020," + String.format("11-%02d-2020", i % 28 + 1)
+                    + ",Customer " + i + ",WA,9.25,Wood,243." + (i % 100) + ",5.15,4.75,1251.45,1154.25,216.51,2622.21,"
+                    + (i % 10 != 0);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Measuring both ways of reading an order line.
+     */
+    @Test
+    public void measureParsing() throws Exception {
+        //ARRANGE
+        Function<String, Order> splitParser = this::unmarshallingBySplit;
+        Function<String, Order> tokenizerParser = fileDao::unmarshallingOrder;
+
+        //ACT
+        BenchmarkRunner.Result splitResult = RUNNER.measure((stopwatch) -> parseAll(splitParser));
+        BenchmarkRunner.Result tokenizerResult = RUNNER.measure((stopwatch) -> parseAll(tokenizerParser));
+
+        //ASSESS
+        assertEquals(fileDao.marshallingOrder(splitParser.apply(orderLines[7])),
+                fileDao.marshallingOrder(tokenizerParser.apply(orderLines[7])), "Both ways should read the same order");
+        BenchmarkRunner.report("Order parsing, split: %,.0f rows/sec, %d bytes/row",
+                splitResult.perSecond(ROWS), splitResult.getAllocatedBytes() / ROWS);
+        BenchmarkRunner.report("Order parsing, tokenizer: %,.0f rows/sec, %d bytes/row",
+                tokenizerResult.perSecond(ROWS), tokenizerResult.getAllocatedBytes() / ROWS);
+    }
+
+    private long parseAll(Function<String, Order> parser) {
+        long orderNumbers = 0;
+        for (String orderLine : orderLines) {
+            orderNumbers += parser.apply(orderLine).getOrderNumber();
+        }
+        return orderNumbers;
+    }
+
+    /**
+     * The way the DAO read an order line before the LineTokenizer.
+     */
+    private Order unmarshallingBySplit(String orderDetails) {
+        String[] orderSeperatedDetails = orderDetails.split(",");
+        String customerName = orderSeperatedDetails[3];
+        LocalDate orderCreation = LocalDate.parse(orderSeperatedDetails[1], DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        LocalDate orderDate = LocalDate.parse(orderSeperatedDetails[2], DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        Taxes taxRate = allTaxRates.get(orderSeperatedDetails[4]);
+        Product product = allProducts.get(orderSeperatedDetails[6]);
+        BigDecimal area = new BigDecimal(orderSeperatedDetails[7]);
+
+        Order currentOrder = new Order(orderCreation, orderDate, customerName, taxRate, product, area);
+        currentOrder.setOrderNumber(Integer.parseInt(orderSeperatedDetails[0]));
+        currentOrder.setLaborCost(new BigDecimal(orderSeperatedDetails[11]));
+        currentOrder.setMaterialCost(new BigDecimal(orderSeperatedDetails[10]));
+        currentOrder.setTax(new BigDecimal(orderSeperatedDetails[12]));
+        currentOrder.setTotal(new BigDecimal(orderSeperatedDetails[13]));
+        currentOrder.setActiveOrder(Boolean.parseBoolean(orderSeperatedDetails[14]));
+        return currentOrder;
+    }
+}
@@ -0,0 +1,153 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for repartitioning the order files and reading the orders back from
+ * weekly and monthly files. Each test runs against 40 days of orders, with two
+ * orders a day, in a temporary folder.
+ * @author lydiaadejumo
+ */
+public class OrderRepartitionerTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 10, 20);
+
+    private Path testFolder;
+    private String fileLocation;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("repartition-test");
+        fileLocation = testFolder.toString() + File.separator;
+        Files.createDirectories(testFolder.resolve("Data"));
+        Files.createDirectories(testFolder.resolve("Orders"));
+        Files.createDirectories(testFolder.resolve("Backup"));
+        Files.copy(new File("src/test/resources/Data/Taxes.txt").toPath(), testFolder.resolve("Data/Taxes.txt"));
+        Files.copy(new File("src/test/resources/Data/Products.txt").toPath(), testFolder.resolve("Data/Products.txt"));
+        DailyPartitioning daily = new DailyPartitioning();
+        int orderNum = 1;
+        for (int day = 0; day < 40; day++) {
+            LocalDate orderDate = FIRST_DATE.plusDays(day);
+            try (PrintWriter out = new PrintWriter(new FileWriter(
+                    testFolder.resolve("Orders/" + daily.getFileName(orderDate)).toFile()))) {
+                out.println("OrderNumber,OrderCreationDate,OrderDate,CustomerName,"
+                        + "State,TaxRate,ProductType,Area,CostPerSquareFoot,"
+                        + "LaborCostPerSquareFoot,MaterialCost,LaborCost,Tax,"
+                        + "Total,isActive");
+                for (int i = 0; i < 2; i++, orderNum++) {
+                    out.println(orderNum + ",06-01-2020," + orderDate.format(java.time.format.DateTimeFormatter.ofPattern("MM-dd-yyyy"))
+                            + ",Customer " + orderNum + ",CA,25.00,Tile,"
+                            + "249.00,3.50,4.15,871.50,1033.35,476.21,2381.06,true");
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(testFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Testing that moving the day files into month files keeps every order,
+     * and that the orders on one date can be read from the month file.
+     */
+    @Test
+    public void testRepartitionMonthly() throws OrderPersistenceException, NoSuchOrderFileException, NoSuchOrderException {
+        //ACT
+        int movedLines = new OrderRepartitioner(fileLocation).repartition(new DailyPartitioning(), new MonthlyPartitioning());
+        FlooringOrderDaoImpl monthlyDao = new FlooringOrderDaoImpl(fileLocation, OrderFileCache.DEFAULT_CAPACITY,
+                new MonthlyPartitioning());
+        List<Order> allOrdersOnDate = monthlyDao.getAllOrders(LocalDate.of(2020, 11, 4));
+
+        //ASSESS
+        assertEquals(80, movedLines, "Every order line should be moved");
+        assertEquals(2, new File(fileLocation + "Orders/").list().length, "There should be an October and a November file");
+        assertEquals(2, allOrdersOnDate.size(), "There should be 2 orders on 11-04-2020");
+        assertEquals(LocalDate.of(2020, 11, 4), allOrdersOnDate.get(0).getOrderDate(), "The order should be on 11-04-2020");
+        assertEquals("Customer 31", monthlyDao.getOrder(31).getCustomerName(), "Order 31 should be found by its number");
+        assertThrows(NoSuchOrderFileException.class, () -> monthlyDao.getAllOrders(LocalDate.of(2020, 12, 30)),
+                "There are no orders in the December file");
+        assertEquals(80, monthlyDao.exportOrders(true).size(), "Every order should be exported");
+    }
+
+    /**
+     * Testing that new and edited orders go to the week file, and that the
+     * files can be moved back to one file per day.
+     */
+    @Test
+    public void testRepartitionWeeklyAndBack() throws OrderPersistenceException, NoSuchOrderFileException,
+            NoSuchOrderException {
+        //ARRANGE
+        OrderRepartitioner repartitioner = new OrderRepartitioner(fileLocation);
+        repartitioner.repartition(new DailyPartitioning(), new WeeklyPartitioning());
+        FlooringOrderDaoImpl weeklyDao = new FlooringOrderDaoImpl(fileLocation, OrderFileCache.DEFAULT_CAPACITY,
+                new WeeklyPartitioning());
+        LocalDate orderDate = LocalDate.of(2020, 11, 4);
+
+        //ACT
+        Order newOrder = new Order(weeklyDao.getOrder(orderDate, 31));
+        newOrder.setOrderNumber(81);
+        newOrder.setCustomerName("Ada Lovelace");
+        weeklyDao.addOrder(newOrder);
+        Order editedOrder = weeklyDao.getOrder(orderDate, 32);
+        editedOrder.setActiveOrder(false);
+        weeklyDao.editOrder(editedOrder);
+        List<Order> weeklyOrders = weeklyDao.getAllOrders(orderDate);
+        int movedLines = repartitioner.repartition(new WeeklyPartitioning(), new DailyPartitioning());
+        List<Order> dailyOrders = new FlooringOrderDaoImpl(fileLocation).getAllOrders(orderDate);
+
+        //ASSESS
+        assertEquals(3, weeklyOrders.size(), "There should be 3 orders on 11-04-2020");
+        assertFalse(weeklyOrders.get(1).isActiveOrder(), "Order 32 should be cancelled");
+        assertEquals(81, movedLines, "Every order line should be moved back");
+        assertEquals(40, new File(fileLocation + "Orders/").list().length, "There should be a file for each day");
+        assertEquals(3, dailyOrders.size(), "The day file should have the same 3 orders");
+        assertEquals("Ada Lovelace", dailyOrders.get(2).getCustomerName(), "The new order should be last");
+    }
+
+    /**
+     * Testing that a run which stopped after staging its files is finished by
+     * running again, and that an unfinished staging folder stops a new run.
+     */
+    @Test
+    public void testResumeAndRefuse() throws Exception {
+        //ARRANGE
+        OrderRepartitioner repartitioner = new OrderRepartitioner(fileLocation);
+        repartitioner.stage(new DailyPartitioning(), new MonthlyPartitioning());
+        File ordersFolder = new File(fileLocation + "Orders/");
+        int filesBeforeFinish = ordersFolder.list().length;
+
+        //ACT
+        int movedLines = repartitioner.repartition(new DailyPartitioning(), new MonthlyPartitioning());
+        File unfinishedFile = new File(fileLocation + "Orders.repartition/Orders_M202010.txt");
+        unfinishedFile.getParentFile().mkdirs();
+        unfinishedFile.createNewFile();
+
+        //ASSESS
+        assertEquals(40, filesBeforeFinish, "Staging shouldn't change the Orders folder");
+        assertEquals(80, movedLines, "The staged run should be finished");
+        assertEquals(2, ordersFolder.list().length, "Only the month files should be left");
+        assertThrows(OrderPersistenceException.class,
+                () -> repartitioner.repartition(new MonthlyPartitioning(), new DailyPartitioning()),
+                "An unfinished staging folder should stop a new run");
+        assertEquals(2, ordersFolder.list().length, "Nothing should be changed");
+        assertTrue(unfinishedFile.exists(), "The unfinished staging shouldn't be deleted");
+    }
+}
@@ -0,0 +1,171 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import alydiaade.flooringmastery.model.Order;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares writing orders with the OrderLineWriter against concatenating each
+ * line with a new date formatter per date, the way the DAO wrote them before.
+ * The export writes 100,000 backup lines, and the edit rewrites one order file
+ * of 5,000 order lines, both to a file under target. The lines per second and
+ * the bytes allocated for each line are reported.
+ * @author lydiaadejumo
+ */
+public class OrderWritingBenchmark {
+
+    private static final int EXPORT_ORDERS = 100_000;
+    private static final int EDIT_ORDERS = 5_000;
+    private static final String DELIMITER = ",";
+    private static final BenchmarkRunner RUNNER = new BenchmarkRunner(5, 5);
+
+    private final FlooringOrderDaoImpl fileDao = new FlooringOrderDaoImpl("src/test/resources/");
+    private final OrderLineWriter lineWriter = new OrderLineWriter();
+    private List<Order> orders;
+    private Path testFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        orders = new ArrayList<>(EXPORT_ORDERS);
+        for (int orderNum = 1; orderNum <= EXPORT_ORDERS; orderNum++) {
+            orders.add(fileDao.unmarshallingOrder(orderNum + ",06-01-2020," + String.format("11-%02d-2020",
+                    orderNum % 28 + 1) + ",Customer " + orderNum + ",WA,9.25,Wood,243." + (orderNum % 100)
+                    + ",5.15,4.75,1251.45,1154.25,216.51,2622.21,true"));
+        }
+        Files.createDirectories(Paths.get("target"));
+        testFile = Files.createTempFile(Paths.get("target"), "order-writing-benchmark", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    /**
+     * Measuring both ways of writing the export and the edited order file.
+     */
+    @Test
+    public void measureWriting() throws Exception {
+        //ARRANGE
+        List<Order> editOrders = orders.subList(0, EDIT_ORDERS);
+
+        //ACT
+        BenchmarkRunner.Result exportByConcatenation = RUNNER.measure(
+                (stopwatch) -> writeExportByConcatenation(orders));
+        BenchmarkRunner.Result exportByLineWriter = RUNNER.measure((stopwatch) -> writeExportByLineWriter(orders));
+        List<String> exportLines = Files.readAllLines(testFile, StandardCharsets.UTF_8);
+        BenchmarkRunner.Result editByConcatenation = RUNNER.measure(
+                (stopwatch) -> rewriteByConcatenation(editOrders));
+        BenchmarkRunner.Result editByLineWriter = RUNNER.measure((stopwatch) -> rewriteByLineWriter(editOrders));
+
+        //ASSESS
+        assertEquals(backupByConcatenation(orders.get(7)), exportLines.get(7), "Both ways should write the same line");
+        assertEquals(orderByConcatenation(orders.get(7)), lineWriter.orderLine(orders.get(7)));
+        report("Export", EXPORT_ORDERS, exportByConcatenation, exportByLineWriter);
+        report("Edit", EDIT_ORDERS, editByConcatenation, editByLineWriter);
+    }
+
+    private void report(String operation, int lines, BenchmarkRunner.Result concatenation,
+            BenchmarkRunner.Result lineWriterResult) {
+        BenchmarkRunner.report("%s, concatenation: %,.0f lines/sec, %d bytes/line", operation,
+                concatenation.perSecond(lines), concatenation.getAllocatedBytes() / lines);
+        BenchmarkRunner.report("%s, line writer: %,.0f lines/sec, %d bytes/line (%.1fx)", operation,
+                lineWriterResult.perSecond(lines), lineWriterResult.getAllocatedBytes() / lines,
+                (double) concatenation.getBestNanos() / lineWriterResult.getBestNanos());
+    }
+
+    /**
+     * The way the DAO wrote the backup file before the OrderLineWriter.
+     */
+    private long writeExportByConcatenation(List<Order> activeOrders) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(testFile.toFile(), StandardCharsets.UTF_8))) {
+            for (Order eachActiveOrder : activeOrders) {
+                out.println(backupByConcatenation(eachActiveOrder));
+            }
+        }
+        return Files.size(testFile);
+    }
+
+    private long writeExportByLineWriter(List<Order> activeOrders) throws IOException {
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(testFile.toFile(), StandardCharsets.UTF_8))) {
+            for (Order eachActiveOrder : activeOrders) {
+                lineWriter.writeBackup(eachActiveOrder, out);
+            }
+        }
+        return Files.size(testFile);
+    }
+
+    /**
+     * The way the DAO rewrote an edited order file before the OrderLineWriter.
+     */
+    private long rewriteByConcatenation(List<Order> fileOrders) throws IOException {
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(testFile.toFile(), StandardCharsets.UTF_8))) {
+            for (Order fileOrder : fileOrders) {
+                out.write(orderByConcatenation(fileOrder));
+                out.newLine();
+            }
+        }
+        return Files.size(testFile);
+    }
+
+    private long rewriteByLineWriter(List<Order> fileOrders) throws IOException {
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(testFile.toFile(), StandardCharsets.UTF_8))) {
+            for (Order fileOrder : fileOrders) {
+                out.write(lineWriter.orderLine(fileOrder));
+                out.newLine();
+            }
+        }
+        return Files.size(testFile);
+    }
+
+    private String orderByConcatenation(Order currentOrder) {
+        String orderToString = currentOrder.getOrderNumber() + DELIMITER;
+        orderToString += currentOrder.getOrderCreation().format(DateTimeFormatter.ofPattern("MM-dd-yyyy")) + DELIMITER;
+        orderToString += currentOrder.getOrderDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy")) + DELIMITER;
+        orderToString += currentOrder.getCustomerName() + DELIMITER;
+        orderToString += currentOrder.getTaxInfo().getState() + DELIMITER;
+        orderToString += currentOrder.getTaxInfo().getTaxRate() + DELIMITER;
+        orderToString += currentOrder.getProduct().getProductType() + DELIMITER;
+        orderToString += currentOrder.getArea() + DELIMITER;
+        orderToString += currentOrder.getProduct().getCostPerSquareFoot() + DELIMITER;
+        orderToString += currentOrder.getProduct().getLaborCostPerSquareFoot() + DELIMITER;
+        orderToString += currentOrder.getMaterialCost() + DELIMITER;
+        orderToString += currentOrder.getLaborCost() + DELIMITER;
+        orderToString += currentOrder.getTax() + DELIMITER;
+        orderToString += currentOrder.getTotal() + DELIMITER;
+        orderToString += currentOrder.isActiveOrder();
+        return orderToString;
+    }
+
+    private String backupByConcatenation(Order currentOrder) {
+        String orderToString = currentOrder.getOrderNumber() + DELIMITER;
+        orderToString += currentOrder.getOrderCreation().format(DateTimeFormatter.ofPattern("MM-dd-yyyy")) + DELIMITER;
+        orderToString += currentOrder.getCustomerName() + DELIMITER;
+        orderToString += currentOrder.getTaxInfo().getState() + DELIMITER;
+        orderToString += currentOrder.getTaxInfo().getTaxRate() + DELIMITER;
+        orderToString += currentOrder.getProduct().getProductType() + DELIMITER;
+        orderToString += currentOrder.getArea() + DELIMITER;
+        orderToString += currentOrder.getProduct().getCostPerSquareFoot() + DELIMITER;
+        orderToString += currentOrder.getProduct().getLaborCostPerSquareFoot() + DELIMITER;
+        orderToString += currentOrder.getMaterialCost() + DELIMITER;
+        orderToString += currentOrder.getLaborCost() + DELIMITER;
+        orderToString += currentOrder.getTax() + DELIMITER;
+        orderToString += currentOrder.getTotal() + DELIMITER;
+        orderToString += currentOrder.getOrderDate().format(DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        return orderToString;
+    }
+}
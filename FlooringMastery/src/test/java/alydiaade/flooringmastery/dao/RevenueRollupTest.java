@@ -0,0 +1,157 @@
+package alydiaade.flooringmastery.dao;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.RevenueTotals;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the revenue rollup, using the orders in the DAO stub.
+ * @author lydiaadejumo
+ */
+public class RevenueRollupTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(2020, 12, 31);
+
+    private Path testFolder;
+    private String rollupFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        testFolder = Files.createTempDirectory("rollup-test");
+        rollupFile = testFolder.resolve("Index/RevenueRollup.txt").toString();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> contents = Files.walk(testFolder)) {
+            contents.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Testing that the rollup built from the orders totals the active orders
+     * by state, product and date.
+     */
+    @Test
+    public void testBuildFromOrders() {
+        //ARRANGE & ACT
+        RevenueRollup testRollup = new RevenueRollup(new FlooringOrderDaoStub(), rollupFile);
+        Map<String, RevenueTotals> byState = testRollup.totalsByState(FIRST_DATE, LAST_DATE);
+        Map<String, RevenueTotals> byProduct = testRollup.totalsByProduct(FIRST_DATE, LAST_DATE);
+        NavigableMap<LocalDate, RevenueTotals> byDate = testRollup.totalsByDate(FIRST_DATE, LAST_DATE);
+
+        //ASSESS
+        assertEquals(4, testRollup.size(), "The cancelled order shouldn't be in the rollup");
+        assertEquals(new BigDecimal("3147.38"), byState.get("WA").getTotal(), "Orders 4 and 5 are in WA");
+        assertEquals(2, byState.get("WA").getOrderCount());
+        assertEquals(new BigDecimal("3631.84"), byProduct.get("Tile").getTotal(), "Orders 1 and 5 are Tile");
+        assertEquals(new BigDecimal("3181.86"), byDate.get(LocalDate.of(2020, 11, 4)).getTotal());
+        assertEquals(2, byDate.size(), "Only the dates with orders should be listed");
+        assertTrue(testRollup.totalsByState(LocalDate.of(2020, 8, 1), LocalDate.of(2020, 10, 31)).isEmpty());
+        assertTrue(new File(rollupFile).exists(), "The rollup should be saved");
+    }
+
+    /**
+     * Testing that edits and cancellations move an order's share, and the
+     * rollup file is loaded on the next start rather than the orders.
+     */
+    @Test
+    public void testApplyAndReload() throws Exception {
+        //ARRANGE
+        FlooringOrderDaoStub testDao = new FlooringOrderDaoStub();
+        RevenueRollup testRollup = new RevenueRollup(testDao, rollupFile);
+        Order editedOrder = new Order(testDao.getOrder(5));
+        Order cancelledOrder = new Order(testDao.getOrder(3));
+
+        //ACT
+        editedOrder.setTotal(new BigDecimal("1000.00"));
+        testRollup.apply(editedOrder);
+        cancelledOrder.setActiveOrder(false);
+        testRollup.apply(cancelledOrder);
+        //The stub still has the original orders, so only the rollup file has the changes
+        RevenueRollup reloadedRollup = new RevenueRollup(new FlooringOrderDaoStub(), rollupFile);
+
+        //ASSESS
+        for (RevenueRollup eachRollup : new RevenueRollup[] {testRollup, reloadedRollup}) {
+            NavigableMap<LocalDate, RevenueTotals> byDate = eachRollup.totalsByDate(FIRST_DATE, LAST_DATE);
+            assertEquals(3, eachRollup.size(), "Order 3 should have been taken out");
+            assertEquals(new BigDecimal("2896.60"), byDate.get(LocalDate.of(2020, 7, 20)).getTotal(),
+                    "Order 5 should count with its new total");
+            assertEquals(2, byDate.get(LocalDate.of(2020, 7, 20)).getOrderCount(),
+                    "An edit shouldn't count the order twice");
+            assertEquals(new BigDecimal("2381.06"), byDate.get(LocalDate.of(2020, 11, 4)).getTotal(),
+                    "Only order 1 should be left in November");
+            assertNull(eachRollup.totalsByState(FIRST_DATE, LAST_DATE).get("TX"), "Order 3 was the only TX order");
+        }
+    }
+
+    /**
+     * Testing that orders written to the orders but not yet applied when the
+     * app stopped, and orders added without the rollup, are read again on the
+     * next start.
+     */
+    @Test
+    public void testCatchUpOnReload() throws Exception {
+        //ARRANGE
+        FlooringOrderDaoStub testDao = new FlooringOrderDaoStub();
+        RevenueRollup testRollup = new RevenueRollup(testDao, rollupFile);
+        Order editedOrder = new Order(testDao.getOrder(5));
+        Order addedOrder = new Order(testDao.getOrder(1));
+        addedOrder.setOrderNumber(6);
+
+        //ACT
+        editedOrder.setTotal(new BigDecimal("1000.00"));
+        testRollup.begin(5);
+        testDao.editOrder(editedOrder);
+        testDao.addOrder(addedOrder);
+        //The app stops before either order is applied
+        RevenueRollup reloadedRollup = new RevenueRollup(testDao, rollupFile);
+        NavigableMap<LocalDate, RevenueTotals> byDate = reloadedRollup.totalsByDate(FIRST_DATE, LAST_DATE);
+
+        //ASSESS
+        assertEquals(5, reloadedRollup.size(), "The added order should have been read");
+        assertEquals(new BigDecimal("2896.60"), byDate.get(LocalDate.of(2020, 7, 20)).getTotal(),
+                "The pending edit of order 5 should have been read");
+        assertEquals(new BigDecimal("5562.92"), byDate.get(LocalDate.of(2020, 11, 4)).getTotal(),
+                "Order 6 is a copy of order 1");
+    }
+
+    /**
+     * Testing that a rollup holding an order the orders don't have is built
+     * again, e.g. when the order files have been replaced.
+     */
+    @Test
+    public void testRebuildOnMismatch() throws Exception {
+        //ARRANGE
+        FlooringOrderDaoStub testDao = new FlooringOrderDaoStub();
+        RevenueRollup testRollup = new RevenueRollup(testDao, rollupFile);
+        Order addedOrder = new Order(testDao.getOrder(1));
+        addedOrder.setOrderNumber(6);
+        testRollup.begin(6);
+        testDao.addOrder(addedOrder);
+        testRollup.apply(addedOrder);
+
+        //ACT
+        RevenueRollup reloadedRollup = new RevenueRollup(new FlooringOrderDaoStub(), rollupFile);
+
+        //ASSESS
+        assertEquals(5, testRollup.size());
+        assertEquals(4, reloadedRollup.size(), "Order 6 isn't in the orders, so the rollup should be rebuilt");
+        assertEquals(new BigDecimal("3181.86"),
+                reloadedRollup.totalsByDate(FIRST_DATE, LAST_DATE).get(LocalDate.of(2020, 11, 4)).getTotal());
+    }
+}
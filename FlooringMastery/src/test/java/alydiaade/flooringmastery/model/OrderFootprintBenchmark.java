@@ -0,0 +1,92 @@
+package alydiaade.flooringmastery.model;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the heap taken by 100,000 orders with their compact decimals
+ * against the same orders keeping their decimals as BigDecimals. The heap is
+ * read around System.gc, which the JVM may ignore, so the figures are only a
+ * guide and this isn't one of the tests.
+ * @author lydiaadejumo
+ */
+public class OrderFootprintBenchmark {
+
+    private static final int ORDERS = 100_000;
+    private static final LocalDate ORDER_DATE = LocalDate.of(2020, 11, 4);
+    private static final Taxes TAX_INFO = new Taxes("CA", "Calfornia", new BigDecimal("25.00"));
+    private static final Product PRODUCT = new Product("Tile", new BigDecimal("3.50"), new BigDecimal("4.15"));
+
+    /**
+     * Measuring the heap taken by orders read from a file, with their own
+     * decimals, against the same orders keeping their decimals as BigDecimals.
+     */
+    @Test
+    public void measureFootprint() {
+        //ARRANGE
+        BigDecimalOrder[] bigDecimalOrders = new BigDecimalOrder[ORDERS];
+        Order[] compactOrders = new Order[ORDERS];
+        long beforeBigDecimalOrders = usedHeap();
+
+        //ACT
+        for (int i = 0; i < ORDERS; i++) {
+            bigDecimalOrders[i] = new BigDecimalOrder(new BigDecimal("249.00"), new BigDecimal("871.50"),
+                    new BigDecimal("1033.35"), new BigDecimal("476.21"), new BigDecimal("2381.06"));
+        }
+        long bigDecimalOrderBytes = (usedHeap() - beforeBigDecimalOrders) / ORDERS;
+        long beforeCompactOrders = usedHeap();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(ORDER_DATE, ORDER_DATE, "Ada Lovelace", TAX_INFO, PRODUCT, new BigDecimal("249.00"));
+            order.setMaterialCost(new BigDecimal("871.50"));
+            order.setLaborCost(new BigDecimal("1033.35"));
+            order.setTax(new BigDecimal("476.21"));
+            order.setTotal(new BigDecimal("2381.06"));
+            compactOrders[i] = order;
+        }
+        long compactOrderBytes = (usedHeap() - beforeCompactOrders) / ORDERS;
+
+        //ASSESS
+        //Both sets of orders are used here, so neither is collected while being measured
+        assertEquals(bigDecimalOrders[ORDERS - 1].total, compactOrders[ORDERS - 1].getTotal());
+        BenchmarkRunner.report("Order footprint: %d bytes compact, %d bytes with BigDecimals",
+                compactOrderBytes, bigDecimalOrderBytes);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The order fields as they were before the decimals were made compact.
+     */
+    private static final class BigDecimalOrder {
+        private LocalDate orderDate = ORDER_DATE;
+        private LocalDate orderCreation = ORDER_DATE;
+        private int orderNumber;
+        private String customerName = "Ada Lovelace";
+        private Product product = PRODUCT;
+        private Taxes taxInfo = TAX_INFO;
+        private BigDecimal area;
+        private BigDecimal materialCost;
+        private BigDecimal laborCost;
+        private BigDecimal total;
+        private BigDecimal tax;
+        private boolean activeOrder = true;
+
+        private BigDecimalOrder(BigDecimal area, BigDecimal materialCost, BigDecimal laborCost, BigDecimal tax,
+                BigDecimal total) {
+            this.area = area;
+            this.materialCost = materialCost;
+            this.laborCost = laborCost;
+            this.tax = tax;
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package alydiaade.flooringmastery.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compact decimals in the order, and the money and quantity
+ * types they are read as.
+ * @author lydiaadejumo
+ */
+public class OrderTest {
+
+    private static final LocalDate ORDER_DATE = LocalDate.of(2020, 11, 4);
+    private static final Taxes TAX_INFO = new Taxes("CA", "Calfornia", new BigDecimal("25.00"));
+    private static final Product PRODUCT = new Product("Tile", new BigDecimal("3.50"), new BigDecimal("4.15"));
+
+    /**
+     * Testing that the BigDecimal getters give back exactly what was set,
+     * including the scale, nulls and decimals too long for a long.
+     */
+    @Test
+    public void testDecimalsRoundTrip() {
+        //ARRANGE
+        Order testOrder = new Order(ORDER_DATE, ORDER_DATE, "Ada Lovelace", TAX_INFO, PRODUCT, new BigDecimal("200"));
+        BigDecimal wideTotal = new BigDecimal("123456789012345678901234.56");
+
+        //ACT
+        Order uncalculated = new Order(testOrder);
+        testOrder.setMaterialCost(new BigDecimal("700.0"));
+        testOrder.setLaborCost(new BigDecimal("830.00"));
+        testOrder.setTax(new BigDecimal("-1E+2"));
+        testOrder.setTotal(wideTotal);
+        Order copiedOrder = new Order(testOrder);
+        testOrder.setTotal(new BigDecimal("1530.00"));
+
+        //ASSESS
+        assertEquals("200", testOrder.getArea().toString(), "The scale of the area should be kept");
+        assertEquals("700.0", testOrder.getMaterialCost().toString());
+        assertEquals("830.00", testOrder.getLaborCost().toString());
+        assertEquals("-1E+2", testOrder.getTax().toString(), "A negative scale should be kept");
+        assertEquals("1530.00", testOrder.getTotal().toString(), "A wide value should be replaced");
+        assertEquals(wideTotal, copiedOrder.getTotal(), "A value too long for a long should be kept");
+        assertNull(uncalculated.getTotal(), "The costs haven't been calculated");
+        assertNull(uncalculated.getTotalMoney());
+        assertEquals(Quantity.ofTenThousandths(2_000_000), testOrder.getAreaQuantity());
+        assertEquals(Money.ofCents(70_000), testOrder.getMaterialCostMoney());
+        assertEquals(Money.ofCents(-10_000), testOrder.getTaxMoney());
+        assertEquals(Money.ofCents(153_000), testOrder.getTotalMoney());
+        assertEquals(Money.ofCents(415), PRODUCT.getLaborCostPerSquareFootMoney());
+        assertEquals(Quantity.ofTenThousandths(250_000), TAX_INFO.getTaxRateQuantity());
+    }
+
+    /**
+     * Testing that money and quantities round half up to their scale, give
+     * back the same value whether made from a decimal or its digits, and
+     * refuse a value too big to hold.
+     */
+    @Test
+    public void testMoneyAndQuantityScale() {
+        //ARRANGE
+        Random random = new Random(20201104L);
+
+        for (int i = 0; i < 2_000; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000, random.nextInt(7) - 1);
+
+            //ACT
+            Money money = Money.of(value);
+            Quantity quantity = Quantity.of(value);
+
+            //ASSESS
+            assertEquals(value.setScale(2, RoundingMode.HALF_UP), money.toBigDecimal(), value + " in cents");
+            assertEquals(value.setScale(4, RoundingMode.HALF_UP), quantity.toBigDecimal(), value + " in units");
+            assertEquals(money, Money.of(value.unscaledValue().longValue(), value.scale()));
+            assertEquals(quantity, Quantity.of(value.unscaledValue().longValue(), value.scale()));
+            assertEquals(money, Money.ofCents(money.getCents()));
+            assertEquals(quantity, Quantity.ofTenThousandths(quantity.getTenThousandths()));
+        }
+        assertEquals("1.01", Money.of(new BigDecimal("1.005")).toString(), "Half a cent should round up");
+        assertEquals("-1.01", Money.of(new BigDecimal("-1.005")).toString(), "and away from zero");
+        assertEquals(Money.ofCents(300), Money.ofCents(100).plus(Money.ofCents(200)));
+        assertTrue(Money.ofCents(100).compareTo(Money.ofCents(200)) < 0);
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1E+20")));
+        assertThrows(ArithmeticException.class, () -> Quantity.of(Long.MAX_VALUE, 0));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+    }
+
+    /**
+     * Testing that the whole number getters give the exact cents and ten
+     * thousandths, refuse a value that would need rounding, and that costs set
+     * in cents read back as decimals with 2 decimal places.
+     */
+    @Test
+    public void testWholeNumberGetters() {
+        //ARRANGE
+        Order testOrder = new Order(ORDER_DATE, ORDER_DATE, "Ada Lovelace", TAX_INFO, PRODUCT, new BigDecimal("249.5"));
+        Order preciseOrder = new Order(ORDER_DATE, ORDER_DATE, "Ada Lovelace", TAX_INFO, PRODUCT,
+                new BigDecimal("1.23456"));
+        Order uncalculated = new Order(testOrder);
+
+        //ACT
+        testOrder.setTotal(new BigDecimal("123456789012345678901234.56"));
+        testOrder.setTax(new BigDecimal("476.2100"));
+        testOrder.setCostsInCents(87_150, 103_335, 47_621, 238_106);
+
+        //ASSESS
+        assertEquals(2_495_000, testOrder.getAreaTenThousandths());
+        assertEquals(87_150, testOrder.getMaterialCostCents());
+        assertEquals(238_106, testOrder.getTotalCents(), "A wide total should be replaced");
+        assertEquals("871.50", testOrder.getMaterialCost().toString(), "Costs in cents have 2 decimal places");
+        assertEquals("1033.35", testOrder.getLaborCost().toString());
+        assertEquals("476.21", testOrder.getTax().toString());
+        assertEquals("2381.06", testOrder.getTotal().toString());
+        assertThrows(ArithmeticException.class, () -> preciseOrder.getAreaTenThousandths(),
+                "Five decimal places can't be held in ten thousandths");
+        assertThrows(IllegalStateException.class, () -> uncalculated.getTotalCents());
+        testOrder.setTax(new BigDecimal("476.2100"));
+        assertEquals(47_621, testOrder.getTaxCents(), "Trailing zeros past the cents are exact");
+        testOrder.setTax(new BigDecimal("476.215"));
+        assertThrows(ArithmeticException.class, () -> testOrder.getTaxCents(), "Half a cent isn't exact");
+    }
+
+    /**
+     * Testing that appending the area and costs gives the same text as
+     * appending the BigDecimal getters, for every kind of scale.
+     */
+    @Test
+    public void testAppendMatchesGetters() {
+        //ARRANGE
+        Random random = new Random(20200720L);
+        List<BigDecimal> values = new ArrayList<>(Arrays.asList(new BigDecimal("0"), new BigDecimal("0.00"),
+                new BigDecimal("-0.05"), new BigDecimal("1E+3"), new BigDecimal("0.0000001"),
+                new BigDecimal("0.000001"), new BigDecimal("123456789012345678901234.56"),
+                BigDecimal.valueOf(Long.MIN_VALUE, 2), BigDecimal.valueOf(Long.MAX_VALUE, 18)));
+        for (int i = 0; i < 2_000; i++) {
+            values.add(BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(24) - 2));
+        }
+
+        for (BigDecimal value : values) {
+            Order testOrder = new Order(ORDER_DATE, ORDER_DATE, "Ada Lovelace", TAX_INFO, PRODUCT, value);
+            testOrder.setMaterialCost(value);
+            testOrder.setLaborCost(value.negate());
+            testOrder.setTax(value);
+            testOrder.setTotal(value);
+
+            //ACT
+            String appended = testOrder.appendCosts(testOrder.appendArea(new StringBuilder()).append(','), ',')
+                    .toString();
+
+            //ASSESS
+            assertEquals(value + "," + value + "," + value.negate() + "," + value + "," + value, appended);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package alydiaade.flooringmastery.service;
+
+import alydiaade.flooringmastery.BenchmarkRunner;
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares pricing orders with the BigDecimal sums against the fixed point
+ * sums, both one order at a time and as one batch, over the same 200,000
+ * random orders. The time for each order is reported.
+ * @author lydiaadejumo
+ */
+public class FixedPointPricingBenchmark {
+
+    private static final int ORDERS = 200_000;
+    private static final BenchmarkRunner RUNNER = new BenchmarkRunner(10, 10);
+    private static final LocalDate ORDER_DATE = LocalDate.of(2020, 11, 4);
+
+    private final FixedPointPricing pricing = new FixedPointPricing();
+
+    /**
+     * Measuring each way of pricing the same orders.
+     */
+    @Test
+    public void measurePricing() throws Exception {
+        //ARRANGE
+        List<Order> orders = randomOrders(new Random(20201104L));
+
+        //ACT
+        double bigDecimalNanos = RUNNER.measure((stopwatch) -> price(orders, (batch) -> {
+            batch.forEach(FixedPointPricing::calculateCostsExactly);
+            return batch;
+        })).nanosEach(ORDERS);
+        double singleNanos = RUNNER.measure((stopwatch) -> price(orders, (batch) -> {
+            batch.forEach(pricing::calculateCosts);
+            return batch;
+        })).nanosEach(ORDERS);
+        double batchNanos = RUNNER.measure((stopwatch) -> price(orders, pricing::calculateCosts)).nanosEach(ORDERS);
+
+        //ASSESS
+        BenchmarkRunner.report("Pricing, BigDecimal: %.0f ns/order", bigDecimalNanos);
+        BenchmarkRunner.report("Pricing, fixed point: %.0f ns/order (%.1fx)", singleNanos, bigDecimalNanos / singleNanos);
+        BenchmarkRunner.report("Pricing, fixed point batch: %.0f ns/order (%.1fx)",
+                batchNanos, bigDecimalNanos / batchNanos);
+    }
+
+    private long price(List<Order> orders, UnaryOperator<List<Order>> pricer) {
+        List<Order> priced = pricer.apply(orders);
+        assertEquals(orders.size(), priced.size());
+        return priced.get(priced.size() - 1).getTotal().unscaledValue().longValue();
+    }
+
+    private List<Order> randomOrders(Random random) {
+        List<Taxes> taxes = new ArrayList<>();
+        for (int state = 0; state < 50; state++) {
+            taxes.add(new Taxes("S" + state, "State " + state, BigDecimal.valueOf(random.nextInt(3000), 2)));
+        }
+        List<Product> products = new ArrayList<>();
+        for (int product = 0; product < 20; product++) {
+            products.add(new Product("P" + product, BigDecimal.valueOf(random.nextInt(2000) + 1, 2),
+                    BigDecimal.valueOf(random.nextInt(2000) + 1, 2)));
+        }
+        List<Order> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(new Order(ORDER_DATE, ORDER_DATE, "Customer " + i, taxes.get(random.nextInt(taxes.size())),
+                    products.get(random.nextInt(products.size())), BigDecimal.valueOf(random.nextInt(1_000_000) + 100, 2)));
+        }
+        return orders;
+    }
+}
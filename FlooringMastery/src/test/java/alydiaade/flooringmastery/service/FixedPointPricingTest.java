@@ -0,0 +1,104 @@
+package alydiaade.flooringmastery.service;
+
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the fixed point pricing works out the same costs as the
+ * BigDecimal sums, for random areas, costs and tax rates.
+ * @author lydiaadejumo
+ */
+public class FixedPointPricingTest {
+
+    private static final int ORDERS = 20_000;
+    private static final LocalDate ORDER_DATE = LocalDate.of(2020, 11, 4);
+
+    private final FixedPointPricing pricing = new FixedPointPricing();
+
+    /**
+     * Testing single orders against the BigDecimal sums, including areas with
+     * too many decimal places, and areas, costs and tax rates too big for a
+     * long.
+     */
+    @Test
+    public void testMatchesBigDecimalCosts() {
+        //ARRANGE
+        Random random = new Random(20201104L);
+        List<Order> orders = randomOrders(random);
+        orders.add(orderOf(new BigDecimal("123.456789"), new Product("Odd", new BigDecimal("1.05"),
+                new BigDecimal("0.15")), new Taxes("XX", "Halves", new BigDecimal("4.50"))));
+        orders.add(orderOf(new BigDecimal("99999999999999999.5"), new Product("Huge", new BigDecimal("99.99"),
+                new BigDecimal("99.99")), new Taxes("YY", "Large", new BigDecimal("99.99"))));
+        orders.add(orderOf(new BigDecimal("12.5"), new Product("Vast", new BigDecimal("123456789012345678901"),
+                new BigDecimal("0.15")), new Taxes("ZZ", "Vast", new BigDecimal("1E+20"))));
+
+        for (Order order : orders) {
+            //ACT
+            Order expected = FixedPointPricing.calculateCostsExactly(new Order(order));
+            Order actual = pricing.calculateCosts(new Order(order));
+
+            //ASSESS
+            assertCostsEqual(expected, actual);
+        }
+    }
+
+    /**
+     * Testing that a batch of orders sharing tax rates is priced the same as
+     * pricing each order on its own.
+     */
+    @Test
+    public void testBatchMatchesSingleOrders() {
+        //ARRANGE
+        List<Order> orders = randomOrders(new Random(20200720L));
+        List<Order> batch = new ArrayList<>();
+        for (Order order : orders) {
+            batch.add(new Order(order));
+        }
+
+        //ACT
+        List<Order> pricedBatch = pricing.calculateCosts(batch);
+
+        //ASSESS
+        assertSame(batch, pricedBatch, "The batch should be priced in place");
+        for (int i = 0; i < orders.size(); i++) {
+            assertCostsEqual(FixedPointPricing.calculateCostsExactly(orders.get(i)), pricedBatch.get(i));
+        }
+    }
+
+    private static List<Order> randomOrders(Random random) {
+        List<Taxes> taxes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            //Rates like 6.25 and 4.50, including the half percents that round up
+            taxes.add(new Taxes("S" + i, "State " + i, BigDecimal.valueOf(random.nextInt(3000), 2)));
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            BigDecimal area = BigDecimal.valueOf(100 + random.nextInt(10_000_000), random.nextInt(5));
+            Product product = new Product("Product", BigDecimal.valueOf(random.nextInt(5000), 2),
+                    BigDecimal.valueOf(random.nextInt(5000), random.nextInt(3)));
+            orders.add(orderOf(area, product, taxes.get(random.nextInt(taxes.size()))));
+        }
+        return orders;
+    }
+
+    private static Order orderOf(BigDecimal area, Product product, Taxes taxInfo) {
+        return new Order(ORDER_DATE, ORDER_DATE, "Customer", taxInfo, product, area);
+    }
+
+    private static void assertCostsEqual(Order expected, Order actual) {
+        String order = "Area " + expected.getArea() + " at " + expected.getProduct().getCostPerSquareFoot()
+                + "/" + expected.getProduct().getLaborCostPerSquareFoot() + " taxed " + expected.getTaxInfo().getTaxRate();
+        assertEquals(expected.getMaterialCost(), actual.getMaterialCost(), order);
+        assertEquals(expected.getLaborCost(), actual.getLaborCost(), order);
+        assertEquals(expected.getTax(), actual.getTax(), order);
+        assertEquals(expected.getTotal(), actual.getTotal(), order);
+    }
+}
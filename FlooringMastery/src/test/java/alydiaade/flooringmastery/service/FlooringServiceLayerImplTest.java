@@ -10,10 +10,14 @@ import alydiaade.flooringmastery.dao.NoSuchOrderFileException;
 import alydiaade.flooringmastery.dao.OrderPersistenceException;
 import alydiaade.flooringmastery.model.Order;
 import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.RevenueTotals;
 import alydiaade.flooringmastery.model.Taxes;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.springframework.context.ApplicationContext;
@@ -124,6 +128,25 @@ public class FlooringServiceLayerImplTest {
         assertEquals(2, allOrders2.size(),"There should be 2 orders on " + orderDate2);
     }
     
+    /**
+     * Test ability to get the orders between two dates
+     */
+    @Test
+    public void testGetOrdersRange() {
+        //ARRANGE
+        LocalDate fromDate = LocalDate.parse("2020-07-01");
+        LocalDate toDate = LocalDate.parse("2020-11-30");
+        
+        //ACT
+        List<Order> rangeOrders = service.getOrders(fromDate, toDate).collect(Collectors.toList());
+        List<Order> julyOrders = service.getOrders(fromDate, LocalDate.parse("2020-07-31"))
+                .collect(Collectors.toList());
+        
+        //ASSESS
+        assertEquals(5, rangeOrders.size(), "There should be 5 orders from " + fromDate + " to " + toDate);
+        assertEquals(2, julyOrders.size(), "There should be 2 orders in July");
+    }
+    
     /**
      * Test ability to check order state if it is active
      */
@@ -199,6 +222,44 @@ public class FlooringServiceLayerImplTest {
         }
     }
     
+    /**
+     * Test ability to create a batch of orders, with each order given the next
+     * order number in turn.
+     * @throws alydiaade.flooringmastery.dao.OrderPersistenceException - if the
+     * orders cannot be added
+     */
+    @Test
+    public void testCreateOrders() throws OrderPersistenceException {
+        //ARRANGE
+        List<Product> products = service.getProductList();
+        List<Taxes> taxes = service.getTaxList();
+        LocalDate orderDate = LocalDate.parse("11-04-2020", java.time.format.DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        LocalDate orderCreated = LocalDate.parse("07-05-2020", java.time.format.DateTimeFormatter.ofPattern("MM-dd-yyyy"));
+        List<Order> newOrders = new ArrayList<>();
+        for (String personName : new String[] {"Sharon Tony", "Tony Sharon", "Ada Lovelace"}) {
+            newOrders.add(service.calculateCosts(new Order(orderCreated, orderDate, personName, 
+                    taxes.get(1), products.get(2), new BigDecimal(200))));
+        }
+        int firstOrderNum = service.getOrderNumber();
+        
+        //ACT
+        List<Order> createdOrders = service.createOrders(newOrders);
+        
+        //ASSESS
+        assertEquals(3, createdOrders.size(), "All 3 orders should be created");
+        for (int i = 0; i < createdOrders.size(); i++) {
+            assertEquals(firstOrderNum + i, createdOrders.get(i).getOrderNumber(), 
+                    "Each order should get the next order number");
+        }
+        assertEquals(firstOrderNum + 3, service.getOrderNumber(), "The next order number should follow the batch");
+        try {
+            Order retrievedOrder = service.getOrder(orderDate, firstOrderNum + 2);
+            assertEquals("Ada Lovelace", retrievedOrder.getCustomerName(), "Should have the name Ada Lovelace");
+        } catch (NoSuchOrderFileException | NoSuchOrderException | OrderCancelledException ex) {
+            fail("Should be able to retrieve the newly added order.");
+        }
+    }
+    
     /**
      * Test ability to create a new order and ensure that there are differences 
      * in the order details
@@ -263,4 +324,74 @@ public class FlooringServiceLayerImplTest {
             fail("The file exists and shouldn't throw an error.");
         }
     }
+    
+    /**
+     * Test ability to find orders by the start of the customer name, ignoring
+     * case, as orders are created, edited and cancelled.
+     */
+    @Test
+    public void testSearchOrdersByCustomer() throws Exception {
+        //ARRANGE
+        LocalDate orderDate = LocalDate.parse("2020-11-04");
+        Order newOrder = service.calculateCosts(new Order(LocalDate.parse("2020-07-05"), orderDate, "Jane Austen",
+                service.getTaxList().get(1), service.getProductList().get(2), new BigDecimal(200)));
+        
+        //ACT
+        List<Order> startingWithJ = service.searchOrdersByCustomer("j");
+        List<Order> cancelledCustomer = service.searchOrdersByCustomer("Doctor");
+        service.createOrder(newOrder);
+        List<Order> afterCreate = service.searchOrdersByCustomer("JA");
+        Order editedOrder = service.getOrder(orderDate, 3);
+        editedOrder.setCustomerName("Beyonce Knowles");
+        service.editOrder(editedOrder);
+        List<Order> afterEdit = service.searchOrdersByCustomer("jo");
+        List<Order> editedName = service.searchOrdersByCustomer("beyonce k");
+        Order cancelledOrder = service.getOrder(orderDate, 1);
+        cancelledOrder.setActiveOrder(false);
+        service.editOrder(cancelledOrder);
+        
+        //ASSESS
+        assertEquals(2, startingWithJ.size(), "Jack Trowler and Josh Hosepipe start with j");
+        assertEquals("Jack Trowler", startingWithJ.get(0).getCustomerName(), "The names should be in order");
+        assertEquals("Josh Hosepipe", startingWithJ.get(1).getCustomerName(), "The names should be in order");
+        assertTrue(cancelledCustomer.isEmpty(), "A cancelled order shouldn't be found");
+        assertEquals(2, afterCreate.size(), "Jack Trowler and the new Jane Austen start with ja");
+        assertEquals("Jane Austen", afterCreate.get(1).getCustomerName(), "The new order should be found");
+        assertTrue(afterEdit.isEmpty(), "Josh Hosepipe has been renamed");
+        assertEquals(3, editedName.get(0).getOrderNumber(), "The renamed order should be found by its new name");
+        assertTrue(service.searchOrdersByCustomer("ada").isEmpty(), "The cancelled order should be taken out");
+        assertTrue(service.searchOrdersByCustomer(" ").isEmpty(), "A blank search shouldn't list every order");
+    }
+    
+    /**
+     * Testing that the revenue by state only counts the active orders in the
+     * range, and follows new and cancelled orders.
+     */
+    @Test
+    public void testGetRevenueByState() throws Exception {
+        //ARRANGE
+        LocalDate orderDate = LocalDate.parse("2020-11-04");
+        Order newOrder = service.calculateCosts(new Order(LocalDate.parse("2020-07-05"), orderDate, "Jane Austen",
+                service.getTaxList().get(1), service.getProductList().get(2), new BigDecimal(200)));
+        
+        //ACT
+        Map<String, RevenueTotals> november = service.getRevenueByState(orderDate, orderDate);
+        Map<String, RevenueTotals> allOrders = service.getRevenueByState(LocalDate.parse("2020-01-01"),
+                LocalDate.parse("2020-12-31"));
+        service.createOrder(newOrder);
+        Order cancelledOrder = service.getOrder(orderDate, 1);
+        cancelledOrder.setActiveOrder(false);
+        service.editOrder(cancelledOrder);
+        Map<String, RevenueTotals> afterChanges = service.getRevenueByState(orderDate, orderDate);
+        
+        //ASSESS
+        assertEquals(2, november.size(), "The cancelled WA order shouldn't be counted in November");
+        assertEquals(new BigDecimal("2381.06"), november.get("CA").getTotal());
+        assertEquals(new BigDecimal("3147.38"), allOrders.get("WA").getTotal(), "Orders 4 and 5 are in WA");
+        assertNull(afterChanges.get("CA"), "The cancelled order should be taken out");
+        String newState = newOrder.getTaxInfo().getState();
+        assertEquals(newOrder.getTotal(), afterChanges.get(newState).getTotal()
+                .subtract(november.containsKey(newState) ? november.get(newState).getTotal() : BigDecimal.ZERO),
+                "The new order should be added");
+    }
 }
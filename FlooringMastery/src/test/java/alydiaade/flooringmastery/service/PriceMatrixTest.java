@@ -0,0 +1,120 @@
+package alydiaade.flooringmastery.service;
+
+import alydiaade.flooringmastery.dao.FlooringOrderDaoStub;
+import alydiaade.flooringmastery.model.Order;
+import alydiaade.flooringmastery.model.Product;
+import alydiaade.flooringmastery.model.Quote;
+import alydiaade.flooringmastery.model.Taxes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the price matrix quotes the same costs as calculateCosts for
+ * every state and product in the catalog.
+ * @author lydiaadejumo
+ */
+public class PriceMatrixTest {
+
+    /**
+     * Testing quotes for random areas against priced orders, including an area
+     * too big for the long sums.
+     */
+    @Test
+    public void testQuoteMatchesCalculateCosts() {
+        //ARRANGE
+        FlooringOrderDaoStub testDao = new FlooringOrderDaoStub();
+        PriceMatrix testMatrix = new PriceMatrix(testDao);
+        Random random = new Random(20201104L);
+        List<BigDecimal> areas = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            areas.add(BigDecimal.valueOf(100 + random.nextInt(1_000_000), random.nextInt(5)));
+        }
+        areas.add(new BigDecimal("1000000000000.25"));
+
+        for (Taxes taxInfo : testDao.getTaxes()) {
+            for (Product product : testDao.getProducts()) {
+                for (BigDecimal area : areas) {
+                    //ACT
+                    Quote quote = testMatrix.quote(taxInfo.getState(), product.getProductType(), area);
+                    Order order = FixedPointPricing.calculateCostsExactly(
+                            new Order(LocalDate.now(), LocalDate.now(), "Customer", taxInfo, product, area));
+
+                    //ASSESS
+                    assertEquals(order.getMaterialCost(), quote.getMaterialCost());
+                    assertEquals(order.getLaborCost(), quote.getLaborCost());
+                    assertEquals(order.getTax(), quote.getTax());
+                    assertEquals(order.getTotal(), quote.getTotal(), area + " of " + product.getProductType()
+                            + " in " + taxInfo.getState());
+                }
+            }
+        }
+    }
+
+    /**
+     * Testing that a catalog with a cost too big for the long sums still
+     * builds, and that product is quoted the same as calculateCosts.
+     */
+    @Test
+    public void testUnpricedCells() {
+        //ARRANGE
+        List<Product> products = new ArrayList<>();
+        products.add(new Product("Tile", new BigDecimal("3.50"), new BigDecimal("4.15")));
+        products.add(new Product("Gold", new BigDecimal("3.50"), new BigDecimal("1000000000000000")));
+        FlooringOrderDaoStub testDao = new FlooringOrderDaoStub() {
+            @Override
+            public List<Product> getProducts() {
+                return new ArrayList<>(products);
+            }
+        };
+        PriceMatrix testMatrix = new PriceMatrix(testDao);
+        Taxes taxInfo = testDao.getTaxes().get(0);
+
+        for (Product product : products) {
+            //ACT
+            Quote quote = testMatrix.quote(taxInfo.getState(), product.getProductType(), new BigDecimal("2.49"));
+            Order order = FixedPointPricing.calculateCostsExactly(new Order(LocalDate.now(), LocalDate.now(),
+                    "Customer", taxInfo, product, new BigDecimal("2.49")));
+
+            //ASSESS
+            assertEquals(order.getTotal(), quote.getTotal(), product.getProductType() + " should be quoted exactly");
+        }
+    }
+
+    /**
+     * Testing that a rebuild picks up a changed catalog, and that a state or
+     * product missing from the catalog can't be quoted.
+     */
+    @Test
+    public void testRebuild() {
+        //ARRANGE
+        List<Product> products = new ArrayList<>();
+        products.add(new Product("Tile", new BigDecimal("3.50"), new BigDecimal("4.15")));
+        FlooringOrderDaoStub testDao = new FlooringOrderDaoStub() {
+            @Override
+            public List<Product> getProducts() {
+                return new ArrayList<>(products);
+            }
+        };
+        PriceMatrix testMatrix = new PriceMatrix(testDao);
+
+        //ACT
+        Quote before = testMatrix.quote("CA", "Tile", new BigDecimal("100"));
+        products.set(0, new Product("Tile", new BigDecimal("4.00"), new BigDecimal("4.15")));
+        Quote stale = testMatrix.quote("CA", "Tile", new BigDecimal("100"));
+        testMatrix.rebuild();
+        Quote after = testMatrix.quote("CA", "Tile", new BigDecimal("100"));
+
+        //ASSESS
+        assertEquals(new BigDecimal("956.25"), before.getTotal(), "765.00 of costs and 25% tax");
+        assertEquals(before.getTotalCents(), stale.getTotalCents(), "The old table is used until the rebuild");
+        assertEquals(new BigDecimal("1018.75"), after.getTotal(), "815.00 of costs and 25% tax");
+        assertThrows(IllegalArgumentException.class, () -> testMatrix.quote("CA", "Wood", BigDecimal.TEN),
+                "Wood isn't in the new catalog");
+        assertThrows(IllegalArgumentException.class, () -> testMatrix.quote("NY", "Tile", BigDecimal.TEN));
+    }
+}